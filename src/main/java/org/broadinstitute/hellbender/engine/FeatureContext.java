@@ -7,7 +7,9 @@ import org.broadinstitute.hellbender.utils.Utils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -47,6 +49,17 @@ public class FeatureContext {
      */
     private final SimpleInterval interval;
 
+    /**
+     * For a context created by {@link #snapshot}, the Features overlapping {@link #interval} from each of the
+     * FeatureInputs that were captured, in the order returned by the FeatureManager. Null otherwise.
+     */
+    private final Map<FeatureInput<? extends Feature>, List<? extends Feature>> snapshotFeatures;
+
+    /**
+     * For a context created by {@link #snapshot}, the headers of the captured FeatureInputs. Null otherwise.
+     */
+    private final Map<FeatureInput<? extends Feature>, Object> snapshotHeaders;
+
     /**
      * Creates an empty FeatureContext with no backing data source. All queries on this context will
      * return an empty List.
@@ -66,6 +79,46 @@ public class FeatureContext {
     public FeatureContext(final FeatureManager featureManager, final SimpleInterval interval) {
         this.featureManager = featureManager;
         this.interval = interval;
+        this.snapshotFeatures = null;
+        this.snapshotHeaders = null;
+    }
+
+    private FeatureContext(final SimpleInterval interval,
+                           final Map<FeatureInput<? extends Feature>, List<? extends Feature>> snapshotFeatures,
+                           final Map<FeatureInput<? extends Feature>, Object> snapshotHeaders) {
+        this.featureManager = null;
+        this.interval = interval;
+        this.snapshotFeatures = snapshotFeatures;
+        this.snapshotHeaders = snapshotHeaders;
+    }
+
+    /**
+     * Fetches now all the Features overlapping this FeatureContext's interval from the given FeatureInputs, and returns
+     * them in a new FeatureContext with the same interval that answers queries from memory rather than from the
+     * FeatureManager.
+     *
+     * FeatureManagers may only be queried from the thread driving the traversal, so this is how a tool hands the
+     * Features of the current interval to another thread. Queries on the snapshot must fall within its interval and
+     * name one of the captured FeatureInputs (or be null, which returns an empty List as usual).
+     *
+     * @param featureDescriptors FeatureInputs to capture; null elements are ignored
+     * @return a FeatureContext independent of the FeatureManager, with no backing data source if this context has
+     *         none or has no interval
+     */
+    public FeatureContext snapshot(final Collection<? extends FeatureInput<? extends Feature>> featureDescriptors) {
+        Utils.nonNull(featureDescriptors);
+        if (!hasBackingDataSource() || interval == null) {
+            return new FeatureContext(null, interval);
+        }
+        final Map<FeatureInput<? extends Feature>, List<? extends Feature>> features = new HashMap<>();
+        final Map<FeatureInput<? extends Feature>, Object> headers = new HashMap<>();
+        for (final FeatureInput<? extends Feature> featureDescriptor : featureDescriptors) {
+            if (featureDescriptor != null && !features.containsKey(featureDescriptor)) {
+                features.put(featureDescriptor, getValues(featureDescriptor));
+                headers.put(featureDescriptor, getHeader(featureDescriptor));
+            }
+        }
+        return new FeatureContext(interval, features, headers);
     }
 
     /**
@@ -75,7 +128,7 @@ public class FeatureContext {
      * @return true if this FeatureContext has a backing source of Features, otherwise false
      */
     public boolean hasBackingDataSource() {
-        return featureManager != null;
+        return featureManager != null || snapshotFeatures != null;
     }
 
     /**
@@ -96,6 +149,9 @@ public class FeatureContext {
      * @return header for the provided FeatureInput (null if we have no backing data sources)
      */
     public <T extends Feature> Object getHeader(final FeatureInput<T> featureDescriptor) {
+        if (snapshotHeaders != null) {
+            return snapshotHeaders.get(featureDescriptor);
+        }
         return featureManager != null ? featureManager.getHeader(featureDescriptor) : null;
     }
 
@@ -157,12 +213,26 @@ public class FeatureContext {
      *         Empty List if there is no backing data source and/or interval.
      */
     public <T extends Feature> List<T> getValues(final FeatureInput<T> featureDescriptor, final SimpleInterval queryInterval) {
-        if (featureManager == null || queryInterval == null || featureDescriptor == null) {
+        if (!hasBackingDataSource() || queryInterval == null || featureDescriptor == null) {
             return Collections.emptyList();
         }
+        if (snapshotFeatures != null) {
+            return getSnapshotValues(featureDescriptor, queryInterval);
+        }
         return featureManager.getFeatures(featureDescriptor, queryInterval);
     }
 
+    /**
+     * Answers a query on a context created by {@link #snapshot} from the captured Features.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Feature> List<T> getSnapshotValues(final FeatureInput<T> featureDescriptor, final SimpleInterval queryInterval) {
+        final List<T> features = (List<T>) snapshotFeatures.get(featureDescriptor);
+        Utils.validateArg(features != null, () -> "FeatureInput " + featureDescriptor.getName() + " was not captured by this FeatureContext");
+        Utils.validateArg(interval.contains(queryInterval), () -> "query interval " + queryInterval + " is outside of the captured interval " + interval);
+        return features.stream().filter(queryInterval::overlaps).collect(Collectors.toList());
+    }
+
     /**
      * Gets the query interval expanded by the specified number of leading/trailing bases, or null if this context has no interval.
      *
@@ -223,7 +293,7 @@ public class FeatureContext {
      *         Empty List if there is no backing data source and/or interval.
      */
     public <T extends Feature> List<T> getValues(final FeatureInput<T> featureDescriptor, final int featureStart) {
-        if (featureManager == null || interval == null) {
+        if (!hasBackingDataSource() || interval == null) {
             return Collections.emptyList();
         }
 
@@ -244,7 +314,7 @@ public class FeatureContext {
      *         this FeatureContext's query interval. Empty List if there is no backing data source and/or interval.
      */
     public <T extends Feature> List<T> getValues(final Collection<FeatureInput<T>> featureDescriptors) {
-        if (featureManager == null || interval == null || featureDescriptors.isEmpty()) {
+        if (!hasBackingDataSource() || interval == null || featureDescriptors.isEmpty()) {
             return Collections.emptyList();
         }
 
@@ -272,7 +342,7 @@ public class FeatureContext {
      *         Empty List if there is no backing data source and/or interval.
      */
     public <T extends Feature> List<T> getValues(final Collection<FeatureInput<T>> featureDescriptors, final int featureStart) {
-        if (featureManager == null || interval == null) {
+        if (!hasBackingDataSource() || interval == null) {
             return Collections.emptyList();
         }
 
@@ -12,6 +12,7 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.IndexFeatureFile;
 import org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBConstants;
+import org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBIntervalArraysReader;
 import org.broadinstitute.hellbender.utils.IndexUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
@@ -24,7 +25,9 @@ import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -341,11 +344,26 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
                     ") could not be read from GenomicsDB workspace " + workspace.getAbsolutePath(), e);
         }
 
+        // a workspace into which several intervals were imported has one array per interval
+        final List<String> intervalArrays = GenomicsDBIntervalArraysReader.getIntervalArrayNames(workspace);
+        if ( new File(workspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME).exists() || intervalArrays.isEmpty() ) {
+            return getGenomicsDBFeatureReader(workspace, callsetJson, vidmapJson, GenomicsDBConstants.DEFAULT_ARRAY_NAME, reference);
+        }
+        final Map<SimpleInterval, FeatureReader<VariantContext>> intervalToReader = new LinkedHashMap<>();
+        for ( final String arrayName : intervalArrays ) {
+            intervalToReader.put(GenomicsDBIntervalArraysReader.getIntervalFromArrayName(arrayName),
+                                 getGenomicsDBFeatureReader(workspace, callsetJson, vidmapJson, arrayName, reference));
+        }
+        return new GenomicsDBIntervalArraysReader(intervalToReader);
+    }
+
+    private static FeatureReader<VariantContext> getGenomicsDBFeatureReader(final File workspace, final File callsetJson, final File vidmapJson,
+                                                                            final String arrayName, final File reference) {
         try {
             return new GenomicsDBFeatureReader<>(vidmapJson.getAbsolutePath(),
                                                  callsetJson.getAbsolutePath(),
                                                  workspace.getAbsolutePath(),
-                                                 GenomicsDBConstants.DEFAULT_ARRAY_NAME,
+                                                 arrayName,
                                                  reference.getAbsolutePath(),
                                                  null,
                                                  new BCF2Codec());
@@ -15,8 +15,9 @@ import scala.Tuple2;
  *
  * The ReferenceDataflowSource is broadcast using Spark's Broadcast variable mechanism.  The reads are then mapped
  * over and a reference query is executed on each read.  This makes sense for ReferenceDataflowSource implementations
- * that contain the reference data in memory (e.g., ReferenceTwoBitSource), but will likely be much slower for
- * implementations that have to query other resources for the reference sequences.
+ * that can answer queries from local memory (e.g., ReferenceTwoBitSource, which memory-maps the reference once per
+ * executor, so only its path is broadcast), but will likely be much slower for implementations that have to query
+ * other resources for the reference sequences.
  */
 public class BroadcastJoinReadsWithRefBases {
 
@@ -89,6 +89,12 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
             shortName = "numReducers", fullName = "numReducers", optional = true)
     protected int numReducers = 0;
 
+    @Argument(doc = "If the reads input is a BAM without a splitting index (.splitting-bai), create one next to it in parallel " +
+            "before loading the reads, so that this and later runs can split the BAM exactly instead of guessing record boundaries. " +
+            "Requires write access to the directory of the BAM.",
+            fullName = "createSplittingIndex", optional = true)
+    protected boolean createSplittingIndex = false;
+
     private ReadsSparkSource readsSource;
     private SAMFileHeader readsHeader;
     private String readInput;
@@ -386,7 +392,7 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
         }
 
         readInput = readArguments.getReadFilesNames().get(0);
-        readsSource = new ReadsSparkSource(sparkContext, readArguments.getReadValidationStringency());
+        readsSource = new ReadsSparkSource(sparkContext, readArguments.getReadValidationStringency(), createSplittingIndex);
         readsHeader = readsSource.getHeader(
                 readInput,
                 hasReference() ?  referenceArguments.getReferenceFile().getAbsolutePath() : null);
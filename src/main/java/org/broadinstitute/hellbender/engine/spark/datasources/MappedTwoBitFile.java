@@ -0,0 +1,197 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A read-only, memory-mapped view of a .2bit reference file
+ * (see <a href="https://genome.ucsc.edu/FAQ/FAQformat.html#format7">the UCSC format description</a>).
+ *
+ * Only the sequence index is parsed onto the heap; bases are decoded on demand straight from the mapped buffer, so
+ * the pages of the file are shared by all tasks in a JVM (and, through the OS page cache, by all JVMs on a host).
+ * All reads from the buffer are absolute, so a single instance is safe to use from multiple threads.
+ *
+ * Instances should be obtained through {@link #get(String)}, which maps each file only once per JVM. Files on GCS or
+ * HDFS are first copied to a local temporary file, also once per JVM.
+ */
+public final class MappedTwoBitFile {
+    private static final Logger logger = LogManager.getLogger(MappedTwoBitFile.class);
+
+    private static final int MAGIC_NUMBER = 0x1A412743;
+    private static final int HEADER_SIZE = 16;
+    private static final int BASES_PER_BYTE = 4;
+    private static final byte[] BASES = {'T', 'C', 'A', 'G'};
+
+    private static final Map<String, MappedTwoBitFile> FILES_BY_URL = new HashMap<>();
+
+    private final ByteBuffer bytes;
+    private final Map<String, SequenceRecord> records;
+
+    /**
+     * Per-sequence metadata from the .2bit file: the sequence length, the N-blocks, and the offset of the packed bases.
+     * Soft-masking blocks are skipped, since queries always return upper-case bases.
+     */
+    private static final class SequenceRecord {
+        private final int dnaSize;
+        private final int[] nBlockStarts;
+        private final int[] nBlockEnds;
+        private final int dnaOffset;
+
+        private SequenceRecord(final ByteBuffer bytes, final int recordOffset) {
+            int offset = recordOffset;
+            dnaSize = bytes.getInt(offset);
+            offset += Integer.BYTES;
+            final int nBlockCount = bytes.getInt(offset);
+            offset += Integer.BYTES;
+            nBlockStarts = new int[nBlockCount];
+            nBlockEnds = new int[nBlockCount];
+            for (int i = 0; i < nBlockCount; i++) {
+                nBlockStarts[i] = bytes.getInt(offset + i * Integer.BYTES);
+                nBlockEnds[i] = nBlockStarts[i] + bytes.getInt(offset + (nBlockCount + i) * Integer.BYTES);
+            }
+            offset += 2 * nBlockCount * Integer.BYTES;
+            final int maskBlockCount = bytes.getInt(offset);
+            offset += Integer.BYTES + 2 * maskBlockCount * Integer.BYTES;
+            // skip the reserved word
+            dnaOffset = offset + Integer.BYTES;
+        }
+    }
+
+    /**
+     * Returns the memory-mapped .2bit file for the given path, mapping (and, for remote paths, localizing) it if this
+     * is the first request for the path in this JVM.
+     *
+     * @param referenceURL the path to the .2bit file: local, file:, gs:// or hdfs://
+     */
+    public static synchronized MappedTwoBitFile get(final String referenceURL) {
+        Utils.nonNull(referenceURL);
+        MappedTwoBitFile twoBitFile = FILES_BY_URL.get(referenceURL);
+        if (twoBitFile == null) {
+            twoBitFile = new MappedTwoBitFile(localize(referenceURL));
+            FILES_BY_URL.put(referenceURL, twoBitFile);
+        }
+        return twoBitFile;
+    }
+
+    private static Path localize(final String referenceURL) {
+        if (!BucketUtils.isRemoteStorageUrl(referenceURL)) {
+            return IOUtils.getPath(referenceURL);
+        }
+        final File localCopy = IOUtils.createTempFile("reference", ReferenceTwoBitSource.TWO_BIT_EXTENSION);
+        logger.info("Copying " + referenceURL + " to " + localCopy + " for memory-mapping");
+        try {
+            BucketUtils.copyFile(referenceURL, localCopy.getAbsolutePath());
+        } catch (IOException e) {
+            throw new UserException.CouldNotReadInputFile(referenceURL, "Could not copy .2bit file to " + localCopy + ": " + e.getMessage());
+        }
+        return localCopy.toPath();
+    }
+
+    private MappedTwoBitFile(final Path path) {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new UserException.CouldNotReadInputFile(path, ".2bit files larger than 2GB cannot be memory-mapped");
+            }
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UserException.CouldNotReadInputFile(path, "Could not memory-map .2bit file", e);
+        }
+        // the signature tells us the byte order the file was written in
+        if (bytes.order(ByteOrder.LITTLE_ENDIAN).getInt(0) != MAGIC_NUMBER && bytes.order(ByteOrder.BIG_ENDIAN).getInt(0) != MAGIC_NUMBER) {
+            throw new UserException.MalformedFile("Not a .2bit file (bad signature): " + path.toUri());
+        }
+        final int version = bytes.getInt(4);
+        if (version != 0) {
+            throw new UserException.MalformedFile("Unsupported .2bit version " + version + ": " + path.toUri());
+        }
+        final int sequenceCount = bytes.getInt(8);
+
+        // keep the sequences in file order, so the dictionary matches the order of the original fasta
+        records = new LinkedHashMap<>(sequenceCount * 2);
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < sequenceCount; i++) {
+            final int nameSize = Byte.toUnsignedInt(bytes.get(offset));
+            final byte[] name = new byte[nameSize];
+            for (int j = 0; j < nameSize; j++) {
+                name[j] = bytes.get(offset + 1 + j);
+            }
+            offset += 1 + nameSize;
+            final long recordOffset = Integer.toUnsignedLong(bytes.getInt(offset));
+            offset += Integer.BYTES;
+            records.put(new String(name, StandardCharsets.US_ASCII), new SequenceRecord(bytes, (int)recordOffset));
+        }
+    }
+
+    /**
+     * @return the length of the given contig
+     * @throws IllegalArgumentException if the contig is not in the file
+     */
+    public int getContigLength(final String contig) {
+        return getRecord(contig).dnaSize;
+    }
+
+    /**
+     * @return a sequence dictionary with the sequences in the order they appear in the file
+     */
+    public SAMSequenceDictionary getSequenceDictionary() {
+        final List<SAMSequenceRecord> sequences = new ArrayList<>(records.size());
+        records.forEach((name, record) -> sequences.add(new SAMSequenceRecord(name, record.dnaSize)));
+        return new SAMSequenceDictionary(sequences);
+    }
+
+    /**
+     * Decodes the upper-case bases spanning the given interval, with N for positions in N-blocks.
+     *
+     * @param interval the interval to decode, must lie within its contig
+     * @return a new array holding exactly the bases of the interval
+     */
+    public byte[] getBases(final SimpleInterval interval) {
+        final SequenceRecord record = getRecord(interval.getContig());
+        Utils.validateArg(interval.getEnd() <= record.dnaSize, () -> "Interval " + interval + " extends past the end of its contig");
+
+        // zero-based, half-open
+        final int start = interval.getStart() - 1;
+        final int end = interval.getEnd();
+        final byte[] result = new byte[end - start];
+        int packedIndex = record.dnaOffset + start / BASES_PER_BYTE;
+        int packed = bytes.get(packedIndex);
+        for (int pos = start; pos < end; pos++) {
+            final int posInByte = pos % BASES_PER_BYTE;
+            if (posInByte == 0 && pos != start) {
+                packed = bytes.get(++packedIndex);
+            }
+            result[pos - start] = BASES[(packed >> (6 - 2 * posInByte)) & 0x3];
+        }
+
+        // the N-blocks are sorted, so skip to the first one that ends after the start of the query
+        int block = Arrays.binarySearch(record.nBlockEnds, start + 1);
+        block = block < 0 ? -block - 1 : block;
+        for (; block < record.nBlockStarts.length && record.nBlockStarts[block] < end; block++) {
+            Arrays.fill(result, Math.max(start, record.nBlockStarts[block]) - start, Math.min(end, record.nBlockEnds[block]) - start, (byte)'N');
+        }
+        return result;
+    }
+
+    private SequenceRecord getRecord(final String contig) {
+        final SequenceRecord record = records.get(contig);
+        Utils.validateArg(record != null, () -> "Contig " + contig + " not found in reference dictionary");
+        return record;
+    }
+}
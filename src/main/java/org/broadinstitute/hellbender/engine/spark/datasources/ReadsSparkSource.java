@@ -35,6 +35,7 @@ import org.seqdoop.hadoop_bam.AnySAMInputFormat;
 import org.seqdoop.hadoop_bam.BAMInputFormat;
 import org.seqdoop.hadoop_bam.CRAMInputFormat;
 import org.seqdoop.hadoop_bam.SAMRecordWritable;
+import org.seqdoop.hadoop_bam.SplittingBAMIndexer;
 import org.seqdoop.hadoop_bam.util.SAMHeaderReader;
 
 import java.io.File;
@@ -53,6 +54,7 @@ public final class ReadsSparkSource implements Serializable {
 
     private transient final JavaSparkContext ctx;
     private ValidationStringency validationStringency = ReadConstants.DEFAULT_READ_VALIDATION_STRINGENCY;
+    private boolean createSplittingIndex = false;
 
     private static final Logger logger = LogManager.getLogger(ReadsSparkSource.class);
 
@@ -64,6 +66,17 @@ public final class ReadsSparkSource implements Serializable {
         this.validationStringency = validationStringency;
     }
 
+    /**
+     * @param createSplittingIndex if true, a splitting index is created (in parallel, see {@link SparkSplittingBAMIndexer})
+     *                             and stored next to any BAM input that does not already have one, so that Hadoop-BAM
+     *                             can compute exact split boundaries for this and all later reads of the file
+     */
+    public ReadsSparkSource(final JavaSparkContext ctx, final ValidationStringency validationStringency, final boolean createSplittingIndex)
+    {
+        this(ctx, validationStringency);
+        this.createSplittingIndex = createSplittingIndex;
+    }
+
 
     /**
      * Loads Reads using Hadoop-BAM. For local files, readFileName must have the fully-qualified path,
@@ -101,6 +114,10 @@ public final class ReadsSparkSource implements Serializable {
         setHadoopBAMConfigurationProperties(readFileName, referencePath);
 
         boolean isBam = IOUtils.isBamFileName(readFileName);
+        if (isBam && createSplittingIndex) {
+            // Hadoop-BAM uses the splitting index next to the BAM, if there is one, instead of guessing split boundaries
+            SparkSplittingBAMIndexer.createIndexIfMissing(ctx, readFileName, SplittingBAMIndexer.DEFAULT_GRANULARITY, SparkSplittingBAMIndexer.DEFAULT_RANGE_SIZE);
+        }
         if (isBam) {
             if (traversalParameters == null) {
                 BAMInputFormat.unsetTraversalParameters(conf);
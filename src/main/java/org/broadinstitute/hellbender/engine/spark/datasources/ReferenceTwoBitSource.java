@@ -1,30 +1,23 @@
 package org.broadinstitute.hellbender.engine.spark.datasources;
 
 import com.google.cloud.dataflow.sdk.options.PipelineOptions;
-import com.google.common.io.ByteStreams;
 import htsjdk.samtools.SAMSequenceDictionary;
-import htsjdk.samtools.SAMSequenceRecord;
-import org.bdgenomics.adam.models.ReferenceRegion;
-import org.bdgenomics.adam.util.TwoBitFile;
-import org.bdgenomics.adam.util.TwoBitRecord;
-import org.bdgenomics.utils.io.ByteAccess;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceSource;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
-import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
-import scala.collection.JavaConversions;
 
 import java.io.IOException;
 import java.io.Serializable;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
- * A ReferenceSource impl that is backed by a .2bit representation of a reference genome.  This loads an entire .2bit
- * file into a byte array that is encapsulated by this object.  This is particularly useful for fast reference queries
- * if the entire reference can fit into memory.
+ * A ReferenceSource impl that is backed by a .2bit representation of a reference genome. The .2bit file is
+ * memory-mapped once per JVM (see {@link MappedTwoBitFile}) and bases are decoded from the mapping on demand, so all
+ * tasks in an executor share a single copy of the reference.
+ *
+ * Only the path to the reference is serialized, so broadcasting this object (or a {@link org.broadinstitute.hellbender.engine.datasources.ReferenceMultiSource}
+ * wrapping it) is cheap; the reference must therefore be readable from every executor (e.g. on GCS, HDFS or a
+ * path that is present on every node).
  */
 public class ReferenceTwoBitSource implements ReferenceSource, Serializable {
     private static final long serialVersionUID = 1L;
@@ -32,16 +25,12 @@ public class ReferenceTwoBitSource implements ReferenceSource, Serializable {
     public static final String TWO_BIT_EXTENSION = ".2bit";
 
     private final String referenceURL;
-    private final TwoBitFile twoBitFile;
-    private final Map<String, TwoBitRecord> twoBitSeqEntries;
+    private transient MappedTwoBitFile twoBitFile;
 
     public ReferenceTwoBitSource(PipelineOptions popts, String referenceURL) throws IOException {
         this.referenceURL = referenceURL;
         Utils.validateArg(isTwoBit(this.referenceURL), "ReferenceTwoBitSource can only take .2bit files");
-        byte[] bytes = ByteStreams.toByteArray(BucketUtils.openFile(this.referenceURL));
-        ByteAccess byteAccess = new DirectFullByteArrayByteAccess(bytes);
-        this.twoBitFile = new TwoBitFile(byteAccess);
-        this.twoBitSeqEntries = JavaConversions.mapAsJavaMap(twoBitFile.seqRecords());
+        this.twoBitFile = MappedTwoBitFile.get(this.referenceURL);
     }
 
     /**
@@ -56,36 +45,34 @@ public class ReferenceTwoBitSource implements ReferenceSource, Serializable {
     @Override
     public ReferenceBases getReferenceBases(PipelineOptions pipelineOptions, SimpleInterval interval) throws IOException {
         final SimpleInterval queryInterval = cropIntervalAtContigEnd(interval);
-        final String bases = twoBitFile.extract(simpleIntervalToReferenceRegion(queryInterval));
-        return new ReferenceBases(bases.getBytes(), queryInterval);
+        return new ReferenceBases(getTwoBitFile().getBases(queryInterval), queryInterval);
     }
 
     @Override
     public SAMSequenceDictionary getReferenceSequenceDictionary(SAMSequenceDictionary optReadSequenceDictionaryToMatch) throws IOException {
-        List<SAMSequenceRecord> records = twoBitSeqEntries.entrySet().stream()
-                .map(pair -> new SAMSequenceRecord(pair.getKey(), pair.getValue().dnaSize()))
-                .collect(Collectors.toList());
-        return new SAMSequenceDictionary(records);
+        return getTwoBitFile().getSequenceDictionary();
     }
 
     public static boolean isTwoBit(String file) {
         return file.endsWith(TWO_BIT_EXTENSION);
     }
 
-    private static ReferenceRegion simpleIntervalToReferenceRegion(SimpleInterval interval) {
-        // ADAM and GA4GH both use zero-based half-open intervals for genome coordinates
-        String contig = interval.getContig();
-        long start = interval.getGA4GHStart();
-        long end = interval.getGA4GHEnd();
-        return new ReferenceRegion(contig, start, end, null);
+    /**
+     * The mapping is not serialized, so after deserialization (e.g. on an executor) the file is looked up again
+     * in this JVM's cache of mapped files.
+     */
+    private MappedTwoBitFile getTwoBitFile() {
+        if (twoBitFile == null) {
+            twoBitFile = MappedTwoBitFile.get(referenceURL);
+        }
+        return twoBitFile;
     }
 
     private SimpleInterval cropIntervalAtContigEnd( final SimpleInterval interval ) {
         // The 2bit query API does not support queries beyond the ends of contigs, so we need
         // to truncate our interval at the contig end if necessary.
-        final TwoBitRecord contigRecord = twoBitSeqEntries.get(interval.getContig());
-        Utils.nonNull(contigRecord, () -> "Contig " + interval.getContig() + " not found in reference dictionary");
-        return new SimpleInterval(interval.getContig(), interval.getStart(), Math.min(interval.getEnd(), contigRecord.dnaSize()));
+        final int contigLength = getTwoBitFile().getContigLength(interval.getContig());
+        return new SimpleInterval(interval.getContig(), interval.getStart(), Math.min(interval.getEnd(), contigLength));
     }
 
 }
@@ -0,0 +1,221 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import htsjdk.samtools.seekablestream.SeekableStream;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.spark.SerializableWritable;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.seqdoop.hadoop_bam.BAMSplitGuesser;
+import org.seqdoop.hadoop_bam.SplittingBAMIndexer;
+import org.seqdoop.hadoop_bam.util.WrapSeekable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Builds a Hadoop-BAM splitting index (.splitting-bai) for a BAM file in parallel, and stores it next to the BAM, where
+ * {@link org.seqdoop.hadoop_bam.BAMInputFormat} picks it up to compute exact split boundaries instead of guessing them.
+ *
+ * The BAM is divided into byte ranges that are scanned by separate Spark tasks. Each task locates the first record
+ * that starts in a BGZF block at or after the start of its range (the first range starts right after the header), then
+ * walks the records using only their length prefixes (no record decoding) until it reaches a record in a block past
+ * the end of its range. As with {@link SplittingBAMIndexer}, the first record of the file and every {@code granularity}-th
+ * record after it (counted within each range) are written to the index, so with a granularity of 1 the index is
+ * byte-for-byte identical to the one {@link SplittingBAMIndexer} creates serially.
+ */
+public final class SparkSplittingBAMIndexer {
+    private static final Logger logger = LogManager.getLogger(SparkSplittingBAMIndexer.class);
+
+    /**
+     * The default number of bytes of the BAM scanned by each task.
+     */
+    public static final long DEFAULT_RANGE_SIZE = 256L * 1024 * 1024;
+
+    private static final byte[] BAM_MAGIC = {'B', 'A', 'M', 1};
+
+    private SparkSplittingBAMIndexer() {}
+
+    /**
+     * Creates a splitting index next to the given BAM, unless one is already present. Failure to create the index
+     * (e.g. because the directory is not writable) is logged and is not an error, since Hadoop-BAM can still compute
+     * splits without it.
+     *
+     * @param ctx the Spark context
+     * @param bam the BAM file, as a path or URI that can be opened by Hadoop
+     * @param granularity an index entry is created every this many reads
+     * @param rangeSize the number of bytes of the BAM scanned by each task
+     * @return true if the BAM has a splitting index when this method returns
+     */
+    public static boolean createIndexIfMissing(final JavaSparkContext ctx, final String bam, final int granularity, final long rangeSize) {
+        final Path bamPath = new Path(bam);
+        final Path indexPath = bamPath.suffix(SplittingBAMIndexer.OUTPUT_FILE_EXTENSION);
+        try {
+            final FileSystem fs = bamPath.getFileSystem(ctx.hadoopConfiguration());
+            if (fs.exists(indexPath)) {
+                return true;
+            }
+            if (fs.isDirectory(bamPath)) {
+                // a directory of BAM parts (e.g. sharded output) has no single file to index
+                return false;
+            }
+            final long bamLength = fs.getFileStatus(bamPath).getLen();
+            logger.info("Creating splitting index " + indexPath);
+            final List<Long> virtualOffsets = computeVirtualOffsets(ctx, bam, bamLength, granularity, rangeSize);
+
+            // write to a temporary file and rename it, so concurrent readers never see a partial index
+            final Path tempIndexPath = indexPath.suffix("." + UUID.randomUUID() + ".tmp");
+            try (final OutputStream out = fs.create(tempIndexPath, false)) {
+                writeIndex(out, virtualOffsets, bamLength);
+            }
+            if (!fs.rename(tempIndexPath, indexPath)) {
+                // another job may have created the index first
+                fs.delete(tempIndexPath, false);
+            }
+            return fs.exists(indexPath);
+        } catch (final IOException e) {
+            logger.warn("Could not create splitting index " + indexPath + ", split boundaries will be guessed instead: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Computes the virtual file offsets of the records that make up a splitting index, in parallel.
+     *
+     * @param ctx the Spark context
+     * @param bam the BAM file, as a path or URI that can be opened by Hadoop
+     * @param bamLength the length of the BAM file in bytes
+     * @param granularity an index entry is created every this many reads (within each range)
+     * @param rangeSize the number of bytes of the BAM scanned by each task
+     * @return the sorted virtual offsets of the indexed records
+     */
+    public static List<Long> computeVirtualOffsets(final JavaSparkContext ctx, final String bam, final long bamLength, final int granularity, final long rangeSize) {
+        Utils.validateArg(granularity > 0, "granularity must be > 0");
+        Utils.validateArg(rangeSize > 0, "rangeSize must be > 0");
+        final List<Long> rangeStarts = LongStream.iterate(0, start -> start + rangeSize)
+                .limit((bamLength + rangeSize - 1) / rangeSize)
+                .boxed()
+                .collect(Collectors.toList());
+        if (rangeStarts.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // the tasks open the BAM with the job's Hadoop configuration (e.g. for HDFS or GCS connector settings)
+        final Broadcast<SerializableWritable<Configuration>> confBroadcast = ctx.broadcast(new SerializableWritable<>(ctx.hadoopConfiguration()));
+        final List<Long> virtualOffsets = ctx.parallelize(rangeStarts, rangeStarts.size())
+                .flatMap(rangeStart -> scanRange(confBroadcast.getValue().value(), bam, bamLength, rangeStart, Math.min(rangeStart + rangeSize, bamLength), granularity).iterator())
+                .collect();
+        confBroadcast.destroy();
+        final List<Long> sorted = new ArrayList<>(virtualOffsets);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Writes the index in the format read by {@link org.seqdoop.hadoop_bam.SplittingBAMIndex}.
+     */
+    public static void writeIndex(final OutputStream out, final List<Long> virtualOffsets, final long bamLength) throws IOException {
+        final SplittingBAMIndexer indexer = new SplittingBAMIndexer(out);
+        for (final long virtualOffset : virtualOffsets) {
+            indexer.writeVirtualOffset(virtualOffset);
+        }
+        indexer.finish(bamLength); // also closes the stream
+    }
+
+    private static List<Long> scanRange(final Configuration conf, final String bam, final long bamLength, final long rangeStart, final long rangeEnd, final int granularity) throws IOException {
+        final Path bamPath = new Path(bam);
+        final List<Long> virtualOffsets = new ArrayList<>();
+        try (final SeekableStream in = WrapSeekable.openPath(conf, bamPath);
+             final BlockCompressedInputStream bgzf = new BlockCompressedInputStream(in)) {
+            if (rangeStart == 0) {
+                skipHeader(bgzf, bam);
+                virtualOffsets.add(bgzf.getFilePointer()); // the start of the first record is always indexed
+            } else {
+                // let the guesser search past the end of the range, since it can't find a record in a range that is
+                // smaller than a BGZF block; it returns the (unshifted) end offset if there is no record to find
+                final long firstRecord;
+                try (final SeekableStream guesserIn = WrapSeekable.openPath(conf, bamPath)) {
+                    firstRecord = new BAMSplitGuesser(guesserIn, conf).guessNextBAMRecordStart(rangeStart, bamLength);
+                }
+                final long firstRecordBlock = firstRecord >>> 16;
+                if (firstRecordBlock < rangeStart || firstRecordBlock >= rangeEnd) {
+                    return virtualOffsets;
+                }
+                bgzf.seek(firstRecord);
+            }
+
+            final byte[] lengthBytes = new byte[Integer.BYTES];
+            for (long recordCount = 0; ; recordCount++) {
+                final long virtualOffset = bgzf.getFilePointer();
+                if ((virtualOffset >>> 16) >= rangeEnd || !readFully(bgzf, lengthBytes)) {
+                    break;
+                }
+                if ((recordCount + 1) % granularity == 0) {
+                    virtualOffsets.add(virtualOffset);
+                }
+                skipFully(bgzf, ByteBuffer.wrap(lengthBytes).order(ByteOrder.LITTLE_ENDIAN).getInt(), bam);
+            }
+        }
+        return virtualOffsets;
+    }
+
+    private static void skipHeader(final BlockCompressedInputStream bgzf, final String bam) throws IOException {
+        final byte[] magic = new byte[BAM_MAGIC.length];
+        if (!readFully(bgzf, magic) || !Arrays.equals(magic, BAM_MAGIC)) {
+            throw new UserException.MalformedFile("Not a BAM file: " + bam);
+        }
+        final byte[] intBytes = new byte[Integer.BYTES];
+        skipFully(bgzf, readInt(bgzf, intBytes, bam), bam); // header text
+        final int referenceCount = readInt(bgzf, intBytes, bam);
+        for (int i = 0; i < referenceCount; i++) {
+            skipFully(bgzf, readInt(bgzf, intBytes, bam) + Integer.BYTES, bam); // name and length
+        }
+    }
+
+    private static int readInt(final InputStream in, final byte[] intBytes, final String bam) throws IOException {
+        if (!readFully(in, intBytes)) {
+            throw new UserException.MalformedFile("Unexpected end of file in the header of " + bam);
+        }
+        return ByteBuffer.wrap(intBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+
+    /**
+     * @return false if the stream was already at its end, true if the buffer was filled
+     */
+    private static boolean readFully(final InputStream in, final byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            final int n = in.read(buffer, read, buffer.length - read);
+            if (n < 0) {
+                if (read == 0) {
+                    return false;
+                }
+                throw new UserException.MalformedFile("Unexpected end of file while reading a record length");
+            }
+            read += n;
+        }
+        return true;
+    }
+
+    private static void skipFully(final InputStream in, final long length, final String bam) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            final long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                throw new UserException.MalformedFile("Unexpected end of file in " + bam);
+            }
+            remaining -= skipped;
+        }
+    }
+}
@@ -43,13 +43,22 @@ import java.util.function.Function;
 
 /**
  * This tool imports GVCFs to GenomicsDB. To run this tool,
- * 1. A single interval must be provided
+ * 1. One or more disjoint intervals must be provided
  * 2. The tool accepts multiple GVCFs each of which must contain data
  *    for one sample
  * 3. The path to the GenomicsDB workspace must be specified
  * 4. User may optionally specify paths to which to write JSON files
  *
- * To read data from GenomicsDB, use the query interface GenomicsDBFeatureReader
+ * If a single interval is provided, it is imported into the array {@link GenomicsDBConstants#DEFAULT_ARRAY_NAME}.
+ * Otherwise each interval is imported into its own array of the workspace, named by
+ * {@link GenomicsDBIntervalArraysReader#getArrayName}, and up to --maxNumIntervalsToImportInParallel intervals are
+ * imported at the same time.
+ *
+ * Within each interval, samples are imported in batches of --batchSize. With --prefetchNextBatch, the readers of the
+ * next batch are opened and their queries started while the current batch is being written, so that with
+ * --readerThreads > 1 the import is limited by how fast GenomicsDB writes rather than by how fast inputs are opened.
+ *
+ * To read data from GenomicsDB, use a gendb:// path as a variant input, or the query interface GenomicsDBFeatureReader
  */
 @CommandLineProgramProperties(
     summary = "Import VCFs to GenomicsDB",
@@ -73,6 +82,8 @@ public final class GenomicsDBImport extends GATKTool {
     public static final String SAMPLE_NAME_MAP_LONG_NAME = "sampleNameMap";
     public static final String VALIDATE_SAMPLE_MAP_LONG_NAME = "validateSampleNameMap";
     public static final String VCF_INITIALIZER_THREADS_LONG_NAME = "readerThreads";
+    public static final String PREFETCH_NEXT_BATCH_LONG_NAME = "prefetchNextBatch";
+    public static final String MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL = "maxNumIntervalsToImportInParallel";
 
     @Argument(fullName = WORKSPACE_ARG_NAME,
               shortName = WORKSPACE_ARG_NAME,
@@ -166,9 +177,30 @@ public final class GenomicsDBImport extends GATKTool {
             minValue = 1)
     private int vcfInitializerThreads = 1;
 
+    @Advanced
+    @Argument(fullName = PREFETCH_NEXT_BATCH_LONG_NAME,
+            shortName = PREFETCH_NEXT_BATCH_LONG_NAME,
+            doc = "Boolean flag to open the readers of the next batch, and start reading their inputs, while the current " +
+                    "batch is imported. This hides the latency of opening inputs at the cost of keeping up to two batches " +
+                    "of readers open at once. Defaults to false",
+            optional = true)
+    private boolean prefetchNextBatch = false;
+
+    @Advanced
+    @Argument(fullName = MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL,
+            shortName = MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL,
+            doc = "Max number of intervals to import in parallel, each into its own array; higher values may improve " +
+                    "performance, but require more memory and a higher number of file descriptors open at the same time",
+            optional = true,
+            minValue = 1)
+    private int maxNumIntervalsToImportInParallel = 1;
+
     //executor service used when vcfInitializerThreads > 1
     private ExecutorService inputPreloadExecutorService;
 
+    //executor service used to import intervals in parallel and to prefetch batches
+    private ExecutorService importExecutorService;
+
     @Override
     public boolean requiresIntervals() { return true; }
 
@@ -193,7 +225,7 @@ public final class GenomicsDBImport extends GATKTool {
     @Override
     public String getProgressMeterRecordLabel() { return "batches"; }
 
-    // Intervals from command line (singleton for now)
+    // Intervals from command line, in sequence dictionary order
     private List<ChromosomeInterval> intervals;
 
     // Sorted mapping between sample names and corresponding GVCF file name
@@ -389,6 +421,7 @@ public final class GenomicsDBImport extends GATKTool {
         //Pass in true here to use the given ordering, since sampleNameToVcfPath is already sorted
         callsetMappingPB = GenomicsDBImporter.generateSortedCallSetMap(new ArrayList<>(sampleNameToVcfPath.keySet()), true);
         initializeInputPreloadExecutorService();
+        initializeImportExecutorService();
     }
 
     private void initializeInputPreloadExecutorService() {
@@ -403,6 +436,20 @@ public final class GenomicsDBImport extends GATKTool {
         }
     }
 
+    private void initializeImportExecutorService() {
+        if (maxNumIntervalsToImportInParallel > 1 || prefetchNextBatch) {
+            final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                    .setNameFormat("genomicsDBImport-thread-%d")
+                    .setDaemon(true)
+                    .build();
+            // interval imports and batch prefetches never wait for each other, so an unbounded pool can't deadlock;
+            // the number of threads is bounded by the number of intervals imported at once (and their prefetches)
+            importExecutorService = Executors.newCachedThreadPool(threadFactory);
+        } else {
+            importExecutorService = null;
+        }
+    }
+
     /**
      * A complete traversal from start to finish. This method will import all samples
      * specified in the input GVCF files.
@@ -412,41 +459,129 @@ public final class GenomicsDBImport extends GATKTool {
         // Force the progress meter to update after every batch
         progressMeter.setRecordsBetweenTimeChecks(1L);
 
+        if (intervals.size() == 1) {
+            importInterval(intervals.get(0), GenomicsDBConstants.DEFAULT_ARRAY_NAME);
+            return;
+        }
+
+        // import each interval into its own array, at most maxNumIntervalsToImportInParallel at a time
+        final Deque<Future<?>> futures = new ArrayDeque<>();
+        try {
+            for (final ChromosomeInterval interval : intervals) {
+                if (futures.size() == maxNumIntervalsToImportInParallel) {
+                    waitForIntervalImport(futures.removeFirst());
+                }
+                final Runnable intervalImport = () -> importInterval(interval, getArrayName(interval));
+                if (importExecutorService == null) {
+                    intervalImport.run();
+                } else {
+                    futures.addLast(importExecutorService.submit(intervalImport));
+                }
+            }
+            while (!futures.isEmpty()) {
+                waitForIntervalImport(futures.removeFirst());
+            }
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private static void waitForIntervalImport(final Future<?> future) {
+        try {
+            future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while importing intervals", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Interval import failed", e.getCause());
+        }
+    }
+
+    private static String getArrayName(final ChromosomeInterval interval) {
+        return GenomicsDBIntervalArraysReader.getArrayName(new SimpleInterval(interval));
+    }
+
+    /**
+     * Imports all samples in batches for one interval into the given array. If {@link #prefetchNextBatch} is set, the
+     * readers of the next batch are opened in the background while each batch is imported.
+     */
+    private void importInterval(final ChromosomeInterval interval, final String arrayName) {
         final int sampleCount = sampleNameToVcfPath.size();
         final int updatedBatchSize = (batchSize == DEFAULT_ZERO_BATCH_SIZE) ? sampleCount : batchSize;
         final int totalBatchCount = (sampleCount/updatedBatchSize) + (sampleCount%updatedBatchSize==0 ? 0 : 1);
+        final String intervalDescription = intervals.size() == 1 ? "" : " of interval " + new SimpleInterval(interval);
 
-        GenomicsDBImporter importer;
+        Future<SortedMap<String, FeatureReader<VariantContext>>> nextBatch = null;
+        try {
+            for (int i = 0, batchCount = 1; i < sampleCount; i += updatedBatchSize, ++batchCount) {
+
+                final Future<SortedMap<String, FeatureReader<VariantContext>>> prefetchedBatch = nextBatch;
+                nextBatch = null;
+                final SortedMap<String, FeatureReader<VariantContext>> sampleToReaderMap =
+                        prefetchedBatch != null ? getPrefetchedBatch(prefetchedBatch) : getFeatureReaders(interval, updatedBatchSize, i);
+                if (prefetchNextBatch && i + updatedBatchSize < sampleCount) {
+                    final int nextLowerSampleIndex = i + updatedBatchSize;
+                    nextBatch = importExecutorService.submit(() -> getFeatureReaders(interval, updatedBatchSize, nextLowerSampleIndex));
+                }
 
-        for (int i = 0, batchCount = 1; i < sampleCount; i += updatedBatchSize, ++batchCount) {
+                logger.info("Importing batch " + batchCount + intervalDescription + " with " + sampleToReaderMap.size() + " samples");
+                final long variantContextBufferSize = vcfBufferSizePerSample * sampleToReaderMap.size();
+                final GenomicsDBImportConfiguration.ImportConfiguration importConfiguration =
+                        createImportConfiguration(workspace, arrayName,
+                                variantContextBufferSize, segmentSize,
+                                i, (i+updatedBatchSize-1));
 
-            final SortedMap<String, FeatureReader<VariantContext>> sampleToReaderMap =
-                    inputPreloadExecutorService != null
-                            ? getFeatureReadersInParallel(sampleNameToVcfPath, updatedBatchSize, i)
-                            : getFeatureReadersSerially(sampleNameToVcfPath, updatedBatchSize, i);
+                final GenomicsDBImporter importer;
+                try {
+                    importer = new GenomicsDBImporter(sampleToReaderMap, mergedHeaderLines, interval, validateSampleToReaderMap, importConfiguration);
+                } catch (final IOException e) {
+                    throw new UserException("Error initializing GenomicsDBImporter in batch " + batchCount + intervalDescription, e);
+                } catch (final IllegalArgumentException iae) {
+                    throw new GATKException("Null feature reader found in sampleNameMap file: " + sampleNameMapFile, iae);
+                }
+                try {
+                    importer.importBatch();
+                } catch (final IOException e) {
+                    throw new UserException("GenomicsDB import failed in batch " + batchCount + intervalDescription, e);
+                }
+                closeReaders(sampleToReaderMap);
+                synchronized (progressMeter) {
+                    progressMeter.update(interval);
+                }
+                logger.info("Done importing batch " + batchCount + "/" + totalBatchCount + intervalDescription);
+            }
+        } finally {
+            if (nextBatch != null) {
+                // the import failed while the next batch was being opened
+                nextBatch.cancel(true);
+                if (nextBatch.isDone() && !nextBatch.isCancelled()) {
+                    closeReaders(getPrefetchedBatch(nextBatch));
+                }
+            }
+        }
+    }
 
-            logger.info("Importing batch " + batchCount + " with " + sampleToReaderMap.size() + " samples");
-            final long variantContextBufferSize = vcfBufferSizePerSample * sampleToReaderMap.size();
-            final GenomicsDBImportConfiguration.ImportConfiguration importConfiguration =
-                    createImportConfiguration(workspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME,
-                            variantContextBufferSize, segmentSize,
-                            i, (i+updatedBatchSize-1));
+    private SortedMap<String, FeatureReader<VariantContext>> getFeatureReaders(final ChromosomeInterval interval, final int batchSize,
+                                                                               final int lowerSampleIndex) {
+        return inputPreloadExecutorService != null
+                ? getFeatureReadersInParallel(sampleNameToVcfPath, batchSize, lowerSampleIndex, interval)
+                : getFeatureReadersSerially(sampleNameToVcfPath, batchSize, lowerSampleIndex, interval);
+    }
 
-            try {
-                importer = new GenomicsDBImporter(sampleToReaderMap, mergedHeaderLines, intervals.get(0), validateSampleToReaderMap, importConfiguration);
-            } catch (final IOException e) {
-                throw new UserException("Error initializing GenomicsDBImporter in batch " + batchCount, e);
-            } catch (final IllegalArgumentException iae) {
-                throw new GATKException("Null feature reader found in sampleNameMap file: " + sampleNameMapFile, iae);
-            }
-            try {
-                importer.importBatch();
-            } catch (final IOException e) {
-                throw new UserException("GenomicsDB import failed in batch " + batchCount, e);
+    private static SortedMap<String, FeatureReader<VariantContext>> getPrefetchedBatch(final Future<SortedMap<String, FeatureReader<VariantContext>>> batch) {
+        try {
+            return batch.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for the next batch to be opened", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
-            closeReaders(sampleToReaderMap);
-            progressMeter.update(intervals.get(0));
-            logger.info("Done importing batch " + batchCount + "/" + totalBatchCount);
+            throw new UserException.CouldNotReadInputFile("Failure while opening the readers of the next batch", e);
         }
     }
 
@@ -472,7 +607,11 @@ public final class GenomicsDBImport extends GATKTool {
 
         if (doConsolidation) {
             logger.info("GenomicsDB consolidation started");
-            GenomicsDBImporter.consolidateTileDBArray(workspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME);
+            if (intervals.size() == 1) {
+                GenomicsDBImporter.consolidateTileDBArray(workspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME);
+            } else {
+                intervals.forEach(interval -> GenomicsDBImporter.consolidateTileDBArray(workspace, getArrayName(interval)));
+            }
             logger.info("GenomicsDB consolidation completed");
         }
 
@@ -486,10 +625,12 @@ public final class GenomicsDBImport extends GATKTool {
      * @param sampleNametoPath  Sample name to file name mapping
      * @param batchSize  Current batch size
      * @param lowerSampleIndex  0-based Lower bound of sample index -- inclusive
+     * @param interval  The interval that will be imported
      * @return  Feature readers to be imported in the current batch, sorted by sample name
      */
     private SortedMap<String, FeatureReader<VariantContext>> getFeatureReadersInParallel(final SortedMap<String, Path> sampleNametoPath,
-                                                                                   final int batchSize, final int lowerSampleIndex) {
+                                                                                   final int batchSize, final int lowerSampleIndex,
+                                                                                   final ChromosomeInterval interval) {
         final SortedMap<String, FeatureReader<VariantContext>> sampleToReaderMap = new TreeMap<>();
         logger.info("Starting batch input file preload");
         final List<Future<FeatureReader<VariantContext>>> futures = new ArrayList<>();
@@ -499,7 +640,7 @@ public final class GenomicsDBImport extends GATKTool {
             futures.add(inputPreloadExecutorService.submit(() -> {
                 final Path variantPath = sampleNametoPath.get(sampleName);
                 try {
-                    return new InitializedQueryWrapper(getReaderFromPath(variantPath), intervals.get(0));
+                    return new InitializedQueryWrapper(getReaderFromPath(variantPath), interval);
                 } catch (final IOException e) {
                     throw new UserException.CouldNotReadInputFile("Couldn't read file: " + variantPath.toUri(), e);
                 }
@@ -524,14 +665,25 @@ public final class GenomicsDBImport extends GATKTool {
     }
 
     private SortedMap<String, FeatureReader<VariantContext>> getFeatureReadersSerially(final Map<String, Path> sampleNameToPath,
-                                                                                 final int batchSize, final int lowerSampleIndex){
+                                                                                 final int batchSize, final int lowerSampleIndex,
+                                                                                 final ChromosomeInterval interval){
         final SortedMap<String, FeatureReader<VariantContext>> sampleToReaderMap = new TreeMap<>();
         final List<String> sampleNames = new ArrayList<>(sampleNameToPath.keySet());
         for(int i = lowerSampleIndex; i < sampleNameToPath.size() && i < lowerSampleIndex+batchSize; ++i) {
             final String sampleName = sampleNames.get(i);
-            final AbstractFeatureReader<VariantContext, LineIterator> reader = getReaderFromPath(sampleNameToPath.get(sampleName));
+            final Path variantPath = sampleNameToPath.get(sampleName);
+            final AbstractFeatureReader<VariantContext, LineIterator> reader = getReaderFromPath(variantPath);
             assert sampleName.equals(((VCFHeader) reader.getHeader()).getGenotypeSamples().get(0));
-            sampleToReaderMap.put(sampleName, reader);
+            if (prefetchNextBatch) {
+                // start the query now, so that a prefetched batch has also read its indexes and first records
+                try {
+                    sampleToReaderMap.put(sampleName, new InitializedQueryWrapper(reader, interval));
+                } catch (final IOException e) {
+                    throw new UserException.CouldNotReadInputFile("Couldn't read file: " + variantPath.toUri(), e);
+                }
+            } else {
+                sampleToReaderMap.put(sampleName, reader);
+            }
         }
         return sampleToReaderMap;
     }
@@ -669,13 +821,10 @@ public final class GenomicsDBImport extends GATKTool {
 
             intervals = new ArrayList<>();
 
+            // the intervals are merged, so they are disjoint and each can be imported into its own array
             final List<SimpleInterval> simpleIntervalList =
                 intervalArgumentCollection.getIntervals(intervalDictionary);
 
-            if (simpleIntervalList.size() > 1) {
-                throw new UserException("More than one interval specified. The tool takes only one");
-            }
-
             for (final SimpleInterval simpleInterval : simpleIntervalList) {
                 intervals.add(new ChromosomeInterval(simpleInterval.getContig(),
                   simpleInterval.getStart(), simpleInterval.getEnd()));
@@ -690,6 +839,9 @@ public final class GenomicsDBImport extends GATKTool {
         if( inputPreloadExecutorService != null) {
             inputPreloadExecutorService.shutdownNow();
         }
+        if( importExecutorService != null) {
+            importExecutorService.shutdownNow();
+        }
     }
 
     /**
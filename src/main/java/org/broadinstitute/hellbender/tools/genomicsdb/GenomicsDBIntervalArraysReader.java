@@ -0,0 +1,178 @@
+package org.broadinstitute.hellbender.tools.genomicsdb;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.Locatable;
+import htsjdk.tribble.CloseableTribbleIterator;
+import htsjdk.tribble.FeatureReader;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a GenomicsDB workspace into which {@link GenomicsDBImport} imported several intervals, each into its own
+ * array named by {@link #getArrayName}, as if it were a single source of variants.
+ *
+ * Queries are answered by the arrays whose interval overlaps the queried interval, and full iteration visits all the
+ * arrays, in the order of their intervals in the sequence dictionary of the header. Since the imported intervals are
+ * disjoint, records from different arrays don't overlap, except for reference blocks that extend past the end of
+ * one imported interval into another.
+ */
+public final class GenomicsDBIntervalArraysReader implements FeatureReader<VariantContext> {
+
+    private static final char ARRAY_NAME_SEPARATOR = '$';
+
+    private final List<SimpleInterval> intervals;
+    private final List<FeatureReader<VariantContext>> readers;
+
+    /**
+     * @param intervalToReader the reader of each imported interval's array; all readers must have the same header
+     */
+    public GenomicsDBIntervalArraysReader(final Map<SimpleInterval, FeatureReader<VariantContext>> intervalToReader) {
+        Utils.nonEmpty(Utils.nonNull(intervalToReader).keySet(), "at least one array is required");
+        final FeatureReader<VariantContext> firstReader = intervalToReader.values().iterator().next();
+        final SAMSequenceDictionary dictionary = ((VCFHeader) firstReader.getHeader()).getSequenceDictionary();
+        Utils.nonNull(dictionary, "the GenomicsDB header has no sequence dictionary");
+        intervals = intervalToReader.keySet().stream()
+                .sorted((a, b) -> IntervalUtils.compareLocatables(a, b, dictionary))
+                .collect(Collectors.toList());
+        readers = intervals.stream().map(intervalToReader::get).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the name of the array into which {@link GenomicsDBImport} imports the given interval when it imports
+     *         more than one interval
+     */
+    public static String getArrayName(final Locatable interval) {
+        return interval.getContig() + ARRAY_NAME_SEPARATOR + interval.getStart() + ARRAY_NAME_SEPARATOR + interval.getEnd();
+    }
+
+    /**
+     * @return the interval of an array named by {@link #getArrayName}, or null if the name was not created by it
+     */
+    public static SimpleInterval getIntervalFromArrayName(final String arrayName) {
+        final int endSeparator = arrayName.lastIndexOf(ARRAY_NAME_SEPARATOR);
+        final int startSeparator = endSeparator > 0 ? arrayName.lastIndexOf(ARRAY_NAME_SEPARATOR, endSeparator - 1) : -1;
+        if (startSeparator <= 0) {
+            return null;
+        }
+        try {
+            final int start = Integer.parseInt(arrayName.substring(startSeparator + 1, endSeparator));
+            final int end = Integer.parseInt(arrayName.substring(endSeparator + 1));
+            return SimpleInterval.isValid(arrayName.substring(0, startSeparator), start, end)
+                    ? new SimpleInterval(arrayName.substring(0, startSeparator), start, end) : null;
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the names of the per-interval arrays in the given workspace, empty if there are none
+     */
+    public static List<String> getIntervalArrayNames(final File workspace) {
+        final File[] arrays = workspace.listFiles(f -> f.isDirectory() && getIntervalFromArrayName(f.getName()) != null);
+        return arrays == null ? Collections.emptyList() : Arrays.stream(arrays).map(File::getName).sorted().collect(Collectors.toList());
+    }
+
+    @Override
+    public CloseableTribbleIterator<VariantContext> query(final String chr, final int start, final int end) throws IOException {
+        final SimpleInterval query = new SimpleInterval(chr, start, end);
+        final List<Integer> overlapping = new ArrayList<>();
+        for (int i = 0; i < intervals.size(); i++) {
+            if (intervals.get(i).overlaps(query)) {
+                overlapping.add(i);
+            }
+        }
+        return new ConcatenatingIterator(overlapping, query);
+    }
+
+    @Override
+    public CloseableTribbleIterator<VariantContext> iterator() throws IOException {
+        final List<Integer> all = new ArrayList<>(intervals.size());
+        for (int i = 0; i < intervals.size(); i++) {
+            all.add(i);
+        }
+        return new ConcatenatingIterator(all, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final FeatureReader<VariantContext> reader : readers) {
+            reader.close();
+        }
+    }
+
+    @Override
+    public List<String> getSequenceNames() {
+        return readers.get(0).getSequenceNames();
+    }
+
+    @Override
+    public Object getHeader() {
+        return readers.get(0).getHeader();
+    }
+
+    /**
+     * Iterates over the query results (or all the records, if there is no query) of several arrays in turn, starting
+     * the query of each array only once the previous one is exhausted.
+     */
+    private final class ConcatenatingIterator implements CloseableTribbleIterator<VariantContext> {
+        private final Iterator<Integer> arrayIndices;
+        private final SimpleInterval query;
+        private CloseableTribbleIterator<VariantContext> current = null;
+
+        private ConcatenatingIterator(final List<Integer> arrayIndices, final SimpleInterval query) {
+            this.arrayIndices = arrayIndices.iterator();
+            this.query = query;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                if (current != null) {
+                    current.close();
+                    current = null;
+                }
+                if (!arrayIndices.hasNext()) {
+                    return false;
+                }
+                final int arrayIndex = arrayIndices.next();
+                try {
+                    current = query == null ? readers.get(arrayIndex).iterator()
+                            : readers.get(arrayIndex).query(query.getContig(), query.getStart(), query.getEnd());
+                } catch (final IOException e) {
+                    throw new GATKException("Couldn't query the GenomicsDB array of interval " + intervals.get(arrayIndex), e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public VariantContext next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public Iterator<VariantContext> iterator() {
+            return this;
+        }
+    }
+}
@@ -27,6 +27,9 @@ public final class BwaSpark extends GATKSparkTool {
     public static final String SINGLE_END_ALIGNMENT_SHORT_NAME = "SE";
     public static final String BWA_MEM_INDEX_IMAGE_FULL_NAME = "bwaMemIndexImage";
     public static final String BWA_MEM_INDEX_IMAGE_SHORT_NAME = "image";
+    public static final String BASES_PER_BATCH_FULL_NAME = "basesPerBatch";
+    public static final String BWA_THREADS_FULL_NAME = "bwaThreads";
+    public static final String SHARED_INDEX_IMAGE_DIR_FULL_NAME = "sharedIndexImageDir";
 
     @Argument(doc = "the output bam",
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
@@ -45,6 +48,26 @@ public final class BwaSpark extends GATKSparkTool {
               optional = true)
     private boolean singleEndAlignment = false;
 
+    @Argument(doc = "the approximate number of bases each task hands to bwa at a time; bwa aligns one batch while the " +
+            "task converts the previous one and gathers the next",
+            fullName = BASES_PER_BATCH_FULL_NAME,
+            optional = true)
+    private long basesPerBatch = BwaSparkEngine.DEFAULT_BASES_PER_BATCH;
+
+    @Argument(doc = "the number of threads bwa uses to align each batch",
+            fullName = BWA_THREADS_FULL_NAME,
+            optional = true)
+    private int bwaThreads = BwaSparkEngine.DEFAULT_ALIGNMENT_THREADS;
+
+    @Argument(doc = "a local directory, the same on each host and visible to all the executors on it, to which the " +
+            "automatically distributed index image is copied, so that all the executors on a host map a single copy " +
+            "(java.io.tmpdir won't do under YARN, where it's private to each container).  Copies are kept there " +
+            "for later runs and are never deleted automatically, so remove the ones you no longer need yourself.  " +
+            "By default, each executor maps its own copy.  Ignored if --" + BWA_MEM_INDEX_IMAGE_FULL_NAME + " is given.",
+            fullName = SHARED_INDEX_IMAGE_DIR_FULL_NAME,
+            optional = true)
+    private String sharedIndexImageDir = null;
+
     @Override
     public boolean requiresReference() {
         return true;
@@ -58,7 +81,8 @@ public final class BwaSpark extends GATKSparkTool {
     @Override
     protected void runTool(final JavaSparkContext ctx) {
         try ( final BwaSparkEngine engine =
-                      new BwaSparkEngine(ctx, referenceArguments.getReferenceFileName(), indexImageFile, getHeaderForReads(), getReferenceSequenceDictionary()) ) {
+                      new BwaSparkEngine(ctx, referenceArguments.getReferenceFileName(), indexImageFile, getHeaderForReads(), getReferenceSequenceDictionary(),
+                                         basesPerBatch, bwaThreads, sharedIndexImageDir) ) {
             final JavaRDD<GATKRead> reads = !singleEndAlignment ? engine.alignPaired(getReads()) : engine.alignUnpaired(getReads());
 
             try {
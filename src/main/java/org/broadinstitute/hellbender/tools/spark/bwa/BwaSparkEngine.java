@@ -1,9 +1,11 @@
 package org.broadinstitute.hellbender.tools.spark.bwa;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
 import org.apache.spark.SparkFiles;
+import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
@@ -15,6 +17,10 @@ import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The BwaSparkEngine provides a simple interface for transforming a JavaRDD<GATKRead> in which the reads are paired
@@ -25,14 +31,27 @@ import java.util.*;
  * The reason that the pipeline must culminate in some action, is because this class implements a lazy
  * transform, and nothing will happen otherwise.
  *
+ * Within each partition the reads are aligned in batches of a configurable number of bases, in a pipeline: bwa aligns
+ * one batch on a separate thread while the task converts the alignments of the previous batch and gathers the next.
+ *
  * See {@link BwaSpark#runTool runTool} for an example.
  */
 public final class BwaSparkEngine implements AutoCloseable {
     private static final String REFERENCE_INDEX_IMAGE_FILE_SUFFIX = ".img";
+
+    /**
+     * The default number of bases handed to bwa at a time, the same as bwa mem's default chunk size for a single thread.
+     */
+    public static final long DEFAULT_BASES_PER_BATCH = 10_000_000L;
+    public static final int DEFAULT_ALIGNMENT_THREADS = 1;
+
     private final JavaSparkContext ctx;
     private final String indexFileName;
     private final boolean resolveIndexFileName;
     private final Broadcast<SAMFileHeader> broadcastHeader;
+    private final long basesPerBatch;
+    private final int alignmentThreads;
+    private final String sharedImageDir;
 
     /**
      * @param ctx           the Spark context
@@ -47,9 +66,39 @@ public final class BwaSparkEngine implements AutoCloseable {
                           final String indexFileName,
                           SAMFileHeader inputHeader,
                           final SAMSequenceDictionary refDictionary) {
+        this(ctx, referenceFile, indexFileName, inputHeader, refDictionary, DEFAULT_BASES_PER_BATCH, DEFAULT_ALIGNMENT_THREADS, null);
+    }
+
+    /**
+     * @param ctx              the Spark context
+     * @param referenceFile    the path to the reference file named <i>_prefix_.fa</i>, which is used to find the image file with name <i>_prefix_.fa.img</i>.
+     *                         Can be <code>null</code> if the indexFileName is provided.
+     * @param indexFileName    the index image file name that already exists, or <code>null</code> to have the image file automatically distributed.
+     * @param inputHeader      the SAM file header to use for reads
+     * @param refDictionary    the sequence dictionary to use for reads if the SAM file header doesn't have one (or it's empty)
+     * @param basesPerBatch    the (approximate) number of bases handed to bwa at a time by each task.  For paired alignment,
+     *                         bwa estimates the insert size distribution separately for each batch, so this shouldn't be too small.
+     * @param alignmentThreads the number of threads bwa uses to align each batch
+     * @param sharedImageDir   a directory, visible to all the executors on a host, to which an automatically distributed
+     *                         image is copied so that they all map the same file (see {@link BwaMemIndexCache#getHostSharedImage}),
+     *                         or <code>null</code> to have each executor map its own copy.
+     */
+    public BwaSparkEngine(final JavaSparkContext ctx,
+                          final String referenceFile,
+                          final String indexFileName,
+                          SAMFileHeader inputHeader,
+                          final SAMSequenceDictionary refDictionary,
+                          final long basesPerBatch,
+                          final int alignmentThreads,
+                          final String sharedImageDir) {
         Utils.nonNull(referenceFile);
         Utils.nonNull(inputHeader);
+        Utils.validateArg(basesPerBatch > 0, "basesPerBatch must be positive");
+        Utils.validateArg(alignmentThreads > 0, "alignmentThreads must be positive");
         this.ctx = ctx;
+        this.basesPerBatch = basesPerBatch;
+        this.alignmentThreads = alignmentThreads;
+        this.sharedImageDir = sharedImageDir;
         if (indexFileName != null) {
             this.indexFileName = indexFileName;
             this.resolveIndexFileName = false;
@@ -99,8 +148,14 @@ public final class BwaSparkEngine implements AutoCloseable {
         final Broadcast<SAMFileHeader> broadcastHeader = this.broadcastHeader;
         final String indexFileName = this.indexFileName;
         final boolean resolveIndexFileName = this.resolveIndexFileName;
+        final long basesPerBatch = this.basesPerBatch;
+        final int alignmentThreads = this.alignmentThreads;
+        final String sharedImageDir = this.sharedImageDir;
         return unalignedReads.mapPartitions(itr ->
-                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, broadcastHeader.value(), pairedAlignment).apply(itr));
+                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName,
+                                resolveIndexFileName ? sharedImageDir : null,
+                                broadcastHeader.value(),
+                                pairedAlignment, basesPerBatch, alignmentThreads).apply(itr));
     }
 
     @Override
@@ -113,60 +168,174 @@ public final class BwaSparkEngine implements AutoCloseable {
         private final BwaMemIndex bwaMemIndex;
         private final SAMFileHeader readsHeader;
         private final boolean alignsPairs;
+        private final long basesPerBatch;
+        private final int alignmentThreads;
 
-        // assumes 128Mb partitions, with reads needing about 100bytes each when BAM compressed
-        private static final int READS_PER_PARTITION_GUESS = 1500000;
-
-        ReadAligner( final String indexFileName, final SAMFileHeader readsHeader, final boolean alignsPairs) {
-            this.bwaMemIndex = BwaMemIndexCache.getInstance(indexFileName);
+        ReadAligner( final String indexFileName, final String sharedImageDir, final SAMFileHeader readsHeader,
+                     final boolean alignsPairs, final long basesPerBatch, final int alignmentThreads ) {
+            this.bwaMemIndex = BwaMemIndexCache.acquireHostSharedInstance(indexFileName, sharedImageDir);
             this.readsHeader = readsHeader;
             this.alignsPairs = alignsPairs;
+            this.basesPerBatch = basesPerBatch;
+            this.alignmentThreads = alignmentThreads;
         }
 
         Iterator<GATKRead> apply( final Iterator<GATKRead> readItr ) {
-            final List<GATKRead> inputReads = new ArrayList<>(READS_PER_PARTITION_GUESS);
-            while ( readItr.hasNext() ) {
-                inputReads.add(readItr.next());
+            final PipelinedAlignmentIterator alignmentItr;
+            try {
+                alignmentItr = new PipelinedAlignmentIterator(readItr);
+            } catch ( final RuntimeException e ) {
+                BwaMemIndexCache.releaseInstance(bwaMemIndex);
+                throw e;
+            }
+            // from here on closing the iterator releases the index, so make sure that happens before reading any input
+            final TaskContext taskContext = TaskContext.get();
+            if ( taskContext != null ) {
+                // make sure the alignment thread goes away even if the task fails or doesn't consume all of its output
+                taskContext.addTaskCompletionListener(context -> alignmentItr.close());
+            }
+            try {
+                alignmentItr.submitNextBatch();
+            } catch ( final RuntimeException e ) {
+                alignmentItr.close();
+                throw e;
+            }
+            return alignmentItr;
+        }
+
+        /**
+         * Aligns the reads a batch at a time.  While bwa aligns one batch on a background thread, the thread pulling
+         * on this iterator gathers the next batch from the input and queues it behind the current one, and then
+         * converts the current batch's alignments to GATKReads, so that bwa is kept busy and only a few batches are
+         * held in memory at any one time.  The single alignment thread keeps the batches in order.
+         */
+        private final class PipelinedAlignmentIterator implements Iterator<GATKRead>, AutoCloseable {
+            private final Iterator<GATKRead> readItr;
+            private final ExecutorService alignmentExecutor;
+            private final List<String> refNames;
+            private List<GATKRead> pendingReads;
+            private Future<List<List<BwaMemAlignment>>> pendingAlignments;
+            private Iterator<GATKRead> outputItr = Collections.emptyIterator();
+            private boolean closed = false;
+
+            PipelinedAlignmentIterator( final Iterator<GATKRead> readItr ) {
+                this.readItr = readItr;
+                this.refNames = bwaMemIndex.getReferenceContigNames();
+                // the executor comes last, so that it exists only if construction succeeds.  no work is done here:
+                // the caller submits the first batch once it has arranged for this iterator to be closed.
+                this.alignmentExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("bwa-alignment-thread-%d")
+                        .setDaemon(true)
+                        .build());
             }
-            final int nReads = inputReads.size();
-            if (alignsPairs && (nReads & 1) != 0 ) {
-                throw new GATKException("We're supposed to be aligning paired reads, but there are an odd number of them.");
+
+            @Override
+            public boolean hasNext() {
+                while ( !outputItr.hasNext() ) {
+                    if ( pendingAlignments == null ) {
+                        close();
+                        return false;
+                    }
+                    final List<GATKRead> alignedReads = pendingReads;
+                    final Future<List<List<BwaMemAlignment>>> alignments = pendingAlignments;
+                    // gather the next batch while bwa is still busy with this one
+                    submitNextBatch();
+                    outputItr = convertAlignments(alignedReads, getAlignments(alignments)).iterator();
+                }
+                return true;
             }
-            final List<List<BwaMemAlignment>> allAlignments;
-            if ( nReads == 0 ) allAlignments = Collections.emptyList();
-            else {
-                final List<byte[]> seqs = new ArrayList<>(nReads);
-                for (final GATKRead read : inputReads) {
-                    seqs.add(read.getBases());
+
+            @Override
+            public GATKRead next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException("No more aligned reads");
                 }
-                final BwaMemAligner aligner = new BwaMemAligner(bwaMemIndex);
-                // we are dealing with interleaved, paired reads.  tell BWA that they're paired.
-                if (alignsPairs) {
-                    aligner.alignPairs();
+                return outputItr.next();
+            }
+
+            @Override
+            public void close() {
+                if ( !closed ) {
+                    closed = true;
+                    // release the index on the alignment thread, so that it can't be closed under a batch that's still being aligned
+                    alignmentExecutor.submit(() -> BwaMemIndexCache.releaseInstance(bwaMemIndex));
+                    alignmentExecutor.shutdown();
                 }
-                allAlignments = aligner.alignSeqs(seqs);
             }
-            final List<String> refNames = bwaMemIndex.getReferenceContigNames();
-            final List<GATKRead> outputReads = new ArrayList<>(allAlignments.stream().mapToInt(List::size).sum());
-            for ( int idx = 0; idx != nReads; ++idx ) {
-                final GATKRead originalRead = inputReads.get(idx);
-                final String readName = originalRead.getName();
-                final byte[] bases = originalRead.getBases();
-                final byte[] quals = originalRead.getBaseQualities();
-                final String readGroup = originalRead.getReadGroup();
-                final List<BwaMemAlignment> alignments = allAlignments.get(idx);
-                final Map<BwaMemAlignment,String> saTagMap = BwaMemAlignmentUtils.createSATags(alignments,refNames);
-                for ( final BwaMemAlignment alignment : alignments ) {
-                    final SAMRecord samRecord =
-                            BwaMemAlignmentUtils.applyAlignment(readName, bases, quals, readGroup,
-                                                                alignment, refNames, readsHeader, false, true);
-                    final GATKRead rec = SAMRecordToGATKReadAdapter.headerlessReadAdapter(samRecord);
-                    final String saTag = saTagMap.get(alignment);
-                    if ( saTag != null ) rec.setAttribute("SA", saTag);
-                    outputReads.add(rec);
+
+            /**
+             * Gathers reads from the input until there are at least basesPerBatch bases (or the input is exhausted),
+             * and hands them to bwa.  Pairs are never split across batches.
+             */
+            private void submitNextBatch() {
+                final List<GATKRead> batch = new ArrayList<>();
+                final List<byte[]> seqs = new ArrayList<>();
+                long nBases = 0;
+                while ( readItr.hasNext() && (nBases < basesPerBatch || (alignsPairs && (batch.size() & 1) != 0)) ) {
+                    final GATKRead read = readItr.next();
+                    final byte[] bases = read.getBases();
+                    batch.add(read);
+                    seqs.add(bases);
+                    nBases += bases.length;
+                }
+                if ( alignsPairs && (batch.size() & 1) != 0 ) {
+                    throw new GATKException("We're supposed to be aligning paired reads, but there are an odd number of them.");
+                }
+                if ( batch.isEmpty() ) {
+                    pendingReads = null;
+                    pendingAlignments = null;
+                    return;
+                }
+                pendingReads = batch;
+                pendingAlignments = alignmentExecutor.submit(() -> {
+                    try ( final BwaMemAligner aligner = new BwaMemAligner(bwaMemIndex) ) {
+                        aligner.setNThreadsOption(alignmentThreads);
+                        // we are dealing with interleaved, paired reads.  tell BWA that they're paired.
+                        if ( alignsPairs ) {
+                            aligner.alignPairs();
+                        }
+                        return aligner.alignSeqs(seqs);
+                    }
+                });
+            }
+
+            private List<List<BwaMemAlignment>> getAlignments( final Future<List<List<BwaMemAlignment>>> alignmentsFuture ) {
+                try {
+                    return alignmentsFuture.get();
+                } catch ( final InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new GATKException("Interrupted while waiting for bwa", e);
+                } catch ( final ExecutionException e ) {
+                    if ( e.getCause() instanceof RuntimeException ) {
+                        throw (RuntimeException)e.getCause();
+                    }
+                    throw new GATKException("bwa alignment failed", e.getCause());
+                }
+            }
+
+            private List<GATKRead> convertAlignments( final List<GATKRead> inputReads, final List<List<BwaMemAlignment>> allAlignments ) {
+                final int nReads = inputReads.size();
+                final List<GATKRead> outputReads = new ArrayList<>(allAlignments.stream().mapToInt(List::size).sum());
+                for ( int idx = 0; idx != nReads; ++idx ) {
+                    final GATKRead originalRead = inputReads.get(idx);
+                    final String readName = originalRead.getName();
+                    final byte[] bases = originalRead.getBases();
+                    final byte[] quals = originalRead.getBaseQualities();
+                    final String readGroup = originalRead.getReadGroup();
+                    final List<BwaMemAlignment> alignments = allAlignments.get(idx);
+                    final Map<BwaMemAlignment,String> saTagMap = BwaMemAlignmentUtils.createSATags(alignments,refNames);
+                    for ( final BwaMemAlignment alignment : alignments ) {
+                        final SAMRecord samRecord =
+                                BwaMemAlignmentUtils.applyAlignment(readName, bases, quals, readGroup,
+                                                                    alignment, refNames, readsHeader, false, true);
+                        final GATKRead rec = SAMRecordToGATKReadAdapter.headerlessReadAdapter(samRecord);
+                        final String saTag = saTagMap.get(alignment);
+                        if ( saTag != null ) rec.setAttribute("SA", saTag);
+                        outputReads.add(rec);
+                    }
                 }
+                return outputReads;
             }
-            return outputReads.iterator();
         }
     }
 }
@@ -3,7 +3,6 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
-import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
@@ -17,6 +16,7 @@ public class ContainsKmerReadFilter extends ReadFilter {
     private static final long serialVersionUID = 1L;
     private static volatile PSKmerCollection kmerLib = null; //Must be volatile for proper initialization
     private final int kSize, kmerCountThreshold;
+    private final long kmerMask;
 
     public ContainsKmerReadFilter(final String kmerLibPath, final int kmerCountThreshold) {
         this.kmerCountThreshold = kmerCountThreshold;
@@ -30,20 +30,15 @@ public class ContainsKmerReadFilter extends ReadFilter {
             }
         }
         kSize = kmerLib.kmerSize();
+        kmerMask = kmerLib.getMask().getLong();
     }
 
     @Override
     public boolean test(final GATKRead read) {
-        final SVKmerizer kmers = new SVKmerizer(read.getBases(), kSize, 1, new SVKmerShort(kSize));
-        int numKmersFound = 0;
-        while (kmers.hasNext()) {
-            if (kmerLib.contains(((SVKmerShort)kmers.next()))) {
-                if (++numKmersFound >= kmerCountThreshold) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        final byte[] bases = read.getBases();
+        final long[] kmers = new long[SVKmerizer.maxKmers(bases.length, kSize)];
+        final int numKmers = SVKmerizer.canonicalShortKmers(bases, kSize, 1, kmerMask, kmers);
+        return !kmerLib.containsAtLeast(kmers, numKmers, kmerCountThreshold);
     }
 
     //Static variables can't be garbage collected until the object is unloaded
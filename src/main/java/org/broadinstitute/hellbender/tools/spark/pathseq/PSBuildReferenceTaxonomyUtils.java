@@ -19,6 +19,7 @@ public final class PSBuildReferenceTaxonomyUtils {
 
     protected static final Logger logger = LogManager.getLogger(PSBuildReferenceTaxonomyUtils.class);
     private static final String VERTICAL_BAR_DELIMITER_REGEX = "\\s*\\|\\s*";
+    public static final String MAPPED_TAXONOMY_DATABASE_EXTENSION = ".dbm";
     /**
      * Build set of accessions contained in the reference.
      * Returns: a map from accession to the name and length of the record. If the sequence name contains the
@@ -346,4 +347,21 @@ public final class PSBuildReferenceTaxonomyUtils {
             throw new UserException.CouldNotCreateOutputFile("Could not serialize objects to file", e);
         }
     }
+
+    /**
+     * Writes the database in a format that is memory-mapped, rather than deserialized, when read. Appends
+     * MAPPED_TAXONOMY_DATABASE_EXTENSION to the path if it is missing, and returns the path that was written.
+     */
+    public static String writeMappedTaxonomyDatabase(final String filePath, final PSTaxonomyDatabase taxonomyDatabase) {
+        String outputPath = filePath;
+        if (!filePath.toLowerCase().endsWith(MAPPED_TAXONOMY_DATABASE_EXTENSION)) {
+            outputPath = outputPath + MAPPED_TAXONOMY_DATABASE_EXTENSION;
+        }
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputPath)))) {
+            PSMappedTaxonomyDatabase.write(taxonomyDatabase, output);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(outputPath, "Could not write memory-mappable taxonomy database", e);
+        }
+        return outputPath;
+    }
 }
@@ -19,12 +19,10 @@ import java.util.List;
  */
 public final class PSBwaAligner {
 
-    private final BwaMemIndex bwaIndex;
     private final PSBwaArgumentCollection bwaArgs;
     private final boolean pairedAlignment;
 
     public PSBwaAligner(final PSBwaArgumentCollection bwaArgs, final boolean pairedAlignment) {
-        this.bwaIndex = BwaMemIndexCache.getInstance(bwaArgs.bwaImage);
         this.bwaArgs = bwaArgs;
         this.pairedAlignment = pairedAlignment;
     }
@@ -56,6 +54,15 @@ public final class PSBwaAligner {
     }
 
     public Iterator<GATKRead> apply(final Iterator<GATKRead> itr, final SAMFileHeader header) {
+        final BwaMemIndex bwaIndex = BwaMemIndexCache.acquireInstance(bwaArgs.bwaImage);
+        try {
+            return apply(itr, header, bwaIndex);
+        } finally {
+            BwaMemIndexCache.releaseInstance(bwaIndex);
+        }
+    }
+
+    private Iterator<GATKRead> apply(final Iterator<GATKRead> itr, final SAMFileHeader header, final BwaMemIndex bwaIndex) {
         //Create aligner and set options
         final BwaMemAligner aligner = new BwaMemAligner(bwaIndex);
         if (pairedAlignment) {
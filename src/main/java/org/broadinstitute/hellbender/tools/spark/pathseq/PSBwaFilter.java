@@ -19,14 +19,14 @@ import java.util.List;
  */
 public class PSBwaFilter {
 
-    private final BwaMemIndex bwaIndex;
+    private final String indexFileName;
     private final int minIdent;
     private final int minSeedLength, numThreads;
     private final boolean bPaired;
 
     public PSBwaFilter(final String indexFileName, final int minIdent,
                        final int minSeedLength, final int numThreads, final boolean bPaired) {
-        this.bwaIndex = BwaMemIndexCache.getInstance(indexFileName);
+        this.indexFileName = indexFileName;
         this.minIdent = minIdent;
         this.minSeedLength = minSeedLength;
         this.numThreads = numThreads;
@@ -34,6 +34,15 @@ public class PSBwaFilter {
     }
 
     public Iterator<GATKRead> apply(final Iterator<GATKRead> itr) {
+        final BwaMemIndex bwaIndex = BwaMemIndexCache.acquireInstance(indexFileName);
+        try {
+            return apply(itr, bwaIndex);
+        } finally {
+            BwaMemIndexCache.releaseInstance(bwaIndex);
+        }
+    }
+
+    private Iterator<GATKRead> apply(final Iterator<GATKRead> itr, final BwaMemIndex bwaIndex) {
 
         //Initialize aligner
         final BwaMemAligner aligner = new BwaMemAligner(bwaIndex);
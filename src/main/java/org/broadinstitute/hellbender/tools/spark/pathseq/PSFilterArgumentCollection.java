@@ -18,7 +18,8 @@ public final class PSFilterArgumentCollection implements Serializable {
             fullName = "isHostAligned",
             optional = true)
     public boolean alignedInput = false;
-    @Argument(doc = "Path to host kmer library generated with PathSeqBuildKmers. Skipped if not specified.",
+    @Argument(doc = "Path to host kmer library generated with PathSeqBuildKmers. Skipped if not specified. Libraries " +
+            "built with --memoryMappable must be available at this local path on every executor.",
             fullName = "kmerLibraryPath",
             optional = true)
     public String kmerLibPath = null;
@@ -8,6 +8,9 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 import org.broadinstitute.hellbender.utils.Utils;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Kmer Bloom Filter class that encapsulates the filter, kmer size, and kmer mask
  */
@@ -47,6 +50,11 @@ public final class PSKmerBloomFilter extends PSKmerCollection {
         return kmerSet.contains(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
     }
 
+    @Override
+    public boolean containsMasked(final long maskedKmer) {
+        return kmerSet.contains(maskedKmer);
+    }
+
     @Override
     public int kmerSize() {
         return kmerSize;
@@ -62,6 +70,14 @@ public final class PSKmerBloomFilter extends PSKmerCollection {
         return falsePositiveProbability;
     }
 
+    /**
+     * Writes the kmers in a format that can be memory-mapped, see {@link PSKmerUtils#readKmerFilter}
+     */
+    void writeMappable(final DataOutput output) throws IOException {
+        PSKmerUtils.writeMappedKmerHeader(kmerSize, kmerMask, falsePositiveProbability, output);
+        kmerSet.writeMappable(output);
+    }
+
     private void serialize(final Kryo kryo, final Output output) {
         output.writeInt(kmerSize);
         output.writeLong(kmerMask.getLong());
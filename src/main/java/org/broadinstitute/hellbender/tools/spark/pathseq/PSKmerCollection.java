@@ -8,6 +8,35 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 public abstract class PSKmerCollection {
 
     abstract boolean contains(final SVKmerShort val);
+
+    /**
+     * Input should already have been run through canonicalizeAndMask()
+     */
+    abstract boolean containsMasked(final long maskedKmer);
+
+    /**
+     * Returns true if at least minCount of the first numKmers kmers in the array are in the collection. The kmers
+     * should already have been run through canonicalizeAndMask(). Collections whose lookups benefit from batching
+     * override this.
+     */
+    boolean containsAtLeast(final long[] maskedKmers, final int numKmers, final int minCount) {
+        int count = 0;
+        for (int i = 0; i < numKmers; i++) {
+            if (containsMasked(maskedKmers[i]) && ++count >= minCount) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if any of the first numKmers kmers in the array, which should already have been run through
+     * canonicalizeAndMask(), are in the collection
+     */
+    final boolean containsAny(final long[] maskedKmers, final int numKmers) {
+        return containsAtLeast(maskedKmers, numKmers, 1);
+    }
+
     abstract int kmerSize();
     abstract SVKmerShort getMask();
     abstract double getFalsePositiveProbability();
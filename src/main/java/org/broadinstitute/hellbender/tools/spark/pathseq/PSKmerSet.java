@@ -9,6 +9,9 @@ import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongIterator;
 import org.broadinstitute.hellbender.utils.Utils;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Kmer Hopscotch set class that encapsulates the filter, kmer size, and kmer mask
  */
@@ -44,6 +47,11 @@ public final class PSKmerSet extends PSKmerCollection {
         return kmerSet.contains(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
     }
 
+    @Override
+    public boolean containsMasked(final long maskedKmer) {
+        return kmerSet.contains(maskedKmer);
+    }
+
     public LongIterator iterator() {
         return kmerSet.iterator();
     }
@@ -67,6 +75,14 @@ public final class PSKmerSet extends PSKmerCollection {
         return kmerSet.size();
     }
 
+    /**
+     * Writes the kmers in a format that can be memory-mapped, see {@link PSKmerUtils#readKmerFilter}
+     */
+    void writeMappable(final DataOutput output) throws IOException {
+        PSKmerUtils.writeMappedKmerHeader(kmerSize, kmerMask, 0, output);
+        kmerSet.writeMappable(output);
+    }
+
     private void serialize(final Kryo kryo, final Output output) {
         output.writeInt(kmerSize);
         output.writeLong(kmerMask.getLong());
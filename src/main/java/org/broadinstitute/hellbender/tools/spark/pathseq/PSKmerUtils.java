@@ -10,15 +10,27 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
+import org.broadinstitute.hellbender.tools.spark.utils.BlockedLongBloomFilter;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLongBloomFilter;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLongHopscotchSet;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.LongPredicate;
 
 /**
  * PathSeq utilities for kmer libraries
@@ -27,6 +39,11 @@ public class PSKmerUtils {
 
     public static final String HOPSCOTCH_SET_EXTENSION = ".hss";
     public static final String BLOOM_FILTER_EXTENSION = ".bfi";
+    public static final String BLOCKED_BLOOM_FILTER_EXTENSION = ".bbfi";
+    public static final String MAPPED_HOPSCOTCH_SET_EXTENSION = ".hssm";
+    public static final String MAPPED_BLOOM_FILTER_EXTENSION = ".bfim";
+    private static final long MAPPED_KMER_FILE_MAGIC = 0x5053_4b6d_6572_4d31L; //"PSKmerM1"
+    private static final int MAPPED_KMER_FILE_HEADER_SIZE = 32;
     private static final Logger logger = LogManager.getLogger(PSKmerUtils.class);
 
     /**
@@ -55,9 +72,9 @@ public class PSKmerUtils {
 
             //Kmerize the record
             final byte[] bases = records.get(recName).getBases();
-            final long[] list = SVKmerizer.stream(bases, kSize, kSpace, new SVKmerShort(kSize))
-                    .mapToLong(kmer -> PSKmerCollection.canonicalizeAndMask((SVKmerShort) kmer, kSize, mask))
-                    .toArray();
+            final long[] kmerBuffer = new long[SVKmerizer.maxKmers(bases.length, kSize)];
+            final int numKmers = SVKmerizer.canonicalShortKmers(bases, kSize, kSpace, mask.getLong(), kmerBuffer);
+            final long[] list = Arrays.copyOf(kmerBuffer, numKmers);
 
             //Add kmers to the result
             collection.add(list);
@@ -101,6 +118,19 @@ public class PSKmerUtils {
         return bloomFilter;
     }
 
+    /**
+     * Converts a Collection of Lists of Longs's into a blocked Bloom filter
+     */
+    protected static BlockedLongBloomFilter longArrayCollectionToBlockedBloomFilter(final Collection<long[]> longs, final long numLongs, final double bloomFpp) {
+        final BlockedLongBloomFilter bloomFilter = new BlockedLongBloomFilter(numLongs, bloomFpp);
+        final ProgressCounter counter = new ProgressCounter(numLongs, 1e6, "million kmers", logger);
+        for (final long[] array : longs) {
+            bloomFilter.addAll(array);
+            counter.update(array.length);
+        }
+        return bloomFilter;
+    }
+
     /**
      * Writes an object to a URI using Kryo serialization.
      */
@@ -127,13 +157,102 @@ public class PSKmerUtils {
         writeKryoObject(bloomFilter, filePath);
     }
 
+    public static void writeKmerBlockedBloomFilter(final String uri, final PSKmerBlockedBloomFilter bloomFilter) {
+        String filePath = uri;
+        if (!uri.toLowerCase().endsWith(BLOCKED_BLOOM_FILTER_EXTENSION.toLowerCase())) {
+            filePath = filePath + BLOCKED_BLOOM_FILTER_EXTENSION;
+        }
+        writeKryoObject(bloomFilter, filePath);
+    }
+
+    /**
+     * Writes the kmer set in a format that is memory-mapped, rather than deserialized, when read
+     */
+    public static void writeMappedKmerSet(final String uri, final PSKmerSet set) {
+        String filePath = uri;
+        if (!uri.toLowerCase().endsWith(MAPPED_HOPSCOTCH_SET_EXTENSION.toLowerCase())) {
+            filePath = filePath + MAPPED_HOPSCOTCH_SET_EXTENSION;
+        }
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(BucketUtils.createFile(filePath)))) {
+            set.writeMappable(output);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(filePath, "Could not write memory-mappable kmer set", e);
+        }
+    }
+
+    /**
+     * Writes the Bloom filter in a format that is memory-mapped, rather than deserialized, when read
+     */
+    public static void writeMappedKmerBloomFilter(final String uri, final PSKmerBloomFilter bloomFilter) {
+        String filePath = uri;
+        if (!uri.toLowerCase().endsWith(MAPPED_BLOOM_FILTER_EXTENSION.toLowerCase())) {
+            filePath = filePath + MAPPED_BLOOM_FILTER_EXTENSION;
+        }
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(BucketUtils.createFile(filePath)))) {
+            bloomFilter.writeMappable(output);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(filePath, "Could not write memory-mappable kmer Bloom filter", e);
+        }
+    }
+
+    /**
+     * Writes the header of a memory-mappable kmer file, which is followed by the mappable set or Bloom filter.
+     * The header size is a multiple of 8 so that the set's longs stay aligned.
+     */
+    static void writeMappedKmerHeader(final int kmerSize, final SVKmerShort kmerMask, final double falsePositiveProbability,
+                                      final DataOutput output) throws IOException {
+        output.writeLong(MAPPED_KMER_FILE_MAGIC);
+        output.writeInt(kmerSize);
+        output.writeInt(0);
+        output.writeLong(kmerMask.getLong());
+        output.writeDouble(falsePositiveProbability);
+    }
+
+    /**
+     * Memory-maps a kmer file written by writeMappedKmerSet or writeMappedKmerBloomFilter. The file must be on a
+     * local (or locally mounted) file system.
+     */
+    private static PSKmerCollection readMappedKmerFilter(final String uri, final boolean isBloomFilter) {
+        if (BucketUtils.isRemoteStorageUrl(uri)) {
+            throw new UserException.BadInput("Memory-mapped kmer libraries must be on a local file system, but got " + uri);
+        }
+        try (final FileChannel channel = FileChannel.open(IOUtils.getPath(uri), StandardOpenOption.READ)) {
+            if (channel.size() < MAPPED_KMER_FILE_HEADER_SIZE) {
+                throw new UserException.BadInput("Memory-mapped kmer library " + uri + " is truncated");
+            }
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, MAPPED_KMER_FILE_HEADER_SIZE);
+            if (header.getLong(0) != MAPPED_KMER_FILE_MAGIC) {
+                throw new UserException.BadInput("File " + uri + " is not a memory-mapped kmer library");
+            }
+            final int kmerSize = header.getInt(8);
+            final SVKmerShort kmerMask = new SVKmerShort(header.getLong(16));
+            final double falsePositiveProbability = header.getDouble(24);
+            final LongPredicate maskedKmerSet;
+            if (isBloomFilter) {
+                maskedKmerSet = new MappedLongBloomFilter(channel, MAPPED_KMER_FILE_HEADER_SIZE)::contains;
+            } else {
+                maskedKmerSet = new MappedLongHopscotchSet(channel, MAPPED_KMER_FILE_HEADER_SIZE)::contains;
+            }
+            return new PSMappedKmerCollection(maskedKmerSet, kmerSize, kmerMask, falsePositiveProbability);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile("Could not memory-map kmer library " + uri, e);
+        }
+    }
+
     public static PSKmerCollection readKmerFilter(final String uri) {
+        if (uri.endsWith(MAPPED_HOPSCOTCH_SET_EXTENSION)) {
+            return readMappedKmerFilter(uri, false);
+        } else if (uri.endsWith(MAPPED_BLOOM_FILTER_EXTENSION)) {
+            return readMappedKmerFilter(uri, true);
+        }
         final Input input = new Input(BucketUtils.openFile(uri));
         final Kryo kryo = new Kryo();
         if (uri.endsWith(HOPSCOTCH_SET_EXTENSION)) {
             return kryo.readObject(input, PSKmerSet.class);
         } else if (uri.endsWith(BLOOM_FILTER_EXTENSION)) {
             return kryo.readObject(input, PSKmerBloomFilter.class);
+        } else if (uri.endsWith(BLOCKED_BLOOM_FILTER_EXTENSION)) {
+            return kryo.readObject(input, PSKmerBlockedBloomFilter.class);
         }
         throw new UserException.BadInput("Unknown kmer set extension in file name " + uri);
     }
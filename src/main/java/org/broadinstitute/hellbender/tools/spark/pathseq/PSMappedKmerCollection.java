@@ -0,0 +1,59 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Kmer hash set or Bloom filter that has been memory-mapped from a file, rather than deserialized, together with its
+ * kmer size and mask
+ */
+public final class PSMappedKmerCollection extends PSKmerCollection {
+
+    private final LongPredicate maskedKmerSet;
+    private final int kmerSize;
+    private final SVKmerShort kmerMask;
+    private final double falsePositiveProbability;
+
+    /**
+     * Note values in the set should have been run through PSKmerCollection's canonicalizeAndMask()
+     */
+    public PSMappedKmerCollection(final LongPredicate maskedKmerSet, final int kmerSize, final SVKmerShort kmerMask,
+                                  final double falsePositiveProbability) {
+        Utils.nonNull(maskedKmerSet);
+        Utils.nonNull(kmerMask);
+        this.maskedKmerSet = maskedKmerSet;
+        this.kmerSize = kmerSize;
+        this.kmerMask = kmerMask;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    /**
+     * Input should not be canonicalized/masked
+     */
+    @Override
+    public boolean contains(final SVKmerShort rawKmer) {
+        return maskedKmerSet.test(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
+    }
+
+    @Override
+    public boolean containsMasked(final long maskedKmer) {
+        return maskedKmerSet.test(maskedKmer);
+    }
+
+    @Override
+    public int kmerSize() {
+        return kmerSize;
+    }
+
+    @Override
+    public SVKmerShort getMask() {
+        return kmerMask;
+    }
+
+    @Override
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+}
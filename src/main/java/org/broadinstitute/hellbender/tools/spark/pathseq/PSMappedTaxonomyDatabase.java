@@ -0,0 +1,418 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedByteRegion;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Taxonomy database that has been memory-mapped from a file, rather than deserialized into a PSTree and a HashMap.
+ * Opening it is nearly instantaneous, the data live outside of the Java heap, and all the executors on a host share
+ * the same pages. When broadcast, only the path of the file is serialized, so the file must be on a local (or locally
+ * mounted) file system that every executor can see.
+ * <p>
+ * The format, in big-endian order, is:
+ * <ul>
+ *     <li>a magic number (long), the number of taxa (int), and the number of accessions (int)</li>
+ *     <li>the reference length of each taxon (longs), ordered by tax ID</li>
+ *     <li>the sorted tax IDs (ints)</li>
+ *     <li>the index of each taxon's parent, or -1 for the root (ints)</li>
+ *     <li>the offset of each taxon's name and of its rank in the string region, or -1 if it has none (ints)</li>
+ *     <li>the offset of each accession in the string region, with the accessions sorted by their UTF-8 bytes (ints)</li>
+ *     <li>the tax ID of each accession, in the same order (ints)</li>
+ *     <li>the string region, in which each distinct string is stored once as its UTF-8 length (int) and bytes, padded
+ *     to a multiple of 4 bytes</li>
+ * </ul>
+ * Taxa and accessions are found by binary search, and paths to the root by following the parent indices.
+ */
+@DefaultSerializer(PSMappedTaxonomyDatabase.Serializer.class)
+public final class PSMappedTaxonomyDatabase implements PSTaxonomy, PSTaxonomyTree {
+
+    private static final long MAPPED_TAXONOMY_FILE_MAGIC = 0x5053_5461_7844_4d31L; //"PSTaxDM1"
+    private static final int HEADER_SIZE = 16;
+    private static final int NO_ENTRY = -1;
+
+    private final String path;
+    private final int numTaxa;
+    private final int numAccessions;
+    private final MappedByteRegion region;
+    private final long taxIdsOffset;
+    private final long parentsOffset;
+    private final long namesOffset;
+    private final long ranksOffset;
+    private final long accessionsOffset;
+    private final long accessionTaxIdsOffset;
+    private final long stringsOffset;
+
+    /**
+     * Maps a database written by write()
+     */
+    public PSMappedTaxonomyDatabase(final String path) {
+        Utils.nonNull(path);
+        if (BucketUtils.isRemoteStorageUrl(path)) {
+            throw new UserException.BadInput("Memory-mapped taxonomy databases must be on a local file system, but got " + path);
+        }
+        this.path = path;
+        try (final FileChannel channel = FileChannel.open(IOUtils.getPath(path), StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new UserException.BadInput("Memory-mapped taxonomy database " + path + " is truncated");
+            }
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getLong(0) != MAPPED_TAXONOMY_FILE_MAGIC) {
+                throw new UserException.BadInput("File " + path + " is not a memory-mapped taxonomy database");
+            }
+            numTaxa = header.getInt(8);
+            numAccessions = header.getInt(12);
+            taxIdsOffset = HEADER_SIZE + 8L * numTaxa;
+            parentsOffset = taxIdsOffset + 4L * numTaxa;
+            namesOffset = parentsOffset + 4L * numTaxa;
+            ranksOffset = namesOffset + 4L * numTaxa;
+            accessionsOffset = ranksOffset + 4L * numTaxa;
+            accessionTaxIdsOffset = accessionsOffset + 4L * numAccessions;
+            stringsOffset = accessionTaxIdsOffset + 4L * numAccessions;
+            if (numTaxa < 0 || numAccessions < 0 || fileSize < stringsOffset) {
+                throw new UserException.BadInput("Memory-mapped taxonomy database " + path + " is truncated");
+            }
+            region = new MappedByteRegion(channel, 0, fileSize);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile("Could not memory-map taxonomy database " + path, e);
+        }
+    }
+
+    /**
+     * Writes the database in the format that can be mapped by this class
+     */
+    public static void write(final PSTaxonomyDatabase taxonomyDatabase, final DataOutput output) throws IOException {
+        final PSTree tree = taxonomyDatabase.tree;
+        final int[] taxIds = PSPartialTaxonScores.getTaxonIndex(tree);
+        final List<Map.Entry<byte[], Integer>> accessions = new ArrayList<>(taxonomyDatabase.accessionToTaxId.size());
+        for (final Map.Entry<String, Integer> entry : taxonomyDatabase.accessionToTaxId.entrySet()) {
+            accessions.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue()));
+        }
+        accessions.sort((a, b) -> compareBytes(a.getKey(), b.getKey()));
+
+        final StringRegionBuilder strings = new StringRegionBuilder();
+        final int[] parents = new int[taxIds.length];
+        final int[] names = new int[taxIds.length];
+        final int[] ranks = new int[taxIds.length];
+        for (int i = 0; i < taxIds.length; i++) {
+            final int parent = tree.getParentOf(taxIds[i]);
+            if (parent == PSTree.NULL_NODE) {
+                parents[i] = NO_ENTRY;
+            } else {
+                parents[i] = Arrays.binarySearch(taxIds, parent);
+                if (parents[i] < 0) {
+                    throw new UserException.BadInput("Parent node " + parent + " of node " + taxIds[i] + " not found in tree");
+                }
+            }
+            names[i] = strings.add(tree.getNameOf(taxIds[i]));
+            ranks[i] = strings.add(tree.getRankOf(taxIds[i]));
+        }
+        final int[] accessionOffsets = new int[accessions.size()];
+        for (int i = 0; i < accessionOffsets.length; i++) {
+            accessionOffsets[i] = strings.add(accessions.get(i).getKey());
+        }
+
+        output.writeLong(MAPPED_TAXONOMY_FILE_MAGIC);
+        output.writeInt(taxIds.length);
+        output.writeInt(accessions.size());
+        for (final int taxId : taxIds) {
+            output.writeLong(tree.getLengthOf(taxId));
+        }
+        writeInts(taxIds, output);
+        writeInts(parents, output);
+        writeInts(names, output);
+        writeInts(ranks, output);
+        writeInts(accessionOffsets, output);
+        for (final Map.Entry<byte[], Integer> accession : accessions) {
+            output.writeInt(accession.getValue());
+        }
+        strings.write(output);
+    }
+
+    private static void writeInts(final int[] values, final DataOutput output) throws IOException {
+        for (final int value : values) {
+            output.writeInt(value);
+        }
+    }
+
+    /**
+     * Unsigned lexicographic order, which is the order of the code points of UTF-8 strings
+     */
+    private static int compareBytes(final byte[] a, final byte[] b) {
+        final int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            final int diff = (a[i] & 0xff) - (b[i] & 0xff);
+            if (diff != 0) return diff;
+        }
+        return a.length - b.length;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public PSTaxonomyTree getTree() {
+        return this;
+    }
+
+    @Override
+    public Integer getTaxIdOfAccession(final String accession) {
+        final byte[] key = accession.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = numAccessions - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = compareString(region.getInt(accessionsOffset + 4L * mid), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return region.getInt(accessionTaxIdsOffset + 4L * mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares the mapped string at the given offset to the key, as in compareBytes()
+     */
+    private int compareString(final int stringOffset, final byte[] key) {
+        final long start = stringsOffset + stringOffset;
+        final int length = region.getInt(start);
+        final int minLength = Math.min(length, key.length);
+        for (int i = 0; i < minLength; i++) {
+            final int diff = (region.getByte(start + 4 + i) & 0xff) - (key[i] & 0xff);
+            if (diff != 0) return diff;
+        }
+        return length - key.length;
+    }
+
+    private String getString(final int stringOffset) {
+        if (stringOffset == NO_ENTRY) return null;
+        final long start = stringsOffset + stringOffset;
+        final byte[] bytes = new byte[region.getInt(start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = region.getByte(start + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getTaxId(final int taxonIndex) {
+        return region.getInt(taxIdsOffset + 4L * taxonIndex);
+    }
+
+    /**
+     * Returns the position of the tax ID in the sorted tax IDs, or -1 if it is absent
+     */
+    private int getTaxonIndex(final int taxId) {
+        int low = 0;
+        int high = numTaxa - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midTaxId = getTaxId(mid);
+            if (midTaxId < taxId) {
+                low = mid + 1;
+            } else if (midTaxId > taxId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    private int getExistingTaxonIndex(final int taxId, final String property) {
+        final int taxonIndex = getTaxonIndex(taxId);
+        Utils.validateArg(taxonIndex != NO_ENTRY, "Could not get " + property + " of node id " + taxId + " because it does not exist");
+        return taxonIndex;
+    }
+
+    @Override
+    public boolean hasNode(final int id) {
+        return getTaxonIndex(id) != NO_ENTRY;
+    }
+
+    /**
+     * Returns a read-only view of the mapped tax IDs
+     */
+    @Override
+    public Set<Integer> getNodeIDs() {
+        return new AbstractSet<Integer>() {
+            @Override
+            public boolean contains(final Object o) {
+                return o instanceof Integer && hasNode((Integer) o);
+            }
+
+            @Override
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    private int taxonIndex = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return taxonIndex < numTaxa;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return getTaxId(taxonIndex++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return numTaxa;
+            }
+        };
+    }
+
+    @Override
+    public String getNameOf(final int id) {
+        return getString(region.getInt(namesOffset + 4L * getExistingTaxonIndex(id, "name")));
+    }
+
+    @Override
+    public String getRankOf(final int id) {
+        return getString(region.getInt(ranksOffset + 4L * getExistingTaxonIndex(id, "rank")));
+    }
+
+    @Override
+    public long getLengthOf(final int id) {
+        return region.getLong(HEADER_SIZE + 8L * getExistingTaxonIndex(id, "length"));
+    }
+
+    /**
+     * Returns the taxon indices from the given taxon to the root. A path longer than the number of taxa must
+     * contain a cycle.
+     */
+    private int[] getIndexPathOf(final int id) {
+        int taxonIndex = getTaxonIndex(id);
+        if (taxonIndex == NO_ENTRY) {
+            throw new UserException.BadInput("Parent node " + id + " not found in tree while getting path");
+        }
+        int[] path = new int[16];
+        int length = 0;
+        while (taxonIndex != NO_ENTRY) {
+            if (length == numTaxa) {
+                throw new UserException.BadInput("The tree contains a cycle at node " + getTaxId(taxonIndex));
+            }
+            if (length == path.length) {
+                path = Arrays.copyOf(path, 2 * length);
+            }
+            path[length++] = taxonIndex;
+            taxonIndex = region.getInt(parentsOffset + 4L * taxonIndex);
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    @Override
+    public List<Integer> getPathOf(final int id) {
+        final int[] indexPath = getIndexPathOf(id);
+        final List<Integer> path = new ArrayList<>(indexPath.length);
+        for (final int taxonIndex : indexPath) {
+            path.add(getTaxId(taxonIndex));
+        }
+        return path;
+    }
+
+    /**
+     * Takes the intersection of node-to-root paths of all the nodes and finds the lowest one in the tree, as in
+     * PSTree.getLCA()
+     */
+    @Override
+    public int getLCA(final Collection<Integer> nodes) {
+        Utils.validateArg(nodes.size() > 0, "Queried lowest common ancestor of a null set");
+        final Iterator<Integer> iter = nodes.iterator();
+        final int[] firstPath = getIndexPathOf(iter.next());
+        final Set<Integer> commonNodes = new HashSet<>();
+        for (final int taxonIndex : firstPath) {
+            commonNodes.add(taxonIndex);
+        }
+        while (iter.hasNext()) {
+            final Set<Integer> pathNodes = new HashSet<>();
+            for (final int taxonIndex : getIndexPathOf(iter.next())) {
+                pathNodes.add(taxonIndex);
+            }
+            commonNodes.retainAll(pathNodes);
+        }
+        //Return first common node. Note paths are returned in order from lowest to highest (root at the end)
+        for (final int taxonIndex : firstPath) {
+            if (commonNodes.contains(taxonIndex)) return getTaxId(taxonIndex);
+        }
+        //This should never happen if the tree structure has been checked
+        throw new GATKException.ShouldNeverReachHereException("Could not find common ancester of node set.");
+    }
+
+    /**
+     * Accumulates the string region, storing each distinct string once
+     */
+    private static final class StringRegionBuilder {
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream output = new DataOutputStream(bytes);
+
+        int add(final String string) throws IOException {
+            if (string == null) return NO_ENTRY;
+            final Integer offset = offsets.get(string);
+            if (offset != null) return offset;
+            final int newOffset = add(string.getBytes(StandardCharsets.UTF_8));
+            offsets.put(string, newOffset);
+            return newOffset;
+        }
+
+        int add(final byte[] string) throws IOException {
+            final int offset = output.size();
+            final long end = (long) offset + 4 + string.length + 3;
+            if (end > Integer.MAX_VALUE) {
+                throw new GATKException("Taxonomy database strings are too large to memory-map");
+            }
+            output.writeInt(string.length);
+            output.write(string);
+            while ((output.size() & 3) != 0) {
+                output.writeByte(0);
+            }
+            return offset;
+        }
+
+        void write(final DataOutput out) throws IOException {
+            output.flush();
+            out.write(bytes.toByteArray());
+        }
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<PSMappedTaxonomyDatabase> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final PSMappedTaxonomyDatabase taxonomyDatabase) {
+            output.writeString(taxonomyDatabase.path);
+        }
+
+        @Override
+        public PSMappedTaxonomyDatabase read(final Kryo kryo, final Input input, final Class<PSMappedTaxonomyDatabase> klass) {
+            return new PSMappedTaxonomyDatabase(input.readString());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unnormalized taxon scores summed over some of the reads. The scores are kept in primitive arrays indexed by the
+ * position of each taxon in the sorted array of tax IDs returned by getTaxonIndex(), rather than in a map of
+ * PSPathogenTaxonScores, so that partial scores from different partitions, or from different runs against the same
+ * taxonomy database, can be merged cheaply. Normalized scores are computed only after all of them have been merged.
+ * A taxon is present if any reads were assigned to it.
+ */
+@DefaultSerializer(PSPartialTaxonScores.Serializer.class)
+public final class PSPartialTaxonScores implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int numTaxa;
+    //Allocated when the first score is added, so that empty scores (e.g. the zero value of an aggregation) are cheap
+    private double[] selfScores;
+    private double[] descendentScores;
+    private int[] totalReads;
+    private int[] unambiguousReads;
+
+    public PSPartialTaxonScores(final int numTaxa) {
+        Utils.validateArg(numTaxa >= 0, "Number of taxa must be non-negative");
+        this.numTaxa = numTaxa;
+    }
+
+    private PSPartialTaxonScores(final Kryo kryo, final Input input) {
+        numTaxa = input.readInt();
+        final int numPresent = input.readInt();
+        for (int i = 0; i < numPresent; i++) {
+            final int taxonIndex = input.readInt();
+            readScores(taxonIndex, input);
+        }
+    }
+
+    private void serialize(final Kryo kryo, final Output output) {
+        output.writeInt(numTaxa);
+        output.writeInt(numPresent());
+        for (int taxonIndex = 0; taxonIndex < numTaxa && totalReads != null; taxonIndex++) {
+            if (totalReads[taxonIndex] > 0) {
+                output.writeInt(taxonIndex);
+                writeScores(taxonIndex, output);
+            }
+        }
+    }
+
+    /**
+     * Returns the sorted tax IDs of the tree, whose positions index the score arrays
+     */
+    public static int[] getTaxonIndex(final PSTaxonomyTree tree) {
+        final int[] taxIds = tree.getNodeIDs().stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(taxIds);
+        return taxIds;
+    }
+
+    public int getNumTaxa() {
+        return numTaxa;
+    }
+
+    public boolean isEmpty() {
+        return totalReads == null;
+    }
+
+    private void allocate() {
+        if (totalReads == null) {
+            selfScores = new double[numTaxa];
+            descendentScores = new double[numTaxa];
+            totalReads = new int[numTaxa];
+            unambiguousReads = new int[numTaxa];
+        }
+    }
+
+    public void addSelfScore(final int taxonIndex, final double selfScore) {
+        Utils.validateArg(selfScore >= 0, "Taxon self score must be non-negative");
+        allocate();
+        selfScores[taxonIndex] += selfScore;
+    }
+
+    public void addDescendentScore(final int taxonIndex, final double descendentScore) {
+        Utils.validateArg(descendentScore >= 0, "Taxon descendent score must be non-negative");
+        allocate();
+        descendentScores[taxonIndex] += descendentScore;
+    }
+
+    public void addTotalReads(final int taxonIndex, final int reads) {
+        Utils.validateArg(reads >= 0, "Taxon read count must be non-negative");
+        allocate();
+        totalReads[taxonIndex] += reads;
+    }
+
+    public void addUnambiguousReads(final int taxonIndex, final int reads) {
+        Utils.validateArg(reads >= 0, "Taxon unambiguous read count must be non-negative");
+        allocate();
+        unambiguousReads[taxonIndex] += reads;
+    }
+
+    /**
+     * Adds the other scores to these ones, and returns this object
+     */
+    public PSPartialTaxonScores merge(final PSPartialTaxonScores other) {
+        Utils.nonNull(other, "Cannot merge taxon scores with null");
+        Utils.validateArg(numTaxa == other.numTaxa, "Cannot merge taxon scores indexed by different taxonomies");
+        if (other.isEmpty()) {
+            return this;
+        }
+        allocate();
+        for (int taxonIndex = 0; taxonIndex < numTaxa; taxonIndex++) {
+            selfScores[taxonIndex] += other.selfScores[taxonIndex];
+            descendentScores[taxonIndex] += other.descendentScores[taxonIndex];
+            totalReads[taxonIndex] += other.totalReads[taxonIndex];
+            unambiguousReads[taxonIndex] += other.unambiguousReads[taxonIndex];
+        }
+        return this;
+    }
+
+    private int numPresent() {
+        if (totalReads == null) return 0;
+        int count = 0;
+        for (final int reads : totalReads) {
+            if (reads > 0) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Converts to (unnormalized) scores keyed by tax ID
+     */
+    public Map<Integer, PSPathogenTaxonScore> toTaxonScores(final int[] taxonIndex, final PSTaxonomyTree tree) {
+        Utils.validateArg(taxonIndex.length == numTaxa, "Taxon index does not match the scores");
+        final Map<Integer, PSPathogenTaxonScore> taxScores = new HashMap<>();
+        for (int i = 0; i < numTaxa && totalReads != null; i++) {
+            if (totalReads[i] > 0) {
+                final int taxId = taxonIndex[i];
+                final PSPathogenTaxonScore score = new PSPathogenTaxonScore();
+                score.setReferenceLength(tree.getLengthOf(taxId));
+                score.addSelfScore(selfScores[i]);
+                score.addDescendentScore(descendentScores[i]);
+                score.addTotalReads(totalReads[i]);
+                score.addUnambiguousReads(unambiguousReads[i]);
+                taxScores.put(taxId, score);
+            }
+        }
+        return taxScores;
+    }
+
+    /**
+     * Writes the scores keyed by tax ID rather than by index, so that they can be read back with a taxonomy
+     * database whose tree has been built with a different set of nodes
+     */
+    public void writeByTaxId(final Output output, final int[] taxonIndex) {
+        Utils.validateArg(taxonIndex.length == numTaxa, "Taxon index does not match the scores");
+        output.writeInt(numPresent());
+        for (int i = 0; i < numTaxa && totalReads != null; i++) {
+            if (totalReads[i] > 0) {
+                output.writeInt(taxonIndex[i]);
+                writeScores(i, output);
+            }
+        }
+    }
+
+    /**
+     * Reads scores written by writeByTaxId(). Every taxon must be in the given index.
+     */
+    public static PSPartialTaxonScores readByTaxId(final Input input, final int[] taxonIndex) {
+        final PSPartialTaxonScores scores = new PSPartialTaxonScores(taxonIndex.length);
+        final int numPresent = input.readInt();
+        for (int i = 0; i < numPresent; i++) {
+            final int taxId = input.readInt();
+            final int index = Arrays.binarySearch(taxonIndex, taxId);
+            if (index < 0) {
+                throw new UserException.BadInput("Partial scores contain tax ID " + taxId + ", which is not in the taxonomy database");
+            }
+            scores.readScores(index, input);
+        }
+        return scores;
+    }
+
+    private void writeScores(final int taxonIndex, final Output output) {
+        output.writeDouble(selfScores[taxonIndex]);
+        output.writeDouble(descendentScores[taxonIndex]);
+        output.writeInt(totalReads[taxonIndex]);
+        output.writeInt(unambiguousReads[taxonIndex]);
+    }
+
+    private void readScores(final int taxonIndex, final Input input) {
+        addSelfScore(taxonIndex, input.readDouble());
+        addDescendentScore(taxonIndex, input.readDouble());
+        addTotalReads(taxonIndex, input.readInt());
+        addUnambiguousReads(taxonIndex, input.readInt());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PSPartialTaxonScores)) return false;
+
+        final PSPartialTaxonScores that = (PSPartialTaxonScores) o;
+
+        if (numTaxa != that.numTaxa) return false;
+        if (isEmpty() || that.isEmpty()) return numPresent() == that.numPresent();
+        return Arrays.equals(selfScores, that.selfScores) && Arrays.equals(descendentScores, that.descendentScores)
+                && Arrays.equals(totalReads, that.totalReads) && Arrays.equals(unambiguousReads, that.unambiguousReads);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = numTaxa;
+        if (!isEmpty() && numPresent() > 0) {
+            result = 31 * result + Arrays.hashCode(selfScores);
+            result = 31 * result + Arrays.hashCode(descendentScores);
+            result = 31 * result + Arrays.hashCode(totalReads);
+            result = 31 * result + Arrays.hashCode(unambiguousReads);
+        }
+        return result;
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<PSPartialTaxonScores> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final PSPartialTaxonScores scores) {
+            scores.serialize(kryo, output);
+        }
+
+        @Override
+        public PSPartialTaxonScores read(final Kryo kryo, final Input input, final Class<PSPartialTaxonScores> klass) {
+            return new PSPartialTaxonScores(kryo, input);
+        }
+    }
+}
@@ -25,7 +25,7 @@ public final class PSPathogenTaxonScore {
         return toString(String.valueOf(kingdomTaxonId));
     }
 
-    public String toString(final PSTree tree) {
+    public String toString(final PSTaxonomyTree tree) {
         return toString(tree.getNameOf(kingdomTaxonId));
     }
 
@@ -3,6 +3,8 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import org.broadinstitute.barclay.argparser.Argument;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class PSScoreArgumentCollection implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -11,7 +13,8 @@ public final class PSScoreArgumentCollection implements Serializable {
             fullName = "scoresOutputPath")
     public String scoresPath;
 
-    @Argument(doc = "URI to the reference taxonomy database build using PathSeqBuildReferenceTaxonomy",
+    @Argument(doc = "URI to the reference taxonomy database build using PathSeqBuildReferenceTaxonomy. Memory-mappable " +
+            "databases (" + PSBuildReferenceTaxonomyUtils.MAPPED_TAXONOMY_DATABASE_EXTENSION + ") must be on a local file system",
             fullName = "taxonomicDatabasePath")
     public String taxonomyDatabasePath;
 
@@ -51,4 +54,17 @@ public final class PSScoreArgumentCollection implements Serializable {
             optional = true)
     public int readsPerPartition = 200000;
 
+    @Argument(doc = "Write the unnormalized taxon scores to this file, so that the reads of later runs can be scored " +
+            "together with the reads of this one using --partialScoresInputPath",
+            fullName = "partialScoresOutputPath",
+            optional = true)
+    public String partialScoresOutputPath = null;
+
+    @Argument(doc = "Unnormalized taxon scores from earlier runs with the same taxonomy database, written with " +
+            "--partialScoresOutputPath, to add to the scores of this run before normalizing. May be specified more " +
+            "than once.",
+            fullName = "partialScoresInputPath",
+            optional = true)
+    public List<String> partialScoresInputPaths = new ArrayList<>();
+
 }
\ No newline at end of file
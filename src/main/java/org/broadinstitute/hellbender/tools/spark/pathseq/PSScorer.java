@@ -1,14 +1,16 @@
 package org.broadinstitute.hellbender.tools.spark.pathseq;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import htsjdk.samtools.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.Utils;
@@ -45,8 +47,8 @@ public final class PSScorer {
                 unpairedReads, scoreArgs.readsPerPartition);
 
         //Load taxonomy database, created by running PathSeqBuildReferenceTaxonomy with this reference
-        final PSTaxonomyDatabase taxDB = readTaxonomyDatabase(scoreArgs.taxonomyDatabasePath);
-        final Broadcast<PSTaxonomyDatabase> taxonomyDatabaseBroadcast = ctx.broadcast(taxDB);
+        final PSTaxonomy taxDB = readTaxonomy(scoreArgs.taxonomyDatabasePath);
+        final Broadcast<PSTaxonomy> taxonomyDatabaseBroadcast = ctx.broadcast(taxDB);
 
         //Check header against database
         if (scoreArgs.headerWarningFile != null) {
@@ -61,18 +63,32 @@ public final class PSScorer {
         //Get the original reads, now with their pathseq hit tags set
         final JavaRDD<GATKRead> readsFinal = flattenIterableKeys(readHits);
 
-        //Compute taxonomic scores from the alignment hits
+        //Compute taxonomic scores from the alignment hits. Each partition sums its scores into arrays indexed by
+        // taxon, which are then merged on the executors before they reach the driver
+        final int[] taxonIndex = PSPartialTaxonScores.getTaxonIndex(taxDB.getTree());
+        final Broadcast<int[]> taxonIndexBroadcast = ctx.broadcast(taxonIndex);
         final JavaRDD<PSPathogenAlignmentHit> alignmentHits = readHits.map(Tuple2::_2);
         final boolean divideByGenomeLength = scoreArgs.divideByGenomeLength; //To prevent serialization of PSScorer
-        final JavaPairRDD<Integer, PSPathogenTaxonScore> taxScoresRdd = alignmentHits
-                .mapPartitionsToPair(iter -> computeTaxScores(iter, taxonomyDatabaseBroadcast.value(), divideByGenomeLength));
+        final PSPartialTaxonScores partialScores = alignmentHits
+                .mapPartitions(iter -> Collections.singletonList(computePartialTaxScores(iter, taxonomyDatabaseBroadcast.value(),
+                        taxonIndexBroadcast.value(), divideByGenomeLength)).iterator())
+                .treeAggregate(new PSPartialTaxonScores(taxonIndex.length), PSPartialTaxonScores::merge, PSPartialTaxonScores::merge);
+        taxonIndexBroadcast.destroy();
+
+        //Add scores from earlier runs
+        for (final String path : scoreArgs.partialScoresInputPaths) {
+            partialScores.merge(readPartialScores(path, taxonIndex));
+        }
+        if (scoreArgs.partialScoresOutputPath != null) {
+            writePartialScores(partialScores, taxonIndex, scoreArgs.partialScoresOutputPath);
+        }
 
-        //Reduce scores by taxon and compute normalized scores
-        Map<Integer, PSPathogenTaxonScore> taxScoresMap = new HashMap<>(taxScoresRdd.reduceByKey(PSPathogenTaxonScore::add).collectAsMap());
-        taxScoresMap = computeNormalizedScores(taxScoresMap, taxDB.tree, scoreArgs.notNormalizedByKingdom);
+        //Compute normalized scores
+        final Map<Integer, PSPathogenTaxonScore> taxScoresMap = computeNormalizedScores(
+                partialScores.toTaxonScores(taxonIndex, taxDB.getTree()), taxDB.getTree(), scoreArgs.notNormalizedByKingdom);
 
         //Write scores to file
-        writeScoresFile(taxScoresMap, taxDB.tree, scoreArgs.scoresPath);
+        writeScoresFile(taxScoresMap, taxDB.getTree(), scoreArgs.scoresPath);
 
         return readsFinal;
     }
@@ -143,12 +159,12 @@ public final class PSScorer {
     /**
      * Writes accessions contained in a SAM header that do not exist in the taxonomy database
      */
-    public static void writeMissingReferenceAccessions(final String path, final SAMFileHeader header, final PSTaxonomyDatabase taxDB,
+    public static void writeMissingReferenceAccessions(final String path, final SAMFileHeader header, final PSTaxonomy taxDB,
                                                        final Logger logger) {
         if (header != null && header.getSequenceDictionary() != null && header.getSequenceDictionary().getSequences() != null) {
             final Set<String> unknownSequences = header.getSequenceDictionary().getSequences().stream()
                     .map(SAMSequenceRecord::getSequenceName)
-                    .filter(name -> !taxDB.accessionToTaxId.containsKey(name))
+                    .filter(name -> taxDB.getTaxIdOfAccession(name) == null)
                     .collect(Collectors.toSet());
             try (final PrintStream file = new PrintStream(BucketUtils.createFile(path))) {
                 unknownSequences.stream().forEach(file::print);
@@ -167,7 +183,7 @@ public final class PSScorer {
     static JavaRDD<Tuple2<Iterable<GATKRead>, PSPathogenAlignmentHit>> mapGroupedReadsToTax(final JavaRDD<Iterable<GATKRead>> pairs,
                                                                                             final double minIdentity,
                                                                                             final double identityMargin,
-                                                                                            final Broadcast<PSTaxonomyDatabase> taxonomyDatabaseBroadcast) {
+                                                                                            final Broadcast<? extends PSTaxonomy> taxonomyDatabaseBroadcast) {
         return pairs.map(readIter -> {
 
             //Number of reads in the pair (1 for unpaired reads)
@@ -210,7 +226,7 @@ public final class PSScorer {
      * Gets set of sufficiently well-mapped hits
      */
     private static Set<Integer> getValidHits(final GATKRead read,
-                                            final PSTaxonomyDatabase taxonomyDatabase,
+                                            final PSTaxonomy taxonomyDatabase,
                                             final double minIdentity,
                                             final double identityMargin) {
 
@@ -243,7 +259,7 @@ public final class PSScorer {
 
         //Throw out duplicates and accessions not in the taxonomic database so it returns a list of unique tax ID's
         // for each read in the pair
-        return bestHits.stream().map(hit -> taxonomyDatabase.accessionToTaxId.getOrDefault(hit.getAccession(), null))
+        return bestHits.stream().map(hit -> taxonomyDatabase.getTaxIdOfAccession(hit.getAccession()))
                 .filter(Objects::nonNull).collect(Collectors.toSet());
     }
 
@@ -281,10 +297,23 @@ public final class PSScorer {
      * Computes abundance scores and returns key-values of taxonomic id and scores
      */
     public static Iterator<Tuple2<Integer, PSPathogenTaxonScore>> computeTaxScores(final Iterator<PSPathogenAlignmentHit> taxonHits,
-                                                                                  final PSTaxonomyDatabase taxonomyDatabase,
+                                                                                  final PSTaxonomy taxonomyDatabase,
                                                                                   final boolean divideByGenomeLength) {
-        final PSTree tree = taxonomyDatabase.tree;
-        final Map<Integer, PSPathogenTaxonScore> taxIdsToScores = new HashMap<>();
+        final int[] taxonIndex = PSPartialTaxonScores.getTaxonIndex(taxonomyDatabase.getTree());
+        final Map<Integer, PSPathogenTaxonScore> taxIdsToScores = computePartialTaxScores(taxonHits, taxonomyDatabase,
+                taxonIndex, divideByGenomeLength).toTaxonScores(taxonIndex, taxonomyDatabase.getTree());
+        return taxIdsToScores.entrySet().stream().map(entry -> new Tuple2<>(entry.getKey(), entry.getValue())).iterator();
+    }
+
+    /**
+     * Computes unnormalized abundance scores, indexed by the position of each tax ID in taxonIndex
+     */
+    static PSPartialTaxonScores computePartialTaxScores(final Iterator<PSPathogenAlignmentHit> taxonHits,
+                                                        final PSTaxonomy taxonomyDatabase,
+                                                        final int[] taxonIndex,
+                                                        final boolean divideByGenomeLength) {
+        final PSTaxonomyTree tree = taxonomyDatabase.getTree();
+        final PSPartialTaxonScores scores = new PSPartialTaxonScores(taxonIndex.length);
         final Set<Integer> invalidIds = new HashSet<>();
         while (taxonHits.hasNext()) {
             final PSPathogenAlignmentHit hit = taxonHits.next();
@@ -304,7 +333,7 @@ public final class PSScorer {
             final int lowestCommonAncestor = tree.getLCA(hitTaxIds);
             final List<Integer> lcaPath = tree.getPathOf(lowestCommonAncestor);
             for (final int taxId : lcaPath) {
-                getOrAddScoreInfo(taxId, taxIdsToScores, tree).addUnambiguousReads(hit.numMates);
+                scores.addUnambiguousReads(getTaxonIndexOf(taxId, taxonIndex), hit.numMates);
             }
 
             //Scores normalized by genome length and degree of ambiguity (number of hits)
@@ -316,25 +345,31 @@ public final class PSScorer {
                 final List<Integer> path = tree.getPathOf(taxId);
                 hitPathNodes.addAll(path);
                 for (final int pathTaxId : path) {
-                    final PSPathogenTaxonScore info = getOrAddScoreInfo(pathTaxId, taxIdsToScores, tree);
                     if (pathTaxId == taxId) {
-                        info.addSelfScore(score);
+                        scores.addSelfScore(getTaxonIndexOf(pathTaxId, taxonIndex), score);
                     } else {
-                        info.addDescendentScore(score);
+                        scores.addDescendentScore(getTaxonIndexOf(pathTaxId, taxonIndex), score);
                     }
-                    taxIdsToScores.put(pathTaxId, info);
                 }
             }
 
             //"reads" score is the number of reads that COULD belong to each node i.e. an upper-bound
             for (final int taxId : hitPathNodes) {
-                getOrAddScoreInfo(taxId, taxIdsToScores, tree).addTotalReads(hit.numMates);
+                scores.addTotalReads(getTaxonIndexOf(taxId, taxonIndex), hit.numMates);
             }
         }
         PSUtils.logItemizedWarning(logger, invalidIds, "The following taxonomic ID hits were ignored because " +
                 "they either could not be found in the tree or had a reference length of 0 (this may happen when " +
                 "the catalog file, taxdump file, and/or pathogen reference are inconsistent)");
-        return taxIdsToScores.entrySet().stream().map(entry -> new Tuple2<>(entry.getKey(), entry.getValue())).iterator();
+        return scores;
+    }
+
+    private static int getTaxonIndexOf(final int taxId, final int[] taxonIndex) {
+        final int index = Arrays.binarySearch(taxonIndex, taxId);
+        if (index < 0) {
+            throw new GATKException("Tax ID " + taxId + " is in the tree but not in the taxon index");
+        }
+        return index;
     }
 
     /**
@@ -343,7 +378,7 @@ public final class PSScorer {
      * each taxon score is normalized by only the scores in its kingdom if it has one, otherwise superkingdom.
      */
     static final Map<Integer, PSPathogenTaxonScore> computeNormalizedScores(final Map<Integer, PSPathogenTaxonScore> taxIdsToScores,
-                                                                           final PSTree tree, boolean notNormalizedByKingdom) {
+                                                                           final PSTaxonomyTree tree, boolean notNormalizedByKingdom) {
         //Get sum of all scores assigned under each superkingdom or the root node
         final Map<Integer, Double> normalizationSums = new HashMap<>();
         assignKingdoms(taxIdsToScores, normalizationSums, tree, notNormalizedByKingdom);
@@ -375,7 +410,7 @@ public final class PSScorer {
      */
     private static void assignKingdoms(final Map<Integer, PSPathogenTaxonScore> taxIdsToScores,
                                       final Map<Integer, Double> normalizationSums,
-                                      final PSTree tree, final boolean notNormalizedByKingdom) {
+                                      final PSTaxonomyTree tree, final boolean notNormalizedByKingdom) {
         for (final Map.Entry<Integer, PSPathogenTaxonScore> entry : taxIdsToScores.entrySet()) {
             final int taxonId = entry.getKey();
             final PSPathogenTaxonScore score = entry.getValue();
@@ -399,20 +434,34 @@ public final class PSScorer {
     }
 
     /**
-     * Helper function for handling PSPathogenTaxonScore retrieval from the taxScores map
+     * Reads unnormalized scores written by writePartialScores
      */
-    private static PSPathogenTaxonScore getOrAddScoreInfo(final int taxId,
-                                                          final Map<Integer, PSPathogenTaxonScore> taxScores,
-                                                          final PSTree tree) {
-        final PSPathogenTaxonScore score;
-        if (taxScores.containsKey(taxId)) {
-            score = taxScores.get(taxId);
-        } else {
-            score = new PSPathogenTaxonScore();
-            score.setReferenceLength(tree.getLengthOf(taxId));
-            taxScores.put(taxId, score);
+    public static PSPartialTaxonScores readPartialScores(final String filePath, final int[] taxonIndex) {
+        try (final Input input = new Input(BucketUtils.openFile(filePath))) {
+            return PSPartialTaxonScores.readByTaxId(input, taxonIndex);
+        } catch (final KryoException e) {
+            throw new UserException.CouldNotReadInputFile("Could not read partial scores from " + filePath, e);
+        }
+    }
+
+    /**
+     * Writes unnormalized scores, so that a later run can add its own scores to them
+     */
+    public static void writePartialScores(final PSPartialTaxonScores scores, final int[] taxonIndex, final String filePath) {
+        try (final Output output = new Output(BucketUtils.createFile(filePath))) {
+            scores.writeByTaxId(output, taxonIndex);
+        }
+    }
+
+    /**
+     * Reads a taxonomy database written by PathSeqBuildReferenceTaxonomy, memory-mapping it if it was written in the
+     * mappable format
+     */
+    public static PSTaxonomy readTaxonomy(final String filePath) {
+        if (filePath.toLowerCase().endsWith(PSBuildReferenceTaxonomyUtils.MAPPED_TAXONOMY_DATABASE_EXTENSION)) {
+            return new PSMappedTaxonomyDatabase(filePath);
         }
-        return score;
+        return readTaxonomyDatabase(filePath);
     }
 
     /**
@@ -432,7 +481,7 @@ public final class PSScorer {
      * Output a tab-delimited table of taxonomic scores
      */
     public static void writeScoresFile(final Map<Integer, PSPathogenTaxonScore> scores,
-                                       final PSTree tree, final String filePath) {
+                                       final PSTaxonomyTree tree, final String filePath) {
         final String header = "tax_id\ttaxonomy\ttype\tname\t" + PSPathogenTaxonScore.outputHeader;
         try (final PrintStream printStream = new PrintStream(BucketUtils.createFile(filePath))) {
             printStream.println(header);
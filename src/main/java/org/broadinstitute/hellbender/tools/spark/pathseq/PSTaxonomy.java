@@ -0,0 +1,15 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+/**
+ * Taxonomy data used for scoring: the taxonomic tree and the tax ID of each reference contig. Implemented by
+ * PSTaxonomyDatabase, which is deserialized into the heap, and by PSMappedTaxonomyDatabase, which is memory-mapped.
+ */
+public interface PSTaxonomy {
+
+    PSTaxonomyTree getTree();
+
+    /**
+     * Returns the tax ID of the reference contig with the given accession, or null if there is none
+     */
+    Integer getTaxIdOfAccession(final String accession);
+}
@@ -12,7 +12,7 @@ import java.util.Map;
  * Helper class for holding taxonomy data used by ClassifyReads
  */
 @DefaultSerializer(PSTaxonomyDatabase.Serializer.class)
-public class PSTaxonomyDatabase {
+public class PSTaxonomyDatabase implements PSTaxonomy {
     public final PSTree tree;
     public final Map<String, Integer> accessionToTaxId; //Reference contig name to taxonomic ID
 
@@ -21,6 +21,16 @@ public class PSTaxonomyDatabase {
         this.accessionToTaxId = map;
     }
 
+    @Override
+    public PSTaxonomyTree getTree() {
+        return tree;
+    }
+
+    @Override
+    public Integer getTaxIdOfAccession(final String accession) {
+        return accessionToTaxId.get(accession);
+    }
+
     private PSTaxonomyDatabase(final Kryo kryo, final Input input) {
         final boolean oldReferences = kryo.getReferences();
         kryo.setReferences(false);
@@ -0,0 +1,32 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-only queries on a taxonomic tree, as needed for scoring. Implemented by PSTree and by the memory-mapped
+ * PSMappedTaxonomyDatabase.
+ */
+public interface PSTaxonomyTree {
+
+    boolean hasNode(final int id);
+
+    Set<Integer> getNodeIDs();
+
+    String getNameOf(final int id);
+
+    String getRankOf(final int id);
+
+    long getLengthOf(final int id);
+
+    /**
+     * Returns path of node id's from the input id to the root.
+     */
+    List<Integer> getPathOf(final int id);
+
+    /**
+     * Get lowest common ancester of the set of given nodes.
+     */
+    int getLCA(final Collection<Integer> nodes);
+}
@@ -22,7 +22,7 @@ import java.util.stream.Collectors;
  * Note the tree root is initialized in the constructor and cannot be modified (except adding children with addNode()).
  */
 @DefaultSerializer(PSTree.Serializer.class)
-public class PSTree {
+public class PSTree implements PSTaxonomyTree {
 
     private final int root;
     private Map<Integer, PSTreeNode> tree;
@@ -177,6 +177,7 @@ public class PSTree {
      * Get lowest common ancester of the set of given nodes.
      * Takes the intersection of node-to-root paths of all the nodes and finding the lowest one in the tree.
      */
+    @Override
     public int getLCA(final Collection<Integer> nodes) {
         Utils.validateArg(nodes.size() > 0, "Queried lowest common ancestor of a null set");
         final List<List<Integer>> paths = new ArrayList<>(nodes.size());
@@ -202,10 +203,12 @@ public class PSTree {
         return tree.get(id).getChildren();
     }
 
+    @Override
     public Set<Integer> getNodeIDs() {
         return tree.keySet();
     }
 
+    @Override
     public String getNameOf(final int id) {
         Utils.validateArg(tree.containsKey(id), "Could not get name of node id " + id + " because it does not exist");
         return tree.get(id).getName();
@@ -216,16 +219,19 @@ public class PSTree {
         return tree.get(id).getParent();
     }
 
+    @Override
     public long getLengthOf(final int id) {
         Utils.validateArg(tree.containsKey(id), "Could not get length of node id " + id + " because it does not exist");
         return tree.get(id).getLength();
     }
 
+    @Override
     public String getRankOf(final int id) {
         Utils.validateArg(tree.containsKey(id), "Could not get rank of node id " + id + " because it does not exist");
         return tree.get(id).getRank();
     }
 
+    @Override
     public boolean hasNode(final int id) {
         return tree.containsKey(id);
     }
@@ -277,6 +283,7 @@ public class PSTree {
     /**
      * Returns path of node id's from the input id to the root.
      */
+    @Override
     public List<Integer> getPathOf(int id) {
         final List<Integer> path = new ArrayList<>();
         final Set<Integer> visitedNodes = new HashSet<>(tree.size());
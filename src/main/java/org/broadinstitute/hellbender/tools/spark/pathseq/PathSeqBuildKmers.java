@@ -7,7 +7,9 @@ import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.PathSeqProgramGroup;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceFileSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.utils.BlockedLongBloomFilter;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 
@@ -28,7 +30,10 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
 
     @Argument(doc = "File for kmer library output. Extension will be automatically added if not present ("
             + PSKmerUtils.HOPSCOTCH_SET_EXTENSION + " for hash set or "
-            + PSKmerUtils.BLOOM_FILTER_EXTENSION + " for Bloom filter)",
+            + PSKmerUtils.BLOOM_FILTER_EXTENSION + " for Bloom filter, "
+            + PSKmerUtils.BLOCKED_BLOOM_FILTER_EXTENSION + " for blocked Bloom filter, or "
+            + PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION + " and " + PSKmerUtils.MAPPED_BLOOM_FILTER_EXTENSION
+            + " with --memoryMappable)",
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
             fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME)
     public String outputFile;
@@ -45,6 +50,13 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
             optional = true)
     public double bloomFpp = 0;
 
+    @Argument(doc = "Build a blocked Bloom filter, which keeps the bits for each kmer within a single cache line. It is " +
+            "somewhat larger than a standard Bloom filter with the same false positive probability, but much faster to " +
+            "query. Requires --bloomFalsePositiveProbability and cannot be used with --memoryMappable",
+            fullName = "blockedBloomFilter",
+            optional = true)
+    public boolean blockedBloomFilter = false;
+
     @Argument(doc = "Kmer size, must be odd and less than 32",
             fullName = "kSize",
             minValue = 1,
@@ -63,12 +75,26 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
             optional = true)
     public int kmerSpacing = 1;
 
+    @Argument(doc = "Write the kmer library in a format that is memory-mapped instead of deserialized when it is loaded. " +
+            "Mapped libraries load almost instantly and are kept outside of the Java heap, but must be read from a local " +
+            "file system",
+            fullName = "memoryMappable",
+            optional = true)
+    public boolean memoryMappable = false;
+
     /**
      * Get the list of distinct kmers in the reference, and write them to a file as a HopScotch set or Bloom filter.
      */
     @Override
     protected Object doWork() {
 
+        if (blockedBloomFilter && bloomFpp <= 0) {
+            throw new UserException.BadInput("--blockedBloomFilter requires --bloomFalsePositiveProbability to be greater than zero");
+        }
+        if (blockedBloomFilter && memoryMappable) {
+            throw new UserException.BadInput("--blockedBloomFilter cannot be used with --memoryMappable");
+        }
+
         final ReferenceFileSource reference = new ReferenceFileSource(referencePath);
 
         final byte[] maskBytes = PSUtils.parseMask(kmerMaskString, kmerSize);
@@ -77,17 +103,31 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
         logger.info("Loading reference kmers...");
         final Collection<long[]> maskedKmerCollection = PSKmerUtils.getMaskedKmersFromLocalReference(reference, kmerSize, kmerSpacing, kmerMask);
         final long numLongs = PSKmerUtils.longArrayCollectionSize(maskedKmerCollection);
-        if (bloomFpp > 0) {
+        if (blockedBloomFilter) {
+            logger.info("Building blocked Bloom filter with false positive probability " + bloomFpp + "...");
+            final BlockedLongBloomFilter bloomFilter = PSKmerUtils.longArrayCollectionToBlockedBloomFilter(maskedKmerCollection, numLongs, bloomFpp);
+            final PSKmerBlockedBloomFilter kmerBloomFilter = new PSKmerBlockedBloomFilter(bloomFilter, kmerSize, kmerMask, numLongs);
+            logger.info("Theoretical Bloom filter false positive probability: " + kmerBloomFilter.getFalsePositiveProbability());
+            PSKmerUtils.writeKmerBlockedBloomFilter(outputFile, kmerBloomFilter);
+        } else if (bloomFpp > 0) {
             logger.info("Building Bloom filter with false positive probability " + bloomFpp + "...");
             final LongBloomFilter bloomFilter = PSKmerUtils.longArrayCollectionToBloomFilter(maskedKmerCollection, numLongs, bloomFpp);
             final PSKmerBloomFilter kmerBloomFilter = new PSKmerBloomFilter(bloomFilter, kmerSize, kmerMask, numLongs);
             logger.info("Theoretical Bloom filter false positive probability: " + kmerBloomFilter.getFalsePositiveProbability());
-            PSKmerUtils.writeKmerBloomFilter(outputFile, kmerBloomFilter);
+            if (memoryMappable) {
+                PSKmerUtils.writeMappedKmerBloomFilter(outputFile, kmerBloomFilter);
+            } else {
+                PSKmerUtils.writeKmerBloomFilter(outputFile, kmerBloomFilter);
+            }
         } else {
             logger.info("Building kmer hash set...");
             final LargeLongHopscotchSet kmerHopscotchSet = PSKmerUtils.longArrayCollectionToSet(maskedKmerCollection, numLongs);
             final PSKmerSet kmerSet = new PSKmerSet(kmerHopscotchSet, kmerSize, kmerMask);
-            PSKmerUtils.writeKmerSet(outputFile, kmerSet);
+            if (memoryMappable) {
+                PSKmerUtils.writeMappedKmerSet(outputFile, kmerSet);
+            } else {
+                PSKmerUtils.writeKmerSet(outputFile, kmerSet);
+            }
         }
         return null;
     }
@@ -26,7 +26,8 @@ import java.util.*;
  * <p>
  * The database is built from a RefSeq and/or Genbank catalog file and the NCBI taxonomy dump.
  * <p>
- * The database is written to an output file, which is required by the ClassifyReads tool.
+ * The database is written to an output file, which is required by the ClassifyReads tool. Optionally, it is also
+ * written in a flat format that the scoring tools memory-map instead of deserializing.
  */
 @CommandLineProgramProperties(summary = "Builds a taxonomic database of the pathogen reference that " +
         "is required to run the scoring tool. User must supply a pathogen reference, NCBI catalog, and NCBI taxonomy " +
@@ -58,6 +59,13 @@ public class PathSeqBuildReferenceTaxonomy extends CommandLineProgram {
     @Argument(doc = "Minimum reference contig length for non-viruses",
             fullName = "minNonVirusContigLength")
     public int minNonVirusContigLength = 0;
+    @Argument(doc = "Local path for an additional copy of the database in a format that is memory-mapped instead of " +
+            "deserialized when it is loaded. It is used in place of the output file by passing it to the scoring tool, " +
+            "and must be read from a local file system. The extension " +
+            PSBuildReferenceTaxonomyUtils.MAPPED_TAXONOMY_DATABASE_EXTENSION + " is appended if missing.",
+            fullName = "memoryMappableOutput",
+            optional = true)
+    public String mappedOutputPath = null;
 
     @Override
     public Object doWork() {
@@ -121,7 +129,11 @@ public class PathSeqBuildReferenceTaxonomy extends CommandLineProgram {
         final Map<String, Integer> accessionToTaxId = PSBuildReferenceTaxonomyUtils.buildAccessionToTaxIdMap(taxIdToProperties, tree, minNonVirusContigLength);
 
         //Write output
-        PSBuildReferenceTaxonomyUtils.writeTaxonomyDatabase(outputPath, new PSTaxonomyDatabase(tree, accessionToTaxId));
+        final PSTaxonomyDatabase taxonomyDatabase = new PSTaxonomyDatabase(tree, accessionToTaxId);
+        PSBuildReferenceTaxonomyUtils.writeTaxonomyDatabase(outputPath, taxonomyDatabase);
+        if (mappedOutputPath != null) {
+            PSBuildReferenceTaxonomyUtils.writeMappedTaxonomyDatabase(mappedOutputPath, taxonomyDatabase);
+        }
 
         return null;
     }
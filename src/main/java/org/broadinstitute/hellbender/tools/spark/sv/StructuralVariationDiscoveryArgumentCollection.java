@@ -87,6 +87,11 @@ public class StructuralVariationDiscoveryArgumentCollection implements Serializa
         @Argument(doc = "Don't look for extra reads mapped outside the interval.", fullName = "intervalOnlyAssembly")
         public boolean intervalOnlyAssembly = false;
 
+        @Argument(doc = "Decode the reads once to gather the read metadata, evidence, coverage, and mapped template names: "+
+                "persist a serialized copy of the mapped reads, stripped of the fields these passes don't use, and scan it "+
+                "instead of the input for each of them.", fullName = "persistEvidenceScanReads", optional = true)
+        public boolean persistEvidenceScanReads = false;
+
         @Argument(doc = "Weight to give external evidence.", fullName = "externalEvidenceWeight")
         public int externalEvidenceWeight = 10;
 
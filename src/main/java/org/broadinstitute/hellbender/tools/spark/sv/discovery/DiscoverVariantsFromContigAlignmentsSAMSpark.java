@@ -33,6 +33,7 @@ import scala.Tuple2;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -116,12 +117,21 @@ public final class DiscoverVariantsFromContigAlignmentsSAMSpark extends GATKSpar
             this.splitGapped = splitGapped;
         }
 
+        /**
+         * If the header says that the alignments are collated by contig name (e.g. queryname-sorted), the records for
+         * each contig are gathered as the partitions are streamed, rather than by shuffling all of them.
+         */
         @Override
         public JavaRDD<AlignedContig> getAlignedContigs() {
-            return unfilteredContigAlignments
-                    .filter(r -> !r.isSecondaryAlignment())
-                    .groupBy(GATKRead::getName)
-                    .map(Tuple2::_2)
+            final JavaRDD<GATKRead> noSecondaryAlignments =
+                    unfilteredContigAlignments.filter(r -> !r.isSecondaryAlignment());
+            final JavaRDD<? extends Iterable<GATKRead>> alignmentsByContig;
+            if ( NameCollatedReadsGrouper.isNameCollated(header) ) {
+                alignmentsByContig = NameCollatedReadsGrouper.groupByName(noSecondaryAlignments);
+            } else {
+                alignmentsByContig = noSecondaryAlignments.groupBy(GATKRead::getName).map(Tuple2::_2);
+            }
+            return alignmentsByContig
                     .map(gatkReads ->
                             parseReadsAndOptionallySplitGappedAlignments(
                                     Utils.stream(gatkReads).map(r->r.convertToSAMRecord(header)).collect(Collectors.toList()),
@@ -199,7 +209,9 @@ public final class DiscoverVariantsFromContigAlignmentsSAMSpark extends GATKSpar
                         .mapToPair(alignedContig -> new Tuple2<>(alignedContig.contigSequence,                                        // filter a contig's alignment and massage into ordered collection of chimeric alignments
                                 ChimericAlignment.parseOneContig(alignedContig, DEFAULT_MIN_ALIGNMENT_LENGTH)))
                         .flatMapToPair(DiscoverVariantsFromContigAlignmentsSAMSpark::discoverNovelAdjacencyFromChimericAlignments)    // a filter-passing contig's alignments may or may not produce novel adjacency
-                        .groupByKey()                                                                                                 // group the same novel adjacency produced by different contigs together
+                        .combineByKey(DiscoverVariantsFromContigAlignmentsSAMSpark::newEvidenceList,                                  // group the same novel adjacency produced by different contigs together,
+                                DiscoverVariantsFromContigAlignmentsSAMSpark::addEvidence,                                            //  merging the evidence of each partition before the shuffle
+                                DiscoverVariantsFromContigAlignmentsSAMSpark::mergeEvidence)
                         .mapToPair(noveltyAndEvidence -> inferType(noveltyAndEvidence._1, noveltyAndEvidence._2))                     // type inference based on novel adjacency and evidence alignments
                         .map(noveltyTypeAndEvidence ->
                                 annotateVariant(                                                                                      // annotate the novel adjacency and inferred type
@@ -277,6 +289,24 @@ public final class DiscoverVariantsFromContigAlignmentsSAMSpark extends GATKSpar
                 .collect(Collectors.toList()).iterator();
     }
 
+    private static List<ChimericAlignment> newEvidenceList( final ChimericAlignment chimericAlignment ) {
+        final List<ChimericAlignment> evidence = new ArrayList<>();
+        evidence.add(chimericAlignment);
+        return evidence;
+    }
+
+    private static List<ChimericAlignment> addEvidence( final List<ChimericAlignment> evidence,
+                                                        final ChimericAlignment chimericAlignment ) {
+        evidence.add(chimericAlignment);
+        return evidence;
+    }
+
+    private static List<ChimericAlignment> mergeEvidence( final List<ChimericAlignment> evidence1,
+                                                          final List<ChimericAlignment> evidence2 ) {
+        evidence1.addAll(evidence2);
+        return evidence1;
+    }
+
     // TODO: 7/6/17 interface to be changed in the new implementation, where a set of NRAL's associated with a single contig is considered together.
     /**
      * Given input novel adjacency and evidence chimeric alignments, infer type of variant.
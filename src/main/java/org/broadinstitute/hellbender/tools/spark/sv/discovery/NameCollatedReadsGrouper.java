@@ -0,0 +1,163 @@
+package org.broadinstitute.hellbender.tools.spark.sv.discovery;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import htsjdk.samtools.SAMFileHeader;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.FlatMapFunction2;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import scala.Tuple2;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Groups the records of a name-collated (i.e., queryname-sorted or query-grouped) RDD of reads by read name,
+ * streaming through each partition, instead of shuffling all the records with a groupBy.
+ *
+ * <p>
+ *     The records for a name might straddle partition boundaries. So the only shuffling we do is to collect the
+ *     leading group of records of each partition (the records having the same name as the first one), and to hand each
+ *     of these groups over to the partition that holds the rest of the records having that name.
+ *     This is just a few records per partition.
+ * </p>
+ */
+public final class NameCollatedReadsGrouper {
+
+    private NameCollatedReadsGrouper() {}
+
+    /**
+     * Whether the header promises that all the records for a name are adjacent.
+     */
+    public static boolean isNameCollated( final SAMFileHeader header ) {
+        return header.getSortOrder() == SAMFileHeader.SortOrder.queryname ||
+                header.getGroupOrder() == SAMFileHeader.GroupOrder.query;
+    }
+
+    /**
+     * Returns the records grouped by name, in the order they appear in the input.
+     * The input must be name-collated.
+     */
+    public static JavaRDD<List<GATKRead>> groupByName( final JavaRDD<GATKRead> reads ) {
+        final int nPartitions = reads.getNumPartitions();
+        final List<LeadingGroup> leadingGroups =
+                reads.mapPartitions(readItr -> Collections.singletonList(new LeadingGroup(readItr)).iterator()).collect();
+
+        final List<Tuple2<Boolean, List<GATKRead>>> dropFlagsAndAdoptedReads =
+                assignLeadingGroups(leadingGroups);
+
+        final JavaSparkContext ctx = JavaSparkContext.fromSparkContext(reads.context());
+        return reads.zipPartitions(ctx.parallelize(dropFlagsAndAdoptedReads, nPartitions),
+                (FlatMapFunction2<Iterator<GATKRead>, Iterator<Tuple2<Boolean, List<GATKRead>>>, List<GATKRead>>)
+                        (readItr, dropFlagAndAdoptedReadsItr) -> {
+                    final Tuple2<Boolean, List<GATKRead>> dropFlagAndAdoptedReads = dropFlagAndAdoptedReadsItr.next();
+                    final PeekingIterator<GATKRead> partitionReadItr = Iterators.peekingIterator(readItr);
+                    if ( dropFlagAndAdoptedReads._1() && partitionReadItr.hasNext() ) {
+                        // the leading group has been adopted by an earlier partition
+                        final String leadingName = partitionReadItr.peek().getName();
+                        while ( partitionReadItr.hasNext() && partitionReadItr.peek().getName().equals(leadingName) ) {
+                            partitionReadItr.next();
+                        }
+                    }
+                    return new NameGroupIterator(
+                            Iterators.concat(partitionReadItr, dropFlagAndAdoptedReads._2().iterator()));
+                });
+    }
+
+    /**
+     * Decides, for each partition, whether its leading group is handed to an earlier partition, and which of the
+     * following partitions' leading groups it adopts.
+     * Each leading group goes to the nearest earlier non-empty partition, unless that one is made up entirely of a
+     * leading group with the same name, which was itself handed over. In that case they go to the same place.
+     */
+    private static List<Tuple2<Boolean, List<GATKRead>>> assignLeadingGroups( final List<LeadingGroup> leadingGroups ) {
+        final int nPartitions = leadingGroups.size();
+        final List<List<GATKRead>> adoptedReads = new ArrayList<>(nPartitions);
+        final List<Boolean> dropFlags = new ArrayList<>(nPartitions);
+        int previousPartition = -1;  // nearest earlier non-empty partition
+        int previousOwner = -1;      // partition that holds the records named like the last record of previousPartition
+        for ( int partition = 0; partition != nPartitions; ++partition ) {
+            adoptedReads.add(new ArrayList<>());
+            final LeadingGroup leadingGroup = leadingGroups.get(partition);
+            if ( leadingGroup.isEmpty() ) {
+                dropFlags.add(false);
+                continue;
+            }
+            if ( previousPartition == -1 ) {
+                dropFlags.add(false);
+                previousOwner = partition;
+            } else {
+                final LeadingGroup previousGroup = leadingGroups.get(previousPartition);
+                final int owner = previousGroup.isWholePartition() && previousGroup.getName().equals(leadingGroup.getName()) ?
+                        previousOwner : previousPartition;
+                adoptedReads.get(owner).addAll(leadingGroup.getReads());
+                dropFlags.add(true);
+                previousOwner = leadingGroup.isWholePartition() ? owner : partition;
+            }
+            previousPartition = partition;
+        }
+        final List<Tuple2<Boolean, List<GATKRead>>> result = new ArrayList<>(nPartitions);
+        for ( int partition = 0; partition != nPartitions; ++partition ) {
+            result.add(new Tuple2<>(dropFlags.get(partition), adoptedReads.get(partition)));
+        }
+        return result;
+    }
+
+    /**
+     * The records at the start of a partition having the same name as the first one.
+     */
+    private static final class LeadingGroup implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final List<GATKRead> reads;
+        private final boolean wholePartition;
+
+        LeadingGroup( final Iterator<GATKRead> readItr ) {
+            reads = new ArrayList<>();
+            final PeekingIterator<GATKRead> partitionReadItr = Iterators.peekingIterator(readItr);
+            if ( partitionReadItr.hasNext() ) {
+                final String name = partitionReadItr.peek().getName();
+                while ( partitionReadItr.hasNext() && partitionReadItr.peek().getName().equals(name) ) {
+                    reads.add(partitionReadItr.next());
+                }
+            }
+            wholePartition = !partitionReadItr.hasNext();
+        }
+
+        boolean isEmpty() { return reads.isEmpty(); }
+        boolean isWholePartition() { return wholePartition; }
+        String getName() { return reads.get(0).getName(); }
+        List<GATKRead> getReads() { return reads; }
+    }
+
+    /**
+     * Gathers runs of records having the same name.
+     */
+    private static final class NameGroupIterator implements Iterator<List<GATKRead>> {
+        private final PeekingIterator<GATKRead> readItr;
+
+        NameGroupIterator( final Iterator<GATKRead> readItr ) {
+            this.readItr = Iterators.peekingIterator(readItr);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return readItr.hasNext();
+        }
+
+        @Override
+        public List<GATKRead> next() {
+            if ( !hasNext() ) throw new NoSuchElementException("No more read names.");
+            final List<GATKRead> group = new ArrayList<>();
+            final String name = readItr.peek().getName();
+            while ( readItr.hasNext() && readItr.peek().getName().equals(name) ) {
+                group.add(readItr.next());
+            }
+            return group;
+        }
+    }
+}
@@ -37,6 +37,7 @@ public final class AlignedAssemblyOrExcuse {
     private final FermiLiteAssembly assembly;
     private final List<List<BwaMemAlignment>> contigAlignments;
     private final int secondsInAssembly;
+    private final int secondsInAlignment;
 
     public AlignedAssemblyOrExcuse( final int assemblyId, final String errorMessage ) {
         this.assemblyId = assemblyId;
@@ -44,10 +45,16 @@ public final class AlignedAssemblyOrExcuse {
         this.assembly = null;
         this.contigAlignments = null;
         this.secondsInAssembly = 0;
+        this.secondsInAlignment = 0;
     }
 
     public AlignedAssemblyOrExcuse( final int assemblyId, final FermiLiteAssembly assembly, final int secondsInAssembly,
                                     final List<List<BwaMemAlignment>> contigAlignments ) {
+        this(assemblyId, assembly, secondsInAssembly, 0, contigAlignments);
+    }
+
+    public AlignedAssemblyOrExcuse( final int assemblyId, final FermiLiteAssembly assembly, final int secondsInAssembly,
+                                    final int secondsInAlignment, final List<List<BwaMemAlignment>> contigAlignments ) {
         Utils.validate(assembly.getNContigs()==contigAlignments.size(),
                 "Number of contigs in assembly doesn't match length of list of alignments.");
         Utils.validateArg(assembly.getContigs().stream().noneMatch(contig -> contig.getConnections()==null),
@@ -57,12 +64,14 @@ public final class AlignedAssemblyOrExcuse {
         this.assembly = assembly;
         this.contigAlignments = contigAlignments;
         this.secondsInAssembly = secondsInAssembly;
+        this.secondsInAlignment = secondsInAlignment;
     }
 
     private AlignedAssemblyOrExcuse( final Kryo kryo, final Input input ) {
         this.assemblyId = input.readInt();
         this.errorMessage = input.readString();
         this.secondsInAssembly = input.readInt();
+        this.secondsInAlignment = input.readInt();
         if ( errorMessage != null ) {
             this.assembly = null;
             this.contigAlignments = null;
@@ -97,6 +106,8 @@ public final class AlignedAssemblyOrExcuse {
 
     public int getSecondsInAssembly() { return secondsInAssembly; }
 
+    public int getSecondsInAlignment() { return secondsInAlignment; }
+
     /**
      * write a SAM file containing records for each aligned contig
      */
@@ -169,11 +180,13 @@ public final class AlignedAssemblyOrExcuse {
     }
 
     /**
-     * write a file describing each interval
+     * write a file describing each interval, with the estimated cost of its assembly (see AssemblyPartitioner) and
+     * the time spent on it
      */
     public static void writeIntervalFile( final String intervalFile,
                                           final SAMFileHeader header,
                                           final List<SVInterval> intervals,
+                                          final long[] assemblyCosts,
                                           final List<AlignedAssemblyOrExcuse> intervalDispositions ) {
         final Map<Integer, AlignedAssemblyOrExcuse> resultsMap = new HashMap<>();
         intervalDispositions.forEach(alignedAssemblyOrExcuse ->
@@ -194,10 +207,12 @@ public final class AlignedAssemblyOrExcuse {
                     disposition = alignedAssemblyOrExcuse.getErrorMessage();
                 } else {
                     disposition = "produced " + alignedAssemblyOrExcuse.getAssembly().getNContigs() +
-                            " contigs in " + alignedAssemblyOrExcuse.getSecondsInAssembly() + " secs.";
+                            " contigs in " + alignedAssemblyOrExcuse.getSecondsInAssembly() + " secs., aligned in " +
+                            alignedAssemblyOrExcuse.getSecondsInAlignment() + " secs.";
                 }
                 writer.write(intervalId + "\t" +
                         seqName + ":" + interval.getStart() + "-" + interval.getEnd() + "\t" +
+                        assemblyCosts[intervalId] + "\t" +
                         disposition + "\n");
             }
         } catch ( final IOException ioe ) {
@@ -319,6 +334,7 @@ public final class AlignedAssemblyOrExcuse {
         output.writeInt(assemblyId);
         output.writeString(errorMessage);
         output.writeInt(secondsInAssembly);
+        output.writeInt(secondsInAlignment);
         if ( errorMessage == null ) {
             final int nContigs = assembly.getNContigs();
             final Map<Contig, Integer> contigMap = new HashMap<>();
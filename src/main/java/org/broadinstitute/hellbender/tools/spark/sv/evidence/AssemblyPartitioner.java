@@ -0,0 +1,96 @@
+package org.broadinstitute.hellbender.tools.spark.sv.evidence;
+
+import org.apache.spark.Partitioner;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Partitions assemblies, keyed by intervalId, so that each partition has about the same estimated cost.
+ *
+ * Intervals are assigned in order of decreasing cost, each to the partition having the least total cost so far
+ * (i.e., the LPT rule). So an interval that costs more than an even share of the total ends up alone in its
+ * partition, while the many cheap intervals are packed together to fill out the others.
+ * Partitions are numbered in order of decreasing total cost, so that the Spark scheduler, which launches tasks more or
+ * less in partition order, starts the long-running ones first rather than leaving them to straggle at the end of the
+ * stage.
+ */
+public final class AssemblyPartitioner extends Partitioner {
+    private static final long serialVersionUID = 1L;
+    private final int nPartitions;
+    private final int[] intervalPartitions;
+
+    /**
+     * @param intervalCosts estimated cost of assembling each interval, indexed by intervalId.
+     * @param maxPartitions the largest number of partitions to create.  No more than one per interval will be used.
+     */
+    public AssemblyPartitioner( final long[] intervalCosts, final int maxPartitions ) {
+        Utils.validateArg(maxPartitions > 0, "maxPartitions must be positive");
+        final int nIntervals = intervalCosts.length;
+        nPartitions = Math.max(1, Math.min(nIntervals, maxPartitions));
+        intervalPartitions = new int[nIntervals];
+
+        final long[] partitionCosts = new long[nPartitions];
+        final PriorityQueue<Integer> leastCostlyPartitions =
+                new PriorityQueue<>(nPartitions,
+                        Comparator.comparingLong((Integer partition) -> partitionCosts[partition])
+                                .thenComparingInt(partition -> partition));
+        for ( int partition = 0; partition != nPartitions; ++partition ) {
+            leastCostlyPartitions.add(partition);
+        }
+        final int[] intervalsByDecreasingCost =
+                IntStream.range(0, nIntervals).boxed()
+                        .sorted(Comparator.comparingLong((Integer intervalId) -> -intervalCosts[intervalId]))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+        for ( final int intervalId : intervalsByDecreasingCost ) {
+            final int partition = leastCostlyPartitions.poll();
+            intervalPartitions[intervalId] = partition;
+            partitionCosts[partition] += Math.max(0L, intervalCosts[intervalId]);
+            leastCostlyPartitions.add(partition);
+        }
+
+        // renumber the partitions so that the most costly come first
+        final int[] partitionsByDecreasingCost =
+                IntStream.range(0, nPartitions).boxed()
+                        .sorted(Comparator.comparingLong((Integer partition) -> -partitionCosts[partition]))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+        final int[] newPartitionNumbers = new int[nPartitions];
+        for ( int rank = 0; rank != nPartitions; ++rank ) {
+            newPartitionNumbers[partitionsByDecreasingCost[rank]] = rank;
+        }
+        for ( int intervalId = 0; intervalId != nIntervals; ++intervalId ) {
+            intervalPartitions[intervalId] = newPartitionNumbers[intervalPartitions[intervalId]];
+        }
+    }
+
+    @Override
+    public int numPartitions() {
+        return nPartitions;
+    }
+
+    @Override
+    public int getPartition( final Object key ) {
+        final int intervalId = (Integer)key;
+        // intervals we weren't told about are unexpected, but they'll do no harm in the cheapest partition
+        if ( intervalId < 0 || intervalId >= intervalPartitions.length ) return nPartitions - 1;
+        return intervalPartitions[intervalId];
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        if ( this == obj ) return true;
+        if ( !(obj instanceof AssemblyPartitioner) ) return false;
+        final AssemblyPartitioner that = (AssemblyPartitioner)obj;
+        return nPartitions == that.nPartitions && Arrays.equals(intervalPartitions, that.intervalPartitions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 47 * nPartitions + Arrays.hashCode(intervalPartitions);
+    }
+}
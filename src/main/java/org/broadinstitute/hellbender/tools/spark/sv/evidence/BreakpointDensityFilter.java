@@ -19,7 +19,8 @@ public final class BreakpointDensityFilter implements Iterator<BreakpointEvidenc
     private final int minEvidenceWeight;
     private final int minCoherentEvidenceWeight;
     private final PartitionCrossingChecker partitionCrossingChecker;
-    private final SVIntervalTree<List<BreakpointEvidence>> evidenceTree;
+    private final FlatSVIntervalTree<List<BreakpointEvidence>> evidenceTree;
+    private final FlatSVIntervalTree<List<BreakpointEvidence>>.OverlapCursor overlapCursor;
     private final int minEvidenceMapq;
     private Iterator<SVIntervalTree.Entry<List<BreakpointEvidence>>> treeItr;
     private Iterator<BreakpointEvidence> listItr;
@@ -34,7 +35,9 @@ public final class BreakpointDensityFilter implements Iterator<BreakpointEvidenc
         this.minEvidenceWeight = minEvidenceWeight;
         this.minCoherentEvidenceWeight = minCoherentEvidenceWeight;
         this.partitionCrossingChecker = partitionCrossingChecker;
-        this.evidenceTree = buildTree(evidenceItr);
+        // the tree is only queried once it's built, so freeze it into a more compact and quickly searched form
+        this.evidenceTree = new FlatSVIntervalTree<>(buildTree(evidenceItr));
+        this.overlapCursor = evidenceTree.overlapCursor();
         this.treeItr = evidenceTree.iterator();
         this.listItr = null;
         this.minEvidenceMapq = minEvidenceMapq;
@@ -88,11 +91,12 @@ public final class BreakpointDensityFilter implements Iterator<BreakpointEvidenc
     }
 
     @VisibleForTesting boolean hasEnoughOverlappers( final SVInterval interval ) {
-        final Iterator<SVIntervalTree.Entry<List<BreakpointEvidence>>> itr = evidenceTree.overlappers(interval);
+        overlapCursor.reset(interval);
         PairedStrandedIntervalTree<BreakpointEvidence> targetIntervalTree = new PairedStrandedIntervalTree<>();
         int weight = 0;
-        while ( itr.hasNext() ) {
-            final List<BreakpointEvidence> evidenceForInterval = itr.next().getValue();
+        int overlapperIdx;
+        while ( (overlapperIdx = overlapCursor.nextIndex()) >= 0 ) {
+            final List<BreakpointEvidence> evidenceForInterval = evidenceTree.getValue(overlapperIdx);
             weight += evidenceForInterval.stream().mapToInt(BreakpointEvidence::getWeight).sum();
             if ( weight >= minEvidenceWeight ) {
                 return true;
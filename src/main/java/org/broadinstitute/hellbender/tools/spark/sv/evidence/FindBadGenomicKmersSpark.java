@@ -109,15 +109,18 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
         return refRDD
                 .mapPartitions(seqItr -> {
                     final HopscotchMap<SVKmer, Integer, KmerAndCount> kmerCounts = new HopscotchMap<>(hashSize);
+                    long[] kmerBuffer = new long[0];
                     while ( seqItr.hasNext() ) {
                         final byte[] seq = seqItr.next();
-                        SVDUSTFilteredKmerizer.stream(seq, kSize, maxDUSTScore, new SVKmerLong())
-                                .map(kmer -> kmer.canonical(kSize))
-                                .forEach(kmer -> {
-                                    final KmerAndCount entry = kmerCounts.find(kmer);
-                                    if ( entry == null ) kmerCounts.add(new KmerAndCount((SVKmerLong)kmer));
-                                    else entry.bumpCount();
-                                });
+                        if ( kmerBuffer.length < 2*seq.length ) kmerBuffer = new long[2*seq.length];
+                        final int nKmers =
+                                SVDUSTFilteredKmerizer.canonicalLongKmers(seq, kSize, maxDUSTScore, kmerBuffer);
+                        for ( int idx = 0; idx != nKmers; ++idx ) {
+                            final SVKmerLong kmer = new SVKmerLong(kmerBuffer[2*idx], kmerBuffer[2*idx + 1]);
+                            final KmerAndCount entry = kmerCounts.find(kmer);
+                            if ( entry == null ) kmerCounts.add(new KmerAndCount(kmer));
+                            else entry.bumpCount();
+                        }
                     }
                     return kmerCounts.iterator();
                 })
@@ -1,15 +1,18 @@
 package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 
 import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMTag;
 import htsjdk.tribble.Feature;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.spark.HashPartitioner;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.storage.StorageLevel;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.BetaFeature;
@@ -23,9 +26,11 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.*;
 import org.broadinstitute.hellbender.tools.spark.utils.FlatMapGluer;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.tools.spark.utils.LongIntUniqueMultiMap;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAligner;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAlignment;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemIndex;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 import org.broadinstitute.hellbender.utils.fermi.FermiLiteAssembler;
 import org.broadinstitute.hellbender.utils.fermi.FermiLiteAssembly;
@@ -52,6 +57,14 @@ import static org.broadinstitute.hellbender.tools.spark.sv.evidence.BreakpointEv
  *  for local assemblies of these breakpoint regions.
  * The local assemblies are done with FermiLite, and the assembled contigs are aligned to reference.
  * Final output is a SAM file of aligned contigs to be called for structural variants.
+ * <p>
+ * The template names to be assembled are gathered on the driver and broadcast to every executor, as a 64-bit
+ * fingerprint and an interval ID of 12 bytes apiece.  That's only a constant-factor saving over keeping the names
+ * themselves:  the table is neither partitioned by interval nor spilled to disk, so driver and executor memory still
+ * grow with the number of templates pulled for assembly (roughly 16 bytes apiece, after allowing for the table's
+ * load factor), and samples with very many breakpoint candidates need a driver sized accordingly.  Nor are matching
+ * fingerprints checked against the real template names, so in the unlikely event of a collision an assembly gets the
+ * reads of an extra template.
  */
 @CommandLineProgramProperties(summary="Find reads that evidence breakpoints."+
         "  Pull reads for local assemblies in breakpoint regions using shared kmers."+
@@ -64,6 +77,11 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
 
     private static final Logger logger = LogManager.getLogger(FindBreakpointEvidenceSpark.class);
 
+    private static final String[] EVIDENCE_SCAN_STRING_TAGS = { SAMTag.RG.name(), "MD", "SA", "MC" };
+
+    // a few assembly tasks per core lets cheap tasks fill in around the expensive ones
+    private static final int ASSEMBLY_PARTITIONS_PER_CORE = 3;
+
     @ArgumentCollection
     private final FindBreakpointEvidenceSparkArgumentCollection params =
             new FindBreakpointEvidenceSparkArgumentCollection();
@@ -115,30 +133,32 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                 new ArrayList<>(),
                 evidenceScanResults.evidenceTargetLinks);
 
-        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap = evidenceScanResults.qNamesForAssemblyMultiMap;
+        final LongIntUniqueMultiMap qNamesMultiMap = evidenceScanResults.qNamesForAssemblyMultiMap;
 
         // supplement the template names with other reads that share kmers
         final List<AlignedAssemblyOrExcuse> alignedAssemblyOrExcuseList;
         if ( params.intervalOnlyAssembly ) {
             alignedAssemblyOrExcuseList = new ArrayList<>();
         } else {
-            alignedAssemblyOrExcuseList = addAssemblyQNames(params, ctx, qNamesMultiMap, intervals.size(),
-                    unfilteredReads, filter, toolLogger);
+            alignedAssemblyOrExcuseList = addAssemblyQNames(params, ctx, qNamesMultiMap,
+                    evidenceScanResults.mappedQNamesForOutput, intervals.size(), unfilteredReads, filter, toolLogger);
         }
 
         // write a FASTQ file for each interval
         final FermiLiteAssemblyHandler fermiLiteAssemblyHandler =
                 new FermiLiteAssemblyHandler(params.alignerIndexImageFile, params.maxFASTQSize,
                                                 params.fastqDir, params.gfaDir);
+        final long[] assemblyCosts = estimateAssemblyCosts(qNamesMultiMap, intervals.size());
         alignedAssemblyOrExcuseList.addAll(
-                handleAssemblies(ctx, qNamesMultiMap, unfilteredReads, filter, intervals.size(),
+                handleAssemblies(ctx, qNamesMultiMap, unfilteredReads, filter, assemblyCosts,
                         params.includeMappingLocation, fermiLiteAssemblyHandler));
 
         alignedAssemblyOrExcuseList.sort(Comparator.comparingInt(AlignedAssemblyOrExcuse::getAssemblyId));
 
         // record the intervals
         if ( params.intervalFile != null ) {
-            AlignedAssemblyOrExcuse.writeIntervalFile(params.intervalFile, header, intervals, alignedAssemblyOrExcuseList);
+            AlignedAssemblyOrExcuse.writeIntervalFile(params.intervalFile, header, intervals, assemblyCosts,
+                                                        alignedAssemblyOrExcuseList);
         }
 
         // write the output file
@@ -196,8 +216,17 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         if ( params.crossContigsToIgnoreFile == null ) crossContigsToIgnoreSet = Collections.emptySet();
         else crossContigsToIgnoreSet = readCrossContigsToIgnoreFile(params.crossContigsToIgnoreFile,
                                                                     header.getSequenceDictionary());
+        // all the passes of the evidence scan only look at mapped reads
+        final JavaRDD<GATKRead> mappedReads;
+        if ( params.persistEvidenceScanReads ) {
+            mappedReads = unfilteredReads.filter(filter::isMapped).map(FindBreakpointEvidenceSpark::projectForEvidenceScan);
+            mappedReads.persist(StorageLevel.MEMORY_AND_DISK_SER());
+        } else {
+            mappedReads = unfilteredReads;
+        }
+
         final ReadMetadata readMetadata =
-                new ReadMetadata(crossContigsToIgnoreSet, header, params.maxTrackedFragmentLength, unfilteredReads, filter);
+                new ReadMetadata(crossContigsToIgnoreSet, header, params.maxTrackedFragmentLength, mappedReads, filter);
         if ( params.metadataFile != null ) {
             ReadMetadata.writeMetadata(readMetadata, params.metadataFile);
         }
@@ -210,7 +239,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         log("External evidence retrieved.", logger);
         final Broadcast<List<List<BreakpointEvidence>>> broadcastExternalEvidence = ctx.broadcast(externalEvidence);
         final Tuple2<List<SVInterval>, List<EvidenceTargetLink>> intervalsAndEvidenceTargetLinks =
-                getIntervalsAndEvidenceTargetLinks(params, broadcastMetadata, broadcastExternalEvidence, header, unfilteredReads, filter);
+                getIntervalsAndEvidenceTargetLinks(params, broadcastMetadata, broadcastExternalEvidence, header, mappedReads, filter);
         List<SVInterval> intervals = intervalsAndEvidenceTargetLinks._1();
 
         SparkUtils.destroyBroadcast(broadcastExternalEvidence, "external evidence");
@@ -218,42 +247,95 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         final int nIntervals = intervals.size();
         log("Discovered " + nIntervals + " intervals.", logger);
 
-        if ( nIntervals == 0 ) return new EvidenceScanResults(readMetadata, intervals, intervalsAndEvidenceTargetLinks._2(), null);
+        if ( nIntervals == 0 ) {
+            unpersistEvidenceScanReads(mappedReads, params);
+            return new EvidenceScanResults(readMetadata, intervals, intervalsAndEvidenceTargetLinks._2(), null, null);
+        }
 
         if ( params.exclusionIntervalsFile != null ) {
             intervals = removeIntervalsNearGapsAndLog(intervals, params.exclusionIntervalPadding, readMetadata,
                     params.exclusionIntervalsFile, logger);
         }
         intervals = removeHighCoverageIntervalsAndLog(
-                                    params, ctx, broadcastMetadata, intervals, unfilteredReads, filter, logger);
+                                    params, ctx, broadcastMetadata, intervals, mappedReads, filter, logger);
+
+        // the template names themselves are only brought back to the driver when they have to be written out
+        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> mappedQNamesForOutput;
+        final LongIntUniqueMultiMap qNamesMultiMap;
+        if ( params.qNamesMappedFile != null || params.qNamesAssemblyFile != null ) {
+            mappedQNamesForOutput = getQNames(params, ctx, broadcastMetadata, intervals, mappedReads, filter);
+            qNamesMultiMap = QNameFingerprintAndInterval.fingerprintAll(mappedQNamesForOutput,
+                    params.assemblyToMappedSizeRatioGuess*mappedQNamesForOutput.size());
+        } else {
+            mappedQNamesForOutput = null;
+            qNamesMultiMap = getQNameFingerprints(params, ctx, broadcastMetadata, intervals, mappedReads, filter);
+        }
 
-        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap =
-                getQNames(params, ctx, broadcastMetadata, intervals, unfilteredReads, filter);
+        unpersistEvidenceScanReads(mappedReads, params);
 
         SparkUtils.destroyBroadcast(broadcastMetadata, "read metadata");
 
         if ( params.qNamesMappedFile != null ) {
-            QNameAndInterval.writeQNames(params.qNamesMappedFile, qNamesMultiMap);
+            QNameAndInterval.writeQNames(params.qNamesMappedFile, mappedQNamesForOutput);
         }
         log("Discovered " + qNamesMultiMap.size() + " mapped template names.", logger);
 
-        return new EvidenceScanResults(readMetadata, intervals, intervalsAndEvidenceTargetLinks._2(), qNamesMultiMap);
+        return new EvidenceScanResults(readMetadata, intervals, intervalsAndEvidenceTargetLinks._2(), qNamesMultiMap,
+                                        params.qNamesAssemblyFile != null ? mappedQNamesForOutput : null);
+    }
+
+    private static void unpersistEvidenceScanReads( final JavaRDD<GATKRead> mappedReads,
+                                                    final FindBreakpointEvidenceSparkArgumentCollection params ) {
+        if ( params.persistEvidenceScanReads ) {
+            mappedReads.unpersist();
+        }
+    }
+
+    /**
+     * Returns a copy of a mapped read that has just what the read metadata, evidence, coverage, and template name
+     * passes of the evidence scan need.
+     * Attributes other than RG, MD, SA, MQ and MC are dropped.
+     * Base qualities are only needed to qualify soft clips, and the bases only to give the length of soft-clipped
+     * reads and the mate alignment length of reads without an MC tag, so both are dropped from the other reads.
+     */
+    @VisibleForTesting static GATKRead projectForEvidenceScan( final GATKRead read ) {
+        final GATKRead projection = read.copy();
+        projection.clearAttributes();
+        for ( final String tag : EVIDENCE_SCAN_STRING_TAGS ) {
+            final String value = read.getAttributeAsString(tag);
+            if ( value != null ) projection.setAttribute(tag, value);
+        }
+        final Integer mateMapQ = read.getAttributeAsInteger("MQ");
+        if ( mateMapQ != null ) projection.setAttribute("MQ", mateMapQ);
+
+        final boolean isSoftClipped =
+                read.getCigar().getCigarElements().stream().anyMatch(ele -> ele.getOperator() == CigarOperator.SOFT_CLIP);
+        if ( !isSoftClipped ) {
+            projection.setBaseQualities(SAMRecord.NULL_QUALS);
+            if ( read.hasAttribute("MC") ) {
+                projection.setBases(SAMRecord.NULL_SEQUENCE);
+            }
+        }
+        return projection;
     }
 
     static final class EvidenceScanResults {
         final ReadMetadata readMetadata;
         final List<SVInterval> intervals;
         final List<EvidenceTargetLink> evidenceTargetLinks;
-        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesForAssemblyMultiMap;
+        final LongIntUniqueMultiMap qNamesForAssemblyMultiMap;
+        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> mappedQNamesForOutput;
 
         public EvidenceScanResults(final ReadMetadata readMetadata,
                                    final List<SVInterval> intervals,
                                    final List<EvidenceTargetLink> evidenceTargetLinks,
-                                   final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesForAssemblyMultiMap) {
+                                   final LongIntUniqueMultiMap qNamesForAssemblyMultiMap,
+                                   final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> mappedQNamesForOutput) {
             this.readMetadata = readMetadata;
             this.intervals = intervals;
             this.evidenceTargetLinks = evidenceTargetLinks;
             this.qNamesForAssemblyMultiMap = qNamesForAssemblyMultiMap;
+            this.mappedQNamesForOutput = mappedQNamesForOutput;
         }
     }
 
@@ -364,7 +446,8 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
     private static List<AlignedAssemblyOrExcuse> addAssemblyQNames(
             final FindBreakpointEvidenceSparkArgumentCollection params,
             final JavaSparkContext ctx,
-            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+            final LongIntUniqueMultiMap qNamesMultiMap,
+            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesForOutput,
             final int nIntervals,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
@@ -377,10 +460,20 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> kmersAndIntervals =
                 removeUbiquitousKmers(params, ctx, kmerIntervalsAndDispositions._2(), unfilteredReads, filter, logger);
 
-        qNamesMultiMap.addAll(getAssemblyQNames(params, ctx, kmersAndIntervals, unfilteredReads, filter, logger));
+        final List<QNameAndInterval> assemblyQNames =
+                getAssemblyQNames(params, ctx, kmersAndIntervals, unfilteredReads, filter, logger);
+        for ( final QNameAndInterval qNameAndInterval : assemblyQNames ) {
+            qNamesMultiMap.add(QNameFingerprintAndInterval.fingerprint(qNameAndInterval.getQName()),
+                                qNameAndInterval.getIntervalId());
+        }
 
         if ( params.qNamesAssemblyFile != null ) {
-            QNameAndInterval.writeQNames(params.qNamesAssemblyFile, qNamesMultiMap);
+            final Set<Integer> killedIntervals = kmerIntervalsAndDispositions._1().stream()
+                    .map(AlignedAssemblyOrExcuse::getAssemblyId)
+                    .collect(Collectors.toSet());
+            qNamesForOutput.removeIf(qNameAndInterval -> killedIntervals.contains(qNameAndInterval.getIntervalId()));
+            qNamesForOutput.addAll(assemblyQNames);
+            QNameAndInterval.writeQNames(params.qNamesAssemblyFile, qNamesForOutput);
         }
 
         log("Discovered "+qNamesMultiMap.size()+" unique template names for assembly.", logger);
@@ -398,7 +491,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
     private static Tuple2<List<AlignedAssemblyOrExcuse>, HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval>> getKmerAndIntervalsSet(
             final FindBreakpointEvidenceSparkArgumentCollection params,
             final JavaSparkContext ctx,
-            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+            final LongIntUniqueMultiMap qNamesMultiMap,
             final int nIntervals,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
@@ -431,19 +524,36 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             extends Serializable, Function<Tuple2<Integer,List<SVFastqUtils.FastqRead>>, AlignedAssemblyOrExcuse> {
     }
 
+    /**
+     * Estimates the cost of assembling each interval as the number of templates that will be gathered for it.
+     * With a fairly uniform read length, that's proportional to the number of read bases given to the assembler.
+     */
+    @VisibleForTesting static long[] estimateAssemblyCosts(
+            final LongIntUniqueMultiMap qNamesMultiMap,
+            final int nIntervals ) {
+        final long[] assemblyCosts = new long[nIntervals];
+        qNamesMultiMap.forEach(( fingerprint, intervalId ) -> assemblyCosts[intervalId] += 1);
+        return assemblyCosts;
+    }
+
     /**
      * Transform all the reads for a supplied set of template names in each interval into FASTQ records
      * for each interval, and do something with the list of FASTQ records for each interval (like write it to a file).
+     * The intervals are spread over the assembly tasks according to their estimated costs, so that the tasks take
+     * about the same time, and so that the most expensive assemblies are started first.
      */
     @VisibleForTesting static List<AlignedAssemblyOrExcuse> handleAssemblies(
             final JavaSparkContext ctx,
-            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+            final LongIntUniqueMultiMap qNamesMultiMap,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
-            final int nIntervals,
+            final long[] assemblyCosts,
             final boolean includeMappingLocation,
             final LocalAssemblyHandler localAssemblyHandler ) {
-        final Broadcast<HopscotchUniqueMultiMap<String, Integer, QNameAndInterval>> broadcastQNamesMultiMap =
+        final int nIntervals = assemblyCosts.length;
+        final AssemblyPartitioner assemblyPartitioner =
+                new AssemblyPartitioner(assemblyCosts, ASSEMBLY_PARTITIONS_PER_CORE * ctx.defaultParallelism());
+        final Broadcast<LongIntUniqueMultiMap> broadcastQNamesMultiMap =
                 ctx.broadcast(qNamesMultiMap);
         final List<AlignedAssemblyOrExcuse> intervalDispositions =
             unfilteredReads
@@ -453,7 +563,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                 .combineByKey(x -> x,
                                 FindBreakpointEvidenceSpark::combineLists,
                                 FindBreakpointEvidenceSpark::combineLists,
-                                new HashPartitioner(nIntervals), false, null)
+                                assemblyPartitioner, false, null)
                 .map(localAssemblyHandler::apply)
                 .collect();
 
@@ -519,10 +629,16 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                     assembly.getContigs().stream()
                             .map(FermiLiteAssembly.Contig::getSequence)
                             .collect(SVUtils.arrayListCollector(assembly.getNContigs()));
-            try ( final BwaMemAligner aligner = new BwaMemAligner(BwaMemIndexCache.getInstance(alignerIndexFile)) ) {
+            final BwaMemIndex index = BwaMemIndexCache.acquireInstance(alignerIndexFile);
+            try ( final BwaMemAligner aligner = new BwaMemAligner(index) ) {
                 aligner.setIntraCtgOptions();
+                final long timeAlignmentStart = System.currentTimeMillis();
                 final List<List<BwaMemAlignment>> alignments = aligner.alignSeqs(tigSeqs);
-                return new AlignedAssemblyOrExcuse(intervalAndReads._1(), assembly, secondsInAssembly, alignments);
+                final int secondsInAlignment = (int)((System.currentTimeMillis() - timeAlignmentStart + 500)/1000);
+                return new AlignedAssemblyOrExcuse(intervalAndReads._1(), assembly, secondsInAssembly,
+                                                    secondsInAlignment, alignments);
+            } finally {
+                BwaMemIndexCache.releaseInstance(index);
             }
         }
     }
@@ -602,14 +718,14 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
     @VisibleForTesting static Tuple2<List<AlignedAssemblyOrExcuse>, List<KmerAndInterval>> getKmerIntervals(
             final FindBreakpointEvidenceSparkArgumentCollection params,
             final JavaSparkContext ctx,
-            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+            final LongIntUniqueMultiMap qNamesMultiMap,
             final int nIntervals,
             final Set<SVKmer> kmerKillSet,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter ) {
 
         final Broadcast<Set<SVKmer>> broadcastKmerKillSet = ctx.broadcast(kmerKillSet);
-        final Broadcast<HopscotchUniqueMultiMap<String, Integer, QNameAndInterval>> broadcastQNameAndIntervalsMultiMap =
+        final Broadcast<LongIntUniqueMultiMap> broadcastQNameAndIntervalsMultiMap =
                 ctx.broadcast(qNamesMultiMap);
 
         // given a set of template names with interval IDs and a kill set of ubiquitous kmers,
@@ -649,7 +765,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             }
         }
 
-        qNamesMultiMap.removeIf( qNameAndInterval -> intervalsToKill.contains(qNameAndInterval.getIntervalId()) );
+        qNamesMultiMap.removeIf( ( fingerprint, intervalId ) -> intervalsToKill.contains(intervalId) );
 
         final List<KmerAndInterval> filteredKmerIntervals = kmerIntervals.stream()
                 .filter(kmerAndInterval -> !intervalsToKill.contains(kmerAndInterval.getIntervalId()))
@@ -688,22 +804,19 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                                                                         final Map<String, Integer> contigNameMap,
                                                                         final String exclusionIntervalsFile ) {
         if ( exclusionIntervalsFile == null ) return intervals;
-        final SortedSet<SVInterval> gaps =
-                new TreeSet<>(SVUtils.readIntervalsFile(exclusionIntervalsFile, contigNameMap));
+        final List<SVInterval> gapList =
+                SVUtils.readIntervalsFile(exclusionIntervalsFile, contigNameMap).stream()
+                        .sorted()
+                        .distinct()
+                        .collect(Collectors.toList());
+        final FlatSVIntervalTree<SVInterval> gaps = new FlatSVIntervalTree<>(gapList, gapList);
+        final FlatSVIntervalTree<SVInterval>.OverlapCursor gapCursor = gaps.overlapCursor();
+        // an interval is too near a gap if the gap overlaps the interval padded by minDistanceToGap on each side
         return intervals.stream()
-                .filter(interval -> {
-                    final SortedSet<SVInterval> headSet = gaps.headSet(interval);
-                    if ( !headSet.isEmpty() ) {
-                        final SVInterval gapInterval = headSet.last();
-                        if ( gapInterval.gapLen(interval) < minDistanceToGap ) return false;
-                    }
-                    final SortedSet<SVInterval> tailSet = gaps.tailSet(interval);
-                    if ( !tailSet.isEmpty() ) {
-                        final SVInterval gapInterval = tailSet.first();
-                        if ( interval.gapLen(gapInterval) < minDistanceToGap ) return false;
-                    }
-                    return true;
-                })
+                .filter(interval -> gapCursor.reset(new SVInterval(interval.getContig(),
+                                                                    interval.getStart() - minDistanceToGap,
+                                                                    interval.getEnd() + minDistanceToGap))
+                                            .nextIndex() < 0)
                 .collect(Collectors.toCollection(() -> new ArrayList<>(intervals.size())));
     }
 
@@ -760,12 +873,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final SVReadFilter filter ) {
         final Broadcast<List<SVInterval>> broadcastIntervals = ctx.broadcast(intervals);
         final List<QNameAndInterval> qNameAndIntervalList =
-                unfilteredReads
-                    .mapPartitions(readItr ->
-                            new FlatMapGluer<>(
-                                    new QNameFinder(broadcastMetadata.value(), broadcastIntervals.value(), filter),
-                                    readItr), false)
-                    .collect();
+                findQNames(broadcastMetadata, broadcastIntervals, unfilteredReads, filter).collect();
 
         SparkUtils.destroyBroadcast(broadcastIntervals, "intervals");
 
@@ -775,6 +883,43 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         return qNamesMultiMap;
     }
 
+    /** find template name fingerprints for reads mapping to each interval */
+    @VisibleForTesting static LongIntUniqueMultiMap getQNameFingerprints(
+            final FindBreakpointEvidenceSparkArgumentCollection params,
+            final JavaSparkContext ctx,
+            final Broadcast<ReadMetadata> broadcastMetadata,
+            final List<SVInterval> intervals,
+            final JavaRDD<GATKRead> unfilteredReads,
+            final SVReadFilter filter ) {
+        final Broadcast<List<SVInterval>> broadcastIntervals = ctx.broadcast(intervals);
+        // fingerprint on the executors, so that the names never reach the driver
+        final List<QNameFingerprintAndInterval> qNameFingerprintAndIntervalList =
+                findQNames(broadcastMetadata, broadcastIntervals, unfilteredReads, filter)
+                    .map(QNameFingerprintAndInterval::new)
+                    .collect();
+
+        SparkUtils.destroyBroadcast(broadcastIntervals, "intervals");
+
+        final LongIntUniqueMultiMap qNamesMultiMap =
+                new LongIntUniqueMultiMap(params.assemblyToMappedSizeRatioGuess*qNameFingerprintAndIntervalList.size());
+        for ( final QNameFingerprintAndInterval qNameFingerprintAndInterval : qNameFingerprintAndIntervalList ) {
+            qNameFingerprintAndInterval.addTo(qNamesMultiMap);
+        }
+        return qNamesMultiMap;
+    }
+
+    private static JavaRDD<QNameAndInterval> findQNames(
+            final Broadcast<ReadMetadata> broadcastMetadata,
+            final Broadcast<List<SVInterval>> broadcastIntervals,
+            final JavaRDD<GATKRead> unfilteredReads,
+            final SVReadFilter filter ) {
+        return unfilteredReads
+                .mapPartitions(readItr ->
+                        new FlatMapGluer<>(
+                                new QNameFinder(broadcastMetadata.value(), broadcastIntervals.value(), filter),
+                                readItr), false);
+    }
+
     /**
      * Identify funky reads that support a hypothesis of a breakpoint in the vicinity, group the reads,
      * and declare a breakpoint interval where there is sufficient density of evidence.
@@ -27,16 +27,19 @@ public final class KmerCounter {
 
     public Iterator<KmerAndCount> apply( final Iterator<GATKRead> readItr ) {
         final HopscotchMap<SVKmer, Integer, KmerAndCount> counts = new HopscotchMap<>(kmersPerPartitionGuess);
+        long[] kmerBuffer = new long[0];
         while ( readItr.hasNext() ) {
-            final GATKRead read = readItr.next();
-            SVKmerizer.canonicalStream(read.getBases(), kSize, new SVKmerLong())
-                    .forEach(kmer -> {
-                        if ( kmerMap.contains(kmer) ) {
-                            final KmerAndCount kmerAndCount = counts.find(kmer);
-                            if ( kmerAndCount != null ) kmerAndCount.bumpCount();
-                            else counts.add(new KmerAndCount((SVKmerLong)kmer));
-                        }
-                    });
+            final byte[] bases = readItr.next().getBases();
+            if ( kmerBuffer.length < 2*bases.length ) kmerBuffer = new long[2*bases.length];
+            final int nKmers = SVKmerizer.canonicalLongKmers(bases, kSize, kmerBuffer);
+            for ( int idx = 0; idx != nKmers; ++idx ) {
+                final SVKmerLong kmer = new SVKmerLong(kmerBuffer[2*idx], kmerBuffer[2*idx + 1]);
+                if ( kmerMap.contains(kmer) ) {
+                    final KmerAndCount kmerAndCount = counts.find(kmer);
+                    if ( kmerAndCount != null ) kmerAndCount.bumpCount();
+                    else counts.add(new KmerAndCount(kmer));
+                }
+            }
         }
         return counts.iterator();
     }
@@ -0,0 +1,119 @@
+package org.broadinstitute.hellbender.tools.spark.sv.evidence;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.tools.spark.utils.LongIntUniqueMultiMap;
+
+/**
+ * A 64-bit fingerprint of a template name and an intervalId.
+ *
+ * This is a compact stand-in for {@link QNameAndInterval} in the (potentially very large) sets of template names that
+ * are broadcast to find the reads for each assembly.  Those sets are kept as a {@link LongIntUniqueMultiMap}, which
+ * takes a fixed 12 bytes for each entry, whatever the length of the name, and looking up a read requires neither
+ * copying its name nor boxing its fingerprint.
+ * Distinct template names with the same fingerprint are indistinguishable, and matches aren't checked against the
+ * real names, so a collision pulls the reads of an unrelated template into an assembly (though it never drops any).
+ * With 64 bits, that's not expected to happen even once in a whole-genome sample.
+ */
+@DefaultSerializer(QNameFingerprintAndInterval.Serializer.class)
+public final class QNameFingerprintAndInterval {
+    private final long fingerprint;
+    private final int intervalId;
+
+    public QNameFingerprintAndInterval( final long fingerprint, final int intervalId ) {
+        this.fingerprint = fingerprint;
+        this.intervalId = intervalId;
+    }
+
+    public QNameFingerprintAndInterval( final QNameAndInterval qNameAndInterval ) {
+        this(fingerprint(qNameAndInterval.getQName()), qNameAndInterval.getIntervalId());
+    }
+
+    private QNameFingerprintAndInterval( final Kryo kryo, final Input input ) {
+        fingerprint = input.readLong();
+        intervalId = input.readInt();
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        output.writeLong(fingerprint);
+        output.writeInt(intervalId);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters of a template name, finished with the MurmurHash3 mixer so that the low
+     * bits used to pick a bucket depend on all of the name.
+     */
+    public static long fingerprint( final String qName ) {
+        long hash = 0xcbf29ce484222325L;
+        final int nameLen = qName.length();
+        for ( int idx = 0; idx != nameLen; ++idx ) {
+            hash ^= qName.charAt(idx);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Fingerprints template names and interval IDs into a new multimap having the specified initial capacity.
+     */
+    public static LongIntUniqueMultiMap fingerprintAll( final Iterable<QNameAndInterval> qNamesAndIntervals,
+                                                        final int capacity ) {
+        final LongIntUniqueMultiMap fingerprintsMultiMap = new LongIntUniqueMultiMap(capacity);
+        for ( final QNameAndInterval qNameAndInterval : qNamesAndIntervals ) {
+            fingerprintsMultiMap.add(fingerprint(qNameAndInterval.getQName()), qNameAndInterval.getIntervalId());
+        }
+        return fingerprintsMultiMap;
+    }
+
+    /**
+     * Adds the fingerprint and interval ID to a multimap of them.
+     */
+    public void addTo( final LongIntUniqueMultiMap fingerprintsMultiMap ) {
+        fingerprintsMultiMap.add(fingerprint, intervalId);
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getIntervalId() {
+        return intervalId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint) ^ (47 * intervalId);
+    }
+
+    @Override
+    public boolean equals( final Object obj ) {
+        return obj instanceof QNameFingerprintAndInterval && equals((QNameFingerprintAndInterval) obj);
+    }
+
+    public boolean equals( final QNameFingerprintAndInterval that ) {
+        return this.fingerprint == that.fingerprint && this.intervalId == that.intervalId;
+    }
+
+    public String toString() {
+        return Long.toHexString(fingerprint) + " " + intervalId;
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<QNameFingerprintAndInterval> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final QNameFingerprintAndInterval qNameFingerprintAndInterval ) {
+            qNameFingerprintAndInterval.serialize(kryo, output);
+        }
+
+        @Override
+        public QNameFingerprintAndInterval read( final Kryo kryo, final Input input, final Class<QNameFingerprintAndInterval> klass ) {
+            return new QNameFingerprintAndInterval(kryo, input);
+        }
+    }
+}
@@ -3,13 +3,14 @@ package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVDUSTFilteredKmerizer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmer;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerLong;
-import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.tools.spark.utils.LongIntUniqueMultiMap;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import scala.Tuple2;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -18,14 +19,15 @@ import java.util.function.Function;
  * The template names of reads to kmerize, along with a set of kmers to ignore are passed in (by broadcast).
  */
 public final class QNameKmerizer implements Function<GATKRead, Iterator<Tuple2<KmerAndInterval, Integer>>> {
-    private final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameAndIntervalMultiMap;
+    private final LongIntUniqueMultiMap qNameAndIntervalMultiMap;
     private final Set<SVKmer> kmersToIgnore;
     private final int kSize;
     private final int maxDUSTScore;
     private final SVReadFilter filter;
     private final ArrayList<Tuple2<KmerAndInterval, Integer>> tupleList = new ArrayList<>();
+    private long[] kmerBuffer = new long[0];
 
-    public QNameKmerizer( final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameAndIntervalMultiMap,
+    public QNameKmerizer( final LongIntUniqueMultiMap qNameAndIntervalMultiMap,
                           final Set<SVKmer> kmersToIgnore, final int kSize, final int maxDUSTScore,
                           final SVReadFilter filter ) {
         this.qNameAndIntervalMultiMap = qNameAndIntervalMultiMap;
@@ -38,17 +40,26 @@ public final class QNameKmerizer implements Function<GATKRead, Iterator<Tuple2<K
     @Override
     public Iterator<Tuple2<KmerAndInterval, Integer>> apply( final GATKRead read ) {
         if ( !filter.notJunk(read) || !filter.isPrimaryLine(read) ) return Collections.emptyIterator();
-        final String qName = read.getName();
-        final Iterator<QNameAndInterval> names = qNameAndIntervalMultiMap.findEach(qName);
+        final long fingerprint = QNameFingerprintAndInterval.fingerprint(read.getName());
+        int slot = qNameAndIntervalMultiMap.findFirst(fingerprint);
         tupleList.clear();
-        while ( names.hasNext() ) {
-            final int intervalId = names.next().getIntervalId();
-            SVDUSTFilteredKmerizer.stream(read.getBases(), kSize, maxDUSTScore, new SVKmerLong())
-                    .map(kmer -> kmer.canonical(kSize))
-                    .filter(kmer -> !kmersToIgnore.contains(kmer))
-                    .map(kmer -> new KmerAndInterval(kmer, intervalId))
-                    .forEach(kmerCountAndInterval -> tupleList.add(new Tuple2<>(kmerCountAndInterval, 1)));
+        if ( slot == LongIntUniqueMultiMap.NO_SLOT ) return tupleList.iterator();
+
+        // kmerize the read just once, no matter how many intervals it belongs to
+        final byte[] bases = read.getBases();
+        if ( kmerBuffer.length < 2*bases.length ) kmerBuffer = new long[2*bases.length];
+        final int nKmers = SVDUSTFilteredKmerizer.canonicalLongKmers(bases, kSize, maxDUSTScore, kmerBuffer);
+        final List<SVKmerLong> kmers = new ArrayList<>(nKmers);
+        for ( int idx = 0; idx != nKmers; ++idx ) {
+            final SVKmerLong kmer = new SVKmerLong(kmerBuffer[2*idx], kmerBuffer[2*idx + 1]);
+            if ( !kmersToIgnore.contains(kmer) ) kmers.add(kmer);
         }
+        do {
+            final int intervalId = qNameAndIntervalMultiMap.getValue(slot);
+            for ( final SVKmerLong kmer : kmers ) {
+                tupleList.add(new Tuple2<>(new KmerAndInterval(kmer, intervalId), 1));
+            }
+        } while ( (slot = qNameAndIntervalMultiMap.findNext(fingerprint, slot)) != LongIntUniqueMultiMap.NO_SLOT );
         return tupleList.iterator();
     }
 }
@@ -1,7 +1,7 @@
 package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVFastqUtils;
-import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.tools.spark.utils.LongIntUniqueMultiMap;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import scala.Tuple2;
 
@@ -15,7 +15,7 @@ import java.util.List;
 public final class ReadsForQNamesFinder implements Iterable<Tuple2<Integer, List<SVFastqUtils.FastqRead>>> {
     private final List<Tuple2<Integer, List<SVFastqUtils.FastqRead>>> fastQRecords;
 
-    public ReadsForQNamesFinder( final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+    public ReadsForQNamesFinder( final LongIntUniqueMultiMap qNamesMultiMap,
                                  final int nIntervals, final boolean includeMappingLocation,
                                  final Iterator<GATKRead> unfilteredReadItr, final SVReadFilter filter ) {
         final int nReadsPerInterval = 2 * qNamesMultiMap.size() / nIntervals;
@@ -25,17 +25,18 @@ public final class ReadsForQNamesFinder implements Iterable<Tuple2<Integer, List
         final Iterator<GATKRead> readItr = filter.applyFilter(unfilteredReadItr, SVReadFilter::isPrimaryLine);
         while ( readItr.hasNext() ) {
             final GATKRead read = readItr.next();
-            final Iterator<QNameAndInterval> namesItr = qNamesMultiMap.findEach(read.getName());
-            if (namesItr.hasNext()) {
+            final long fingerprint = QNameFingerprintAndInterval.fingerprint(read.getName());
+            int slot = qNamesMultiMap.findFirst(fingerprint);
+            if ( slot != LongIntUniqueMultiMap.NO_SLOT ) {
                 final SVFastqUtils.FastqRead fastqRead = new SVFastqUtils.FastqRead(read, includeMappingLocation);
                 do {
-                    final int intervalId = namesItr.next().getIntervalId();
+                    final int intervalId = qNamesMultiMap.getValue(slot);
                     if ( intervalReads[intervalId] == null ) {
                         intervalReads[intervalId] = new ArrayList<>(nReadsPerInterval);
                         nPopulatedIntervals += 1;
                     }
                     intervalReads[intervalId].add(fastqRead);
-                } while (namesItr.hasNext());
+                } while ( (slot = qNamesMultiMap.findNext(fingerprint, slot)) != LongIntUniqueMultiMap.NO_SLOT );
             }
         }
         fastQRecords = new ArrayList<>(nPopulatedIntervals);
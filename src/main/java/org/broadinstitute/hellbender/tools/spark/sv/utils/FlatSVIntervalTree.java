@@ -0,0 +1,358 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, array-backed interval tree for read-only queries.
+ * It holds the same entries as an SVIntervalTree, in the same order, but it's laid out as a few flat arrays rather
+ * than as a web of nodes:  it's smaller, it's faster to build, and overlap queries touch fewer cache lines.
+ * <p>
+ * The entries are sorted by start (and then by end) into an array, and the array itself is treated as an implicit,
+ * augmented binary tree (as in Heng Li's cgranges):  the entries at even indices are the leaves, and the entry at an
+ * index having k trailing 1 bits is the root of a sub-tree of height k spanning the 2^(k+1)-1 entries around it.
+ * For each entry we keep the greatest end of any interval in its sub-tree, which lets us prune sub-trees that end
+ * before the query interval starts.
+ * <p>
+ * Positions are packed into longs, with the contig in the upper half, so that intervals on different contigs can be
+ * compared in a single operation.
+ * <p>
+ * You can iterate over the overlappers of a query with an OverlapCursor, which can be reused across queries without
+ * allocating anything, or, more conveniently, with an Iterator from the overlappers method.
+ * The entries' values can't be replaced, but, of course, mutable values can be altered in place.
+ */
+@DefaultSerializer(FlatSVIntervalTree.Serializer.class)
+public final class FlatSVIntervalTree<V> implements Iterable<SVIntervalTree.Entry<V>> {
+    private final FlatEntry<V>[] entries;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds; // greatest end in each implicit sub-tree
+    private final int rootLevel;
+
+    /**
+     * Freeze the current contents of an SVIntervalTree.
+     */
+    public FlatSVIntervalTree( final SVIntervalTree<V> tree ) {
+        this(getIntervals(tree), getValues(tree));
+    }
+
+    /**
+     * Build directly from intervals that are already in sorted order, each with its associated value.
+     *
+     * @param sortedIntervals Intervals in strictly increasing order (i.e., sorted, and with no duplicates).
+     * @param values          The value associated with each interval.
+     */
+    @SuppressWarnings("unchecked")
+    public FlatSVIntervalTree( final List<SVInterval> sortedIntervals, final List<V> values ) {
+        final int nIntervals = sortedIntervals.size();
+        if ( values.size() != nIntervals ) {
+            throw new IllegalArgumentException("There must be one value for each interval.");
+        }
+        entries = (FlatEntry<V>[])new FlatEntry<?>[nIntervals];
+        starts = new long[nIntervals];
+        ends = new long[nIntervals];
+        maxEnds = new long[nIntervals];
+        SVInterval prevInterval = null;
+        for ( int idx = 0; idx != nIntervals; ++idx ) {
+            final SVInterval interval = sortedIntervals.get(idx);
+            if ( prevInterval != null && prevInterval.compareTo(interval) >= 0 ) {
+                throw new IllegalArgumentException("Intervals are not in strictly increasing order at " + interval);
+            }
+            entries[idx] = new FlatEntry<>(interval, values.get(idx));
+            starts[idx] = packPosition(interval.getContig(), interval.getStart());
+            ends[idx] = packPosition(interval.getContig(), interval.getEnd());
+            prevInterval = interval;
+        }
+        rootLevel = buildIndex(ends, maxEnds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FlatSVIntervalTree( final Kryo kryo, final Input input ) {
+        this(readIntervals(kryo, input), (List<V>)kryo.readClassAndObject(input));
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        final SVInterval.Serializer intervalSerializer = new SVInterval.Serializer();
+        output.writeInt(entries.length);
+        final List<V> values = new ArrayList<>(entries.length);
+        for ( final FlatEntry<V> entry : entries ) {
+            intervalSerializer.write(kryo, output, entry.getInterval());
+            values.add(entry.getValue());
+        }
+        kryo.writeClassAndObject(output, values);
+    }
+
+    private static List<SVInterval> readIntervals( final Kryo kryo, final Input input ) {
+        final SVInterval.Serializer intervalSerializer = new SVInterval.Serializer();
+        final int size = input.readInt();
+        final List<SVInterval> intervals = new ArrayList<>(size);
+        for ( int idx = 0; idx != size; ++idx ) {
+            intervals.add(intervalSerializer.read(kryo, input, SVInterval.class));
+        }
+        return intervals;
+    }
+
+    /**
+     * Return the number of intervals in the tree.
+     */
+    public int size() { return entries.length; }
+
+    public boolean isEmpty() { return entries.length == 0; }
+
+    /**
+     * Return the entry at a given index, in sorted order.
+     */
+    public SVIntervalTree.Entry<V> get( final int idx ) { return entries[idx]; }
+
+    public SVInterval getInterval( final int idx ) { return entries[idx].getInterval(); }
+
+    public V getValue( final int idx ) { return entries[idx].getValue(); }
+
+    /**
+     * Find the index of the earliest interval in the tree that overlaps the specified interval.
+     *
+     * @param interval The interval sought.
+     * @return The index of the earliest overlapping interval, or -1 if there is none.
+     */
+    public int minOverlapperIndex( final SVInterval interval ) {
+        return new OverlapCursor().reset(interval).nextIndex();
+    }
+
+    /**
+     * Find the earliest interval in the tree that overlaps the specified interval.
+     *
+     * @param interval The interval sought.
+     * @return The earliest overlapping interval, or null if there is none.
+     */
+    public SVIntervalTree.Entry<V> minOverlapper( final SVInterval interval ) {
+        final int idx = minOverlapperIndex(interval);
+        return idx < 0 ? null : entries[idx];
+    }
+
+    public boolean hasOverlapper( final SVInterval interval ) {
+        return minOverlapperIndex(interval) >= 0;
+    }
+
+    /**
+     * Return an iterator over all the entries, in sorted order.
+     */
+    @Override
+    public Iterator<SVIntervalTree.Entry<V>> iterator() {
+        return new Iterator<SVIntervalTree.Entry<V>>() {
+            private int idx = 0;
+
+            @Override
+            public boolean hasNext() { return idx < entries.length; }
+
+            @Override
+            public SVIntervalTree.Entry<V> next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException("No next element.");
+                }
+                return entries[idx++];
+            }
+        };
+    }
+
+    /**
+     * Return an iterator over all the entries that overlap the specified interval, in sorted order.
+     */
+    public Iterator<SVIntervalTree.Entry<V>> overlappers( final SVInterval interval ) {
+        final OverlapCursor cursor = new OverlapCursor().reset(interval);
+        return new Iterator<SVIntervalTree.Entry<V>>() {
+            private int nextIdx = cursor.nextIndex();
+
+            @Override
+            public boolean hasNext() { return nextIdx >= 0; }
+
+            @Override
+            public SVIntervalTree.Entry<V> next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException("No next element.");
+                }
+                final SVIntervalTree.Entry<V> result = entries[nextIdx];
+                nextIdx = cursor.nextIndex();
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Return a cursor for enumerating the indices of overlappers.  Call reset for each query.
+     */
+    public OverlapCursor overlapCursor() { return new OverlapCursor(); }
+
+    /**
+     * A reusable traversal of the implicit tree, producing the indices of the entries that overlap a query interval,
+     * in sorted order.
+     */
+    public final class OverlapCursor {
+        private static final int SMALL_SUBTREE_LEVEL = 3; // scan sub-trees this short rather than descending them
+        private final int[] stackIndices = new int[64];
+        private final int[] stackLevels = new int[64];
+        private final boolean[] stackLeftDone = new boolean[64];
+        private int stackSize;
+        private int scanIdx;
+        private int scanEnd;
+        private long queryStart;
+        private long queryEnd;
+
+        private OverlapCursor() {}
+
+        /**
+         * Begin a new query.  Returns this cursor, for convenience.
+         */
+        public OverlapCursor reset( final SVInterval interval ) {
+            queryStart = packPosition(interval.getContig(), interval.getStart());
+            queryEnd = packPosition(interval.getContig(), interval.getEnd());
+            scanIdx = scanEnd = 0;
+            stackSize = 0;
+            if ( rootLevel >= 0 ) {
+                push((1 << rootLevel) - 1, rootLevel, false);
+            }
+            return this;
+        }
+
+        /**
+         * Returns the index of the next overlapping entry, or -1 if there are no more.
+         */
+        public int nextIndex() {
+            final int nEntries = entries.length;
+            while ( true ) {
+                if ( scanIdx < scanEnd ) {
+                    final int idx = scanIdx++;
+                    if ( starts[idx] >= queryEnd ) {
+                        scanIdx = scanEnd; // everything else in this sub-tree starts too late
+                    } else if ( queryStart < ends[idx] ) {
+                        return idx;
+                    }
+                    continue;
+                }
+                if ( stackSize == 0 ) {
+                    return -1;
+                }
+                final int idx = stackIndices[--stackSize];
+                final int level = stackLevels[stackSize];
+                final boolean leftDone = stackLeftDone[stackSize];
+                if ( level <= SMALL_SUBTREE_LEVEL ) {
+                    scanIdx = idx >> level << level;
+                    scanEnd = Math.min(scanIdx + (1 << (level + 1)) - 1, nEntries);
+                } else if ( !leftDone ) {
+                    // come back to this node after the left sub-tree, unless it ends too early to be of interest
+                    push(idx, level, true);
+                    final int leftIdx = idx - (1 << (level - 1));
+                    if ( leftIdx >= nEntries || maxEnds[leftIdx] > queryStart ) {
+                        push(leftIdx, level - 1, false);
+                    }
+                } else if ( idx < nEntries && starts[idx] < queryEnd ) {
+                    push(idx + (1 << (level - 1)), level - 1, false);
+                    if ( queryStart < ends[idx] ) {
+                        return idx;
+                    }
+                }
+            }
+        }
+
+        private void push( final int idx, final int level, final boolean leftDone ) {
+            stackIndices[stackSize] = idx;
+            stackLevels[stackSize] = level;
+            stackLeftDone[stackSize] = leftDone;
+            stackSize += 1;
+        }
+    }
+
+    private static long packPosition( final int contig, final int position ) {
+        return ((long)contig << 32) + position;
+    }
+
+    /**
+     * Fills in the maxEnds array, and returns the level of the root of the implicit tree (or -1 if it's empty).
+     * Where a sub-tree is incomplete, the missing entries are treated as having the greatest end of those that
+     * precede them, so that a query never prunes a sub-tree that might contain an overlapper.
+     */
+    private static int buildIndex( final long[] ends, final long[] maxEnds ) {
+        final int nEntries = ends.length;
+        if ( nEntries == 0 ) {
+            return -1;
+        }
+        int lastIdx = 0;
+        long lastMaxEnd = 0;
+        for ( int idx = 0; idx < nEntries; idx += 2 ) {
+            lastIdx = idx;
+            lastMaxEnd = maxEnds[idx] = ends[idx];
+        }
+        int level;
+        for ( level = 1; 1L << level <= nEntries; ++level ) {
+            final int halfWidth = 1 << (level - 1);
+            final long step = 4L * halfWidth;
+            for ( long idx = 2L * halfWidth - 1; idx < nEntries; idx += step ) {
+                final int nodeIdx = (int)idx;
+                final long leftMaxEnd = maxEnds[nodeIdx - halfWidth];
+                final long rightMaxEnd =
+                        nodeIdx + halfWidth < nEntries ? maxEnds[nodeIdx + halfWidth] : lastMaxEnd;
+                maxEnds[nodeIdx] = Math.max(ends[nodeIdx], Math.max(leftMaxEnd, rightMaxEnd));
+            }
+            lastIdx = ((lastIdx >> level) & 1) != 0 ? lastIdx - halfWidth : lastIdx + halfWidth;
+            if ( lastIdx < nEntries && maxEnds[lastIdx] > lastMaxEnd ) {
+                lastMaxEnd = maxEnds[lastIdx];
+            }
+        }
+        return level - 1;
+    }
+
+    private static <V> List<SVInterval> getIntervals( final SVIntervalTree<V> tree ) {
+        final List<SVInterval> intervals = new ArrayList<>(tree.size());
+        for ( final SVIntervalTree.Entry<V> entry : tree ) {
+            intervals.add(entry.getInterval());
+        }
+        return intervals;
+    }
+
+    private static <V> List<V> getValues( final SVIntervalTree<V> tree ) {
+        final List<V> values = new ArrayList<>(tree.size());
+        for ( final SVIntervalTree.Entry<V> entry : tree ) {
+            values.add(entry.getValue());
+        }
+        return values;
+    }
+
+    private static final class FlatEntry<V1> implements SVIntervalTree.Entry<V1> {
+        private final SVInterval interval;
+        private final V1 value;
+
+        FlatEntry( final SVInterval interval, final V1 value ) {
+            this.interval = interval;
+            this.value = value;
+        }
+
+        @Override
+        public SVInterval getInterval() { return interval; }
+
+        @Override
+        public V1 getValue() { return value; }
+
+        @Override
+        public V1 setValue( final V1 value ) {
+            throw new UnsupportedOperationException("FlatSVIntervalTree is immutable.");
+        }
+    }
+
+    public static final class Serializer<T> extends com.esotericsoftware.kryo.Serializer<FlatSVIntervalTree<T>> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final FlatSVIntervalTree<T> tree ) {
+            tree.serialize(kryo, output);
+        }
+
+        @Override
+        public FlatSVIntervalTree<T> read( final Kryo kryo, final Input input, final Class<FlatSVIntervalTree<T>> klass ) {
+            return new FlatSVIntervalTree<>(kryo, input);
+        }
+    }
+}
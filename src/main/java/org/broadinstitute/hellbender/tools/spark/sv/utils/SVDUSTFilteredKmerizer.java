@@ -50,6 +50,50 @@ public class SVDUSTFilteredKmerizer extends SVKmerizer {
         return Utils.stream(new SVDUSTFilteredKmerizer(seq, kSize, maxDUSTScore, kmer));
     }
 
+    /**
+     * Kmerizes an entire sequence into a buffer of primitive values, applying the DUST filter as it goes, rather than
+     * producing an SVKmerLong for each kmer.  Each canonicalized kmer occupies two successive longs, valHigh and valLow,
+     * from which you can reconstitute the SVKmerLong, if necessary.
+     *
+     * @param kSize must be odd, and no larger than 63.
+     * @param kmerBuffer must have room for all the kmers.  Two longs for each base of the sequence is always enough.
+     * @return the number of kmers placed in the buffer (i.e., half the number of longs).
+     */
+    public static int canonicalLongKmers( final byte[] seq, final int kSize, final int maxDUSTScore,
+                                          final long[] kmerBuffer ) {
+        if ( kSize < 4 ) {
+            throw new GATKException("kmer size must be at least 4 for this filter to work properly.");
+        }
+        Utils.validateArg((kSize & 1) != 0 && kSize < 64, "Kmer length must be odd and less than 64.");
+        Utils.validateArg(kmerBuffer.length >= 2 * maxKmers(seq.length, kSize), "Kmer buffer is too small.");
+        final long valueMask = (1L << kSize) - 1L;
+        final int[] trimerCounts = new int[64];
+        final int polyACount = kSize - 2; // we start with a poly-A kmer, just like the iterator
+        trimerCounts[0] = polyACount;
+        int curDUSTScore = polyACount*(polyACount - 1)/2;
+        long valHigh = 0L;
+        long valLow = 0L;
+        int validBaseCount = 0;
+        int nKmers = 0;
+        for ( final byte base : seq ) {
+            // this is the same calculation as nextKmer does, but on the kmer's values
+            curDUSTScore -= --trimerCounts[(int)(valHigh >>> (kSize-6))];
+            long baseValue = BASE_VALUES[base & 0xff];
+            if ( baseValue < 0 ) {
+                baseValue = SVKmer.Base.A.value;
+                validBaseCount = -1;
+            }
+            valHigh = ((valHigh << 2) | (valLow >> (kSize-2))) & valueMask;
+            valLow = ((valLow << 2) | baseValue) & valueMask;
+            curDUSTScore += trimerCounts[(int)valLow & 0x3F]++;
+
+            if ( ++validBaseCount >= kSize && curDUSTScore <= maxDUSTScore ) {
+                putCanonicalLongKmer(valHigh, valLow, kSize, kmerBuffer, nKmers++);
+            }
+        }
+        return nKmers;
+    }
+
     @Override
     protected SVKmer nextKmer( final SVKmer initialKmer, int validBaseCount ) {
         final int len = seq.length();
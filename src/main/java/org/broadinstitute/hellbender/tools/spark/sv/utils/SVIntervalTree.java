@@ -6,8 +6,10 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 
@@ -39,15 +41,46 @@ public final class SVIntervalTree<V> implements Iterable<SVIntervalTree.Entry<V>
 
     public SVIntervalTree() {}
 
+    /**
+     * Bulk-load a balanced tree from intervals that are already in sorted order, each with its associated value.
+     * This takes linear time, and avoids all the rebalancing that a series of puts would do.
+     *
+     * @param sortedIntervals Intervals in strictly increasing order (i.e., sorted, and with no duplicates).
+     * @param values          The value associated with each interval.
+     */
+    public SVIntervalTree( final List<SVInterval> sortedIntervals, final List<V> values ) {
+        bulkLoad(sortedIntervals, values);
+    }
+
+    private void bulkLoad( final List<SVInterval> sortedIntervals, final List<V> values ) {
+        final int nIntervals = sortedIntervals.size();
+        if ( values.size() != nIntervals ) {
+            throw new IllegalArgumentException("There must be one value for each interval.");
+        }
+        for ( int idx = 1; idx < nIntervals; ++idx ) {
+            if ( sortedIntervals.get(idx - 1).compareTo(sortedIntervals.get(idx)) >= 0 ) {
+                throw new IllegalArgumentException("Intervals are not in strictly increasing order at " +
+                                                    sortedIntervals.get(idx));
+            }
+        }
+        // every level of the tree is full except, perhaps, the deepest one.  color the deepest level red, unless
+        // it's the root, and then all the paths have the same number of black nodes.
+        final int maxDepth = 31 - Integer.numberOfLeadingZeros(nIntervals);
+        root = Node.buildBalanced(sortedIntervals, values, 0, nIntervals, null, 0, maxDepth > 0 ? maxDepth : -1);
+    }
+
     @SuppressWarnings("unchecked")
     private SVIntervalTree( final Kryo kryo, final Input input ) {
         final SVInterval.Serializer intervalSerializer = new SVInterval.Serializer();
-        int size = input.readInt();
-        while ( size-- > 0 ) {
-            final SVInterval interval = intervalSerializer.read(kryo, input, SVInterval.class);
-            final V value = (V)kryo.readClassAndObject(input);
-            put(interval, value);
+        final int size = input.readInt();
+        final List<SVInterval> intervals = new ArrayList<>(size);
+        final List<V> values = new ArrayList<>(size);
+        for ( int idx = 0; idx != size; ++idx ) {
+            intervals.add(intervalSerializer.read(kryo, input, SVInterval.class));
+            values.add((V)kryo.readClassAndObject(input));
         }
+        // entries were written in order, so we can bulk-load them
+        bulkLoad(intervals, values);
     }
 
     private void serialize( final Kryo kryo, final Output output ) {
@@ -569,6 +602,23 @@ public final class SVIntervalTree<V> implements Iterable<SVIntervalTree.Entry<V>
             return root;
         }
 
+        /** build a balanced sub-tree from the sorted intervals in the range [lo, hi) */
+        static <V1> Node<V1> buildBalanced( final List<SVInterval> sortedIntervals, final List<V1> values,
+                                            final int lo, final int hi, final Node<V1> parent,
+                                            final int depth, final int redDepth ) {
+            if ( lo >= hi ) {
+                return null;
+            }
+            final int mid = (lo + hi) >>> 1;
+            final Node<V1> node = new Node<>(parent, sortedIntervals.get(mid), values.get(mid));
+            node.isBlack = depth != redDepth;
+            node.left = buildBalanced(sortedIntervals, values, lo, mid, node, depth + 1, redDepth);
+            node.right = buildBalanced(sortedIntervals, values, mid + 1, hi, node, depth + 1, redDepth);
+            node.size = hi - lo;
+            node.setMaxEnd();
+            return node;
+        }
+
         static <V1> Node<V1> getNextOverlapper( final Node<V1> startingNode, final SVInterval interval ) {
             Node<V1> node = startingNode;
             do {
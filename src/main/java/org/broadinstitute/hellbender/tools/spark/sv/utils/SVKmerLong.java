@@ -38,7 +38,10 @@ public class SVKmerLong extends SVKmer implements Comparable<SVKmerLong>  {
         this.valLow = thatLong.valLow;
     }
 
-    private SVKmerLong( final long valHigh, final long valLow ) { this.valHigh = valHigh; this.valLow = valLow; }
+    /**
+     * Makes a kmer from its packed values, e.g., as produced by SVKmerizer.canonicalLongKmers.
+     */
+    public SVKmerLong( final long valHigh, final long valLow ) { this.valHigh = valHigh; this.valLow = valLow; }
 
     protected SVKmerLong( final Kryo kryo, final Input input ) {
         valHigh = input.readLong();
@@ -85,23 +88,35 @@ public class SVKmerLong extends SVKmer implements Comparable<SVKmerLong>  {
      * E.g., if kmer.toString(5) is "ACTGA", then kmer.rc(5).toString(5) is "TCAGT".
      */
     public final SVKmerLong reverseComplement( final int kSize ) {
+        return new SVKmerLong(reverseComplementHigh(valHigh, valLow, kSize), reverseComplementLow(valHigh, valLow, kSize));
+    }
+
+    // the most significant K bits of the reverse-complement of the kmer having the given values
+    static long reverseComplementHigh( final long valHigh, final long valLow, final int kSize ) {
         // bit hack to make a long value with the kSize least significant bits set to 1
         final long mask = (1L << kSize) - 1L;
         // number of unused bits at the top
         final int compK = 64 - kSize;
-        // if kSize is even
+        // if kSize is even, move the significant bits of valLow up to the top, reverse complement, and mask to kSize
+        // bits.  the reverse complemented lowVal becomes the highVal.
         if ( (kSize&1) == 0 ) {
-            // for each val, move the significant bits up to the top, reverse complement, and mask to kSize bits.
-            // make a new kmer where the reverse complemented lowVal becomes the highVal and vice versa.
-            return new SVKmerLong(reverseComplement(valLow << compK) & mask, reverseComplement(valHigh << compK) & mask);
+            return reverseComplement(valLow << compK) & mask;
         }
         // this is complicated: the middle base's bits straddle the two values (top bit of valLow, bottom of valHigh).
         // it's like the kSize even operation, but we flip the "missing" bit that's in the other value using an XOR,
         // when necessary.
         // i think you're just going to have to trust the unit tests.
-        final long newV1 = ((reverseComplement(valLow << (compK+1)) << 1) & mask) ^ ((valHigh & 1L) ^ 1L);
-        final long newV2 = (reverseComplement(valHigh << compK) & mask) ^ (valLow & (1L << (kSize-1)));
-        return new SVKmerLong(newV1, newV2);
+        return ((reverseComplement(valLow << (compK+1)) << 1) & mask) ^ ((valHigh & 1L) ^ 1L);
+    }
+
+    // the least significant K bits of the reverse-complement of the kmer having the given values
+    static long reverseComplementLow( final long valHigh, final long valLow, final int kSize ) {
+        final long mask = (1L << kSize) - 1L;
+        final int compK = 64 - kSize;
+        if ( (kSize&1) == 0 ) {
+            return reverseComplement(valHigh << compK) & mask;
+        }
+        return (reverseComplement(valHigh << compK) & mask) ^ (valLow & (1L << (kSize-1)));
     }
 
     /**
@@ -83,13 +83,18 @@ public class SVKmerShort extends SVKmer implements Comparable<SVKmerShort> {
      * E.g., if kmer.toString(5) is "ACTGA", then kmer.rc(5).toString(5) is "TCAGT".
      */
     public final SVKmerShort reverseComplement(final int kSize) {
+        return new SVKmerShort(reverseComplementValue(valLow, kSize));
+    }
+
+    // the reverse complement of a packed kmer value
+    static long reverseComplementValue( final long val, final int kSize ) {
         // bit hack to make a long value with the kSize least significant bits set to 1
         // note we multiply kSize by two in SVKmerShort because we no longer divide the bits into two longs
         final long mask = (1L << kSize * 2) - 1L;
         // number of unused bits at the top
         final int compK = 64 - kSize * 2;
         // move the significant bits up to the top, reverse complement, and mask to kSize bits.
-        return new SVKmerShort(reverseComplement(valLow << compK) & mask);
+        return reverseComplement(val << compK) & mask;
     }
 
     /**
@@ -106,6 +111,11 @@ public class SVKmerShort extends SVKmer implements Comparable<SVKmerShort> {
         return reverseComplement(kSize);
     }
 
+    // the canonical form of a packed kmer value, as computed by canonical, for odd K
+    static long canonicalValue( final long val, final int kSize ) {
+        return ((val >> kSize) & 1L) == 0 ? val : reverseComplementValue(val, kSize);
+    }
+
     public final Base firstBase( final int kSize ) { return Base.values()[(int)(valLow >> (kSize*2-2))]; }
     public final Base lastBase() { return Base.values()[(int)(valLow & 3)]; }
     public final int firstTrimer(final int kSize ) { return (int)(valLow >>> (kSize*2-6)); }
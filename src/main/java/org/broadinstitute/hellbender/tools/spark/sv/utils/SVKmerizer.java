@@ -13,6 +13,16 @@ import java.util.stream.StreamSupport;
  * Silently skips over parts of the sequence that has characters other than A, C, G, or T.
  */
 public class SVKmerizer implements Iterator<SVKmer> {
+    // the 2-bit value of each ASCII base, or -1 for anything other than A, C, G, or T
+    static final long[] BASE_VALUES = new long[256];
+    static {
+        Arrays.fill(BASE_VALUES, -1L);
+        BASE_VALUES['a'] = BASE_VALUES['A'] = SVKmer.Base.A.value;
+        BASE_VALUES['c'] = BASE_VALUES['C'] = SVKmer.Base.C.value;
+        BASE_VALUES['g'] = BASE_VALUES['G'] = SVKmer.Base.G.value;
+        BASE_VALUES['t'] = BASE_VALUES['T'] = SVKmer.Base.T.value;
+    }
+
     protected final CharSequence seq;
     protected final int kSize, kAdvance;
     protected int idx = 0;
@@ -88,6 +98,94 @@ public class SVKmerizer implements Iterator<SVKmer> {
         return stream(seq, kSize, 1, kmer).map(kkk -> kkk.canonical(kSize));
     }
 
+    /**
+     * Kmerizes an entire sequence into a buffer of primitive values, rather than producing an SVKmerShort for each
+     * kmer.  Each kmer is canonicalized and then masked, just as PSKmerCollection.canonicalizeAndMask does it.
+     * (Use a mask of -1L to retain all the bases.)
+     * Like the iterator, this silently skips over parts of the sequence that have characters other than A, C, G, or T.
+     *
+     * @param kSize must be odd, and no larger than 31.
+     * @param kmerBuffer must have room for all the kmers.  One long for each base of the sequence is always enough.
+     * @return the number of kmers placed in the buffer.
+     */
+    public static int canonicalShortKmers( final byte[] seq, final int kSize, final int kSpace, final long mask,
+                                           final long[] kmerBuffer ) {
+        Utils.validateArg((kSize & 1) != 0 && kSize < 32, "Kmer length must be odd and less than 32.");
+        Utils.validateArg(kmerBuffer.length >= maxKmers(seq.length, kSize), "Kmer buffer is too small.");
+        final long valueMask = (1L << kSize * 2) - 1L;
+        final int kAdvance = kSize - kSpace;
+        long kmer = 0L;
+        int validBaseCount = 0;
+        int nKmers = 0;
+        for ( final byte base : seq ) {
+            final long baseValue = BASE_VALUES[base & 0xff];
+            if ( baseValue < 0 ) {
+                validBaseCount = -1;
+            } else {
+                kmer = ((kmer << 2) | baseValue) & valueMask;
+            }
+            if ( ++validBaseCount == kSize ) {
+                kmerBuffer[nKmers++] = SVKmerShort.canonicalValue(kmer, kSize) & mask;
+                validBaseCount = kAdvance;
+            }
+        }
+        return nKmers;
+    }
+
+    /**
+     * Kmerizes an entire sequence into a buffer of primitive values, rather than producing an SVKmerLong for each
+     * kmer.  Each canonicalized kmer occupies two successive longs, valHigh and valLow, from which you can reconstitute
+     * the SVKmerLong, if necessary.
+     * Like the iterator, this silently skips over parts of the sequence that have characters other than A, C, G, or T.
+     *
+     * @param kSize must be odd, and no larger than 63.
+     * @param kmerBuffer must have room for all the kmers.  Two longs for each base of the sequence is always enough.
+     * @return the number of kmers placed in the buffer (i.e., half the number of longs).
+     */
+    public static int canonicalLongKmers( final byte[] seq, final int kSize, final long[] kmerBuffer ) {
+        Utils.validateArg((kSize & 1) != 0 && kSize < 64, "Kmer length must be odd and less than 64.");
+        Utils.validateArg(kmerBuffer.length >= 2 * maxKmers(seq.length, kSize), "Kmer buffer is too small.");
+        final long valueMask = (1L << kSize) - 1L;
+        long valHigh = 0L;
+        long valLow = 0L;
+        int validBaseCount = 0;
+        int nKmers = 0;
+        for ( final byte base : seq ) {
+            final long baseValue = BASE_VALUES[base & 0xff];
+            if ( baseValue < 0 ) {
+                validBaseCount = -1;
+            } else {
+                valHigh = ((valHigh << 2) | (valLow >> (kSize-2))) & valueMask;
+                valLow = ((valLow << 2) | baseValue) & valueMask;
+            }
+            if ( ++validBaseCount == kSize ) {
+                putCanonicalLongKmer(valHigh, valLow, kSize, kmerBuffer, nKmers++);
+                validBaseCount -= 1;
+            }
+        }
+        return nKmers;
+    }
+
+    /**
+     * The largest number of kmers that a sequence of the given length might have.
+     */
+    public static int maxKmers( final int seqLength, final int kSize ) {
+        return Math.max(0, seqLength - kSize + 1);
+    }
+
+    // store the canonical form of the kmer having the given values into the kmerIdx'th pair of longs in the buffer
+    static void putCanonicalLongKmer( final long valHigh, final long valLow, final int kSize,
+                                      final long[] kmerBuffer, final int kmerIdx ) {
+        // the high bit of the middle base is the least significant bit in valHigh.  if it's zero, it's canonical.
+        if ( (valHigh & 1L) == 0 ) {
+            kmerBuffer[2*kmerIdx] = valHigh;
+            kmerBuffer[2*kmerIdx + 1] = valLow;
+        } else {
+            kmerBuffer[2*kmerIdx] = SVKmerLong.reverseComplementHigh(valHigh, valLow, kSize);
+            kmerBuffer[2*kmerIdx + 1] = SVKmerLong.reverseComplementLow(valHigh, valLow, kSize);
+        }
+    }
+
     protected SVKmer nextKmer( SVKmer tmpKmer, int validBaseCount ) {
         final int len = seq.length();
         while ( idx < len ) {
@@ -4,9 +4,15 @@ import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.broadcast.Broadcast;
 import org.broadinstitute.hellbender.engine.ReadContextData;
 import org.broadinstitute.hellbender.engine.ReferenceDataSource;
 import org.broadinstitute.hellbender.engine.ReferenceMemorySource;
+import org.broadinstitute.hellbender.engine.datasources.ReferenceMultiSource;
+import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
+import org.broadinstitute.hellbender.engine.spark.KnownSitesCache;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.collections.IntervalsSkipList;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.recalibration.*;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
@@ -14,8 +20,9 @@ import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 import org.broadinstitute.hellbender.utils.variant.GATKVariant;
 import scala.Tuple2;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public final class BaseRecalibratorSparkFn {
 
@@ -35,6 +42,52 @@ public final class BaseRecalibratorSparkFn {
             return Arrays.asList(bqsr.getRecalibrationTables()).iterator();
         });
 
+        return mergeTablesIntoReport(unmergedTables, header, recalArgs);
+    }
+
+    /**
+     * Computes the recalibration report in a single pass over the reads, without first joining each read to its
+     * reference bases and known sites. The reference bases and overlapping known sites are looked up inside each
+     * partition as the reads stream through, so the only thing that is materialized is the (small) per-partition
+     * recalibration tables. Unmapped reads are skipped, as they are when joining with {@link org.broadinstitute.hellbender.engine.spark.AddContextDataToReadSpark}.
+     *
+     * @param reads the reads to recalibrate, no particular order is required
+     * @param referenceBroadcast the broadcast reference; its reference window function determines the bases used for each read
+     * @param knownSitesPaths the paths to the known sites files, loaded once per executor JVM via {@link KnownSitesCache}
+     * @param header the header for the reads
+     * @param referenceDictionary the reference sequence dictionary
+     * @param recalArgs the recalibration arguments
+     * @return the recalibration report
+     */
+    public static RecalibrationReport apply( final JavaRDD<GATKRead> reads, final Broadcast<ReferenceMultiSource> referenceBroadcast, final List<String> knownSitesPaths, final SAMFileHeader header, final SAMSequenceDictionary referenceDictionary, final RecalibrationArgumentCollection recalArgs ) {
+        JavaRDD<RecalibrationTables> unmergedTables = reads.mapPartitions(readIterator -> {
+            final BaseRecalibrationEngine bqsr = new BaseRecalibrationEngine(recalArgs, header);
+            bqsr.logCovariatesUsed();
+
+            final ReferenceMultiSource referenceSource = referenceBroadcast.getValue();
+            final IntervalsSkipList<GATKVariant> knownSites = KnownSitesCache.getVariants(knownSitesPaths);
+
+            while ( readIterator.hasNext() ) {
+                final GATKRead read = readIterator.next();
+                if ( !ReadFilterLibrary.MAPPED.test(read) ) {
+                    continue;
+                }
+                //Sometimes we have reads that do not form valid intervals (reads that do not consume any ref bases, eg CIGAR 61S90I
+                //In those cases, we'll just say that nothing overlaps the read
+                final List<GATKVariant> variants = SimpleInterval.isValid(read.getContig(), read.getStart(), read.getEnd()) ?
+                        knownSites.getOverlapping(new SimpleInterval(read)) : Collections.emptyList();
+                final SimpleInterval refWindow = referenceSource.getReferenceWindowFunction().apply(read);
+                final ReferenceDataSource refDS = new ReferenceMemorySource(referenceSource.getReferenceBases(null, refWindow), referenceDictionary);
+
+                bqsr.processRead(read, refDS, variants);
+            }
+            return Arrays.asList(bqsr.getRecalibrationTables()).iterator();
+        });
+
+        return mergeTablesIntoReport(unmergedTables, header, recalArgs);
+    }
+
+    private static RecalibrationReport mergeTablesIntoReport( final JavaRDD<RecalibrationTables> unmergedTables, final SAMFileHeader header, final RecalibrationArgumentCollection recalArgs ) {
         final RecalibrationTables emptyRecalibrationTable = new RecalibrationTables(new StandardCovariateList(recalArgs, header));
         final RecalibrationTables combinedTables = unmergedTables.treeAggregate(emptyRecalibrationTable,
                 RecalibrationTables::inPlaceCombine,
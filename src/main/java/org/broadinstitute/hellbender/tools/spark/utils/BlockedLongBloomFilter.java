@@ -0,0 +1,253 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+
+/**
+ * Blocked Bloom filter for primitive longs. Unlike LongBloomFilter, which scatters the bits of each key across the
+ * whole filter, the bits for a key all fall within a single 512-bit block, i.e. one 64-byte cache line. So a query
+ * costs one cache miss rather than one per hash function, and the batch query, containsAtLeast, can have the misses
+ * for many keys outstanding at once.
+ * <p>
+ * Confining each key to one block makes the false positive probability somewhat higher than that of a standard
+ * filter with the same number of bits. The filter is sized so that its theoretical false positive probability,
+ * which accounts for the uneven load on the blocks, meets the requested one. See reference:
+ * <p>
+ * Putze, Sanders, and Singler. 2009. Cache-, hash-, and space-efficient Bloom filters. Journal of Experimental
+ * Algorithmics. 14, 4.4-4.18.
+ */
+@DefaultSerializer(BlockedLongBloomFilter.Serializer.class)
+public final class BlockedLongBloomFilter {
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Long.SIZE;
+    private static final int BLOCK_ARRAY_SHIFT = 24; //Blocks per word array, as a power of 2
+    private static final long BLOCK_ARRAY_MASK = (1L << BLOCK_ARRAY_SHIFT) - 1;
+    private static final int BIT_INDEX_SHIFT = Long.SIZE - 9; //Leaves the 9 bits that index a 512-bit block
+    private static final int BATCH_SIZE = 16; //Number of keys hashed ahead of probing in containsAtLeast
+
+    private final long numBlocks;
+    private final int numHashes;
+    private final long[][] words;
+
+    public BlockedLongBloomFilter(final long numElements, final double fpp) {
+        Utils.validateArg(numElements > 0, "Number of elements must be greater than 0");
+        Utils.validateArg(fpp > 0 && fpp < 1, "False positive probability must be between 0 and 1");
+
+        final int optimalNumberOfHashes = (int) Math.ceil(-Math.log(fpp) / Math.log(2));
+        numHashes = Math.min(optimalNumberOfHashes > 0 ? optimalNumberOfHashes : 1, BITS_PER_BLOCK);
+
+        //Start from the size of a standard filter and grow it until the uneven block loads are accounted for
+        long blocks = (LongBloomFilter.getOptimalNumberOfBits(numElements, fpp) + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK;
+        while (getTheoreticalFPP(numElements, blocks, numHashes) > fpp) {
+            blocks += Math.max(1, blocks / 20);
+        }
+        if (blocks > (long) Integer.MAX_VALUE << BLOCK_ARRAY_SHIFT) {
+            throw new GATKException("Could not create blocked Bloom filter with " + blocks + " blocks");
+        }
+        numBlocks = blocks;
+        words = allocateWords(numBlocks);
+    }
+
+    private BlockedLongBloomFilter(final Kryo kryo, final Input input) {
+        numBlocks = input.readLong();
+        numHashes = input.readInt();
+        words = allocateWords(numBlocks);
+        for (final long[] array : words) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = input.readLong();
+            }
+        }
+    }
+
+    private void serialize(final Kryo kryo, final Output output) {
+        output.writeLong(numBlocks);
+        output.writeInt(numHashes);
+        for (final long[] array : words) {
+            output.writeLongs(array);
+        }
+    }
+
+    private static long[][] allocateWords(final long numBlocks) {
+        final int numArrays = (int) ((numBlocks + BLOCK_ARRAY_MASK) >>> BLOCK_ARRAY_SHIFT);
+        final long[][] words = new long[numArrays][];
+        for (int i = 0; i < numArrays; i++) {
+            final long blocksInArray = Math.min(numBlocks - ((long) i << BLOCK_ARRAY_SHIFT), 1L << BLOCK_ARRAY_SHIFT);
+            words[i] = new long[(int) blocksInArray * WORDS_PER_BLOCK];
+        }
+        return words;
+    }
+
+    public long getNumBlocks() {
+        return numBlocks;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public double getTheoreticalFPP(final long numElements) {
+        return getTheoreticalFPP(numElements, numBlocks, numHashes);
+    }
+
+    /**
+     * The number of keys in a block is approximately Poisson-distributed, so the false positive probability is that of
+     * a standard 512-bit filter, averaged over the distribution of its load.
+     */
+    static double getTheoreticalFPP(final long numElements, final long numBlocks, final int numHashes) {
+        final double meanLoad = numElements / (double) numBlocks;
+        final long maxLoad = (long) Math.ceil(meanLoad + 10 * Math.sqrt(meanLoad) + 10);
+        final double logBitUnsetPerHash = Math.log1p(-1.0 / BITS_PER_BLOCK);
+        double fpp = 0;
+        double logLoadProbability = -meanLoad;
+        for (long load = 0; load <= maxLoad; load++) {
+            if (load > 0) {
+                logLoadProbability += Math.log(meanLoad / load);
+            }
+            final double blockFpp = Math.pow(-Math.expm1(numHashes * load * logBitUnsetPerHash), numHashes);
+            fpp += Math.exp(logLoadProbability) * blockFpp;
+        }
+        return fpp;
+    }
+
+    public void add(final long entryValue) {
+        final long hash1 = SVUtils.fnvLong64(entryValue);
+        final long hash2 = SVUtils.fnvLong64(LongBloomFilter.HASH_SEED_2, entryValue);
+        final long block = Long.remainderUnsigned(hash1, numBlocks);
+        final long[] array = words[(int) (block >>> BLOCK_ARRAY_SHIFT)];
+        final int offset = (int) (block & BLOCK_ARRAY_MASK) * WORDS_PER_BLOCK;
+        long bitHash = hash2;
+        for (int i = 0; i < numHashes; i++) {
+            bitHash = nextBitHash(bitHash);
+            final int bitIndex = (int) (bitHash >>> BIT_INDEX_SHIFT);
+            array[offset + (bitIndex >>> 6)] |= 1L << bitIndex;
+        }
+    }
+
+    public void addAll(final long[] entryValues) {
+        for (final long val : entryValues) {
+            add(val);
+        }
+    }
+
+    public boolean contains(final long key) {
+        final long hash1 = SVUtils.fnvLong64(key);
+        final long hash2 = SVUtils.fnvLong64(LongBloomFilter.HASH_SEED_2, key);
+        final long block = Long.remainderUnsigned(hash1, numBlocks);
+        return blockContains(words[(int) (block >>> BLOCK_ARRAY_SHIFT)], (int) (block & BLOCK_ARRAY_MASK) * WORDS_PER_BLOCK, hash2);
+    }
+
+    public boolean containsAll(final long[] vals) {
+        for (final long val : vals) {
+            if (!contains(val))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if at least minCount of the first numKeys keys are (probably) in the filter. The keys are hashed in
+     * batches before any of their blocks are read, so that the reads are independent of one another and the processor
+     * can overlap their cache misses. Stops as soon as minCount keys have been found.
+     */
+    public boolean containsAtLeast(final long[] keys, final int numKeys, final int minCount) {
+        Utils.validateArg(numKeys >= 0 && numKeys <= keys.length, "Number of keys must be between 0 and the array length");
+        final long[] blocks = new long[BATCH_SIZE];
+        final long[] hashes = new long[BATCH_SIZE];
+        int count = 0;
+        for (int batchStart = 0; batchStart < numKeys; batchStart += BATCH_SIZE) {
+            final int batchSize = Math.min(BATCH_SIZE, numKeys - batchStart);
+            for (int i = 0; i < batchSize; i++) {
+                final long key = keys[batchStart + i];
+                blocks[i] = Long.remainderUnsigned(SVUtils.fnvLong64(key), numBlocks);
+                hashes[i] = SVUtils.fnvLong64(LongBloomFilter.HASH_SEED_2, key);
+            }
+            for (int i = 0; i < batchSize; i++) {
+                final long block = blocks[i];
+                if (blockContains(words[(int) (block >>> BLOCK_ARRAY_SHIFT)], (int) (block & BLOCK_ARRAY_MASK) * WORDS_PER_BLOCK, hashes[i])) {
+                    if (++count >= minCount) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean blockContains(final long[] array, final int offset, final long hash2) {
+        long bitHash = hash2;
+        for (int i = 0; i < numHashes; i++) {
+            bitHash = nextBitHash(bitHash);
+            final int bitIndex = (int) (bitHash >>> BIT_INDEX_SHIFT);
+            if ((array[offset + (bitIndex >>> 6)] & (1L << bitIndex)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The bits for a key within its block are taken from the top 9 bits of successive xorshift steps, starting from
+     * the key's second hash. Double hashing, as in LongBloomFilter, doesn't work well here: within a block that small,
+     * keys that share a stride set nearly the same bits.
+     */
+    private static long nextBitHash(long bitHash) {
+        bitHash ^= bitHash << 13;
+        bitHash ^= bitHash >>> 7;
+        bitHash ^= bitHash << 17;
+        return bitHash;
+    }
+
+    public void clear() {
+        for (final long[] array : words) {
+            Arrays.fill(array, 0L);
+        }
+    }
+
+    public boolean isEmpty() {
+        for (final long[] array : words) {
+            for (final long word : array) {
+                if (word != 0) return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("SimplifiableIfStatement")
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BlockedLongBloomFilter)) return false;
+
+        final BlockedLongBloomFilter that = (BlockedLongBloomFilter) o;
+
+        if (numBlocks != that.numBlocks) return false;
+        if (numHashes != that.numHashes) return false;
+        return Arrays.deepEquals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (numBlocks ^ (numBlocks >>> 32));
+        result = 31 * result + numHashes;
+        result = 31 * result + Arrays.deepHashCode(words);
+        return result;
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<BlockedLongBloomFilter> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final BlockedLongBloomFilter bloomFilter) {
+            bloomFilter.serialize(kryo, output);
+        }
+
+        @Override
+        public BlockedLongBloomFilter read(final Kryo kryo, final Input input, final Class<BlockedLongBloomFilter> klass) {
+            return new BlockedLongBloomFilter(kryo, input);
+        }
+    }
+}
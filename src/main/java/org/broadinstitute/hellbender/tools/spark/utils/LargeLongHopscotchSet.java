@@ -8,6 +8,8 @@ import com.google.common.annotations.VisibleForTesting;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 
@@ -74,6 +76,13 @@ public final class LargeLongHopscotchSet implements Serializable {
         kryo.setReferences(oldReferences);
     }
 
+    /**
+     * Writes this set in a format that can be memory-mapped by {@link MappedLongHopscotchSet}.
+     */
+    public void writeMappable(final DataOutput output) throws IOException {
+        MappedLongHopscotchSet.write(sets, output);
+    }
+
     public boolean add(final long entryValue) {
         final int hashValue = longHash(entryValue);
         final int setIndex = setIndexOf(hashValue);
@@ -11,6 +11,8 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -39,7 +41,7 @@ public final class LongBloomFilter {
             4294967311L, 8589934609L, 17179869209L, 34359738337L, 68719476767L,
             137438953481L, 274877906951L, 549755813881L, 1099511627791L};
 
-    private final static long HASH_SEED_2 = 0x6cebe6dca7f118a6L;
+    final static long HASH_SEED_2 = 0x6cebe6dca7f118a6L;
 
     public LongBloomFilter(final long numElements, final double fpp) {
         Utils.validateArg(numElements > 0, "Number of elements must be greater than 0");
@@ -107,6 +109,16 @@ public final class LongBloomFilter {
         }
     }
 
+    /**
+     * Writes this filter in a format that can be memory-mapped by {@link MappedLongBloomFilter}.
+     */
+    public void writeMappable(final DataOutput output) throws IOException {
+        MappedLongBloomFilter.writeHeader(totalBits, numHashes, output);
+        for (int i = 0; i < numBucketArrays; i++) {
+            output.write(buckets[i]);
+        }
+    }
+
     public static long getOptimalNumberOfBits(final long numElements, final double fpp) {
         return (long) Math.ceil(-numElements * Math.log(fpp) / (Math.log(2) * Math.log(2)));
     }
@@ -183,6 +195,10 @@ public final class LongBloomFilter {
      * Structures & Algorithms. 33:2, 187-218.
      */
     private long applyHashFunction(final int i, final long fnvHash1, final long fnvHash2) {
+        return applyHashFunction(i, fnvHash1, fnvHash2, totalBits);
+    }
+
+    static long applyHashFunction(final int i, final long fnvHash1, final long fnvHash2, final long totalBits) {
         final long result = (fnvHash1+ i * fnvHash2) % totalBits;
         return result < 0 ? result + totalBits : result;
     }
@@ -8,7 +8,10 @@ import com.google.common.annotations.VisibleForTesting;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.stream.LongStream;
@@ -120,6 +123,23 @@ public final class LongHopscotchSet implements Serializable {
         }
     }
 
+    /**
+     * Writes this set in a format that can be memory-mapped by {@link MappedLongHopscotchSet}.
+     */
+    public void writeMappable(final DataOutput output) throws IOException {
+        MappedLongHopscotchSet.write(Collections.singletonList(this), output);
+    }
+
+    void writeBuckets(final DataOutput output) throws IOException {
+        for (final long bucket : buckets) {
+            output.writeLong(bucket);
+        }
+    }
+
+    void writeStatus(final DataOutput output) throws IOException {
+        output.write(status);
+    }
+
     public final boolean add(final long entryValue) {
         final int hashValue = longHash(entryValue);
         return add(entryValue, hashValue);
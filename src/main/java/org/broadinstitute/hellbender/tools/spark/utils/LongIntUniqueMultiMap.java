@@ -0,0 +1,229 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.annotations.VisibleForTesting;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A multimap from primitive longs onto primitive ints in which each key/value pair is unique.
+ * It's a stand-in for a {@link HopscotchUniqueMultiMap} of Long keys and Integer values that doesn't have to box a
+ * key to look it up, and that saves the object header and references of each entry:  the pairs are kept in a pair of
+ * parallel arrays, and collisions are resolved by linear probing.
+ * <p>
+ * Non-negative values only!  We use a negative value to mark an empty bucket.
+ * Entries aren't removed one at a time, but only in bulk by rebuilding the table:  that keeps the entries having any
+ * given key in a single run of occupied buckets, starting at the bucket to which the key hashes.
+ * <p>
+ * Lookup doesn't allocate an iterator.  Instead, you walk the buckets that hold a key like this:
+ * <pre>
+ *     for ( int slot = map.findFirst(key); slot != LongIntUniqueMultiMap.NO_SLOT; slot = map.findNext(key, slot) ) {
+ *         doSomethingWith(map.getValue(slot));
+ *     }
+ * </pre>
+ */
+@DefaultSerializer(LongIntUniqueMultiMap.Serializer.class)
+public final class LongIntUniqueMultiMap implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int NO_SLOT = -1;
+
+    @VisibleForTesting
+    static final double LOAD_FACTOR = .75;
+    private static final int EMPTY_VALUE = -1;
+
+    private int capacity;
+    private int size;
+    private long[] keys;
+    private int[] values;
+
+    /**
+     * A consumer of key/value pairs.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept( long key, int value );
+    }
+
+    /**
+     * A predicate on key/value pairs.
+     */
+    @FunctionalInterface
+    public interface EntryPredicate {
+        boolean test( long key, int value );
+    }
+
+    /**
+     * make a LongIntUniqueMultiMap that will hold a specified number of entries without resizing
+     */
+    public LongIntUniqueMultiMap( final int nEntries ) {
+        Utils.validateArg(nEntries >= 0, "number of entries must be non-negative");
+        allocate(SetSizeUtils.getLegalSizeAbove(nEntries, LOAD_FACTOR));
+    }
+
+    private LongIntUniqueMultiMap( final Kryo kryo, final Input input ) {
+        int nEntries = input.readInt();
+        allocate(SetSizeUtils.getLegalSizeAbove(nEntries, LOAD_FACTOR));
+        while ( nEntries-- > 0 ) {
+            final long key = input.readLong();
+            insert(key, input.readInt());
+        }
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        output.writeInt(size);
+        for ( int idx = 0; idx != capacity; ++idx ) {
+            if ( values[idx] != EMPTY_VALUE ) {
+                output.writeLong(keys[idx]);
+                output.writeInt(values[idx]);
+            }
+        }
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Number of buckets.  (The map is resized before the buckets are full.)
+     */
+    public int capacity() { return capacity; }
+
+    /**
+     * Adds a key/value pair, unless it's already present.  Returns true if the pair was added.
+     */
+    public boolean add( final long key, final int value ) {
+        Utils.validateArg(value >= 0, "Tried to add a negative value to LongIntUniqueMultiMap");
+        if ( size + 1 > LOAD_FACTOR * capacity ) {
+            resize();
+        }
+        return insert(key, value);
+    }
+
+    public boolean contains( final long key, final int value ) {
+        for ( int slot = findFirst(key); slot != NO_SLOT; slot = findNext(key, slot) ) {
+            if ( values[slot] == value ) return true;
+        }
+        return false;
+    }
+
+    public boolean containsKey( final long key ) {
+        return findFirst(key) != NO_SLOT;
+    }
+
+    /**
+     * Returns the slot of the first entry having the specified key, or NO_SLOT if there is none.
+     */
+    public int findFirst( final long key ) {
+        return probe(key, hashToIndex(key));
+    }
+
+    /**
+     * Returns the slot of the next entry having the specified key after the entry at the specified slot
+     * (which is assumed to hold that key), or NO_SLOT if there is none.
+     */
+    public int findNext( final long key, final int slot ) {
+        return probe(key, nextIndex(slot));
+    }
+
+    /**
+     * Returns the value held in a slot returned by findFirst or findNext.
+     */
+    public int getValue( final int slot ) {
+        return values[slot];
+    }
+
+    /**
+     * Calls the consumer on each key/value pair, in no particular order.
+     */
+    public void forEach( final EntryConsumer consumer ) {
+        for ( int idx = 0; idx != capacity; ++idx ) {
+            if ( values[idx] != EMPTY_VALUE ) {
+                consumer.accept(keys[idx], values[idx]);
+            }
+        }
+    }
+
+    /**
+     * Removes each key/value pair that satisfies the predicate.  Returns true if anything was removed.
+     */
+    public boolean removeIf( final EntryPredicate predicate ) {
+        final int oldSize = size;
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(capacity);
+        for ( int idx = 0; idx != oldKeys.length; ++idx ) {
+            if ( oldValues[idx] != EMPTY_VALUE && !predicate.test(oldKeys[idx], oldValues[idx]) ) {
+                insert(oldKeys[idx], oldValues[idx]);
+            }
+        }
+        return size != oldSize;
+    }
+
+    private int probe( final long key, int idx ) {
+        while ( values[idx] != EMPTY_VALUE ) {
+            if ( keys[idx] == key ) return idx;
+            idx = nextIndex(idx);
+        }
+        return NO_SLOT;
+    }
+
+    private boolean insert( final long key, final int value ) {
+        int idx = hashToIndex(key);
+        while ( values[idx] != EMPTY_VALUE ) {
+            if ( keys[idx] == key && values[idx] == value ) return false;
+            idx = nextIndex(idx);
+        }
+        keys[idx] = key;
+        values[idx] = value;
+        size += 1;
+        return true;
+    }
+
+    private int hashToIndex( final long key ) {
+        final int result = LongHopscotchSet.longHash(key) % capacity;
+        return result < 0 ? result + capacity : result;
+    }
+
+    private int nextIndex( final int idx ) {
+        final int result = idx + 1;
+        return result == capacity ? 0 : result;
+    }
+
+    private void allocate( final int newCapacity ) {
+        capacity = newCapacity;
+        size = 0;
+        keys = new long[newCapacity];
+        values = new int[newCapacity];
+        Arrays.fill(values, EMPTY_VALUE);
+    }
+
+    private void resize() {
+        final int oldCapacity = capacity;
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        allocate(SetSizeUtils.getLegalSizeAbove(oldCapacity));
+        for ( int idx = 0; idx != oldCapacity; ++idx ) {
+            if ( oldValues[idx] != EMPTY_VALUE ) {
+                insert(oldKeys[idx], oldValues[idx]);
+            }
+        }
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<LongIntUniqueMultiMap> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final LongIntUniqueMultiMap multiMap ) {
+            multiMap.serialize(kryo, output);
+        }
+
+        @Override
+        public LongIntUniqueMultiMap read( final Kryo kryo, final Input input, final Class<LongIntUniqueMultiMap> klass ) {
+            return new LongIntUniqueMultiMap(kryo, input);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only, memory-mapped region of a file that may be larger than the 2GB limit of a single MappedByteBuffer.
+ * The region is mapped in 1GB chunks, so ints at offsets that are a multiple of 4, and longs at offsets that are a
+ * multiple of 8, never straddle two chunks.
+ * Absolute reads don't change the state of the buffers, so a region can be shared by many threads.
+ */
+public final class MappedByteRegion {
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long length;
+    private final MappedByteBuffer[] chunks;
+
+    public MappedByteRegion(final FileChannel channel, final long position, final long length) throws IOException {
+        this.length = length;
+        chunks = new MappedByteBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            final long start = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + start, Math.min(length - start, CHUNK_SIZE));
+        }
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public byte getByte(final long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) (offset & CHUNK_MASK));
+    }
+
+    /**
+     * Offset must be a multiple of 8.
+     */
+    public long getLong(final long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+    }
+
+    /**
+     * Offset must be a multiple of 4.
+     */
+    public int getInt(final long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & CHUNK_MASK));
+    }
+}
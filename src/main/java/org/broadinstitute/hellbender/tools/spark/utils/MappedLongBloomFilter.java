@@ -0,0 +1,76 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only view of a LongBloomFilter that has been written to a file with writeMappable. The bits are
+ * memory-mapped rather than deserialized, so opening a filter of any size is nearly instantaneous, the data live
+ * outside of the Java heap, and all the executors on a host share the same pages.
+ * <p>
+ * The format, in big-endian order, starting at some position in the file, is: the number of bits (long), the number
+ * of hash functions (int), an int of padding, and then the bits themselves, packed 8 to a byte in the same order as
+ * LongBloomFilter's buckets.
+ */
+public final class MappedLongBloomFilter {
+
+    private static final int HEADER_SIZE = 16;
+
+    private final long totalBits;
+    private final int numHashes;
+    private final MappedByteRegion buckets;
+
+    /**
+     * Maps a filter written at the given position of a file. The mapping remains valid after the channel is closed.
+     */
+    public MappedLongBloomFilter(final FileChannel channel, final long position) throws IOException {
+        final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, position, HEADER_SIZE);
+        totalBits = header.getLong(0);
+        numHashes = header.getInt(8);
+        if (totalBits <= 0 || numHashes <= 0) {
+            throw new GATKException("Corrupt memory-mapped Bloom filter: " + totalBits + " bits and " + numHashes + " hashes");
+        }
+        final long totalBuckets = (totalBits / 8) + (totalBits % 8 > 0 ? 1 : 0);
+        buckets = new MappedByteRegion(channel, position + HEADER_SIZE, totalBuckets);
+    }
+
+    static void writeHeader(final long totalBits, final int numHashes, final DataOutput output) throws IOException {
+        output.writeLong(totalBits);
+        output.writeInt(numHashes);
+        output.writeInt(0);
+    }
+
+    /**
+     * Number of bytes this filter occupies in its file.
+     */
+    public long mappedLength() {
+        return HEADER_SIZE + buckets.length();
+    }
+
+    public boolean contains(final long key) {
+        final long hash1 = SVUtils.fnvLong64(key);
+        final long hash2 = SVUtils.fnvLong64(LongBloomFilter.HASH_SEED_2, key);
+        for (int i = 0; i < numHashes; i++) {
+            final long bitIndex = LongBloomFilter.applyHashFunction(i, hash1, hash2, totalBits);
+            if ((buckets.getByte(bitIndex >>> 3) & (1 << (bitIndex & 7))) == 0) return false;
+        }
+        return true;
+    }
+
+    public boolean containsAll(final long[] vals) {
+        for (final long val : vals) {
+            if (!contains(val))
+                return false;
+        }
+        return true;
+    }
+
+    public double getTheoreticalFPP(final long numElements) {
+        return Math.pow(1.0 - Math.pow(1.0 - (1.0/totalBits), numHashes * numElements), numHashes);
+    }
+}
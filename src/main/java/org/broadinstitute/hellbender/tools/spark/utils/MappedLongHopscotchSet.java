@@ -0,0 +1,123 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+
+/**
+ * Read-only view of a LargeLongHopscotchSet (or a LongHopscotchSet) that has been written to a file with
+ * writeMappable. The buckets are memory-mapped rather than deserialized, so opening a set of any size is nearly
+ * instantaneous, the data live outside of the Java heap, and all the executors on a host share the same pages.
+ * <p>
+ * The format, in big-endian order, starting at some position in the file, is:
+ * <ul>
+ *     <li>the number of partitions (int), and an int of padding</li>
+ *     <li>for each partition, its capacity (int) and size (int)</li>
+ *     <li>the buckets of each partition, in order (capacity longs per partition)</li>
+ *     <li>the status bytes of each partition, in order (capacity bytes per partition)</li>
+ * </ul>
+ * The buckets and status bytes are copied exactly as they're laid out in memory, so lookups follow the same chains
+ * as those of the set that was written.
+ */
+public final class MappedLongHopscotchSet {
+
+    private final int numSets;
+    private final int[] capacities;
+    private final long[] firstBucketIndices;
+    private final long size;
+    private final MappedByteRegion buckets;
+    private final MappedByteRegion status;
+
+    /**
+     * Maps a set written at the given position of a file. The mapping remains valid after the channel is closed.
+     */
+    public MappedLongHopscotchSet(final FileChannel channel, final long position) throws IOException {
+        final ByteBuffer numSetsBuffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 8);
+        numSets = numSetsBuffer.getInt(0);
+        if (numSets <= 0) {
+            throw new GATKException("Corrupt memory-mapped hopscotch set: " + numSets + " partitions");
+        }
+        final ByteBuffer partitions = channel.map(FileChannel.MapMode.READ_ONLY, position + 8, 8L * numSets);
+        capacities = new int[numSets];
+        firstBucketIndices = new long[numSets];
+        long totalCapacity = 0;
+        long totalSize = 0;
+        for (int i = 0; i < numSets; i++) {
+            capacities[i] = partitions.getInt(8 * i);
+            firstBucketIndices[i] = totalCapacity;
+            totalCapacity += capacities[i];
+            totalSize += partitions.getInt(8 * i + 4);
+        }
+        size = totalSize;
+        final long bucketsPosition = position + 8 + 8L * numSets;
+        buckets = new MappedByteRegion(channel, bucketsPosition, 8 * totalCapacity);
+        status = new MappedByteRegion(channel, bucketsPosition + 8 * totalCapacity, totalCapacity);
+    }
+
+    /**
+     * Writes partitioned sets in the format that can be mapped by this class. The partition of each entry must have
+     * been chosen as in LargeLongHopscotchSet.
+     */
+    static void write(final Collection<LongHopscotchSet> sets, final DataOutput output) throws IOException {
+        output.writeInt(sets.size());
+        output.writeInt(0);
+        for (final LongHopscotchSet set : sets) {
+            output.writeInt((int) set.capacity());
+            output.writeInt(set.size());
+        }
+        for (final LongHopscotchSet set : sets) {
+            set.writeBuckets(output);
+        }
+        for (final LongHopscotchSet set : sets) {
+            set.writeStatus(output);
+        }
+    }
+
+    /**
+     * Number of bytes this set occupies in its file.
+     */
+    public long mappedLength() {
+        return 8 + 8L * numSets + buckets.length() + status.length();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(final long key) {
+        final int hash = LongHopscotchSet.longHash(key);
+        final int setIndex = Integer.remainderUnsigned(hash, numSets);
+        final int capacity = capacities[setIndex];
+        final long firstBucketIndex = firstBucketIndices[setIndex];
+        int bucketIndex = hash % capacity;
+        if (bucketIndex < 0) bucketIndex += capacity;
+        byte bucketStatus = status.getByte(firstBucketIndex + bucketIndex);
+        // high bit of the status byte is set for chain heads
+        if ((bucketStatus & Byte.MIN_VALUE) == 0) return false;
+        while (true) {
+            // high bit of the bucket marks it as occupied
+            if ((buckets.getLong(8 * (firstBucketIndex + bucketIndex)) & Long.MAX_VALUE) == key) return true;
+            final int offset = bucketStatus & Byte.MAX_VALUE;
+            if (offset == 0) return false;
+            bucketIndex += offset;
+            if (bucketIndex >= capacity) bucketIndex -= capacity;
+            bucketStatus = status.getByte(firstBucketIndex + bucketIndex);
+        }
+    }
+
+    public boolean containsAll(final long[] vals) {
+        for (final long val : vals) {
+            if (!contains(val))
+                return false;
+        }
+        return true;
+    }
+}
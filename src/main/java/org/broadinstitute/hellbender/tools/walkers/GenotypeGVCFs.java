@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.variant.variantcontext.*;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.*;
@@ -14,17 +15,25 @@ import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.tools.walkers.annotator.*;
 import org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific.AS_RMSMappingQuality;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.*;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.tools.walkers.genotyper.afcalc.AFCalculatorProvider;
+import org.broadinstitute.hellbender.tools.walkers.genotyper.afcalc.ConcurrentAFCalculatorProvider;
 import org.broadinstitute.hellbender.tools.walkers.genotyper.afcalc.GeneralPloidyFailOverAFCalculatorProvider;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
 import org.broadinstitute.hellbender.utils.genotyper.SampleList;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Perform joint genotyping on one or more samples pre-called with HaplotypeCaller
@@ -75,6 +84,11 @@ import java.util.*;
  * <p>This tool is able to handle any ploidy (or mix of ploidies) intelligently; there is no need to specify ploidy
  * for non-diploid organisms.</p>
  *
+ * <h3>Multi-threading</h3>
+ * <p>With --genotypingThreads greater than 1, sites are genotyped and annotated in batches on a pool of worker threads
+ * while the input is still being read, and are written in their original order. The output is identical to that of a
+ * single-threaded run.</p>
+ *
  */
 @CommandLineProgramProperties(summary = "Perform joint genotyping on one or more samples pre-called with HaplotypeCaller", oneLineSummary = "Perform joint genotyping on one or more samples pre-called with HaplotypeCaller", programGroup = VariantProgramGroup.class)
 @DocumentedFeature
@@ -82,6 +96,8 @@ public final class GenotypeGVCFs extends VariantWalker {
 
     public static final String PHASED_HOM_VAR_STRING = "1|1";
     public static final String ONLY_OUTPUT_CALLS_STARTING_IN_INTERVALS_FULL_NAME = "onlyOutputCallsStartingInIntervals";
+    public static final String GENOTYPING_THREADS_FULL_NAME = "genotypingThreads";
+    public static final String GENOTYPING_BATCH_SIZE_FULL_NAME = "genotypingBatchSize";
     private static final String GVCF_BLOCK = "GVCFBlock";
 
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
@@ -117,12 +133,29 @@ public final class GenotypeGVCFs extends VariantWalker {
     @ArgumentCollection
     private final DbsnpArgumentCollection dbsnp = new DbsnpArgumentCollection();
 
-    // the genotyping engine
-    private GenotypingEngine<?> genotypingEngine;
-    // the annotation engine
-    private VariantAnnotatorEngine annotationEngine;
+    /**
+     * With more than one thread, sites are genotyped and annotated in batches on a pool of worker threads, each with its
+     * own genotyping and annotation engines, and written out in their original order.
+     */
+    @Argument(fullName = GENOTYPING_THREADS_FULL_NAME,
+            doc = "Number of threads used to genotype and annotate sites",
+            optional = true)
+    private int genotypingThreads = 1;
+
+    @Advanced
+    @Argument(fullName = GENOTYPING_BATCH_SIZE_FULL_NAME,
+            doc = "Number of sites handed to a worker thread at a time, if more than one genotyping thread is used",
+            optional = true)
+    private int genotypingBatchSize = 100;
+
+    // the genotyping and annotation engines used on the traversal thread
+    private SiteGenotyper siteGenotyper;
 
-    private ReferenceConfidenceVariantContextMerger merger;
+    // used instead of siteGenotyper when genotyping on multiple threads
+    private ThreadLocal<SiteGenotyper> workerSiteGenotypers;
+    private ExecutorService genotypingExecutor;
+    private List<SiteToGenotype> currentBatch;
+    private final Deque<Future<List<VariantContext>>> pendingBatches = new ArrayDeque<>();
 
     private VariantContextWriter vcfWriter;
 
@@ -148,11 +181,29 @@ public final class GenotypeGVCFs extends VariantWalker {
 
         final SampleList samples = new IndexedSampleList(inputVCFHeader.getGenotypeSamples()); //todo should this be getSampleNamesInOrder?
 
-        genotypingEngine = new MinimalGenotypingEngine(createUAC(), samples, new GeneralPloidyFailOverAFCalculatorProvider(genotypeArgs));
+        siteGenotyper = new SiteGenotyper(samples, new GeneralPloidyFailOverAFCalculatorProvider(genotypeArgs));
 
-        annotationEngine = VariantAnnotatorEngine.ofSelectedMinusExcluded(variantAnnotationArgumentCollection, dbsnp.dbsnp, Collections.emptyList());
-
-        merger = new ReferenceConfidenceVariantContextMerger();
+        if ( genotypingThreads < 1 ) {
+            throw new CommandLineException.BadArgumentValue(GENOTYPING_THREADS_FULL_NAME, "must be at least 1 but was " + genotypingThreads);
+        }
+        if ( genotypingBatchSize < 1 ) {
+            throw new CommandLineException.BadArgumentValue(GENOTYPING_BATCH_SIZE_FULL_NAME, "must be at least 1 but was " + genotypingBatchSize);
+        }
+        if ( genotypingThreads > 1 ) {
+            // each worker gets its own engines; the AF calculators come from a provider that hands out one per thread
+            final AFCalculatorProvider workerAFCalculatorProvider = new ConcurrentAFCalculatorProvider() {
+                @Override
+                protected AFCalculatorProvider createProvider() {
+                    return new GeneralPloidyFailOverAFCalculatorProvider(genotypeArgs);
+                }
+            };
+            workerSiteGenotypers = ThreadLocal.withInitial(() -> new SiteGenotyper(samples, workerAFCalculatorProvider));
+            genotypingExecutor = Executors.newFixedThreadPool(genotypingThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("genotyping-thread-%d")
+                    .setDaemon(true)
+                    .build());
+            currentBatch = new ArrayList<>(genotypingBatchSize);
+        }
 
         setupVCFWriter(inputVCFHeader, samples);
     }
@@ -168,8 +219,8 @@ public final class GenotypeGVCFs extends VariantWalker {
         // Remove GCVFBlocks
         headerLines.removeIf(vcfHeaderLine -> vcfHeaderLine.getKey().startsWith(GVCF_BLOCK));
 
-        headerLines.addAll(annotationEngine.getVCFAnnotationDescriptions());
-        headerLines.addAll(genotypingEngine.getAppropriateVCFInfoHeaders());
+        headerLines.addAll(siteGenotyper.annotationEngine.getVCFAnnotationDescriptions());
+        headerLines.addAll(siteGenotyper.genotypingEngine.getAppropriateVCFInfoHeaders());
 
         // add headers for annotations added by this tool
         headerLines.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.MLE_ALLELE_COUNT_KEY));
@@ -190,8 +241,19 @@ public final class GenotypeGVCFs extends VariantWalker {
     @Override
     public void apply(VariantContext variant, ReadsContext reads, ReferenceContext ref, FeatureContext features) {
         ref.setWindow(10, 10); //TODO this matches the gatk3 behavior but may be unnecessary
-        final VariantContext mergedVC = merger.merge(Collections.singletonList(variant), variant, includeNonVariants ? ref.getBase() : null, true, false);
-        final VariantContext regenotypedVC = regenotypeVC(mergedVC, ref, features, includeNonVariants);
+        if ( genotypingExecutor == null ) {
+            writeIfInIntervals(siteGenotyper.genotype(variant, ref, features));
+            return;
+        }
+
+        // the reference and feature sources can only be queried from this thread, so hand the workers a snapshot
+        currentBatch.add(new SiteToGenotype(variant, ref, features));
+        if ( currentBatch.size() >= genotypingBatchSize ) {
+            submitCurrentBatch();
+        }
+    }
+
+    private void writeIfInIntervals(final VariantContext regenotypedVC) {
         if (regenotypedVC != null) {
             final SimpleInterval variantStart = new SimpleInterval(regenotypedVC.getContig(), regenotypedVC.getStart(), regenotypedVC.getStart());
             if (!onlyOutputCallsStartingInIntervals || intervals.stream().anyMatch(interval -> interval.contains    (variantStart))) {
@@ -200,61 +262,137 @@ public final class GenotypeGVCFs extends VariantWalker {
         }
     }
 
+    private void submitCurrentBatch() {
+        final List<SiteToGenotype> batch = currentBatch;
+        currentBatch = new ArrayList<>(genotypingBatchSize);
+        pendingBatches.add(genotypingExecutor.submit(() -> {
+            final SiteGenotyper workerSiteGenotyper = workerSiteGenotypers.get();
+            final List<VariantContext> results = new ArrayList<>(batch.size());
+            for ( final SiteToGenotype site : batch ) {
+                results.add(site.genotype(workerSiteGenotyper));
+            }
+            return results;
+        }));
 
+        // write out finished batches in order, and bound the number of batches (and so sites) held in memory
+        while ( !pendingBatches.isEmpty() && (pendingBatches.peek().isDone() || pendingBatches.size() > 2 * genotypingThreads) ) {
+            writeBatch(pendingBatches.poll());
+        }
+    }
+
+    private void writeBatch(final Future<List<VariantContext>> batch) {
+        try {
+            batch.get().forEach(this::writeIfInIntervals);
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while genotyping", e);
+        } catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new GATKException("Genotyping failed", e.getCause());
+        }
+    }
 
     /**
-     * Re-genotype (and re-annotate) a combined genomic VC
-     * @return a new VariantContext or null if the site turned monomorphic and we don't want such sites
+     * A site waiting to be genotyped by a worker thread, along with everything it needs from the reference and
+     * feature sources.
      */
-    private VariantContext regenotypeVC(final VariantContext originalVC, final ReferenceContext ref, final FeatureContext features, boolean includeNonVariants) {
-        Utils.nonNull(originalVC);
-
-        final VariantContext result;
-        if ( originalVC.isVariant()  && originalVC.getAttributeAsInt(VCFConstants.DEPTH_KEY,0) > 0 ) {
-            // only re-genotype polymorphic sites
-            final VariantContext regenotypedVC = calculateGenotypes(originalVC);
-            if (isProperlyPolymorphic(regenotypedVC)) {
-                final VariantContext allelesTrimmed = GATKVariantContextUtils.reverseTrimAlleles(regenotypedVC);
-                final VariantContext withAnnotations = addGenotypingAnnotations(originalVC.getAttributes(), allelesTrimmed);
-                //TODO: remove this when proper support for reducible annotations is added
-                result = RMSMappingQuality.getInstance().finalizeRawMQ(withAnnotations);
-            } else if (includeNonVariants) {
-                result = originalVC;
+    private final class SiteToGenotype {
+        private final VariantContext variant;
+        private final ReferenceContext ref;
+        private final FeatureContext features;
+
+        SiteToGenotype(final VariantContext variant, final ReferenceContext ref, final FeatureContext features) {
+            this.variant = variant;
+            final ReferenceBases bases = new ReferenceBases(ref.getBases(), ref.getWindow());
+            this.ref = new ReferenceContext(new ReferenceMemorySource(bases, getReferenceDictionary()), ref.getInterval(), ref.getWindow());
+            // dbSNP is the only feature source the annotation engine queries (for the rsID and the DB flag)
+            this.features = features.snapshot(Collections.singletonList(dbsnp.dbsnp));
+        }
+
+        VariantContext genotype(final SiteGenotyper workerSiteGenotyper) {
+            return workerSiteGenotyper.genotype(variant, ref, features);
+        }
+    }
+
+    /**
+     * The genotyping and annotation engines for one thread.
+     */
+    private final class SiteGenotyper {
+        private final GenotypingEngine<?> genotypingEngine;
+        private final VariantAnnotatorEngine annotationEngine;
+        private final ReferenceConfidenceVariantContextMerger merger;
+
+        SiteGenotyper(final SampleList samples, final AFCalculatorProvider afCalculatorProvider) {
+            genotypingEngine = new MinimalGenotypingEngine(createUAC(), samples, afCalculatorProvider);
+            annotationEngine = VariantAnnotatorEngine.ofSelectedMinusExcluded(variantAnnotationArgumentCollection, dbsnp.dbsnp, Collections.emptyList());
+            merger = new ReferenceConfidenceVariantContextMerger();
+        }
+
+        /**
+         * Merge, re-genotype and re-annotate a single site
+         * @return a new VariantContext or null if the site turned monomorphic and we don't want such sites
+         */
+        VariantContext genotype(final VariantContext variant, final ReferenceContext ref, final FeatureContext features) {
+            final VariantContext mergedVC = merger.merge(Collections.singletonList(variant), variant, includeNonVariants ? ref.getBase() : null, true, false);
+            return regenotypeVC(mergedVC, ref, features, includeNonVariants);
+        }
+
+        /**
+         * Re-genotype (and re-annotate) a combined genomic VC
+         * @return a new VariantContext or null if the site turned monomorphic and we don't want such sites
+         */
+        private VariantContext regenotypeVC(final VariantContext originalVC, final ReferenceContext ref, final FeatureContext features, boolean includeNonVariants) {
+            Utils.nonNull(originalVC);
+
+            final VariantContext result;
+            if ( originalVC.isVariant()  && originalVC.getAttributeAsInt(VCFConstants.DEPTH_KEY,0) > 0 ) {
+                // only re-genotype polymorphic sites
+                final VariantContext regenotypedVC = calculateGenotypes(originalVC);
+                if (isProperlyPolymorphic(regenotypedVC)) {
+                    final VariantContext allelesTrimmed = GATKVariantContextUtils.reverseTrimAlleles(regenotypedVC);
+                    final VariantContext withAnnotations = addGenotypingAnnotations(originalVC.getAttributes(), allelesTrimmed);
+                    //TODO: remove this when proper support for reducible annotations is added
+                    result = RMSMappingQuality.getInstance().finalizeRawMQ(withAnnotations);
+                } else if (includeNonVariants) {
+                    result = originalVC;
+                } else {
+                    return null;
+                }
             } else {
-                return null;
+                result = originalVC;
             }
-        } else {
-            result = originalVC;
-        }
 
 
-        // if it turned monomorphic then we either need to ignore or fix such sites
-        // Note that the order of these actions matters and is different for polymorphic and monomorphic sites.
-        // For polymorphic sites we need to make sure e.g. the SB tag is sent to the annotation engine and then removed later.
-        // For monomorphic sites we need to make sure e.g. the hom ref genotypes are created and only then are passed to the annotation engine.
-        // We could theoretically make 2 passes to re-create the genotypes, but that gets extremely expensive with large sample sizes.
-        if (result.isPolymorphicInSamples()) {
+            // if it turned monomorphic then we either need to ignore or fix such sites
+            // Note that the order of these actions matters and is different for polymorphic and monomorphic sites.
             // For polymorphic sites we need to make sure e.g. the SB tag is sent to the annotation engine and then removed later.
-            final VariantContext reannotated = annotationEngine.annotateContext(result, features, ref, null, a -> true);
-            return new VariantContextBuilder(reannotated).genotypes(cleanupGenotypeAnnotations(reannotated, false)).make();
-        } else if (includeNonVariants) {
             // For monomorphic sites we need to make sure e.g. the hom ref genotypes are created and only then are passed to the annotation engine.
-            final VariantContext reannotated = new VariantContextBuilder(result).genotypes(cleanupGenotypeAnnotations(result, true)).make();
-            return annotationEngine.annotateContext(reannotated, features, ref, null, GenotypeGVCFs::annotationShouldBeSkippedForHomRefSites);
-        } else {
-            return null;
+            // We could theoretically make 2 passes to re-create the genotypes, but that gets extremely expensive with large sample sizes.
+            if (result.isPolymorphicInSamples()) {
+                // For polymorphic sites we need to make sure e.g. the SB tag is sent to the annotation engine and then removed later.
+                final VariantContext reannotated = annotationEngine.annotateContext(result, features, ref, null, a -> true);
+                return new VariantContextBuilder(reannotated).genotypes(cleanupGenotypeAnnotations(reannotated, false)).make();
+            } else if (includeNonVariants) {
+                // For monomorphic sites we need to make sure e.g. the hom ref genotypes are created and only then are passed to the annotation engine.
+                final VariantContext reannotated = new VariantContextBuilder(result).genotypes(cleanupGenotypeAnnotations(result, true)).make();
+                return annotationEngine.annotateContext(reannotated, features, ref, null, GenotypeGVCFs::annotationShouldBeSkippedForHomRefSites);
+            } else {
+                return null;
+            }
         }
-    }
 
-    private VariantContext calculateGenotypes(VariantContext vc){
-        /*
-         * Query the VariantContext for the appropriate model.  If type == MIXED, one would want to use model = BOTH.
-         * However GenotypingEngine.getAlleleFrequencyPriors throws an exception if you give it anything but a SNP or INDEL model.
-         */
-        final GenotypeLikelihoodsCalculationModel model = vc.getType() == VariantContext.Type.INDEL
-                ? GenotypeLikelihoodsCalculationModel.INDEL
-                : GenotypeLikelihoodsCalculationModel.SNP;
-        return genotypingEngine.calculateGenotypes(vc, model, null);
+        private VariantContext calculateGenotypes(VariantContext vc){
+            /*
+             * Query the VariantContext for the appropriate model.  If type == MIXED, one would want to use model = BOTH.
+             * However GenotypingEngine.getAlleleFrequencyPriors throws an exception if you give it anything but a SNP or INDEL model.
+             */
+            final GenotypeLikelihoodsCalculationModel model = vc.getType() == VariantContext.Type.INDEL
+                    ? GenotypeLikelihoodsCalculationModel.INDEL
+                    : GenotypeLikelihoodsCalculationModel.SNP;
+            return genotypingEngine.calculateGenotypes(vc, model, null);
+        }
     }
 
     /**
@@ -387,8 +525,24 @@ public final class GenotypeGVCFs extends VariantWalker {
         return uac;
     }
 
+    @Override
+    public Object onTraversalSuccess() {
+        if ( genotypingExecutor != null ) {
+            if ( !currentBatch.isEmpty() ) {
+                submitCurrentBatch();
+            }
+            while ( !pendingBatches.isEmpty() ) {
+                writeBatch(pendingBatches.poll());
+            }
+        }
+        return null;
+    }
+
     @Override
     public void closeTool() {
+        if ( genotypingExecutor != null ) {
+            genotypingExecutor.shutdownNow();
+        }
         if ( vcfWriter != null) {
             vcfWriter.close();
         }
@@ -53,23 +53,35 @@ public final class DepthPerAlleleBySample extends GenotypeAnnotation implements
         // make sure that there's a meaningful relationship between the alleles in the likelihoods and our VariantContext
         Utils.validateArg(likelihoods.alleles().containsAll(alleles), () -> "VC alleles " + alleles + " not a  subset of ReadLikelihoods alleles " + likelihoods.alleles());
 
-        final Map<Allele, Integer> alleleCounts = new LinkedHashMap<>();
-        for ( final Allele allele : vc.getAlleles() ) {
-            alleleCounts.put(allele, 0);
-        }
-        final Map<Allele, List<Allele>> alleleSubset = alleles.stream().collect(Collectors.toMap(a -> a, Arrays::asList));
-        final ReadLikelihoods<Allele> subsettedLikelihoods = likelihoods.marginalize(alleleSubset);
-        subsettedLikelihoods.bestAlleles(g.getSampleName()).stream()
-                .filter(ba -> ba.isInformative())
-                .forEach(ba -> alleleCounts.compute(ba.allele, (allele,prevCount) -> prevCount + 1));
-
-        final int[] counts = new int[alleleCounts.size()];
-        counts[0] = alleleCounts.get(vc.getReference()); //first one in AD is always ref
-        for (int i = 0; i < vc.getAlternateAlleles().size(); i++) {
-            counts[i + 1] = alleleCounts.get(vc.getAlternateAllele(i));
-        }
+        final int sampleIndex = likelihoods.indexOfSample(g.getSampleName());
+        Utils.validIndex(sampleIndex, likelihoods.numberOfSamples());
+        gb.AD(getAlleleCountsBySample(likelihoods, vc)[sampleIndex].clone());
+    }
 
-        gb.AD(counts);
+    /**
+     * Counts, for each sample, the informative reads whose best allele among the site's alleles is each of those alleles.
+     * The likelihoods are marginalized onto the site's alleles only once for all samples, and the counts are shared
+     * by the genotypes of the site.
+     *
+     * @return counts indexed by sample index and then by allele index in {@code vc}, ref first.
+     */
+    private static int[][] getAlleleCountsBySample(final ReadLikelihoods<Allele> likelihoods, final VariantContext vc) {
+        return likelihoods.getDerivedValue(Arrays.asList(DepthPerAlleleBySample.class, vc.getAlleles()), () -> {
+            final Map<Allele, Integer> alleleIndices = new LinkedHashMap<>();
+            for ( final Allele allele : vc.getAlleles() ) {
+                alleleIndices.putIfAbsent(allele, alleleIndices.size());
+            }
+            final Map<Allele, List<Allele>> alleleSubset = alleleIndices.keySet().stream().collect(Collectors.toMap(a -> a, Arrays::asList));
+            final ReadLikelihoods<Allele> subsettedLikelihoods = likelihoods.marginalize(alleleSubset);
+            final int[][] counts = new int[likelihoods.numberOfSamples()][alleleIndices.size()];
+            for ( int sampleIndex = 0; sampleIndex < counts.length; sampleIndex++ ) {
+                final int[] sampleCounts = counts[sampleIndex];
+                subsettedLikelihoods.bestAlleles(likelihoods.getSample(sampleIndex)).stream()
+                        .filter(ba -> ba.isInformative())
+                        .forEach(ba -> sampleCounts[alleleIndices.get(ba.allele)]++);
+            }
+            return counts;
+        });
     }
 
     @Override
@@ -4,6 +4,7 @@ import com.google.common.primitives.Doubles;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import org.apache.commons.lang.ArrayUtils;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.utils.MannWhitneyU;
@@ -47,19 +48,13 @@ public abstract class RankSumTest extends InfoFieldAnnotation {
         final int refLoc = vc.getStart();
 
         if( likelihoods != null) {
-            for (final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAlleles()) {
-                final GATKRead read = bestAllele.read;
-                final Allele allele = bestAllele.allele;
-                if (bestAllele.isInformative() && isUsableRead(read, refLoc)) {
-                    final OptionalDouble value = getElementForRead(read, refLoc, bestAllele);
-                    // Bypass read if the clipping goal is not reached or the refloc is inside a spanning deletion
-                    if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ) {
-                        if (allele.isReference()) {
-                            refQuals.add(value.getAsDouble());
-                        } else if (vc.hasAllele(allele)) {
-                            altQuals.add(value.getAsDouble());
-                        }
-                    }
+            final ReadValues readValues = getReadValues(likelihoods, refLoc);
+            for (int idx = 0; idx < readValues.size(); idx++) {
+                final Allele allele = readValues.getAllele(idx);
+                if (allele.isReference()) {
+                    refQuals.add(readValues.getValue(idx));
+                } else if (vc.hasAllele(allele)) {
+                    altQuals.add(readValues.getValue(idx));
                 }
             }
         }
@@ -82,6 +77,62 @@ public abstract class RankSumTest extends InfoFieldAnnotation {
         }
     }
 
+    /**
+     * Returns the value of each informative, usable read at a site, along with the read's best allele.  The values are
+     * computed once for given likelihoods and reference position, and shared by the tests with the same
+     * {@link #getReadValuesKey}.
+     *
+     * @param likelihoods the likelihoods of the site's reads
+     * @param refLoc      the reference position
+     * @return never {@code null}
+     */
+    protected final ReadValues getReadValues(final ReadLikelihoods<Allele> likelihoods, final int refLoc) {
+        return likelihoods.getDerivedValue(Arrays.asList(getReadValuesKey(), refLoc), () -> {
+            final List<Allele> alleles = new ArrayList<>();
+            final DoubleArrayList values = new DoubleArrayList();
+            for (final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAlleles()) {
+                if (bestAllele.isInformative() && isUsableRead(bestAllele.read, refLoc)) {
+                    final OptionalDouble value = getElementForRead(bestAllele.read, refLoc, bestAllele);
+                    // Bypass read if the clipping goal is not reached or the refloc is inside a spanning deletion
+                    if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ) {
+                        alleles.add(bestAllele.allele);
+                        values.add(value.getAsDouble());
+                    }
+                }
+            }
+            return new ReadValues(alleles, values.toDoubleArray());
+        });
+    }
+
+    /**
+     * Identifies the values this test gets from each read.  Tests that compute the same values (e.g. a test and its
+     * allele-specific version) can return the same key, so that the values are computed only once per site.
+     * Subclasses that change {@link #getElementForRead} or {@link #isUsableRead} mustn't return the key of a test
+     * that computes different values.
+     */
+    protected Object getReadValuesKey() {
+        return getClass();
+    }
+
+    /**
+     * The values of the usable reads of a site, in best allele order, along with each read's best allele.
+     */
+    protected static final class ReadValues {
+        private final List<Allele> alleles;
+        private final double[] values;
+
+        private ReadValues(final List<Allele> alleles, final double[] values) {
+            this.alleles = alleles;
+            this.values = values;
+        }
+
+        public int size() { return values.length; }
+
+        public Allele getAllele(final int idx) { return alleles.get(idx); }
+
+        public double getValue(final int idx) { return values[idx]; }
+    }
+
     /**
      * Get the element for the given read at the given reference position
      *
@@ -122,15 +122,22 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
             return null;
         }
 
-        final Allele ref = vc.getReference();
-        final List<Allele> allAlts = vc.getAlternateAlleles();
+        final int[][] strandCounts = getStrandCountsByAllele(likelihoods, vc);
+        final int nAlleles = vc.getNAlleles();
 
         final int[][] table = new int[ARRAY_DIM][ARRAY_DIM];
         for (final String sample : samples) {
+            final int sampleIndex = likelihoods.indexOfSample(sample);
+            Utils.validIndex(sampleIndex, strandCounts.length);
+            final int[] sampleCounts = strandCounts[sampleIndex];
+            // the reference row, and the alt row summed over all the alt alleles
             final int[] sampleTable = new int[ARRAY_SIZE];
-            likelihoods.bestAlleles(sample).stream()
-                    .filter(ba -> ba.isInformative())
-                    .forEach(ba -> updateTable(sampleTable, ba.allele, ba.read, ref, allAlts));
+            sampleTable[0] = sampleCounts[0];
+            sampleTable[1] = sampleCounts[1];
+            for (int alleleIndex = 1; alleleIndex < nAlleles; alleleIndex++) {
+                sampleTable[ARRAY_DIM] += sampleCounts[ARRAY_DIM * alleleIndex];
+                sampleTable[ARRAY_DIM + 1] += sampleCounts[ARRAY_DIM * alleleIndex + 1];
+            }
             if (passesMinimumThreshold(sampleTable, minCount)) {
                 copyToMainTable(sampleTable, table);
             }
@@ -139,6 +146,34 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
         return table;
     }
 
+    /**
+     * Counts the informative reads of each sample that support each allele of a site, by strand.
+     * The counts are computed once for a given set of likelihoods and alleles, and shared by all the strand bias
+     * annotations of the site.
+     *
+     * @return an array indexed by sample index, each element of which holds the forward and reverse strand counts of
+     * each allele of the variant context in turn (i.e., ref forward, ref reverse, first alt forward, ...).
+     * Don't modify it.
+     */
+    public static int[][] getStrandCountsByAllele( final ReadLikelihoods<Allele> likelihoods, final VariantContext vc ) {
+        Utils.nonNull(likelihoods);
+        Utils.nonNull(vc);
+        final List<Allele> vcAlleles = vc.getAlleles();
+        return likelihoods.getDerivedValue(Arrays.asList(StrandBiasTest.class, vcAlleles), () -> {
+            final Allele ref = vc.getReference();
+            final List<Allele> allAlts = vc.getAlternateAlleles();
+            final int nSamples = likelihoods.numberOfSamples();
+            final int[][] strandCounts = new int[nSamples][ARRAY_DIM * vcAlleles.size()];
+            for (int sampleIndex = 0; sampleIndex < nSamples; sampleIndex++) {
+                final int[] sampleCounts = strandCounts[sampleIndex];
+                likelihoods.bestAlleles(likelihoods.getSample(sampleIndex)).stream()
+                        .filter(ba -> ba.isInformative())
+                        .forEach(ba -> updateCounts(sampleCounts, ba.allele, ba.read, ref, allAlts));
+            }
+            return strandCounts;
+        });
+    }
+
     /**
      * Helper method to copy the per-sample table to the main table
      *
@@ -152,17 +187,22 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
         mainTable[1][1] += perSampleTable[3];
     }
 
-    private static void updateTable(final int[] table, final Allele allele, final GATKRead read, final Allele ref, final List<Allele> allAlts) {
-        final boolean matchesRef = allele.equals(ref, true);
-        final boolean matchesAnyAlt = allAlts.contains(allele);
-
-        if ( matchesRef || matchesAnyAlt ) {
-            final int offset = matchesRef ? 0 : ARRAY_DIM;
-
-            // a normal read with an actual strand
-            final boolean isFW = !read.isReverseStrand();
-            table[offset + (isFW ? 0 : 1)]++;
+    private static void updateCounts(final int[] counts, final Allele allele, final GATKRead read, final Allele ref, final List<Allele> allAlts) {
+        final int alleleIndex;
+        if ( allele.equals(ref, true) ) {
+            alleleIndex = 0;
+        } else {
+            // the best allele might not be one of the site's alleles, e.g. if it was dropped for exceeding max_alternate_alleles
+            final int altIndex = allAlts.indexOf(allele);
+            if ( altIndex < 0 ) {
+                return;
+            }
+            alleleIndex = altIndex + 1;
         }
+
+        // a normal read with an actual strand
+        final boolean isFW = !read.isReverseStrand();
+        counts[ARRAY_DIM * alleleIndex + (isFW ? 0 : 1)]++;
     }
 
     /**
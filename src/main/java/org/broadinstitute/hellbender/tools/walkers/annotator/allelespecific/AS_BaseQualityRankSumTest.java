@@ -42,6 +42,10 @@ public class AS_BaseQualityRankSumTest extends AS_RankSumTest implements AS_Stan
     @Override
     public String getRawKeyName() { return GATKVCFConstants.AS_RAW_BASE_QUAL_RANK_SUM_KEY;}
 
+    // the per-read values are those of the non-allele-specific test, so share them
+    @Override
+    protected Object getReadValuesKey() { return BaseQualityRankSumTest.class; }
+
     /**
      * Get the element for the given read at the given reference position
      *
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific;
 
+import org.broadinstitute.hellbender.tools.walkers.annotator.MappingQualityRankSumTest;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
@@ -39,6 +40,10 @@ public class AS_MappingQualityRankSumTest extends AS_RankSumTest implements AS_S
     @Override
     public String getRawKeyName() { return GATKVCFConstants.AS_RAW_MAP_QUAL_RANK_SUM_KEY;}
 
+    // the per-read values are those of the non-allele-specific test, so share them
+    @Override
+    protected Object getReadValuesKey() { return MappingQualityRankSumTest.class; }
+
     @Override
     protected OptionalDouble getElementForRead(final GATKRead read, final int refLoc) {
         Utils.nonNull(read);
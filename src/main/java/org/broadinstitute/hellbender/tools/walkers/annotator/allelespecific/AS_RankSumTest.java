@@ -90,12 +90,11 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
         final int refLoc = vc.getStart();
 
         final Map<Allele, CompressedDataList<Integer>> perAlleleValues = myData.getAttributeMap();
-        for ( final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAlleles() ) {
-            if (bestAllele.isInformative() && isUsableRead(bestAllele.read, refLoc)) {
-                final OptionalDouble value = getElementForRead(bestAllele.read, refLoc, bestAllele);
-                if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ && perAlleleValues.containsKey(bestAllele.allele)) {
-                    perAlleleValues.get(bestAllele.allele).add((int) value.getAsDouble());
-                }
+        final ReadValues readValues = getReadValues(likelihoods, refLoc);
+        for ( int idx = 0; idx < readValues.size(); idx++ ) {
+            final CompressedDataList<Integer> alleleValues = perAlleleValues.get(readValues.getAllele(idx));
+            if (alleleValues != null) {
+                alleleValues.add((int) readValues.getValue(idx));
             }
         }
     }
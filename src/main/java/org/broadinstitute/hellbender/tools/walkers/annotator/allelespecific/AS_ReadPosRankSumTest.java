@@ -46,6 +46,10 @@ public class AS_ReadPosRankSumTest extends AS_RankSumTest implements AS_Standard
     @Override
     public String getRawKeyName() { return GATKVCFConstants.AS_RAW_READ_POS_RANK_SUM_KEY;}
 
+    // the per-read values are those of the non-allele-specific test, so share them
+    @Override
+    protected Object getReadValuesKey() { return ReadPosRankSumTest.class; }
+
     @Override
     protected OptionalDouble getElementForRead(final GATKRead read, final int refLoc) {
         return ReadPosRankSumTest.getReadPosition(read, refLoc);
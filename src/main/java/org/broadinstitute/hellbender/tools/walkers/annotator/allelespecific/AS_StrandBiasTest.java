@@ -8,7 +8,6 @@ import org.apache.log4j.Logger;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.tools.walkers.annotator.StrandBiasTest;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
-import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 
@@ -125,14 +124,17 @@ public abstract class AS_StrandBiasTest extends StrandBiasTest implements Reduci
             return;
         }
 
-        final Allele ref = vc.getReference();
-        final List<Allele> allAlts = vc.getAlternateAlleles();
-
-        for (final String sample : likelihoods.samples()) {
-            final ReducibleAnnotationData<List<Integer>> sampleTable = new AlleleSpecificAnnotationData<>(vc.getAlleles(),null);
-            likelihoods.bestAlleles(sample).stream()
-                    .filter(ba -> ba.isInformative())
-                    .forEach(ba -> updateTable(ba.allele, ba.read, ref, allAlts, sampleTable));
+        final List<Allele> vcAlleles = vc.getAlleles();
+        for (final int[] sampleCounts : getStrandCountsByAllele(likelihoods, vc)) {
+            final ReducibleAnnotationData<List<Integer>> sampleTable = new AlleleSpecificAnnotationData<>(vcAlleles,null);
+            for (int alleleIndex = 0; alleleIndex < vcAlleles.size(); alleleIndex++) {
+                final int forwardCount = sampleCounts[ARRAY_DIM * alleleIndex + FORWARD];
+                final int reverseCount = sampleCounts[ARRAY_DIM * alleleIndex + REVERSE];
+                // alleles that no read supports are left without a value
+                if (forwardCount + reverseCount > 0) {
+                    sampleTable.putAttribute(vcAlleles.get(alleleIndex), new ArrayList<>(Arrays.asList(forwardCount, reverseCount)));
+                }
+            }
             if (passesMinimumThreshold(sampleTable, minCount)) {
                 combineAttributeMap(sampleTable, perAlleleValues);
             }
@@ -157,33 +159,6 @@ public abstract class AS_StrandBiasTest extends StrandBiasTest implements Reduci
         }
     }
 
-    private void updateTable(final Allele bestAllele, final GATKRead read, final Allele ref, final List<Allele> allAlts, final ReducibleAnnotationData<List<Integer>> perAlleleValues) {
-
-        final boolean matchesRef = bestAllele.equals(ref, true);
-        final boolean matchesAnyAlt = allAlts.contains(bestAllele);
-
-        //can happen if a read's most likely allele has been removed when --max_alternate_alleles is exceeded
-        if (!( matchesRef || matchesAnyAlt )) {
-            return;
-        }
-
-        final List<Integer> alleleStrandCounts;
-        if (perAlleleValues.hasAttribute(bestAllele) && perAlleleValues.getAttribute(bestAllele) != null) {
-            alleleStrandCounts = perAlleleValues.getAttribute(bestAllele);
-        } else {
-            alleleStrandCounts = new ArrayList<>();
-            alleleStrandCounts.add(0,0);
-            alleleStrandCounts.add(1,0);
-        }
-        final boolean isForward = !read.isReverseStrand();
-        if (isForward) {
-            alleleStrandCounts.set(FORWARD, alleleStrandCounts.get(FORWARD) + 1);
-        } else {
-            alleleStrandCounts.set(REVERSE, alleleStrandCounts.get(REVERSE) + 1);
-        }
-        perAlleleValues.putAttribute(bestAllele, alleleStrandCounts);
-    }
-
     /**
      * Does this strand data array pass the minimum threshold for inclusion?
      *
@@ -6,25 +6,31 @@ import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 /**
  * Helper to calculate genotype likelihoods given a ploidy and an allele count (number of possible distinct alleles).
+ *
+ * <p>
+ *     Instances are thread-safe and are meant to be shared (see {@link GenotypeLikelihoodCalculators#getInstance}).
+ *     The working buffers for the read likelihood calculation are kept per thread and shared by all the calculators
+ *     used on that thread, so that they grow to the largest problem seen rather than being allocated per calculator.
+ * </p>
  */
 public final class GenotypeLikelihoodCalculator {
 
     /**
      * Maximum number of components (or distinct alleles) for any genotype with this calculator ploidy and allele count.
      */
-    private int maximumDistinctAllelesInGenotype;
+    private final int maximumDistinctAllelesInGenotype;
 
     /**
      * Offset table for this calculator.
      *
      * <p>
-     *     This is a shallow copy of {@link GenotypeLikelihoodCalculators#alleleFirstGenotypeOffsetByPloidy} when the calculator was created
-     *     thus it follows the same format as that array. Please refer to its documentation.
+     *     This is a shallow copy of the shared offset table of {@link GenotypeLikelihoodCalculators} when the calculator was created
+     *     thus it follows the same format as that array. Please refer to the documentation of
+     *     {@code GenotypeLikelihoodCalculators#buildAlleleFirstGenotypeOffsetTable}.
      * </p>
      *
      * <p>You can assume that this offset table contain at least (probably more) the numbers corresponding to the allele count and ploidy for this calculator.
@@ -56,86 +62,112 @@ public final class GenotypeLikelihoodCalculator {
      */
     private final int ploidy;
 
-    /**
-     * Max-heap for integers used for this calculator internally.
-     */
-    private final PriorityQueue<Integer> alleleHeap;
-
     /**
      * Cache of the last genotype-allele-count requested using {@link #genotypeAlleleCountsAt(int)}, when it
      * goes beyond the maximum genotype-allele-count static capacity. Check on that method documentation for details.
-     */
-    private GenotypeAlleleCounts lastOverheadCounts;
-
-    /**
-     * Buffer used as a temporary container for likelihood components for genotypes stratified by alleles, allele frequency and reads.
-     *
-     * <p>To improve performance we use a 1-dimensional array to implement a 3-dimensional one as some of those dimension
-     * have typically very low depths (allele and allele frequency)</p>
      *
-     * <p>
-     *     The value contained in position <code>[a][f][r] == log10Lk(read[r] | allele[a]) + log10(f) </code>. Exception is
-     *     for f == 0 whose value is undefined (in practice 0.0) and never used.
-     * </p>
-     *
-     * <p>
-     *     It is indexed by read, then by allele and then by the number of copies of the allele. For the latter
-     *     there are as many entries as the ploidy of the calculator + 1 (to accommodate zero copies although is
-     *     never used in practice).
-     * </p>
+     * <p>The referred object is never modified once published here, so it can be read from any thread.</p>
      */
-    private double[] readAlleleLikelihoodByAlleleCount = null;
+    private volatile GenotypeAlleleCounts lastOverheadCounts;
 
     /**
-     * Buffer used as a temporary container for likelihood components for genotypes stratified by reads.
-     *
-     * <p>
-     *     It is indexed by genotype index and then by read index. The read capacity is increased as needed by calling
-     *     {@link #ensureReadCapacity(int) ensureReadCapacity}.
-     * </p>
+     * Maximum size of a working buffer that is kept for reuse by its thread after a calculation; larger buffers are
+     * released so that a single very deep site does not pin that much memory on every thread.
      */
-    private final double[][] readLikelihoodsByGenotypeIndex;
+    static final int MAXIMUM_RETAINED_BUFFER_SIZE = 1 << 22;
 
     /**
-     * Indicates how many reads the calculator supports.
-     *
-     * <p>This figure is increased dynamically as per the
-     * calculation request calling {@link #ensureReadCapacity(int) ensureReadCapacity}.<p/>
+     * Working buffers of the calling thread; see {@link ReadBuffers}.
      */
-    private int readCapacity = -1;
+    private static final ThreadLocal<ReadBuffers> READ_BUFFERS = ThreadLocal.withInitial(ReadBuffers::new);
 
     /**
-     * Buffer field use as a temporal container for sorted allele counts when calculating the likelihood of a
-     * read in a genotype.
-     * <p>
-     *      This array follows the same format as {@link GenotypeAlleleCounts#sortedAlleleCounts}. Each component in the
-     *      genotype takes up two positions in the array where the first indicate the allele index and the second its frequency in the
-     *      genotype. Only non-zero frequency alleles are represented, taking up the first positions of the array.
-     * </p>
+     * Temporary containers used in the calculation of genotype likelihoods.
      *
      * <p>
-     *     This array is sized so that it can accommodate the maximum possible number of distinct alleles in any
-     *     genotype supported by the calculator, value stored in {@link #maximumDistinctAllelesInGenotype}.
+     *     Each is at least as large as the calculation at hand requires and might be larger, so you must never rely
+     *     on their lengths.
      * </p>
      */
-    private final int[] genotypeAllelesAndCounts;
+    private static final class ReadBuffers {
+
+        /**
+         * Buffer used as a temporary container for likelihood components for genotypes stratified by alleles, allele frequency and reads.
+         *
+         * <p>To improve performance we use a 1-dimensional array to implement a 3-dimensional one as some of those dimension
+         * have typically very low depths (allele and allele frequency)</p>
+         *
+         * <p>
+         *     The value contained in position <code>[a][f][r] == log10Lk(read[r] | allele[a]) + log10(f) </code>. Exception is
+         *     for f == 0 whose value is undefined (in practice 0.0) and never used.
+         * </p>
+         *
+         * <p>
+         *     It is indexed by read, then by allele and then by the number of copies of the allele. For the latter
+         *     there are as many entries as the ploidy of the calculator + 1 (to accommodate zero copies although is
+         *     never used in practice).
+         * </p>
+         */
+        private double[] readAlleleLikelihoodByAlleleCount = new double[0];
+
+        /**
+         * Buffer used as a temporary container for likelihood components for genotypes stratified by reads.
+         *
+         * <p>
+         *     It is indexed by genotype index and then by read index; that is <code>[g][r]</code> is at position
+         *     <code>g * readCount + r</code>.
+         * </p>
+         */
+        private double[] readLikelihoodsByGenotypeIndex = new double[0];
+
+        /**
+         * Buffer field use as a temporal container for component likelihoods when calculating the likelihood of a
+         * read in a genotype. It is stratified by read and the allele component of the genotype likelihood... that is
+         * the part of the likelihood sum that correspond to a particular allele in the genotype.
+         *
+         * <p>
+         *     It is implemented in a 1-dimensional array since typically one of the dimensions is rather small. Its size
+         *     is at least the read count times {@link #maximumDistinctAllelesInGenotype}.
+         * </p>
+         *
+         * <p>
+         *     More concretely [r][i] == log10Lk(read[r] | allele[i]) + log(freq[i]) where allele[i] is the ith allele
+         *     in the genotype of interest and freq[i] is the number of times it occurs in that genotype.
+         * </p>
+         */
+        private double[] readGenotypeLikelihoodComponents = new double[0];
+
+        private void ensureCapacity(final GenotypeLikelihoodCalculator calculator, final int readCount) {
+            // Never go too small, 10 is the minimum, and leave room for growth as read counts tend to increase.
+            final int capacity = Math.max(readCount, 10);
+            readAlleleLikelihoodByAlleleCount = ensureSize(readAlleleLikelihoodByAlleleCount, capacity * calculator.alleleCount * (calculator.ploidy + 1));
+            readLikelihoodsByGenotypeIndex = ensureSize(readLikelihoodsByGenotypeIndex, capacity * calculator.genotypeCount);
+            readGenotypeLikelihoodComponents = ensureSize(readGenotypeLikelihoodComponents, capacity * calculator.maximumDistinctAllelesInGenotype);
+        }
 
-    /**
-     * Buffer field use as a temporal container for component likelihoods when calculating the likelihood of a
-     * read in a genotype. It is stratified by read and the allele component of the genotype likelihood... that is
-     * the part of the likelihood sum that correspond to a particular allele in the genotype.
-     *
-     * <p>
-     *     It is implemented in a 1-dimensional array since typically one of the dimensions is rather small. Its size
-     *     is equal to {@link #readCapacity} times {@link #maximumDistinctAllelesInGenotype}.
-     * </p>
-     *
-     * <p>
-     *     More concretely [r][i] == log10Lk(read[r] | allele[i]) + log(freq[i]) where allele[i] is the ith allele
-     *     in the genotype of interest and freq[i] is the number of times it occurs in that genotype.
-     * </p>
-     */
-    private double[] readGenotypeLikelihoodComponents;
+        private static double[] ensureSize(final double[] buffer, final int size) {
+            if (buffer.length >= size) {
+                return buffer;
+            }
+            final long doubleSize = (long) size << 1;
+            return new double[doubleSize <= MAXIMUM_RETAINED_BUFFER_SIZE ? (int) doubleSize : size];
+        }
+
+        /**
+         * Drops any buffer too large to be worth keeping around.
+         */
+        private void trim() {
+            if (readAlleleLikelihoodByAlleleCount.length > MAXIMUM_RETAINED_BUFFER_SIZE) {
+                readAlleleLikelihoodByAlleleCount = new double[0];
+            }
+            if (readLikelihoodsByGenotypeIndex.length > MAXIMUM_RETAINED_BUFFER_SIZE) {
+                readLikelihoodsByGenotypeIndex = new double[0];
+            }
+            if (readGenotypeLikelihoodComponents.length > MAXIMUM_RETAINED_BUFFER_SIZE) {
+                readGenotypeLikelihoodComponents = new double[0];
+            }
+        }
+    }
 
     /**
      * Creates a new calculator providing its ploidy and number of genotyping alleles.
@@ -149,36 +181,17 @@ public final class GenotypeLikelihoodCalculator {
         this.alleleCount = alleleCount;
         this.ploidy = ploidy;
         genotypeCount = this.alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
-        alleleHeap = new PriorityQueue<>(ploidy, Comparator.<Integer>naturalOrder().reversed());
-        readLikelihoodsByGenotypeIndex = new double[genotypeCount][];
         // The number of possible components is limited by distinct allele count and ploidy.
         maximumDistinctAllelesInGenotype = Math.min(ploidy, alleleCount);
-        genotypeAllelesAndCounts = new int[maximumDistinctAllelesInGenotype * 2];
     }
 
     /**
-     * Makes sure that temporal arrays and matrices are prepared for a number of reads to process.
+     * Makes sure that the calling thread's temporal arrays are prepared for a number of reads to process.
      * @param requestedCapacity number of read that need to be processed.
      */
     public void ensureReadCapacity(final int requestedCapacity) {
         Utils.validateArg(requestedCapacity >= 0, "capacity may not be negative");
-        if (readCapacity == -1) { // first time call.
-            final int minimumCapacity = Math.max(requestedCapacity, 10); // Never go too small, 10 is the minimum.
-            readAlleleLikelihoodByAlleleCount = new double[minimumCapacity * alleleCount * (ploidy+1)];
-            for (int i = 0; i < genotypeCount; i++) {
-                readLikelihoodsByGenotypeIndex[i] = new double[minimumCapacity];
-            }
-            readGenotypeLikelihoodComponents = new double[ploidy * minimumCapacity];
-            readCapacity = minimumCapacity;
-        } else if (readCapacity < requestedCapacity) {
-            final int doubleCapacity = (requestedCapacity << 1);
-            readAlleleLikelihoodByAlleleCount = new double[doubleCapacity * alleleCount * (ploidy+1)];
-            for (int i = 0; i < genotypeCount; i++) {
-                readLikelihoodsByGenotypeIndex[i] = new double[doubleCapacity];
-            }
-            readGenotypeLikelihoodComponents = new double[maximumDistinctAllelesInGenotype * doubleCapacity];
-            readCapacity = doubleCapacity;
-        }
+        READ_BUFFERS.get().ensureCapacity(this, requestedCapacity);
     }
 
     /**
@@ -195,11 +208,10 @@ public final class GenotypeLikelihoodCalculator {
             return 0;
         }
 
-        alleleHeap.clear();
-        for (int i = 0; i < alleleIndices.length; i++) {
-            alleleHeap.add(alleleIndices[i]);
-        }
-        return alleleHeapToIndex();
+        Utils.nonNull(alleleIndices, "the allele indices cannot be null");
+        final int[] sortedAlleleIndices = alleleIndices.clone();
+        Arrays.sort(sortedAlleleIndices);
+        return sortedAllelesToIndex(sortedAlleleIndices);
     }
 
     /**
@@ -229,15 +241,18 @@ public final class GenotypeLikelihoodCalculator {
                     + " (genotype count for nalleles = " + alleleCount + " and ploidy " + ploidy);
         if (index < GenotypeLikelihoodCalculators.MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY) {
             return genotypeAlleleCounts[index];
-        } else if (lastOverheadCounts == null || lastOverheadCounts.index() > index) {
-            final GenotypeAlleleCounts result = genotypeAlleleCounts[GenotypeLikelihoodCalculators.MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY - 1].copy();
+        }
+        final GenotypeAlleleCounts last = lastOverheadCounts;
+        final GenotypeAlleleCounts result;
+        if (last == null || last.index() > index) {
+            result = genotypeAlleleCounts[GenotypeLikelihoodCalculators.MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY - 1].copy();
             result.increase(index - GenotypeLikelihoodCalculators.MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY + 1);
-            lastOverheadCounts = result;
-            return result.copy();
         } else {
-            lastOverheadCounts.increase(index - lastOverheadCounts.index());
-            return lastOverheadCounts.copy();
+            result = last.copy();
+            result.increase(index - last.index());
         }
+        lastOverheadCounts = result;
+        return result.copy();
     }
 
     /**
@@ -255,31 +270,38 @@ public final class GenotypeLikelihoodCalculator {
         Utils.nonNull(likelihoods);
         Utils.validateArg(likelihoods.numberOfAlleles() == alleleCount, "mismatch between allele list and alleleCount");
         final int readCount = likelihoods.numberOfReads();
-        ensureReadCapacity(readCount);
+        final ReadBuffers buffers = READ_BUFFERS.get();
+        buffers.ensureCapacity(this, readCount);
 
         /// [x][y][z] = z * LnLk(Read_x | Allele_y)
         final double[] readLikelihoodComponentsByAlleleCount
-                = readLikelihoodComponentsByAlleleCount(likelihoods);
-        final double[][] genotypeLikelihoodByRead = genotypeLikelihoodByRead(readLikelihoodComponentsByAlleleCount,readCount);
+                = readLikelihoodComponentsByAlleleCount(likelihoods, buffers.readAlleleLikelihoodByAlleleCount);
+        final double[] genotypeLikelihoodByRead = genotypeLikelihoodByRead(readLikelihoodComponentsByAlleleCount, buffers, readCount);
         final double[] readLikelihoodsByGenotypeIndex = genotypeLikelihoods(genotypeLikelihoodByRead, readCount);
+        buffers.trim();
         return GenotypeLikelihoods.fromLog10Likelihoods(readLikelihoodsByGenotypeIndex);
     }
 
     /**
      * Calculates the final genotype likelihood array out of the likelihoods for each genotype per read.
      *
-     * @param readLikelihoodsByGenotypeIndex <i>[g][r]</i> likelihoods for each genotype <i>g</i> and <i>r</i>.
+     * @param readLikelihoodsByGenotypeIndex <i>[g][r]</i> likelihoods for each genotype <i>g</i> and <i>r</i>, flattened
+     *                                       as described in {@link ReadBuffers#readLikelihoodsByGenotypeIndex}.
      * @param readCount number of reads in the input likelihood arrays in {@code genotypeLikelihoodByRead}.
      * @return never {@code null}, one position per genotype where the <i>i</i> entry is the likelihood of the ith
      *   genotype (0-based).
      */
-    private double[] genotypeLikelihoods(final double[][] readLikelihoodsByGenotypeIndex, final int readCount) {
+    private double[] genotypeLikelihoods(final double[] readLikelihoodsByGenotypeIndex, final int readCount) {
         final double[] result = new double[genotypeCount];
         final double denominator = readCount * MathUtils.log10(ploidy);
         // instead of dividing each read likelihood by ploidy ( so subtract log10(ploidy) )
          // we multiply them all and the divide by ploidy^readCount (so substract readCount * log10(ploidy) )
-        for (int g = 0; g < genotypeCount; g++) {
-            result[g] = MathUtils.sum(readLikelihoodsByGenotypeIndex[g], 0, readCount) - denominator;
+        for (int g = 0, offset = 0; g < genotypeCount; g++) {
+            double sum = 0;
+            for (int r = 0; r < readCount; r++) {
+                sum += readLikelihoodsByGenotypeIndex[offset++];
+            }
+            result[g] = sum - denominator;
         }
         return result;
     }
@@ -289,33 +311,36 @@ public final class GenotypeLikelihoodCalculator {
      *
      * @param readLikelihoodComponentsByAlleleCount [a][f][r] likelihood stratified by allele <i>a</i>, frequency in genotype <i>f</i> and
      *                                              read <i>r</i>.
+     * @param buffers the calling thread's working buffers.
      * @param readCount number of reads in {@code readLikelihoodComponentsByAlleleCount}.
-     * @return never {@code null}.
+     * @return never {@code null}, flattened as described in {@link ReadBuffers#readLikelihoodsByGenotypeIndex}.
      */
-    private double[][] genotypeLikelihoodByRead(final double[] readLikelihoodComponentsByAlleleCount, final int readCount) {
+    private double[] genotypeLikelihoodByRead(final double[] readLikelihoodComponentsByAlleleCount, final ReadBuffers buffers, final int readCount) {
 
         // Here we don't use the convenience of {@link #genotypeAlleleCountsAt(int)} within the loop to spare instantiations of
         // GenotypeAlleleCounts class when we are dealing with many genotypes.
         GenotypeAlleleCounts alleleCounts = genotypeAlleleCounts[0];
+        final double[] readLikelihoods = buffers.readLikelihoodsByGenotypeIndex;
+        final int[] genotypeAllelesAndCounts = new int[maximumDistinctAllelesInGenotype * 2];
 
-        for (int genotypeIndex = 0; genotypeIndex < genotypeCount; genotypeIndex++) {
-            final double[] readLikelihoods = this.readLikelihoodsByGenotypeIndex[genotypeIndex];
+        for (int genotypeIndex = 0, offset = 0; genotypeIndex < genotypeCount; genotypeIndex++, offset += readCount) {
             final int componentCount = alleleCounts.distinctAlleleCount();
             switch (componentCount) {
                 case 1: //
-                    singleComponentGenotypeLikelihoodByRead(alleleCounts, readLikelihoods, readLikelihoodComponentsByAlleleCount, readCount);
+                    singleComponentGenotypeLikelihoodByRead(alleleCounts, readLikelihoods, offset, readLikelihoodComponentsByAlleleCount, readCount);
                     break;
                 case 2:
-                    twoComponentGenotypeLikelihoodByRead(alleleCounts,readLikelihoods,readLikelihoodComponentsByAlleleCount, readCount);
+                    twoComponentGenotypeLikelihoodByRead(alleleCounts, readLikelihoods, offset, readLikelihoodComponentsByAlleleCount, readCount);
                     break;
                 default:
-                    manyComponentGenotypeLikelihoodByRead(alleleCounts,readLikelihoods,readLikelihoodComponentsByAlleleCount, readCount);
+                    manyComponentGenotypeLikelihoodByRead(alleleCounts, readLikelihoods, offset, readLikelihoodComponentsByAlleleCount, readCount,
+                            genotypeAllelesAndCounts, buffers.readGenotypeLikelihoodComponents);
             }
             if (genotypeIndex < genotypeCount - 1) {
                 alleleCounts = nextGenotypeAlleleCounts(alleleCounts);
             }
         }
-        return readLikelihoodsByGenotypeIndex;
+        return readLikelihoods;
     }
 
     private GenotypeAlleleCounts nextGenotypeAlleleCounts(final GenotypeAlleleCounts alleleCounts) {
@@ -337,11 +362,19 @@ public final class GenotypeLikelihoodCalculator {
     /**
      * General genotype likelihood component by read calculator. It does not make any assumption in the exact
      * number of alleles present in the genotype.
+     *
+     * @param genotypeAllelesAndCounts buffer for the sorted allele counts of the genotype, in the format of
+     *                                 {@link GenotypeAlleleCounts#copyAlleleCounts}; large enough for
+     *                                 {@link #maximumDistinctAllelesInGenotype} alleles.
+     * @param readGenotypeLikelihoodComponents buffer as described in {@link ReadBuffers#readGenotypeLikelihoodComponents}.
      */
     private void manyComponentGenotypeLikelihoodByRead(final GenotypeAlleleCounts genotypeAlleleCounts,
                                                        final double[] likelihoodByRead,
+                                                       final int likelihoodByReadOffset,
                                                        final double[]readLikelihoodComponentsByAlleleCount,
-                                                       final int readCount) {
+                                                       final int readCount,
+                                                       final int[] genotypeAllelesAndCounts,
+                                                       final double[] readGenotypeLikelihoodComponents) {
 
         // First we collect the allele likelihood component for all reads and place it
         // in readGenotypeLikelihoodComponents for the final calculation per read.
@@ -360,7 +393,7 @@ public final class GenotypeLikelihoodCalculator {
 
         // Calculate the likelihood per read.
         for (int r = 0, readDataOffset = 0; r < readCount; r++, readDataOffset += maximumDistinctAllelesInGenotype) {
-            likelihoodByRead[r] = MathUtils.approximateLog10SumLog10(readGenotypeLikelihoodComponents, readDataOffset, readDataOffset + componentCount);
+            likelihoodByRead[likelihoodByReadOffset + r] = MathUtils.approximateLog10SumLog10(readGenotypeLikelihoodComponents, readDataOffset, readDataOffset + componentCount);
         }
     }
 
@@ -370,6 +403,7 @@ public final class GenotypeLikelihoodCalculator {
      */
     private void twoComponentGenotypeLikelihoodByRead(final GenotypeAlleleCounts genotypeAlleleCounts,
                                                       final double[] likelihoodByRead,
+                                                      final int likelihoodByReadOffset,
                                                       final double[] readLikelihoodComponentsByAlleleCount,
                                                       final int readCount) {
         final int allele0 = genotypeAlleleCounts.alleleIndexAt(0);
@@ -381,7 +415,7 @@ public final class GenotypeLikelihoodCalculator {
         for (int r = 0; r < readCount; r++) {
             final double lnLk0 = readLikelihoodComponentsByAlleleCount[allele0LnLkOffset++];
             final double lnLk1 = readLikelihoodComponentsByAlleleCount[allele1LnLkOffset++];
-            likelihoodByRead[r] = MathUtils.approximateLog10SumLog10(lnLk0, lnLk1);
+            likelihoodByRead[likelihoodByReadOffset + r] = MathUtils.approximateLog10SumLog10(lnLk0, lnLk1);
         }
     }
 
@@ -390,14 +424,12 @@ public final class GenotypeLikelihoodCalculator {
      * exactly one allele present in the genotype.
      */
     private void singleComponentGenotypeLikelihoodByRead(final GenotypeAlleleCounts genotypeAlleleCounts,
-                                                         final double[] likelihoodByRead, final double[] readLikelihoodComponentsByAlleleCount, final int readCount) {
+                                                         final double[] likelihoodByRead, final int likelihoodByReadOffset,
+                                                         final double[] readLikelihoodComponentsByAlleleCount, final int readCount) {
         final int allele = genotypeAlleleCounts.alleleIndexAt(0);
         // the count of the only component must be = ploidy.
-        int offset = (allele * (ploidy + 1) + ploidy) * readCount;
-        for (int r = 0; r < readCount; r++) {
-            likelihoodByRead[r] =
-                    readLikelihoodComponentsByAlleleCount[offset++];
-        }
+        final int offset = (allele * (ploidy + 1) + ploidy) * readCount;
+        System.arraycopy(readLikelihoodComponentsByAlleleCount, offset, likelihoodByRead, likelihoodByReadOffset, readCount);
     }
 
     /**
@@ -407,9 +439,11 @@ public final class GenotypeLikelihoodCalculator {
      *     result[y][z][x] :=  z * lnLk ( read_x | allele_y ).
      * </pre>
      *
+     * @param readAlleleLikelihoodByAlleleCount where to store the result, see {@link ReadBuffers#readAlleleLikelihoodByAlleleCount}.
      * @return never {@code null}.
      */
-    private <A extends Allele> double[] readLikelihoodComponentsByAlleleCount(final LikelihoodMatrix<A> likelihoods) {
+    private <A extends Allele> double[] readLikelihoodComponentsByAlleleCount(final LikelihoodMatrix<A> likelihoods,
+                                                                              final double[] readAlleleLikelihoodByAlleleCount) {
         final int readCount = likelihoods.numberOfReads();
         final int alleleDataSize = readCount * (ploidy + 1);
 
@@ -466,35 +500,35 @@ public final class GenotypeLikelihoodCalculator {
     public int alleleCountsToIndex(final int ... alleleCountArray) {
         Utils.nonNull(alleleCountArray, "the allele counts cannot be null");
         Utils.validateArg((alleleCountArray.length & 1) == 0, "the allele counts array cannot have odd length");
-        alleleHeap.clear();
-        for (int i = 0; i < alleleCountArray.length; i += 2) {
-            final int index = alleleCountArray[i];
-            final int count = alleleCountArray[i+1];
-            Utils.validateArg(count >= 0, "no allele count can be less than 0");
-            for (int j = 0; j < count; j++) {
-                alleleHeap.add(index);
-            }
+        int totalCount = 0;
+        for (int i = 1; i < alleleCountArray.length; i += 2) {
+            Utils.validateArg(alleleCountArray[i] >= 0, "no allele count can be less than 0");
+            totalCount += alleleCountArray[i];
+        }
+        Utils.validateArg(totalCount == ploidy, "the sum of allele counts must be equal to the ploidy of the calculator");
+        final int[] sortedAlleleIndices = new int[ploidy];
+        for (int i = 0, next = 0; i < alleleCountArray.length; i += 2) {
+            Arrays.fill(sortedAlleleIndices, next, next += alleleCountArray[i + 1], alleleCountArray[i]);
         }
-        return alleleHeapToIndex();
+        Arrays.sort(sortedAlleleIndices);
+        return sortedAllelesToIndex(sortedAlleleIndices);
     }
 
     /**
-     * Transforms the content of the heap into an index.
+     * Transforms the alleles of a genotype into an index.
      *
-     * <p>
-     *     The heap contents are flushed as a result, so is left ready for another use.
-     * </p>
+     * @param sortedAlleleIndices the index of each allele copy in the genotype in ascending order; there should be as
+     *                            many as the ploidy of the calculator.
      *
      * @return a valid likelihood index.
      */
-    private int alleleHeapToIndex() {
-        Utils.validateArg(alleleHeap.size() == ploidy, "the sum of allele counts must be equal to the ploidy of the calculator");
-        Utils.validateArg(alleleHeap.peek() < alleleCount, () -> "invalid allele " + alleleHeap.peek() + " more than the maximum " + (alleleCount - 1));
+    private int sortedAllelesToIndex(final int[] sortedAlleleIndices) {
+        Utils.validateArg(sortedAlleleIndices.length == ploidy, "the sum of allele counts must be equal to the ploidy of the calculator");
+        Utils.validateArg(sortedAlleleIndices[ploidy - 1] < alleleCount, () -> "invalid allele " + sortedAlleleIndices[ploidy - 1] + " more than the maximum " + (alleleCount - 1));
+        Utils.validateArg(sortedAlleleIndices[0] >= 0, () -> "invalid allele " + sortedAlleleIndices[0] + " must be equal or greater than 0 ");
         int result = 0;
         for (int p = ploidy; p > 0; p--) {
-            final int allele = alleleHeap.remove();
-            Utils.validateArg(allele >= 0, () -> "invalid allele " + allele + " must be equal or greater than 0 ");
-            result += alleleFirstGenotypeOffsetByPloidy[p][allele];
+            result += alleleFirstGenotypeOffsetByPloidy[p][sortedAlleleIndices[p - 1]];
         }
         return result;
     }
@@ -521,10 +555,10 @@ public final class GenotypeLikelihoodCalculator {
 
         final int[] result = new int[resultLength];
         final int[] sortedAlleleCounts = new int[Math.max(ploidy, alleleCount) << 1];
-        alleleHeap.clear();
+        final int[] sortedAlleleIndices = new int[ploidy];
         GenotypeAlleleCounts alleleCounts = genotypeAlleleCounts[0];
         for (int i = 0; i < resultLength; i++) {
-            genotypeIndexMapPerGenotypeIndex(i,alleleCounts, oldToNewAlleleIndexMap, result, sortedAlleleCounts);
+            genotypeIndexMapPerGenotypeIndex(i,alleleCounts, oldToNewAlleleIndexMap, result, sortedAlleleCounts, sortedAlleleIndices);
             if (i < resultLength - 1) {
                 alleleCounts = nextGenotypeAlleleCounts(alleleCounts);
             }
@@ -540,23 +574,23 @@ public final class GenotypeLikelihoodCalculator {
      * @param oldToNewAlleleIndexMap the allele mapping.
      * @param destination where to store the new genotype index mapping to old.
      * @param sortedAlleleCountsBuffer a buffer to re-use to get the genotype-allele-count's sorted allele counts.
+     * @param sortedAlleleIndicesBuffer a buffer to re-use to collect the new allele indices, with as many positions as the ploidy.
      */
-    private void genotypeIndexMapPerGenotypeIndex(final int newGenotypeIndex, final GenotypeAlleleCounts alleleCounts, final int[] oldToNewAlleleIndexMap, final int[] destination, final int[] sortedAlleleCountsBuffer) {
+    private void genotypeIndexMapPerGenotypeIndex(final int newGenotypeIndex, final GenotypeAlleleCounts alleleCounts, final int[] oldToNewAlleleIndexMap, final int[] destination,
+                                                  final int[] sortedAlleleCountsBuffer, final int[] sortedAlleleIndicesBuffer) {
         final int distinctAlleleCount = alleleCounts.distinctAlleleCount();
         alleleCounts.copyAlleleCounts(sortedAlleleCountsBuffer,0);
-        for (int j = 0, jj = 0; j < distinctAlleleCount; j++) {
+        for (int j = 0, jj = 0, next = 0; j < distinctAlleleCount; j++) {
             final int oldIndex = sortedAlleleCountsBuffer[jj++];
             final int repeats = sortedAlleleCountsBuffer[jj++];
             final int newIndex = oldToNewAlleleIndexMap[oldIndex];
             if (newIndex < 0 || newIndex >= alleleCount) {
                 throw new IllegalArgumentException("found invalid new allele index (" + newIndex + ") for old index (" + oldIndex + ")");
             }
-            for (int k = 0; k < repeats; k++) {
-                alleleHeap.add(newIndex);
-            }
+            Arrays.fill(sortedAlleleIndicesBuffer, next, next += repeats, newIndex);
         }
-        final int genotypeIndex = alleleHeapToIndex(); // this cleans the heap for the next use.
-        destination[newGenotypeIndex] = genotypeIndex;
+        Arrays.sort(sortedAlleleIndicesBuffer);
+        destination[newGenotypeIndex] = sortedAllelesToIndex(sortedAlleleIndicesBuffer);
     }
 
 }
@@ -7,6 +7,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Genotype likelihood calculator utility.
@@ -15,24 +17,26 @@ import java.util.Arrays;
  *     This class provide genotype likelihood calculators with any number of alleles able given an arbitrary ploidy and allele
  *     count (number of distinct alleles).
  * </p>
+ *
+ * <p>
+ *     Instances are thread-safe: the shared tables are immutable snapshots that are only replaced (under a lock) when
+ *     a larger capacity is requested, and calculators are cached in a bounded least-recently-used registry.
+ * </p>
  */
 public final class GenotypeLikelihoodCalculators {
 
     private static final Logger logger = LogManager.getLogger(GenotypeLikelihoodCalculators.class);
 
     /**
-     * The current maximum ploidy supported by the tables.
-     * <p>
-     *     Its initial value indicates the initial capacity of the shared {@link #genotypeTableByPloidy}. Feel free
-     *     to change it to anything reasonable that is non-negative.
-     * </p>
+     * Maximum possible number of genotypes that this calculator can handle.
      */
-    private int maximumPloidy = 2; // its initial value is the initial capacity of the shared tables.
+    public static final int MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY = 1000;
 
     /**
-     * Maximum possible number of genotypes that this calculator can handle.
+     * Maximum number of calculators kept in the {@link #calculatorCache}; the least recently used one is evicted
+     * beyond this.
      */
-    public static final int MAXIMUM_STRONG_REF_GENOTYPE_PER_PLOIDY = 1000;
+    public static final int MAXIMUM_CACHED_CALCULATORS = 100;
 
     /**
      * Mark to indicate genotype-count overflow due to a large number of allele and ploidy;
@@ -40,32 +44,66 @@ public final class GenotypeLikelihoodCalculators {
     static final int GENOTYPE_COUNT_OVERFLOW = -1;
 
     /**
-     * The current maximum allele index supported by the tables.
-     * <p>
-     *     Its initial value indicates the initial capacity of the shared {@link #alleleFirstGenotypeOffsetByPloidy} table.
-     *     Feel free to change it to anything reasonable that is non-negative.
-     * </p>
+     * Initial capacity of the shared tables. Feel free to change these to anything reasonable that is non-negative.
      */
-    private int maximumAllele = 1; // its initial value is the initial capacity of the shared tables.
+    private static final int INITIAL_MAXIMUM_PLOIDY = 2;
+    private static final int INITIAL_MAXIMUM_ALLELE = 1;
 
     /**
-     * Shared copy of the offset table as described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
-     *
-     * This reference holds the largest requested so far in terms of maximum-allele and maximum-ploidy.
+     * The shared tables, replaced as a whole when more capacity is requested so that they can be read
+     * without holding a lock.
      */
-    private int[][] alleleFirstGenotypeOffsetByPloidy =
-            buildAlleleFirstGenotypeOffsetTable(maximumPloidy, maximumAllele);
-
+    private volatile Tables tables = new Tables(INITIAL_MAXIMUM_PLOIDY, INITIAL_MAXIMUM_ALLELE);
 
     /**
-     * Shared table of genotypes give the ploidy sorted by their index in the likelihood array.
-     *
+     * Calculators handed out so far keyed by {@link #calculatorKey}, in least to most recently used order.
      * <p>
-     *  Its format is described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
+     *     Calculators are immutable and keep their working buffers per thread (see {@link GenotypeLikelihoodCalculator}),
+     *     so the same instance is safely shared by all callers.
      * </p>
      */
-    private GenotypeAlleleCounts[][] genotypeTableByPloidy =
-            buildGenotypeAlleleCountsTable(maximumPloidy,maximumAllele,alleleFirstGenotypeOffsetByPloidy);
+    private final Map<Long, GenotypeLikelihoodCalculator> calculatorCache =
+            new LinkedHashMap<Long, GenotypeLikelihoodCalculator>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Long, GenotypeLikelihoodCalculator> eldest) {
+                    return size() > MAXIMUM_CACHED_CALCULATORS;
+                }
+            };
+
+    /**
+     * Immutable snapshot of the offset and genotype tables for up to a maximum ploidy and allele.
+     */
+    private static final class Tables {
+        private final int maximumPloidy;
+        private final int maximumAllele;
+
+        /**
+         * Offset table as described in {@link #buildAlleleFirstGenotypeOffsetTable(int, int)}.
+         */
+        private final int[][] alleleFirstGenotypeOffsetByPloidy;
+
+        /**
+         * Table of genotypes give the ploidy sorted by their index in the likelihood array.
+         *
+         * <p>
+         *  Its format is described in {@link #buildGenotypeAlleleCountsTable(int, int, int[][])}.
+         * </p>
+         */
+        private final GenotypeAlleleCounts[][] genotypeTableByPloidy;
+
+        private Tables(final int maximumPloidy, final int maximumAllele) {
+            this.maximumPloidy = maximumPloidy;
+            this.maximumAllele = maximumAllele;
+            alleleFirstGenotypeOffsetByPloidy = buildAlleleFirstGenotypeOffsetTable(maximumPloidy, maximumAllele);
+            genotypeTableByPloidy = buildGenotypeAlleleCountsTable(maximumPloidy, maximumAllele, alleleFirstGenotypeOffsetByPloidy);
+        }
+
+        private boolean supports(final int ploidy, final int alleleCount) {
+            return ploidy <= maximumPloidy && alleleCount <= maximumAllele;
+        }
+    }
 
     public GenotypeLikelihoodCalculators(){
 
@@ -250,6 +288,11 @@ public final class GenotypeLikelihoodCalculators {
     /**
      * Returns an instance given its ploidy and the number of alleles.
      *
+     * <p>
+     *     The instance is shared with other callers requesting the same ploidy and allele count, possibly from other
+     *     threads, which is safe as calculators are thread-safe.
+     * </p>
+     *
      * @param alleleCount the required allele-count.
      * @param ploidy the required ploidy-count.
      *
@@ -259,47 +302,70 @@ public final class GenotypeLikelihoodCalculators {
      */
     public GenotypeLikelihoodCalculator getInstance(final int ploidy, final int alleleCount) {
         checkPloidyAndMaximumAllele(ploidy, alleleCount);
+        final Long key = calculatorKey(ploidy, alleleCount);
+        synchronized (calculatorCache) {
+            final GenotypeLikelihoodCalculator cached = calculatorCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-        if (calculateGenotypeCountUsingTables(ploidy, alleleCount) == GENOTYPE_COUNT_OVERFLOW) {
+        final Tables currentTables = getTables(ploidy, alleleCount);
+        if (currentTables.alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount] == GENOTYPE_COUNT_OVERFLOW) {
             final double largeGenotypeCount = Math.pow(10, MathUtils.log10BinomialCoefficient(ploidy + alleleCount - 1, alleleCount - 1));
             throw new IllegalArgumentException(String.format("the number of genotypes is too large for ploidy %d and allele %d: approx. %.0f", ploidy, alleleCount, largeGenotypeCount));
         }
 
         // At this point the tables must have at least the requested capacity, likely to be much more.
-        return new GenotypeLikelihoodCalculator(ploidy, alleleCount, alleleFirstGenotypeOffsetByPloidy, genotypeTableByPloidy);
+        final GenotypeLikelihoodCalculator result = new GenotypeLikelihoodCalculator(ploidy, alleleCount, currentTables.alleleFirstGenotypeOffsetByPloidy, currentTables.genotypeTableByPloidy);
+        synchronized (calculatorCache) {
+            // another thread might have beaten us to it; hand out the same instance to everyone.
+            final GenotypeLikelihoodCalculator previous = calculatorCache.putIfAbsent(key, result);
+            return previous != null ? previous : result;
+        }
+    }
+
+    private static Long calculatorKey(final int ploidy, final int alleleCount) {
+        return ((long) ploidy << 32) | alleleCount;
     }
 
     /**
-     * Update of shared tables
+     * Returns the shared tables making sure that they support the requested ploidy and allele count.
      *
-     * @param requestedMaximumAllele the new requested maximum allele maximum.
      * @param requestedMaximumPloidy the new requested ploidy maximum.
+     * @param requestedMaximumAllele the new requested maximum allele maximum.
      */
-    private void ensureCapacity(final int requestedMaximumAllele, final int requestedMaximumPloidy) {
+    private Tables getTables(final int requestedMaximumPloidy, final int requestedMaximumAllele) {
+        final Tables current = tables;
+        return current.supports(requestedMaximumPloidy, requestedMaximumAllele) ? current : ensureCapacity(requestedMaximumPloidy, requestedMaximumAllele);
+    }
 
-        final boolean needsToExpandAlleleCapacity = requestedMaximumAllele > maximumAllele;
-        final boolean needsToExpandPloidyCapacity = requestedMaximumPloidy > maximumPloidy;
+    /**
+     * Update of shared tables
+     *
+     * @param requestedMaximumPloidy the new requested ploidy maximum.
+     * @param requestedMaximumAllele the new requested maximum allele maximum.
+     */
+    private synchronized Tables ensureCapacity(final int requestedMaximumPloidy, final int requestedMaximumAllele) {
+        final Tables current = tables;
 
         // Double check with the lock on to avoid double work.
-        if (!needsToExpandAlleleCapacity && !needsToExpandPloidyCapacity) {
-            return;
+        if (current.supports(requestedMaximumPloidy, requestedMaximumAllele)) {
+            return current;
         }
 
-        final int newMaximumPloidy = Math.max(maximumPloidy, requestedMaximumPloidy);
-        final int newMaximumAllele = Math.max(maximumAllele, requestedMaximumAllele);
-
-        logger.debug("Expanding capacity ploidy:" + maximumPloidy + "->" + newMaximumPloidy + " allele:" +  maximumAllele +"->" + newMaximumAllele );
+        final int newMaximumPloidy = Math.max(current.maximumPloidy, requestedMaximumPloidy);
+        final int newMaximumAllele = Math.max(current.maximumAllele, requestedMaximumAllele);
 
-        // Update tables first.
-        alleleFirstGenotypeOffsetByPloidy = buildAlleleFirstGenotypeOffsetTable(newMaximumPloidy,newMaximumAllele);
-        genotypeTableByPloidy = buildGenotypeAlleleCountsTable(newMaximumPloidy,newMaximumAllele,alleleFirstGenotypeOffsetByPloidy);
+        logger.debug("Expanding capacity ploidy:" + current.maximumPloidy + "->" + newMaximumPloidy + " allele:" +  current.maximumAllele +"->" + newMaximumAllele );
 
-        if (needsToExpandAlleleCapacity) {
-            maximumAllele = requestedMaximumAllele;
-        }
-        if (needsToExpandPloidyCapacity) {
-            maximumPloidy = requestedMaximumPloidy;
+        final Tables result = new Tables(newMaximumPloidy, newMaximumAllele);
+        tables = result;
+        // cached calculators would otherwise keep the old tables alive.
+        synchronized (calculatorCache) {
+            calculatorCache.clear();
         }
+        return result;
     }
 
     /**
@@ -382,9 +448,6 @@ public final class GenotypeLikelihoodCalculators {
 
     private int calculateGenotypeCountUsingTables(int ploidy, int alleleCount) {
         checkPloidyAndMaximumAllele(ploidy, alleleCount);
-        if (ploidy > maximumPloidy || alleleCount > maximumAllele) {
-            ensureCapacity(alleleCount, ploidy);
-        }
-        return alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
+        return getTables(ploidy, alleleCount).alleleFirstGenotypeOffsetByPloidy[ploidy][alleleCount];
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import htsjdk.samtools.reference.ReferenceSequenceFile;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.engine.AssemblyRegion;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading.ReadThreadingAssembler;
@@ -162,10 +163,13 @@ public final class AssemblyBasedCallerUtils {
     public static ReadLikelihoodCalculationEngine createLikelihoodCalculationEngine(final LikelihoodEngineArgumentCollection likelihoodArgs) {
         final double log10GlobalReadMismappingRate = likelihoodArgs.phredScaledGlobalReadMismappingRate < 0 ? - Double.MAX_VALUE
                 : QualityUtils.qualToErrorProbLog10(likelihoodArgs.phredScaledGlobalReadMismappingRate);
+        if ( likelihoodArgs.sampleLikelihoodThreads < 1 ) {
+            throw new CommandLineException.BadArgumentValue("sample_likelihood_threads", "must be at least 1 but was " + likelihoodArgs.sampleLikelihoodThreads);
+        }
 
         switch ( likelihoodArgs.likelihoodEngineImplementation) {
             case PairHMM:
-                return new PairHMMLikelihoodCalculationEngine((byte) likelihoodArgs.gcpHMM, likelihoodArgs.pairHMMNativeArgs.getPairHMMArgs(), likelihoodArgs.pairHMM, log10GlobalReadMismappingRate, likelihoodArgs.pcrErrorModel, likelihoodArgs.BASE_QUALITY_SCORE_THRESHOLD);
+                return new PairHMMLikelihoodCalculationEngine((byte) likelihoodArgs.gcpHMM, likelihoodArgs.pairHMMNativeArgs.getPairHMMArgs(), likelihoodArgs.pairHMM, log10GlobalReadMismappingRate, likelihoodArgs.pcrErrorModel, likelihoodArgs.BASE_QUALITY_SCORE_THRESHOLD, likelihoodArgs.singlePrecisionReadLikelihoods, likelihoodArgs.sampleLikelihoodThreads);
             case Random:
                 return new RandomLikelihoodCalculationEngine();
             default:
@@ -183,6 +187,10 @@ public final class AssemblyBasedCallerUtils {
         assemblyEngine.setRecoverDanglingBranches(!rtaac.doNotRecoverDanglingBranches);
         assemblyEngine.setMinDanglingBranchLength(rtaac.minDanglingBranchLength);
         assemblyEngine.setMinBaseQualityToUseInAssembly(args.minBaseQualityScore);
+        if ( rtaac.haplotypeCigarCacheSize < 0 ) {
+            throw new CommandLineException.BadArgumentValue("haplotypeCigarCacheSize", "cannot be negative but was " + rtaac.haplotypeCigarCacheSize);
+        }
+        assemblyEngine.setHaplotypeCigarCacheSize(rtaac.haplotypeCigarCacheSize);
 
         if ( rtaac.graphOutput != null ) {
             assemblyEngine.setGraphWriter(new File(rtaac.graphOutput));
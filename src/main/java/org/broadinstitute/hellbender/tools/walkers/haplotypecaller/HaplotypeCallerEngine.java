@@ -43,10 +43,11 @@ import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.HomoSapiensConstants;
 import org.broadinstitute.hellbender.utils.variant.writers.GVCFWriter;
+import org.broadinstitute.hellbender.utils.variant.writers.ReferenceConfidenceBlock;
 
 import java.io.File;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * The core engine for the HaplotypeCaller that does all of the actual work of the tool.
@@ -56,7 +57,8 @@ import java.util.stream.Collectors;
  * -Get the appropriate VCF or GVCF writer (depending on our arguments) from {@link #makeVCFWriter}
  * -Write the appropriate VCF header via {@link #writeHeader}
  * -Repeatedly call {@link #isActive} to identify active vs. inactive regions
- * -Repeatedly call {@link #callRegion} to call variants in each region, and add them to your writer
+ * -Repeatedly call {@link #callRegion(AssemblyRegion, FeatureContext, VariantContextWriter)} to call variants in each
+ *  region and add them to your writer (or {@link #callRegion(AssemblyRegion, FeatureContext)} to get them as a list)
  * -When done, call {@link #shutdown}. Close the writer you got from {@link #makeVCFWriter} yourself.
  */
 public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
@@ -131,7 +133,6 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      */
     private static final int READ_QUALITY_FILTER_THRESHOLD = 20;
 
-    private static final List<VariantContext> NO_CALLS = Collections.emptyList();
 
     private static final Allele FAKE_REF_ALLELE = Allele.create("N", true); // used in isActive function to call into UG Engine. Should never appear anywhere in a VCF file
     private static final Allele FAKE_ALT_ALLELE = Allele.create("<FAKE_ALT>", false); // used in isActive function to call into UG Engine. Should never appear anywhere in a VCF file
@@ -151,15 +152,28 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
     }
 
     public HaplotypeCallerEngine( final HaplotypeCallerArgumentCollection hcArgs, boolean createBamOutIndex, boolean createBamOutMD5, final SAMFileHeader readsHeader, ReferenceSequenceFile referenceReader, VariantAnnotatorEngine annotationEngine ) {
+        this(hcArgs, createBamOutIndex, createBamOutMD5, readsHeader, referenceReader, annotationEngine, false);
+    }
+
+    /**
+     * Create and initialize a new HaplotypeCallerEngine, choosing how reference confidence sites are emitted in GVCF mode
+     *
+     * @param emitReferenceConfidenceBlocks in GVCF mode, merge contiguous reference confidence sites of the same GQ band
+     *                                      into blocks rather than emitting a variant context per site. Only the writer
+     *                                      from {@link #makeVCFWriter}, passed to {@link #callRegion(AssemblyRegion, FeatureContext, VariantContextWriter)},
+     *                                      takes these blocks, so pass false if the calls go anywhere else (e.g. if
+     *                                      they are filtered by position first).
+     */
+    public HaplotypeCallerEngine( final HaplotypeCallerArgumentCollection hcArgs, boolean createBamOutIndex, boolean createBamOutMD5, final SAMFileHeader readsHeader, ReferenceSequenceFile referenceReader, VariantAnnotatorEngine annotationEngine, final boolean emitReferenceConfidenceBlocks ) {
         this.hcArgs = Utils.nonNull(hcArgs);
         this.readsHeader = Utils.nonNull(readsHeader);
         this.referenceReader = Utils.nonNull(referenceReader);
         this.annotationEngine = annotationEngine;
         this.aligner = SmithWatermanAligner.getAligner(hcArgs.smithWatermanImplementation);
-        initialize(createBamOutIndex, createBamOutMD5);
+        initialize(createBamOutIndex, createBamOutMD5, emitReferenceConfidenceBlocks);
     }
 
-    private void initialize(boolean createBamOutIndex, final boolean createBamOutMD5) {
+    private void initialize(boolean createBamOutIndex, final boolean createBamOutMD5, final boolean emitReferenceConfidenceBlocks) {
         // Note: order of operations matters here!
 
         initializeSamples();
@@ -178,7 +192,12 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         genotypingEngine = new HaplotypeCallerGenotypingEngine(hcArgs, samplesList, FixedAFCalculatorProvider.createThreadSafeProvider(hcArgs), ! hcArgs.doNotRunPhysicalPhasing);
         genotypingEngine.setAnnotationEngine(annotationEngine);
 
-        referenceConfidenceModel = new ReferenceConfidenceModel(samplesList, readsHeader, hcArgs.indelSizeToEliminateInRefModel);
+        if ( emitReferenceConfidenceBlocks && hcArgs.emitReferenceConfidence == ReferenceConfidenceMode.GVCF ) {
+            // the GVCF writer understands pre-merged reference confidence blocks, so we don't need to emit every site.
+            referenceConfidenceModel = new ReferenceConfidenceModel(samplesList, readsHeader, hcArgs.indelSizeToEliminateInRefModel, hcArgs.GVCFGQBands);
+        } else {
+            referenceConfidenceModel = new ReferenceConfidenceModel(samplesList, readsHeader, hcArgs.indelSizeToEliminateInRefModel);
+        }
 
         //Allele-specific annotations are not yet supported in the VCF mode
         if (isAlleleSpecificMode(annotationEngine) && isVCFMode()){
@@ -463,11 +482,42 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      * @param region region to assemble and perform variant calling on
      * @param features Features overlapping the assembly region
      * @return List of variants discovered in the region (may be empty)
+     * @throws IllegalStateException if this engine emits reference confidence blocks, which only a writer can take.
      */
     public List<VariantContext> callRegion(final AssemblyRegion region, final FeatureContext features) {
+        final List<VariantContext> result = new ArrayList<>();
+        callRegion(region, features, result::add, HaplotypeCallerEngine::rejectReferenceConfidenceBlock);
+        return result;
+    }
+
+    /**
+     * Generate variant calls for an assembly region, and add them to a writer
+     *
+     * @param region region to assemble and perform variant calling on
+     * @param features Features overlapping the assembly region
+     * @param writer the writer from {@link #makeVCFWriter}, which in GVCF mode takes the reference confidence blocks
+     *               this engine may emit, as well as variant contexts
+     */
+    public void callRegion(final AssemblyRegion region, final FeatureContext features, final VariantContextWriter writer) {
+        Utils.nonNull(writer);
+        callRegion(region, features, writer::add,
+                writer instanceof GVCFWriter ? ((GVCFWriter) writer)::add : HaplotypeCallerEngine::rejectReferenceConfidenceBlock);
+    }
+
+    private static void rejectReferenceConfidenceBlock(final ReferenceConfidenceBlock block) {
+        throw new IllegalStateException("This engine emits reference confidence blocks, which only the GVCF writer from makeVCFWriter can take");
+    }
+
+    /**
+     * Generate variant calls for an assembly region, passing them and the reference confidence, if any, to consumers
+     * in order by genomic position
+     */
+    private void callRegion(final AssemblyRegion region, final FeatureContext features,
+                            final Consumer<VariantContext> variantContextConsumer,
+                            final Consumer<ReferenceConfidenceBlock> blockConsumer) {
         if ( hcArgs.justDetermineActiveRegions ) {
             // we're benchmarking ART and/or the active region determination code in the HC, just leave without doing any work
-            return NO_CALLS;
+            return;
         }
 
         if ( hcArgs.sampleNameToUse != null ) {
@@ -476,7 +526,8 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
         if( ! region.isActive() ) {
             // Not active so nothing to do!
-            return referenceModelForNoVariation(region, true);
+            referenceModelForNoVariation(region, true, variantContextConsumer, blockConsumer);
+            return;
         }
 
         final List<VariantContext> givenAlleles = new ArrayList<>();
@@ -485,11 +536,13 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
             // No alleles found in this region so nothing to do!
             if ( givenAlleles.isEmpty() ) {
-                return referenceModelForNoVariation(region, true);
+                referenceModelForNoVariation(region, true, variantContextConsumer, blockConsumer);
+                return;
             }
         } else if( region.size() == 0 ) {
             // No reads here so nothing to do!
-            return referenceModelForNoVariation(region, true);
+            referenceModelForNoVariation(region, true, variantContextConsumer, blockConsumer);
+            return;
         }
 
         // run the local assembler, getting back a collection of information on how we should proceed
@@ -503,7 +556,8 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         final AssemblyRegionTrimmer.Result trimmingResult = trimmer.trim(region, allVariationEvents);
 
         if ( ! trimmingResult.isVariationPresent() && ! hcArgs.disableOptimizations ) {
-            return referenceModelForNoVariation(region, false);
+            referenceModelForNoVariation(region, false, variantContextConsumer, blockConsumer);
+            return;
         }
 
         final AssemblyResultSet assemblyResult =
@@ -522,18 +576,20 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         // abort early if something is out of the acceptable range
         // TODO is this ever true at this point??? perhaps GGA. Need to check.
         if( ! assemblyResult.isVariationPresent() && ! hcArgs.disableOptimizations ) {
-            return referenceModelForNoVariation(region, false);
+            referenceModelForNoVariation(region, false, variantContextConsumer, blockConsumer);
+            return;
         }
 
         // For sure this is not true if gVCF is on.
         if ( hcArgs.dontGenotype ) {
-            return NO_CALLS; // user requested we not proceed
+            return; // user requested we not proceed
         }
 
         // TODO is this ever true at this point??? perhaps GGA. Need to check.
         if ( regionForGenotyping.size() == 0 && ! hcArgs.disableOptimizations ) {
             // no reads remain after filtering so nothing else to do!
-            return referenceModelForNoVariation(region, false);
+            referenceModelForNoVariation(region, false, variantContextConsumer, blockConsumer);
+            return;
         }
 
         // evaluate each sample's reads against all haplotypes
@@ -582,31 +638,30 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         if ( emitReferenceConfidence() ) {
             if ( !containsCalls(calledHaplotypes) ) {
                 // no called all of the potential haplotypes
-                return referenceModelForNoVariation(region, false);
+                referenceModelForNoVariation(region, false, variantContextConsumer, blockConsumer);
             }
             else {
-                final List<VariantContext> result = new LinkedList<>();
                 // output left-flanking non-variant section:
                 if (trimmingResult.hasLeftFlankingRegion()) {
-                    result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantLeftFlankRegion(), false));
+                    referenceModelForNoVariation(trimmingResult.nonVariantLeftFlankRegion(), false, variantContextConsumer, blockConsumer);
                 }
                 // output variant containing region.
-                result.addAll(referenceConfidenceModel.calculateRefConfidence(assemblyResult.getReferenceHaplotype(),
+                referenceConfidenceModel.calculateRefConfidence(assemblyResult.getReferenceHaplotype(),
                         calledHaplotypes.getCalledHaplotypes(), assemblyResult.getPaddedReferenceLoc(), regionForGenotyping,
-                        readLikelihoods, genotypingEngine.getPloidyModel(), calledHaplotypes.getCalls()));
+                        readLikelihoods, genotypingEngine.getPloidyModel(), calledHaplotypes.getCalls(),
+                        variantContextConsumer, blockConsumer);
                 // output right-flanking non-variant section:
                 if (trimmingResult.hasRightFlankingRegion()) {
-                    result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantRightFlankRegion(), false));
+                    referenceModelForNoVariation(trimmingResult.nonVariantRightFlankRegion(), false, variantContextConsumer, blockConsumer);
                 }
-                return result;
             }
         }
         else {
             //TODO this should be updated once reducible annotations are handled properly.
-            return calledHaplotypes.getCalls()
+            calledHaplotypes.getCalls()
                     .stream()
                     .map(RMSMappingQuality.getInstance()::finalizeRawMQ)
-                    .collect(Collectors.toList());
+                    .forEach(variantContextConsumer);
         }
     }
 
@@ -622,9 +677,12 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      *
      * @param region the region to return a no-variation result
      * @param needsToBeFinalized should the region be finalized before computing the ref model (should be false if already done)
-     * @return a list of variant contexts (can be empty) to emit for this ref region
+     * @param variantContextConsumer receives the variant contexts (if any) to emit for this ref region
+     * @param blockConsumer receives the reference confidence blocks (if any) to emit for this ref region
      */
-    private List<VariantContext> referenceModelForNoVariation(final AssemblyRegion region, final boolean needsToBeFinalized) {
+    private void referenceModelForNoVariation(final AssemblyRegion region, final boolean needsToBeFinalized,
+                                              final Consumer<VariantContext> variantContextConsumer,
+                                              final Consumer<ReferenceConfidenceBlock> blockConsumer) {
         if ( emitReferenceConfidence() ) {
             //TODO - why the activeRegion cannot manage its own one-time finalization and filtering?
             //TODO - perhaps we can remove the last parameter of this method and the three lines bellow?
@@ -636,12 +694,9 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
             final SimpleInterval paddedLoc = region.getExtendedSpan();
             final Haplotype refHaplotype = AssemblyBasedCallerUtils.createReferenceHaplotype(region, paddedLoc, referenceReader);
             final List<Haplotype> haplotypes = Collections.singletonList(refHaplotype);
-            return referenceConfidenceModel.calculateRefConfidence(refHaplotype, haplotypes,
+            referenceConfidenceModel.calculateRefConfidence(refHaplotype, haplotypes,
                     paddedLoc, region, createDummyStratifiedReadMap(refHaplotype, samplesList, region),
-                    genotypingEngine.getPloidyModel(), Collections.emptyList());
-        }
-        else {
-            return NO_CALLS;
+                    genotypingEngine.getPloidyModel(), Collections.emptyList(), variantContextConsumer, blockConsumer);
         }
     }
 
@@ -663,6 +718,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      * Shutdown this HC engine, closing resources as appropriate
      */
     public void shutdown() {
+        assemblyEngine.logHaplotypeCigarCacheUsage();
         likelihoodCalculationEngine.close();
         aligner.close();
         if ( haplotypeBAMWriter.isPresent() ) {
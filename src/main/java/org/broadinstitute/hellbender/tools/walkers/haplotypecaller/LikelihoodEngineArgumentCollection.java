@@ -67,6 +67,24 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     @Argument(fullName="phredScaledGlobalReadMismappingRate", shortName="globalMAPQ", doc="The global assumed mismapping rate for reads", optional = true)
     public int phredScaledGlobalReadMismappingRate = 45;
 
+    /**
+     * Store read likelihoods in single rather than double precision. This halves the memory and the bandwidth spent
+     * on read likelihoods in deep regions with many haplotypes, at the cost of rounding every read likelihood to the
+     * nearest single precision value, which may change borderline calls.
+     */
+    @Advanced
+    @Argument(fullName = "single_precision_read_likelihoods", shortName = "singlePrecisionLikelihoods", doc = "Store read likelihoods in single rather than double precision", optional = true)
+    public boolean singlePrecisionReadLikelihoods = false;
+
+    /**
+     * Compute the read likelihoods of up to this many samples at the same time, each on its own thread with its own
+     * PairHMM. This is most useful with few samples and expensive likelihoods, e.g. a tumor and its matched normal.
+     * The results are the same as with a single thread.
+     */
+    @Advanced
+    @Argument(fullName = "sample_likelihood_threads", shortName = "sampleLikelihoodThreads", doc = "Number of samples whose read likelihoods are computed concurrently", optional = true)
+    public int sampleLikelihoodThreads = 1;
+
     @ArgumentCollection
     public PairHMMNativeArgumentCollection pairHMMNativeArgs = new PairHMMNativeArgumentCollection();
 
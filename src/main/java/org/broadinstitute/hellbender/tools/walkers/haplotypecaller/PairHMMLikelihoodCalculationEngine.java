@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
@@ -22,6 +23,10 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /*
@@ -44,6 +49,17 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
     private final PairHMM pairHMM;
 
+    /**
+     * PairHMMs for the samples computed concurrently with those computed by {@link #pairHMM} on the calling thread;
+     * empty unless likelihoods are computed on more than one thread.
+     */
+    private final List<PairHMM> samplePairHMMs;
+
+    /**
+     * Runs the samples assigned to {@link #samplePairHMMs}; null unless likelihoods are computed on more than one thread.
+     */
+    private final ExecutorService sampleExecutor;
+
     @VisibleForTesting
     static boolean writeLikelihoodsToFile = false;
 
@@ -74,6 +90,8 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
     
     private final byte baseQualityScoreThreshold;
 
+    private final boolean singlePrecisionLikelihoods;
+
     /**
      * The expected rate of random sequencing errors for a read originating from its true haplotype.
      *
@@ -127,6 +145,51 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                                               final double log10globalReadMismappingRate,
                                               final PCRErrorModel pcrErrorModel,
                                               final byte baseQualityScoreThreshold) {
+        this(constantGCP, arguments, hmmType, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold, false);
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine using provided parameters and hmm to do its calculations
+     *
+     * @param constantGCP the gap continuation penalty to use with the PairHMM
+     * @param hmmType the type of the HMM to use
+     * @param log10globalReadMismappingRate the global mismapping probability, in log10(prob) units.
+     * @param pcrErrorModel model to correct for PCR indel artifacts
+     * @param baseQualityScoreThreshold Base qualities below this threshold will be reduced to the minimum usable base
+     *                                  quality.
+     * @param singlePrecisionLikelihoods whether the resulting read likelihoods are stored in single precision.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final boolean singlePrecisionLikelihoods) {
+        this(constantGCP, arguments, hmmType, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold, singlePrecisionLikelihoods, 1);
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine using provided parameters and hmm to do its calculations
+     *
+     * @param constantGCP the gap continuation penalty to use with the PairHMM
+     * @param hmmType the type of the HMM to use
+     * @param log10globalReadMismappingRate the global mismapping probability, in log10(prob) units.
+     * @param pcrErrorModel model to correct for PCR indel artifacts
+     * @param baseQualityScoreThreshold Base qualities below this threshold will be reduced to the minimum usable base
+     *                                  quality.
+     * @param singlePrecisionLikelihoods whether the resulting read likelihoods are stored in single precision.
+     * @param sampleThreads the number of samples whose likelihoods are computed at the same time, each thread with
+     *                      its own PairHMM; with 1 all samples are computed in turn on the calling thread.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final boolean singlePrecisionLikelihoods,
+                                              final int sampleThreads) {
         Utils.nonNull(hmmType, "hmmType is null");
         Utils.nonNull(pcrErrorModel, "pcrErrorModel is null");
         if (constantGCP < 0){
@@ -139,6 +202,15 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         this.log10globalReadMismappingRate = log10globalReadMismappingRate;
         this.pcrErrorModel = pcrErrorModel;
         this.pairHMM = hmmType.makeNewHMM(arguments);
+        Utils.validateArg(sampleThreads >= 1, () -> "the number of sample threads must be at least 1 but was " + sampleThreads);
+        this.samplePairHMMs = new ArrayList<>(sampleThreads - 1);
+        for (int i = 1; i < sampleThreads; i++) {
+            samplePairHMMs.add(hmmType.makeNewHMM(arguments));
+        }
+        this.sampleExecutor = sampleThreads == 1 ? null : Executors.newFixedThreadPool(sampleThreads - 1, new ThreadFactoryBuilder()
+                .setNameFormat("sample-likelihoods-thread-%d")
+                .setDaemon(true)
+                .build());
 
         initializePCRErrorModel();
 
@@ -148,6 +220,7 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
             throw new IllegalArgumentException("baseQualityScoreThreshold must be greater than or equal to " + QualityUtils.MIN_USABLE_Q_SCORE + " (QualityUtils.MIN_USABLE_Q_SCORE)");
         }
         this.baseQualityScoreThreshold = baseQualityScoreThreshold;
+        this.singlePrecisionLikelihoods = singlePrecisionLikelihoods;
     }
 
     private PrintStream makeLikelihoodStream() {
@@ -164,6 +237,10 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
             likelihoodsStream.close();
         }
         pairHMM.close();
+        samplePairHMMs.forEach(PairHMM::close);
+        if ( sampleExecutor != null ) {
+            sampleExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -175,13 +252,17 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         final List<Haplotype> haplotypeList = assemblyResultSet.getHaplotypeList();
         final AlleleList<Haplotype> haplotypes = new IndexedAlleleList<>(haplotypeList);
 
-        initializePairHMM(haplotypeList, perSampleReadList);
+        initializePairHMM(pairHMM, haplotypeList, perSampleReadList);
 
         // Add likelihoods for each sample's reads to our result
-        final ReadLikelihoods<Haplotype> result = new ReadLikelihoods<>(samples, haplotypes, perSampleReadList);
+        final ReadLikelihoods<Haplotype> result = new ReadLikelihoods<>(samples, haplotypes, perSampleReadList, singlePrecisionLikelihoods);
         final int sampleCount = result.numberOfSamples();
-        for (int i = 0; i < sampleCount; i++) {
-            computeReadLikelihoods(result.sampleMatrix(i));
+        if (sampleExecutor == null || sampleCount == 1) {
+            for (int i = 0; i < sampleCount; i++) {
+                computeReadLikelihoods(pairHMM, result.sampleMatrix(i));
+            }
+        } else {
+            computeReadLikelihoodsConcurrently(result, haplotypeList, perSampleReadList);
         }
 
         result.normalizeLikelihoods(false, log10globalReadMismappingRate);
@@ -232,10 +313,11 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
      * After calling this routine the PairHMM will be configured to best evaluate all reads in the samples
      * against the set of haplotypes
      *
+     * @param pairHMM the PairHMM to initialize
      * @param haplotypes a non-null list of haplotypes
      * @param perSampleReadList a mapping from sample -> reads
      */
-    private void initializePairHMM(final List<Haplotype> haplotypes, final Map<String, List<GATKRead>> perSampleReadList) {
+    private static void initializePairHMM(final PairHMM pairHMM, final List<Haplotype> haplotypes, final Map<String, List<GATKRead>> perSampleReadList) {
         final int readMaxLength = perSampleReadList.entrySet().stream().flatMap(e -> e.getValue().stream()).mapToInt(read -> read.getLength()).max().orElse(0);
         final int haplotypeMaxLength = haplotypes.stream().mapToInt(h -> h.getBases().length).max().orElse(0);
 
@@ -243,7 +325,47 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         pairHMM.initialize(haplotypes, perSampleReadList, readMaxLength, haplotypeMaxLength);
     }
 
-    private void computeReadLikelihoods(final LikelihoodMatrix<Haplotype> likelihoods) {
+    /**
+     * Computes the likelihoods of the samples on several threads at once. Samples are dealt out in turn to the PairHMMs,
+     * and those of {@link #pairHMM} are computed on the calling thread while the others run on {@link #sampleExecutor}.
+     * Each sample matrix is written by a single thread, so the result is the same as computing them one after another.
+     */
+    private void computeReadLikelihoodsConcurrently(final ReadLikelihoods<Haplotype> result, final List<Haplotype> haplotypes,
+                                                    final Map<String, List<GATKRead>> perSampleReadList) {
+        final int sampleCount = result.numberOfSamples();
+        final int threadCount = Math.min(sampleCount, samplePairHMMs.size() + 1);
+        final List<Future<?>> futures = new ArrayList<>(threadCount - 1);
+        for (int t = 1; t < threadCount; t++) {
+            final PairHMM samplePairHMM = samplePairHMMs.get(t - 1);
+            // fetch the matrices here since ReadLikelihoods itself is not thread-safe
+            final List<LikelihoodMatrix<Haplotype>> matrices = new ArrayList<>();
+            for (int i = t; i < sampleCount; i += threadCount) {
+                matrices.add(result.sampleMatrix(i));
+            }
+            futures.add(sampleExecutor.submit(() -> {
+                initializePairHMM(samplePairHMM, haplotypes, perSampleReadList);
+                matrices.forEach(matrix -> computeReadLikelihoods(samplePairHMM, matrix));
+            }));
+        }
+        for (int i = 0; i < sampleCount; i += threadCount) {
+            computeReadLikelihoods(pairHMM, result.sampleMatrix(i));
+        }
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while computing read likelihoods", e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new GATKException("Read likelihood computation failed", e.getCause());
+            }
+        }
+    }
+
+    private void computeReadLikelihoods(final PairHMM pairHMM, final LikelihoodMatrix<Haplotype> likelihoods) {
         // Modify the read qualities by applying the PCR error model and capping the minimum base,insertion,deletion qualities
         final List<GATKRead> processedReads = modifyReadQualities(likelihoods.reads());
 
@@ -310,12 +432,15 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
         final List<GATKRead> reads = likelihoods.reads();
         final List<Haplotype> haplotypes = likelihoods.alleles();
-        for (int i = 0; i < reads.size(); i++) {
-            for (int j = 0; j < haplotypes.size(); j++) {
-                writeDebugLikelihoods(reads.get(i), haplotypes.get(j), likelihoods.get(j, i));
+        // samples may be computed on several threads; keep the lines of each sample together
+        synchronized (likelihoodsStream) {
+            for (int i = 0; i < reads.size(); i++) {
+                for (int j = 0; j < haplotypes.size(); j++) {
+                    writeDebugLikelihoods(reads.get(i), haplotypes.get(j), likelihoods.get(j, i));
+                }
             }
+            likelihoodsStream.flush();
         }
-        likelihoodsStream.flush();
     }
 
     private void writeDebugLikelihoods(final GATKRead processedRead, final Haplotype haplotype, final double log10l){
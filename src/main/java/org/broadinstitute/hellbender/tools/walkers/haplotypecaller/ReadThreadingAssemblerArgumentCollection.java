@@ -111,6 +111,17 @@ public final class ReadThreadingAssemblerArgumentCollection implements Serializa
     @Argument(fullName="minPruning", shortName="minPruning", doc = "Minimum support to not prune paths in the graph", optional = true)
     public int minPruneFactor = 2;
 
+    /**
+     * Keeps the most recent haplotype to reference alignments, so that a haplotype assembled again against the same
+     * padded reference window doesn't have its Smith-Waterman alignment redone; the cache is emptied whenever the
+     * assembler moves to another contig. Since the padded reference window usually differs from one active region to
+     * the next, hits are rare and the cache is off (0) by default. Its hit rate is logged at the end of the run, so
+     * measure it on your data before turning it on.
+     */
+    @Advanced
+    @Argument(fullName="haplotypeCigarCacheSize", shortName="haplotypeCigarCacheSize", doc = "Number of haplotype to reference alignments kept for reuse across regions", optional = true)
+    public int haplotypeCigarCacheSize = 0;
+
     @Hidden
     @Argument(fullName="debugGraphTransformations", shortName="debugGraphTransformations", doc="Write DOT formatted graph files out of the assembler for only this graph size", optional = true)
     public boolean debugGraphTransformations = false;
@@ -7,6 +7,7 @@ import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.variant.variantcontext.*;
+import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFHeaderLine;
 import htsjdk.variant.vcf.VCFSimpleHeaderLine;
 import org.broadinstitute.hellbender.engine.AlignmentContext;
@@ -24,10 +25,13 @@ import org.broadinstitute.hellbender.utils.pileup.PileupElement;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.writers.ReferenceConfidenceBlock;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Code for estimating the reference confidence
@@ -41,6 +45,12 @@ public final class ReferenceConfidenceModel {
     private final SampleList samples;
     private final int indelInformativeDepthIndelSize;
 
+    /**
+     * Lower bounds (inclusive) of the GVCF GQ bands but the first one (which starts at 0), in increasing order;
+     * {@code null} to emit a variant context per reference confidence site rather than per block.
+     */
+    private final int[] gqBandLowerBounds;
+
     /**
      * Surrogate quality score for no base calls.
      * <p>
@@ -89,6 +99,11 @@ public final class ReferenceConfidenceModel {
     private static final double INDEL_LIKELIHOOD = QualityUtils.qualToErrorProbLog10(INDEL_QUAL);
     private static final int IDX_HOM_REF = 0;
 
+    /**
+     * Source of the reference confidence variant contexts.
+     */
+    private static final String REFERENCE_CONFIDENCE_SOURCE = "HC";
+
     /**
      * Create a new ReferenceConfidenceModel
      *
@@ -99,6 +114,29 @@ public final class ReferenceConfidenceModel {
     public ReferenceConfidenceModel(final SampleList samples,
                                     final SAMFileHeader header,
                                     final int indelInformativeDepthIndelSize) {
+        this(samples, header, indelInformativeDepthIndelSize, null);
+    }
+
+    /**
+     * Create a new ReferenceConfidenceModel that merges contiguous reference confidence sites into
+     * {@link ReferenceConfidenceBlock}s, one per GQ band, as long as they are not interrupted by a variant call.
+     *
+     * <p>
+     *     These blocks are meant to be added to a {@link org.broadinstitute.hellbender.utils.variant.writers.GVCFWriter}
+     *     with the same GQ bands, which can then merge each of them as a whole.  They are computed straight from the
+     *     reads, without the pileups and variant contexts of each site.
+     * </p>
+     *
+     * @param samples the list of all samples we'll be considering with this model
+     * @param header the SAMFileHeader describing the read information (used for debugging)
+     * @param indelInformativeDepthIndelSize the max size of indels to consider when calculating indel informative depths
+     * @param gvcfGQBands the boundaries of the GVCF GQ bands as given to the GVCF writer, or {@code null} to emit a
+     *                    variant context per site
+     */
+    public ReferenceConfidenceModel(final SampleList samples,
+                                    final SAMFileHeader header,
+                                    final int indelInformativeDepthIndelSize,
+                                    final List<Integer> gvcfGQBands) {
         Utils.nonNull(samples, "samples cannot be null");
         Utils.validateArg( samples.numberOfSamples() > 0, "samples cannot be empty");
         Utils.nonNull(header, "header cannot be empty");
@@ -107,6 +145,12 @@ public final class ReferenceConfidenceModel {
 
         this.samples = samples;
         this.indelInformativeDepthIndelSize = indelInformativeDepthIndelSize;
+        if (gvcfGQBands == null) {
+            gqBandLowerBounds = null;
+        } else {
+            Utils.containsNoNull(gvcfGQBands, "the GQ bands cannot contain nulls");
+            gqBandLowerBounds = gvcfGQBands.stream().mapToInt(Integer::intValue).toArray();
+        }
     }
 
     /**
@@ -139,6 +183,7 @@ public final class ReferenceConfidenceModel {
      *                     under any position it covers (for snps and insertions that is 1 bp, but for deletions its the entire ref span)
      * @return an ordered list of variant contexts that spans activeRegion.getLoc() and includes both reference confidence
      *         contexts as well as calls from variantCalls if any were provided
+     * @throws IllegalStateException if this model was created with GQ bands, and so emits reference confidence blocks.
      */
     public List<VariantContext> calculateRefConfidence(final Haplotype refHaplotype,
                                                        final Collection<Haplotype> calledHaplotypes,
@@ -147,15 +192,8 @@ public final class ReferenceConfidenceModel {
                                                        final ReadLikelihoods<Haplotype> readLikelihoods,
                                                        final PloidyModel ploidyModel,
                                                        final List<VariantContext> variantCalls) {
-        Utils.nonNull(refHaplotype, "refHaplotype cannot be null");
-        Utils.nonNull(calledHaplotypes, "calledHaplotypes cannot be null");
-        Utils.validateArg(calledHaplotypes.contains(refHaplotype), "calledHaplotypes must contain the refHaplotype");
-        Utils.nonNull(paddedReferenceLoc, "paddedReferenceLoc cannot be null");
-        Utils.nonNull(activeRegion, "activeRegion cannot be null");
-        Utils.nonNull(readLikelihoods, "readLikelihoods cannot be null");
-        Utils.validateArg(readLikelihoods.numberOfSamples() == 1, () -> "readLikelihoods must contain exactly one sample but it contained " + readLikelihoods.numberOfSamples());
-        Utils.validateArg( refHaplotype.length() == activeRegion.getExtendedSpan().size(), () -> "refHaplotype " + refHaplotype.length() + " and activeRegion location size " + activeRegion.getSpan().size() + " are different");
-        Utils.nonNull(ploidyModel, "the ploidy model cannot be null");
+        Utils.validate(gqBandLowerBounds == null, "this model emits reference confidence blocks rather than a variant context per site");
+        validateRefConfidenceArgs(refHaplotype, calledHaplotypes, paddedReferenceLoc, activeRegion, readLikelihoods, ploidyModel);
         final int ploidy = ploidyModel.samplePloidy(0); // the first sample = the only sample in reference-confidence mode.
 
         final SimpleInterval refSpan = activeRegion.getSpan();
@@ -181,6 +219,251 @@ public final class ReferenceConfidenceModel {
         return results;
     }
 
+    /**
+     * Calculate the reference confidence for a single sample given the its read data, passing the variant calls and
+     * reference confidence to consumers in order by genomic position.
+     *
+     * If this model was created with GQ bands, contiguous positions in the same band are merged into
+     * {@link ReferenceConfidenceBlock}s, whose GQs and PLs are computed from per-site sums of the genotype likelihoods
+     * that are accumulated straight from the reads' alignments, without building a pileup for each site.  Otherwise
+     * this emits the same variant contexts as {@link #calculateRefConfidence(Haplotype, Collection, SimpleInterval, AssemblyRegion, ReadLikelihoods, PloidyModel, List)}.
+     *
+     * @param variantContextConsumer receives the variant calls and, if this model emits no blocks, the reference
+     *                               confidence variant contexts.
+     * @param blockConsumer receives the reference confidence blocks, if this model emits them.
+     * @see #calculateRefConfidence(Haplotype, Collection, SimpleInterval, AssemblyRegion, ReadLikelihoods, PloidyModel, List)
+     *      for the other parameters.
+     */
+    public void calculateRefConfidence(final Haplotype refHaplotype,
+                                       final Collection<Haplotype> calledHaplotypes,
+                                       final SimpleInterval paddedReferenceLoc,
+                                       final AssemblyRegion activeRegion,
+                                       final ReadLikelihoods<Haplotype> readLikelihoods,
+                                       final PloidyModel ploidyModel,
+                                       final List<VariantContext> variantCalls,
+                                       final Consumer<VariantContext> variantContextConsumer,
+                                       final Consumer<ReferenceConfidenceBlock> blockConsumer) {
+        Utils.nonNull(variantContextConsumer, "variantContextConsumer cannot be null");
+        Utils.nonNull(blockConsumer, "blockConsumer cannot be null");
+        if ( gqBandLowerBounds == null ) {
+            calculateRefConfidence(refHaplotype, calledHaplotypes, paddedReferenceLoc, activeRegion, readLikelihoods, ploidyModel, variantCalls)
+                    .forEach(variantContextConsumer);
+            return;
+        }
+        validateRefConfidenceArgs(refHaplotype, calledHaplotypes, paddedReferenceLoc, activeRegion, readLikelihoods, ploidyModel);
+        final int ploidy = ploidyModel.samplePloidy(0); // the first sample = the only sample in reference-confidence mode.
+
+        final SimpleInterval refSpan = activeRegion.getSpan();
+        final byte[] ref = refHaplotype.getBases();
+        final String sampleName = readLikelihoods.getSample(0);
+        final int globalRefOffset = refSpan.getStart() - activeRegion.getExtendedSpan().getStart();
+
+        final SiteSums siteSums = new SiteSums(refSpan, ploidy);
+        for ( final GATKRead read : activeRegion.getReads() ) {
+            addToSiteSums(siteSums, read, ref, globalRefOffset);
+        }
+
+        final int likelihoodCount = ploidy + 1;
+        final double log10Ploidy = MathUtils.log10(ploidy);
+        final double[] siteLikelihoods = new double[likelihoodCount];
+        ReferenceConfidenceBlock.Builder block = null;
+        int blockBand = -1;
+        for ( int site = 0; site < siteSums.size; site++ ) {
+            final int pos = refSpan.getStart() + site;
+
+            final VariantContext overlappingSite = variantCalls.isEmpty() ? null
+                    : getOverlappingVariantContext(new SimpleInterval(refSpan.getContig(), pos, pos), variantCalls);
+            if ( overlappingSite != null && overlappingSite.getStart() == pos ) {
+                if ( block != null ) {
+                    blockConsumer.accept(block.make());
+                    block = null;
+                }
+                variantContextConsumer.accept(overlappingSite);
+                continue;
+            }
+
+            // the same likelihoods as calcGenotypeLikelihoodsOfRefVsAny would get out of the site's pileup, capped by the hom-ref one
+            final int depth = siteSums.depths[site];
+            final double denominator = depth * log10Ploidy;
+            for ( int i = 0; i < likelihoodCount; i++ ) {
+                siteLikelihoods[i] = siteSums.likelihoods[site * likelihoodCount + i] + -denominator;
+            }
+            for ( int i = 0; i < likelihoodCount; i++ ) {
+                siteLikelihoods[i] = Math.min(siteLikelihoods[i], siteLikelihoods[IDX_HOM_REF]);
+            }
+            final int nIndelInformativeReads = Math.min(siteSums.nIndelInformativeReads[site], MAX_N_INDEL_INFORMATIVE_READS);
+            final int[] pls = calcLeastConfidencePLs(ploidy, siteLikelihoods, nIndelInformativeReads);
+            final int gq = GATKVariantContextUtils.calculateGQFromPLs(pls);
+
+            // add the site to the current block, if it falls in the same GQ band.
+            final int band = gqBand(gq);
+            if ( block == null || band != blockBand ) {
+                if ( block != null ) {
+                    blockConsumer.accept(block.make());
+                }
+                block = new ReferenceConfidenceBlock.Builder(REFERENCE_CONFIDENCE_SOURCE, refSpan.getContig(), pos, sampleName, ploidy);
+                blockBand = band;
+            }
+            block.add(ref[site + globalRefOffset], gq, depth, pls);
+        }
+        if ( block != null ) {
+            blockConsumer.accept(block.make());
+        }
+    }
+
+    private static void validateRefConfidenceArgs(final Haplotype refHaplotype,
+                                                  final Collection<Haplotype> calledHaplotypes,
+                                                  final SimpleInterval paddedReferenceLoc,
+                                                  final AssemblyRegion activeRegion,
+                                                  final ReadLikelihoods<Haplotype> readLikelihoods,
+                                                  final PloidyModel ploidyModel) {
+        Utils.nonNull(refHaplotype, "refHaplotype cannot be null");
+        Utils.nonNull(calledHaplotypes, "calledHaplotypes cannot be null");
+        Utils.validateArg(calledHaplotypes.contains(refHaplotype), "calledHaplotypes must contain the refHaplotype");
+        Utils.nonNull(paddedReferenceLoc, "paddedReferenceLoc cannot be null");
+        Utils.nonNull(activeRegion, "activeRegion cannot be null");
+        Utils.nonNull(readLikelihoods, "readLikelihoods cannot be null");
+        Utils.validateArg(readLikelihoods.numberOfSamples() == 1, () -> "readLikelihoods must contain exactly one sample but it contained " + readLikelihoods.numberOfSamples());
+        Utils.validateArg( refHaplotype.length() == activeRegion.getExtendedSpan().size(), () -> "refHaplotype " + refHaplotype.length() + " and activeRegion location size " + activeRegion.getSpan().size() + " are different");
+        Utils.nonNull(ploidyModel, "the ploidy model cannot be null");
+    }
+
+    /**
+     * Per-site sums over a span of the reference of what each pileup element adds to the results of
+     * {@link #calcGenotypeLikelihoodsOfRefVsAny} (with the {@link #BASE_QUAL_THRESHOLD}) and
+     * {@link #calcNIndelInformativeReads}, so that they can be had without building the pileups.
+     */
+    private static final class SiteSums {
+        private final SimpleInterval span;
+        private final int size;
+        private final int likelihoodCount;
+        private final double log10Ploidy;
+
+        /**
+         * Sums of the genotype likelihoods, before the normalization by the depth; {@link #likelihoodCount} per site.
+         */
+        private final double[] likelihoods;
+        private final int[] depths;
+
+        /**
+         * Counts of the indel-informative reads, which stop being incremented past {@link #MAX_N_INDEL_INFORMATIVE_READS}.
+         */
+        private final int[] nIndelInformativeReads;
+
+        private SiteSums(final SimpleInterval span, final int ploidy) {
+            this.span = span;
+            size = span.size();
+            likelihoodCount = ploidy + 1;
+            log10Ploidy = MathUtils.log10(ploidy);
+            likelihoods = new double[size * likelihoodCount];
+            depths = new int[size];
+            nIndelInformativeReads = new int[size];
+        }
+    }
+
+    /**
+     * Adds the elements of a read that {@link LocusIteratorByState} would put in the pileups over the span of
+     * {@code siteSums} (bases and deletions alike) to the sums.
+     *
+     * @param ref the reference bases, from which the span starts at {@code globalRefOffset}.
+     */
+    private void addToSiteSums(final SiteSums siteSums, final GATKRead read, final byte[] ref, final int globalRefOffset) {
+        final int spanStart = siteSums.span.getStart();
+        final int spanEnd = siteSums.span.getEnd();
+        final List<CigarElement> elements = read.getCigarElements();
+        final int nElements = elements.size();
+        int refPos = read.getStart();
+        int readOffset = 0;
+        for ( int elementIndex = 0; elementIndex < nElements && refPos <= spanEnd; elementIndex++ ) {
+            final CigarElement element = elements.get(elementIndex);
+            final CigarOperator op = element.getOperator();
+            final int length = element.getLength();
+            switch ( op ) {
+                case M:
+                case EQ:
+                case X:
+                case D:
+                    final boolean isDeletion = op == CigarOperator.D;
+                    final int last = Math.min(length, spanEnd - refPos + 1);
+                    for ( int i = Math.max(0, spanStart - refPos); i < last; i++ ) {
+                        final int pos = refPos + i;
+                        if ( ReadUtils.isBaseInsideAdaptor(read, pos) ) {
+                            continue;
+                        }
+                        final int site = pos - spanStart;
+                        final int refOffset = site + globalRefOffset;
+                        // a deletion is at the last read base before it, just like its pileup element
+                        final int offset = isDeletion ? readOffset - 1 : readOffset + i;
+                        final boolean atStart = i == 0;
+                        final boolean atEnd = i == length - 1;
+                        // the same as the corresponding PileupElement tests
+                        final boolean isBeforeDeletionStart = !isDeletion && atEnd && nearestOnGenomeOperator(elements, elementIndex, 1) == CigarOperator.D;
+                        final boolean isAfterDeletionEnd = !isDeletion && atStart && nearestOnGenomeOperator(elements, elementIndex, -1) == CigarOperator.D;
+                        final CigarOperator previousOp = elementIndex > 0 ? elements.get(elementIndex - 1).getOperator() : null;
+                        final CigarOperator nextOp = elementIndex + 1 < nElements ? elements.get(elementIndex + 1).getOperator() : null;
+                        final boolean isBeforeInsertion = atEnd && nextOp == CigarOperator.I;
+                        final boolean isAfterInsertion = atStart && previousOp == CigarOperator.I;
+                        final boolean isNextToSoftClip = (atStart && previousOp == CigarOperator.S) || (atEnd && nextOp == CigarOperator.S);
+
+                        final byte qual = isDeletion ? REF_MODEL_DELETION_QUAL : read.getBaseQuality(offset);
+                        if ( isDeletion || qual > BASE_QUAL_THRESHOLD ) {
+                            final boolean isAlt = isDeletion || read.getBase(offset) != ref[refOffset] || isBeforeDeletionStart
+                                    || isAfterDeletionEnd || isBeforeInsertion || isAfterInsertion || isNextToSoftClip;
+                            siteSums.depths[site]++;
+                            addRefVsNonRefLikelihoods(isAlt, qual, siteSums.likelihoodCount, siteSums.log10Ploidy,
+                                    siteSums.likelihoods, site * siteSums.likelihoodCount);
+                        }
+                        if ( !(isBeforeDeletionStart || isBeforeInsertion || isDeletion)
+                                && siteSums.nIndelInformativeReads[site] <= MAX_N_INDEL_INFORMATIVE_READS
+                                && isReadInformativeAboutIndelsOfSize(read, offset, ref, refOffset, indelInformativeDepthIndelSize) ) {
+                            siteSums.nIndelInformativeReads[site]++;
+                        }
+                    }
+                    refPos += length;
+                    if ( !isDeletion ) {
+                        readOffset += length;
+                    }
+                    break;
+                case N:
+                    refPos += length;
+                    break;
+                case I:
+                case S:
+                    readOffset += length;
+                    break;
+                default:
+                    // hard clips and pads take up neither read bases nor reference
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the operator of the nearest cigar element that takes up the reference (N aside) before ({@code step} -1)
+     *         or after ({@code step} 1) the given one, or {@code null} if there's none.
+     */
+    private static CigarOperator nearestOnGenomeOperator(final List<CigarElement> elements, final int elementIndex, final int step) {
+        for ( int i = elementIndex + step; i >= 0 && i < elements.size(); i += step ) {
+            final CigarOperator op = elements.get(i).getOperator();
+            if ( op == CigarOperator.M || op == CigarOperator.EQ || op == CigarOperator.X || op == CigarOperator.D ) {
+                return op;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the index of the GQ band that the given GQ falls in, treating GQs > 99 as 99.
+     */
+    private int gqBand(final int gq) {
+        final int cappedGQ = Math.min(gq, VCFConstants.MAX_GENOTYPE_QUAL);
+        int band = 0;
+        while ( band < gqBandLowerBounds.length && gqBandLowerBounds[band] <= cappedGQ ) {
+            band++;
+        }
+        return band;
+    }
+
     private VariantContext makeReferenceConfidenceVariantContext(final int ploidy,
                                                                  final byte[] ref,
                                                                  final String sampleName,
@@ -195,14 +478,30 @@ public final class ReferenceConfidenceModel {
 
         final Allele refAllele = Allele.create(refBase, true);
         final List<Allele> refSiteAlleles = Arrays.asList(refAllele, GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE);
-        final VariantContextBuilder vcb = new VariantContextBuilder("HC", curPos.getContig(), curPos.getStart(), curPos.getStart(), refSiteAlleles);
+        final VariantContextBuilder vcb = new VariantContextBuilder(REFERENCE_CONFIDENCE_SOURCE, curPos.getContig(), curPos.getStart(), curPos.getStart(), refSiteAlleles);
         final GenotypeBuilder gb = new GenotypeBuilder(sampleName, GATKVariantContextUtils.homozygousAlleleList(refAllele, ploidy));
         gb.AD(homRefCalc.getAD());
         gb.DP(homRefCalc.getDP());
 
-        // genotype likelihood calculation
-        final GenotypeLikelihoods snpGLs = GenotypeLikelihoods.fromLog10Likelihoods(homRefCalc.getGenotypeLikelihoodsCappedByHomRefLikelihood());
         final int nIndelInformativeReads = calcNIndelInformativeReads(pileup, refOffset, ref, indelInformativeDepthIndelSize);
+        final int[] leastConfidenceGLsAsPLs = calcLeastConfidencePLs(ploidy, homRefCalc.getGenotypeLikelihoodsCappedByHomRefLikelihood(), nIndelInformativeReads);
+        gb.GQ(GATKVariantContextUtils.calculateGQFromPLs(leastConfidenceGLsAsPLs));
+        gb.PL(leastConfidenceGLsAsPLs);
+
+        vcb.genotypes(gb.make());
+        return vcb.make();
+    }
+
+    /**
+     * Calculates the PLs of the hom-ref call at a site out of the SNP and indel models.
+     *
+     * @param snpLikelihoods the ref-vs-any genotype likelihoods of the site, capped by the hom-ref one.
+     * @param nIndelInformativeReads the number of reads at the site that are informative about indels.
+     * @return never {@code null}.
+     */
+    private int[] calcLeastConfidencePLs(final int ploidy, final double[] snpLikelihoods, final int nIndelInformativeReads) {
+        // genotype likelihood calculation
+        final GenotypeLikelihoods snpGLs = GenotypeLikelihoods.fromLog10Likelihoods(snpLikelihoods);
         final GenotypeLikelihoods indelGLs = getIndelPLs(ploidy,nIndelInformativeReads);
 
         // now that we have the SNP and indel GLs, we take the one with the least confidence,
@@ -212,13 +511,7 @@ public final class ReferenceConfidenceModel {
         // far less confident that the ref base is actually the only thing here.  So we take 0,10,100
         // as our GLs for the site.
         final GenotypeLikelihoods leastConfidenceGLs = getGLwithWorstGQ(indelGLs, snpGLs);
-
-        final int[] leastConfidenceGLsAsPLs = leastConfidenceGLs.getAsPLs();
-        gb.GQ(GATKVariantContextUtils.calculateGQFromPLs(leastConfidenceGLsAsPLs));
-        gb.PL(leastConfidenceGLsAsPLs);
-
-        vcb.genotypes(gb.make());
-        return vcb.make();
+        return leastConfidenceGLs.getAsPLs();
     }
 
     /**
@@ -324,29 +617,41 @@ public final class ReferenceConfidenceModel {
     private void applyPileupElementRefVsNonRefLikelihoodAndCount(final byte refBase, final int likelihoodCount, final double log10Ploidy, final RefVsAnyResult result, final PileupElement element, final byte qual, final MathUtils.RunningAverage hqSoftClips) {
         final boolean isAlt = element.getBase() != refBase || element.isDeletion() || element.isBeforeDeletionStart()
                 || element.isAfterDeletionEnd() || element.isBeforeInsertion() || element.isAfterInsertion() || element.isNextToSoftClip();
+        if (isAlt) {
+            result.incrementNonRefAD(1);
+        } else {
+            result.incrementRefAD(1);
+        }
+        addRefVsNonRefLikelihoods(isAlt, qual, likelihoodCount, log10Ploidy, result.getGenotypeLikelihoods(), 0);
+        if (isAlt && hqSoftClips != null && element.isNextToSoftClip()) {
+            hqSoftClips.add(AlignmentUtils.calcNumHighQualitySoftClips(element.getRead(), HQ_BASE_QUALITY_SOFTCLIP_THRESHOLD));
+        }
+    }
+
+    /**
+     * Adds the log10 likelihoods of each genotype given a single base (or deletion) to {@code likelihoods}, starting at
+     * {@code offset}.
+     */
+    private static void addRefVsNonRefLikelihoods(final boolean isAlt, final byte qual, final int likelihoodCount, final double log10Ploidy,
+                                                  final double[] likelihoods, final int offset) {
         final double referenceLikelihood;
         final double nonRefLikelihood;
         if (isAlt) {
             nonRefLikelihood = QualityUtils.qualToProbLog10(qual);
             referenceLikelihood = QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD;
-            result.incrementNonRefAD(1);
         } else {
             referenceLikelihood = QualityUtils.qualToProbLog10(qual);
             nonRefLikelihood = QualityUtils.qualToErrorProbLog10(qual) + MathUtils.LOG10_ONE_THIRD;
-            result.incrementRefAD(1);
         }
         // Homozygous likelihoods don't need the logSum trick.
-        result.addGenotypeLikelihood(0, referenceLikelihood + log10Ploidy);
-        result.addGenotypeLikelihood(likelihoodCount - 1, nonRefLikelihood + log10Ploidy);
+        likelihoods[offset] += referenceLikelihood + log10Ploidy;
+        likelihoods[offset + likelihoodCount - 1] += nonRefLikelihood + log10Ploidy;
         // Heterozygous likelihoods need the logSum trick:
         for (int i = 1, j = likelihoodCount - 2; i < likelihoodCount - 1; i++, j--) {
-            result.addGenotypeLikelihood(i,
+            likelihoods[offset + i] +=
                     MathUtils.approximateLog10SumLog10(
                             referenceLikelihood + MathUtils.log10(j),
-                            nonRefLikelihood + MathUtils.log10(i)));
-        }
-        if (isAlt && hqSoftClips != null && element.isNextToSoftClip()) {
-            hqSoftClips.add(AlignmentUtils.calcNumHighQualitySoftClips(element.getRead(), HQ_BASE_QUALITY_SOFTCLIP_THRESHOLD));
+                            nonRefLikelihood + MathUtils.log10(i));
         }
     }
 
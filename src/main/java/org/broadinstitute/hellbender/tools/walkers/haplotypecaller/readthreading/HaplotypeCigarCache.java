@@ -0,0 +1,122 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.Cigar;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.CigarUtils;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of the alignments (as computed by {@link CigarUtils#calculateCigar}) of assembled
+ * haplotypes against the reference haplotype of their region.
+ *
+ * <p>
+ *     Entries are keyed by the bases of the reference and of the haplotype, so a hit returns exactly what the aligner
+ *     would have returned, but only a haplotype assembled again against the very same padded reference window hits.
+ *     Since that window usually differs from one active region to the next, the cache is disabled by default; its
+ *     hit and miss counts tell whether it pays for its lookups on given data. The cache only holds alignments from the current contig and is emptied when the
+ *     assembler moves to another one.
+ * </p>
+ *
+ * <p>
+ *     This class is not thread-safe; like the assembler that owns it, each thread needs its own.
+ * </p>
+ */
+public final class HaplotypeCigarCache {
+
+    private final int maxSize;
+    private final Map<Key, Cigar> cigars;
+    private String contig;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxSize the maximum number of alignments kept; 0 disables the cache.
+     */
+    public HaplotypeCigarCache(final int maxSize) {
+        Utils.validateArg(maxSize >= 0, () -> "the cache size cannot be negative but was " + maxSize);
+        this.maxSize = maxSize;
+        this.cigars = new LinkedHashMap<Key, Cigar>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Cigar> eldest) {
+                return size() > HaplotypeCigarCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the alignment of a haplotype against the reference, computing it only if it is not cached.
+     *
+     * @param contig the contig of the reference bases.
+     * @param refBases the reference bases the haplotype is aligned to.
+     * @param haplotypeBases the bases of the haplotype.
+     * @param aligner the aligner used on a cache miss.
+     * @return a new Cigar owned by the caller, or {@code null} if no reasonable alignment could be found.
+     */
+    public Cigar getCigar(final String contig, final byte[] refBases, final byte[] haplotypeBases, final SmithWatermanAligner aligner) {
+        Utils.nonNull(contig);
+        if (maxSize == 0) {
+            return CigarUtils.calculateCigar(refBases, haplotypeBases, aligner);
+        }
+        if (!contig.equals(this.contig)) {
+            cigars.clear();
+            this.contig = contig;
+        }
+
+        final Key key = new Key(refBases, haplotypeBases);
+        final Cigar cigar;
+        if (cigars.containsKey(key)) {
+            hits++;
+            cigar = cigars.get(key);
+        } else {
+            misses++;
+            cigar = CigarUtils.calculateCigar(refBases, haplotypeBases, aligner);
+            // the key must not change under us, and the caller may modify the returned cigar
+            cigars.put(new Key(refBases.clone(), haplotypeBases.clone()), cigar == null ? null : new Cigar(cigar.getCigarElements()));
+        }
+        return cigar == null ? null : new Cigar(cigar.getCigarElements());
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    private static final class Key {
+        private final byte[] refBases;
+        private final byte[] haplotypeBases;
+        private final int hashCode;
+
+        private Key(final byte[] refBases, final byte[] haplotypeBases) {
+            this.refBases = Utils.nonNull(refBases);
+            this.haplotypeBases = Utils.nonNull(haplotypeBases);
+            this.hashCode = 31 * Arrays.hashCode(refBases) + Arrays.hashCode(haplotypeBases);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return hashCode == other.hashCode && Arrays.equals(haplotypeBases, other.haplotypeBases) && Arrays.equals(refBases, other.refBases);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
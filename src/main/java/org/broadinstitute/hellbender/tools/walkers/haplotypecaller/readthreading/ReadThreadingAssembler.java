@@ -18,7 +18,6 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
-import org.broadinstitute.hellbender.utils.read.CigarUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
@@ -68,6 +67,8 @@ public final class ReadThreadingAssembler {
     private File debugGraphOutputPath = null;  //Where to write debug graphs, if unset it defaults to the current working dir
     private File graphOutputPath = null;
 
+    private HaplotypeCigarCache haplotypeCigarCache = new HaplotypeCigarCache(0);
+
     public ReadThreadingAssembler(final int maxAllowedPathsForReadThreadingAssembler, final List<Integer> kmerSizes, final boolean dontIncreaseKmerSizesForCycles, final boolean allowNonUniqueKmersInRef, final int numPruningSamples) {
         Utils.validateArg( maxAllowedPathsForReadThreadingAssembler >= 1, "numBestHaplotypesPerGraph should be >= 1 but got " + maxAllowedPathsForReadThreadingAssembler);
         this.kmerSizes = kmerSizes;
@@ -211,7 +212,7 @@ public final class ReadThreadingAssembler {
                 final KBestHaplotype kBestHaplotype = bestHaplotypes.next();
                 final Haplotype h = kBestHaplotype.haplotype();
                 if( !returnHaplotypes.contains(h) ) {
-                    final Cigar cigar = CigarUtils.calculateCigar(refHaplotype.getBases(), h.getBases(), aligner);
+                    final Cigar cigar = haplotypeCigarCache.getCigar(refLoc.getContig(), refHaplotype.getBases(), h.getBases(), aligner);
 
                     if ( cigar == null ) {
                         failedCigars++; // couldn't produce a meaningful alignment of haplotype to reference, fail quietly
@@ -635,4 +636,23 @@ public final class ReadThreadingAssembler {
     public void setRemovePathsNotConnectedToRef(final boolean removePathsNotConnectedToRef) {
         this.removePathsNotConnectedToRef = removePathsNotConnectedToRef;
     }
+
+    /**
+     * Logs the hit rate of the haplotype to reference alignment cache, if it was used.
+     */
+    public void logHaplotypeCigarCacheUsage() {
+        final long lookups = haplotypeCigarCache.getHits() + haplotypeCigarCache.getMisses();
+        if ( lookups > 0 ) {
+            logger.info(String.format("Haplotype alignment cache: %d hits out of %d lookups (%.1f%%)",
+                    haplotypeCigarCache.getHits(), lookups, 100.0 * haplotypeCigarCache.getHits() / lookups));
+        }
+    }
+
+    /**
+     * Sets how many haplotype to reference alignments are kept for reuse by later regions on the same contig;
+     * 0, the default, disables the cache.
+     */
+    public void setHaplotypeCigarCacheSize(final int haplotypeCigarCacheSize) {
+        this.haplotypeCigarCache = new HaplotypeCigarCache(haplotypeCigarCacheSize);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.mutect;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -7,18 +8,21 @@ import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.BetaFeature;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.VariantProgramGroup;
 import org.broadinstitute.hellbender.engine.*;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Call somatic short variants, both SNVs and indels, via local assembly of haplotypes
@@ -170,6 +174,14 @@ import java.util.List;
  *   -O normal1_for_pon.vcf.gz
  * </pre>
  *
+ * <h3>Multi-threading</h3>
+ * <p>
+ *     With --regionThreads greater than 1, active regions are assembled, genotyped and annotated on a pool of worker
+ *     threads while the traversal goes on, and their calls are written in their original order. With a matched normal,
+ *     --sample_likelihood_threads 2 additionally computes the tumor and normal read likelihoods of each region at the
+ *     same time. In both cases the output is identical to that of a single-threaded run.
+ * </p>
+ *
  * <h3>Caveats</h3>
  * <p>
  *     Although GATK4 Mutect2 is optimized to accomodate varying coverage depths, further optimization of parameters
@@ -185,16 +197,32 @@ import java.util.List;
 @BetaFeature
 public final class Mutect2 extends AssemblyRegionWalker {
 
+    public static final String REGION_THREADS_FULL_NAME = "regionThreads";
+
     @ArgumentCollection
     protected M2ArgumentCollection MTAC = new M2ArgumentCollection();
 
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, doc = "File to which variants should be written")
     public File outputVCF;
 
+    /**
+     * With more than one thread, active regions are called on a pool of worker threads, each with its own assembler,
+     * PairHMM and genotyping engine, and their calls are written out in their original order.
+     */
+    @Argument(fullName = REGION_THREADS_FULL_NAME, doc = "Number of threads used to call active regions", optional = true)
+    public int regionThreads = 1;
+
     private VariantContextWriter vcfWriter;
 
+    // determines the active regions, and calls them unless there is more than one region thread
     private Mutect2Engine m2Engine;
 
+    // used instead of m2Engine to call regions with more than one region thread; idle engines wait in the queue
+    private final List<Mutect2Engine> workerEngines = new ArrayList<>();
+    private BlockingQueue<Mutect2Engine> idleWorkerEngines;
+    private ExecutorService regionExecutor;
+    private final Deque<Future<List<VariantContext>>> pendingRegions = new ArrayDeque<>();
+
     @Override
     protected int defaultReadShardSize() { return NO_INTERVAL_SHARDING; }
 
@@ -229,7 +257,23 @@ public final class Mutect2 extends AssemblyRegionWalker {
 
     @Override
     public void onTraversalStart() {
+        if ( regionThreads < 1 ) {
+            throw new CommandLineException.BadArgumentValue(REGION_THREADS_FULL_NAME, "must be at least 1 but was " + regionThreads);
+        }
+        if ( regionThreads > 1 && MTAC.bamOutputPath != null ) {
+            throw new CommandLineException.BadArgumentValue(REGION_THREADS_FULL_NAME, "bamout is not supported with more than one region thread");
+        }
         m2Engine = new Mutect2Engine(MTAC, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceFileName());
+        if ( regionThreads > 1 ) {
+            for ( int i = 0; i < regionThreads; i++ ) {
+                workerEngines.add(new Mutect2Engine(MTAC, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceFileName()));
+            }
+            idleWorkerEngines = new ArrayBlockingQueue<>(regionThreads, false, workerEngines);
+            regionExecutor = Executors.newFixedThreadPool(regionThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("region-calling-thread-%d")
+                    .setDaemon(true)
+                    .build());
+        }
         final SAMSequenceDictionary sequenceDictionary = getHeaderForReads().getSequenceDictionary();
         vcfWriter = createVCFWriter(outputVCF);
         m2Engine.writeHeader(vcfWriter, sequenceDictionary, getDefaultToolVCFHeaderLines());
@@ -237,16 +281,68 @@ public final class Mutect2 extends AssemblyRegionWalker {
 
     @Override
     public Object onTraversalSuccess() {
+        while ( !pendingRegions.isEmpty() ) {
+            writeCalls(pendingRegions.poll());
+        }
         return "SUCCESS";
     }
 
     @Override
     public void apply(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
-        m2Engine.callRegion(region, referenceContext, featureContext).forEach(vcfWriter::add);
+        if ( regionExecutor == null ) {
+            m2Engine.callRegion(region, referenceContext, featureContext).forEach(vcfWriter::add);
+            return;
+        }
+
+        // the reference and feature sources can only be queried from this thread, so hand the workers a snapshot
+        final ReferenceBases bases = new ReferenceBases(referenceContext.getBases(), referenceContext.getWindow());
+        final ReferenceContext referenceSnapshot = new ReferenceContext(new ReferenceMemorySource(bases, getReferenceDictionary()),
+                referenceContext.getInterval(), referenceContext.getWindow());
+        final List<FeatureInput<VariantContext>> featureInputs = new ArrayList<>(MTAC.comps);
+        featureInputs.addAll(Arrays.asList(MTAC.germlineResource, MTAC.pon, MTAC.dbsnp.dbsnp));
+        final FeatureContext featureSnapshot = featureContext.snapshot(featureInputs);
+
+        pendingRegions.add(regionExecutor.submit(() -> {
+            final Mutect2Engine workerEngine = idleWorkerEngines.take();
+            try {
+                return workerEngine.callRegion(region, referenceSnapshot, featureSnapshot);
+            } finally {
+                idleWorkerEngines.add(workerEngine);
+            }
+        }));
+
+        // write out finished regions in order, and bound the number of regions (and so reads) held in memory
+        while ( !pendingRegions.isEmpty() && (pendingRegions.peek().isDone() || pendingRegions.size() > 2 * regionThreads) ) {
+            writeCalls(pendingRegions.poll());
+        }
+    }
+
+    private void writeCalls(final Future<List<VariantContext>> calls) {
+        try {
+            calls.get().forEach(vcfWriter::add);
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while calling active regions", e);
+        } catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new GATKException("Calling an active region failed", e.getCause());
+        }
     }
 
     @Override
     public void closeTool() {
+        if ( regionExecutor != null ) {
+            regionExecutor.shutdownNow();
+            try {
+                // the worker engines may still be in use by regions that were interrupted
+                regionExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
         if ( vcfWriter != null ) {
             vcfWriter.close();
         }
@@ -254,5 +350,6 @@ public final class Mutect2 extends AssemblyRegionWalker {
         if ( m2Engine != null ) {
             m2Engine.shutdown();
         }
+        workerEngines.forEach(Mutect2Engine::shutdown);
     }
 }
@@ -273,6 +273,7 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
      * Shutdown this M2 engine, closing resources as appropriate
      */
     public void shutdown() {
+        assemblyEngine.logHaplotypeCigarCacheUsage();
         likelihoodCalculationEngine.close();
         aligner.close();
 
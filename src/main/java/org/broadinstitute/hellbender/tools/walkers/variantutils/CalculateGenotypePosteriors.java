@@ -224,6 +224,7 @@ public final class CalculateGenotypePosteriors extends VariantWalker {
 
     private FamilyLikelihoods famUtils;
     private SampleDB sampleDB = null;
+    private List<String> inputSampleNames;
 
     private VariantContextWriter vcfWriter;
 
@@ -256,6 +257,7 @@ public final class CalculateGenotypePosteriors extends VariantWalker {
         if ( ! header.hasGenotypingData() ) {
             throw new UserException("VCF has no genotypes");
         }
+        inputSampleNames = header.getGenotypeSamples();
 
         if ( header.hasInfoLine(GATKVCFConstants.MLE_ALLELE_COUNT_KEY) ) {
             final VCFInfoHeaderLine mleLine = header.getInfoHeaderLine(GATKVCFConstants.MLE_ALLELE_COUNT_KEY);
@@ -316,8 +318,14 @@ public final class CalculateGenotypePosteriors extends VariantWalker {
             if (!skipFamilyPriors && vc.isBiallelic()){
                 final GenotypesContext gc = famUtils.calculatePosteriorGLs(vc);
                 builder.genotypes(gc);
+                VariantContextUtils.calculateChromosomeCounts(builder, false);
+            } else {
+                // read the genotypes straight from the VCF record into columns, so that the population priors
+                // are computed without creating a Genotype per sample
+                final GenotypeColumns genotypes = GenotypeColumns.decode(vc, inputSampleNames);
+                builder.genotypesNoValidation(genotypes.toGenotypesContext());
+                PosteriorProbabilitiesUtils.addChromosomeCounts(builder, genotypes, false);
             }
-            VariantContextUtils.calculateChromosomeCounts(builder, false);
             vc_familyPriors = builder.make();
 
             if (!skipPopulationPriors) {
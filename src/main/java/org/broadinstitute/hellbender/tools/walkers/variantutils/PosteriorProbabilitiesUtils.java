@@ -9,9 +9,9 @@ import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.GenotypeColumns;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public final class PosteriorProbabilitiesUtils {
 
@@ -19,6 +19,9 @@ public final class PosteriorProbabilitiesUtils {
 
     /**
      * Calculates phred-scaled posterior probabilities for genotypes given the data and allele frequency priors.
+     *
+     * The genotypes of {@code vc1} are read and written as a {@link GenotypeColumns} block, so if they are columnar
+     * (see {@link GenotypeColumns#decode}) no {@link Genotype} is created until the result is written out.
      */
     public static VariantContext calculatePosteriorProbs(final VariantContext vc1,
                                                          final Collection<VariantContext> resources,
@@ -28,6 +31,7 @@ public final class PosteriorProbabilitiesUtils {
                                                          final boolean useAC,
                                                          final boolean useACoff) {
         Utils.nonNull(vc1, "VariantContext vc1 is null");
+        final GenotypeColumns genotypes = GenotypeColumns.fromVariantContext(vc1);
         final Map<Allele,Integer> totalAlleleCounts = new HashMap<>();
         //only use discovered allele count if there are at least 10 samples
         final boolean useDiscoveredAC = !useACoff && vc1.getNSamples() >= 10;
@@ -50,44 +54,96 @@ public final class PosteriorProbabilitiesUtils {
         final double[] alleleCounts = vc1.getAlleles().stream()
                 .mapToDouble(a -> globalFrequencyPriorDirichlet + totalAlleleCounts.getOrDefault(a, 0)).toArray();
 
-        final List<double[]> likelihoods = vc1.getGenotypes().stream().map(g -> parseLikelihoods(g)).collect(Collectors.toList());
+        final List<double[]> likelihoods = new ArrayList<>(genotypes.getSampleCount());
+        for ( int genoIdx = 0; genoIdx < genotypes.getSampleCount(); genoIdx ++ ) {
+            likelihoods.add(parseLikelihoods(genotypes, genoIdx));
+        }
 
         //TODO: for now just use priors that are SNPs because indel priors will bias SNP calls
         final boolean useFlatPriors = !vc1.isSNP() || (resources.isEmpty() && !useDiscoveredAC) || resources.stream().anyMatch(r -> !r.isSNP()) ;
 
-        final List<double[]> posteriors = calculatePosteriorProbs(likelihoods,alleleCounts,vc1.getMaxPloidy(2), useFlatPriors);
+        final int ploidy = genotypes.getMaxPloidy(2);
+        final List<double[]> posteriors = calculatePosteriorProbs(likelihoods,alleleCounts,ploidy, useFlatPriors);
 
-        final GenotypesContext newContext = GenotypesContext.create();
-        for ( int genoIdx = 0; genoIdx < vc1.getNSamples(); genoIdx ++ ) {
-            final GenotypeBuilder builder = new GenotypeBuilder(vc1.getGenotype(genoIdx));
-            builder.phased(vc1.getGenotype(genoIdx).isPhased());
+        final GenotypeColumns.Builder newGenotypes = new GenotypeColumns.Builder(vc1.getAlleles(), genotypes.getSampleCount());
+        for ( int genoIdx = 0; genoIdx < genotypes.getSampleCount(); genoIdx ++ ) {
+            newGenotypes.sample(genotypes, genoIdx);
             if ( posteriors.get(genoIdx) != null ) {
-                GATKVariantContextUtils.makeGenotypeCall(vc1.getMaxPloidy(2), builder,
-                        GenotypeAssignmentMethod.USE_PLS_TO_ASSIGN, posteriors.get(genoIdx), vc1.getAlleles());
-                builder.attribute(GATKVCFConstants.PHRED_SCALED_POSTERIORS_KEY,
+                makeGenotypeCall(newGenotypes, ploidy, genotypes.isPhased(genoIdx), posteriors.get(genoIdx), vc1.getNAlleles() - 1);
+                newGenotypes.attribute(GATKVCFConstants.PHRED_SCALED_POSTERIORS_KEY,
                         Utils.listFromPrimitives(GenotypeLikelihoods.fromLog10Likelihoods(posteriors.get(genoIdx)).getAsPLs()));
             }
-            newContext.add(builder.make());
         }
+        final GenotypeColumns newColumns = newGenotypes.make();
 
         final List<Integer> priors = Utils.listFromPrimitives(
-                GenotypeLikelihoods.fromLog10Likelihoods(getDirichletPrior(alleleCounts, vc1.getMaxPloidy(2),useFlatPriors)).getAsPLs());
+                GenotypeLikelihoods.fromLog10Likelihoods(getDirichletPrior(alleleCounts, ploidy,useFlatPriors)).getAsPLs());
 
-        final VariantContextBuilder builder = new VariantContextBuilder(vc1).genotypes(newContext).attribute(GATKVCFConstants.GENOTYPE_PRIOR_KEY, priors);
+        final VariantContextBuilder builder = new VariantContextBuilder(vc1).genotypesNoValidation(newColumns.toGenotypesContext())
+                .attribute(GATKVCFConstants.GENOTYPE_PRIOR_KEY, priors);
         // add in the AC, AF, and AN attributes
-        VariantContextUtils.calculateChromosomeCounts(builder, true);
+        addChromosomeCounts(builder, newColumns, true);
         return builder.make();
     }
 
-    private static double[] parseLikelihoods(Genotype genotype) {
-        final Object PPfromVCF = genotype.getExtendedAttribute(GATKVCFConstants.PHRED_SCALED_POSTERIORS_KEY);
+    /**
+     * Same as {@link GATKVariantContextUtils#makeGenotypeCall} with {@link GenotypeAssignmentMethod#USE_PLS_TO_ASSIGN}
+     * for the current sample of a {@link GenotypeColumns.Builder}.
+     */
+    private static void makeGenotypeCall(final GenotypeColumns.Builder builder, final int ploidy, final boolean isPhased, final double[] genotypeLikelihoods, final int numAltAlleles) {
+        if ( !GATKVariantContextUtils.isInformative(genotypeLikelihoods) ) {
+            final int[] noCall = new int[ploidy];
+            Arrays.fill(noCall, GenotypeColumns.MISSING);
+            builder.genotypeAlleles(noCall, isPhased).GQ(GenotypeColumns.MISSING);
+        } else {
+            // posteriors are only computed for diploids
+            final int maxLikelihoodIndex = MathUtils.maxElementIndex(genotypeLikelihoods);
+            final GenotypeLikelihoods.GenotypeLikelihoodsAllelePair allelePair = GenotypeLikelihoods.getAllelePair(maxLikelihoodIndex);
+            builder.genotypeAlleles(new int[]{allelePair.alleleIndex1, allelePair.alleleIndex2}, isPhased);
+            if ( numAltAlleles > 0 ) {
+                builder.GQ((int)Math.round(-10 * GenotypeLikelihoods.getGQLog10FromLikelihoods(maxLikelihoodIndex, genotypeLikelihoods)));
+            }
+        }
+    }
+
+    /**
+     * Same as {@link VariantContextUtils#calculateChromosomeCounts(VariantContextBuilder, boolean)}, counting the
+     * alleles of a {@link GenotypeColumns} block instead of those of the {@link Genotype}s.
+     */
+    static void addChromosomeCounts(final VariantContextBuilder builder, final GenotypeColumns genotypes, final boolean removeStaleValues) {
+        final int[] calledChrCounts = genotypes.getCalledChrCounts();
+        final int an = (int) MathUtils.sum(calledChrCounts);
+        if ( an == 0 && removeStaleValues ) {
+            builder.rmAttributes(Arrays.asList(VCFConstants.ALLELE_COUNT_KEY, VCFConstants.ALLELE_FREQUENCY_KEY, VCFConstants.ALLELE_NUMBER_KEY));
+            return;
+        }
+        if ( genotypes.getSampleCount() == 0 ) {
+            return;
+        }
+        builder.attribute(VCFConstants.ALLELE_NUMBER_KEY, an);
+        if ( calledChrCounts.length > 1 ) {
+            final List<Integer> alleleCounts = new ArrayList<>(calledChrCounts.length - 1);
+            final List<Double> alleleFreqs = new ArrayList<>(calledChrCounts.length - 1);
+            for ( int i = 1; i < calledChrCounts.length; i++ ) {
+                alleleCounts.add(calledChrCounts[i]);
+                alleleFreqs.add(an == 0 ? 0.0 : (double)calledChrCounts[i] / an);
+            }
+            builder.attribute(VCFConstants.ALLELE_COUNT_KEY, alleleCounts.size() == 1 ? alleleCounts.get(0) : alleleCounts);
+            builder.attribute(VCFConstants.ALLELE_FREQUENCY_KEY, alleleFreqs.size() == 1 ? alleleFreqs.get(0) : alleleFreqs);
+        } else if ( removeStaleValues ) {
+            builder.rmAttributes(Arrays.asList(VCFConstants.ALLELE_COUNT_KEY, VCFConstants.ALLELE_FREQUENCY_KEY));
+        }
+    }
+
+    private static double[] parseLikelihoods(final GenotypeColumns genotypes, final int sampleIndex) {
+        final Object PPfromVCF = genotypes.getExtendedAttribute(sampleIndex, GATKVCFConstants.PHRED_SCALED_POSTERIORS_KEY);
 
         if (PPfromVCF == null){
-            return getLikelihoodsVector(genotype);
+            return getLikelihoodsVector(genotypes, sampleIndex);
         } else if (PPfromVCF instanceof String) {
             final String PPstring = (String) PPfromVCF;
             //samples not in trios will have PP tag like ".,.,." if family priors are applied
-            return PPstring.charAt(0)=='.' ? getLikelihoodsVector(genotype) :
+            return PPstring.charAt(0)=='.' ? getLikelihoodsVector(genotypes, sampleIndex) :
                     Arrays.stream(PPstring.split(",")).mapToDouble(s -> Double.parseDouble(s)/-10.0).toArray();
         } else {
             return Arrays.stream(extractInts(PPfromVCF)).mapToDouble(i -> i/-10.0).toArray();
@@ -95,8 +151,8 @@ public final class PosteriorProbabilitiesUtils {
     }
 
     // return the double[] of likelihoods if available, otherwise null
-    private static double[] getLikelihoodsVector(Genotype genotype) {
-        return genotype.hasLikelihoods() ? genotype.getLikelihoods().getAsVector() : null;
+    private static double[] getLikelihoodsVector(final GenotypeColumns genotypes, final int sampleIndex) {
+        return genotypes.hasPL(sampleIndex) ? GenotypeLikelihoods.fromPLs(genotypes.getPLs(sampleIndex)).getAsVector() : null;
     }
 
     /**
@@ -208,11 +264,7 @@ public final class PosteriorProbabilitiesUtils {
         }
         //if VariantContext annotation doesn't contain AC or MLEAC then get the data from direct evaluation
         else {
-            ac = new int[context.getAlternateAlleles().size()];
-            int idx = 0;
-            for ( final Allele allele : context.getAlternateAlleles() ) {
-                ac[idx++] = context.getCalledChrCount(allele);
-            }
+            ac = Arrays.copyOfRange(getCalledChrCounts(context), 1, context.getNAlleles());
         }
 
         //since the allele count for the reference allele is not given in the VCF format,
@@ -223,7 +275,7 @@ public final class PosteriorProbabilitiesUtils {
                 if ( context.hasAttribute(VCFConstants.ALLELE_NUMBER_KEY) ) {
                     count = Math.max(context.getAttributeAsInt(VCFConstants.ALLELE_NUMBER_KEY,-1) - (int) MathUtils.sum(ac),0); //occasionally an MLEAC value will sneak in that's greater than the AN
                 } else {
-                    count = Math.max(context.getCalledChrCount() - (int) MathUtils.sum(ac),0);
+                    count = Math.max((int) MathUtils.sum(getCalledChrCounts(context)) - (int) MathUtils.sum(ac),0);
                 }
             } else {
                 count = ac[context.getAlternateAlleles().indexOf(allele)];
@@ -237,6 +289,17 @@ public final class PosteriorProbabilitiesUtils {
         }
     }
 
+    /**
+     * @return the number of called chromosomes of each allele of the context, without decoding columnar genotypes
+     */
+    private static int[] getCalledChrCounts(final VariantContext context) {
+        final GenotypeColumns genotypes = GenotypeColumns.of(context.getGenotypes());
+        if ( genotypes != null ) {
+            return genotypes.getCalledChrCounts();
+        }
+        return context.getAlleles().stream().mapToInt(context::getCalledChrCount).toArray();
+    }
+
     /**
      * Retrieve allele count data from VariantContext using VCFkey, checks for correct number of values in VCF
      * @param VCFkey VariantContext annotation tag of interest (should be AC or MLEAC)
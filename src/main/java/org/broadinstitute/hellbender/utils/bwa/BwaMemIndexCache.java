@@ -1,17 +1,49 @@
 package org.broadinstitute.hellbender.utils.bwa;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.Utils;
 
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.*;
 import java.util.*;
+import java.util.zip.CRC32;
 
 /**
  * Manage a global collection of {@link BwaMemIndex} instances.
+ * <p>
+ *     Index images are memory-mapped by the native code, so every JVM on a host that opens the same image file shares
+ *     a single physical copy of it through the OS page cache, and an index is loaded only on the first request for it.
+ *     {@link #getHostSharedImage} can be used to move an image that was copied to each executor separately (e.g. by
+ *     {@link JavaSparkContext#addFile}) to a single, user-specified location per host, where it also survives the
+ *     executor.
+ * </p>
+ * <p>
+ *     Code that runs concurrently with other tasks in the same JVM should use {@link #acquireInstance} and
+ *     {@link #releaseInstance} rather than {@link #getInstance}: requests to close an instance that has been acquired
+ *     and not yet released are deferred until its last release.
+ * </p>
  */
 public class BwaMemIndexCache {
+    private static final Logger logger = LogManager.getLogger(BwaMemIndexCache.class);
 
-    private final static Map<String, BwaMemIndex> instances = new HashMap<>();
+    private final static Map<String, CachedIndex> instances = new HashMap<>();
+
+    // number of bytes at each end of an image that are checksummed to tell apart images with the same name and size
+    private static final int FINGERPRINT_BYTES = 1 << 20;
+
+    private static final class CachedIndex {
+        private final BwaMemIndex index;
+        private int refCount = 0;
+        private boolean closeRequested = false;
+
+        private CachedIndex( final BwaMemIndex index ) {
+            this.index = index;
+        }
+    }
 
     /**
      * Returns a {@link BwaMemIndex} instance that corresponds to  given index image file.
@@ -19,11 +51,50 @@ public class BwaMemIndexCache {
      * @return never {@code null}.
      */
     public static synchronized BwaMemIndex getInstance( final String indexImageFile ) {
+        return getCachedIndex(indexImageFile).index;
+    }
+
+    /**
+     * Like {@link #getInstance}, but the returned instance won't be closed until it has been released by a matching
+     * call to {@link #releaseInstance}.
+     * @param indexImageFile the target image file.
+     * @return never {@code null}.
+     */
+    public static synchronized BwaMemIndex acquireInstance( final String indexImageFile ) {
+        final CachedIndex cachedIndex = getCachedIndex(indexImageFile);
+        cachedIndex.refCount++;
+        return cachedIndex.index;
+    }
+
+    /**
+     * Releases an instance obtained from {@link #acquireInstance}, and closes it if a close was requested while it was
+     * in use and this was its last user.
+     * @param instance the instance to release.
+     */
+    public static synchronized void releaseInstance( final BwaMemIndex instance ) {
+        Utils.nonNull(instance, "the input index cannot be null");
+        final Iterator<CachedIndex> it = instances.values().iterator();
+        while (it.hasNext()) {
+            final CachedIndex cachedIndex = it.next();
+            if (cachedIndex.index == instance) {
+                Utils.validate(cachedIndex.refCount > 0, "the index instance was released more often than it was acquired");
+                if (--cachedIndex.refCount == 0 && cachedIndex.closeRequested) {
+                    cachedIndex.index.close();
+                    it.remove();
+                }
+                return;
+            }
+        }
+    }
+
+    private static CachedIndex getCachedIndex( final String indexImageFile ) {
         Utils.nonNull(indexImageFile, "the index image file name provided cannot be null");
-        if (!instances.containsKey(indexImageFile)) {
-            instances.put(indexImageFile, new BwaMemIndex(indexImageFile));
+        CachedIndex cachedIndex = instances.get(indexImageFile);
+        if (cachedIndex == null) {
+            cachedIndex = new CachedIndex(new BwaMemIndex(indexImageFile));
+            instances.put(indexImageFile, cachedIndex);
         }
-        return instances.get(indexImageFile);
+        return cachedIndex;
     }
 
     /**
@@ -39,8 +110,7 @@ public class BwaMemIndexCache {
      */
     public static synchronized void closeInstance(final String indexImageFile) {
         Utils.nonNull(indexImageFile, "the input image file cannot be null");
-        if (instances.containsKey(indexImageFile)) {
-            instances.get(indexImageFile).close();
+        if (instances.containsKey(indexImageFile) && close(instances.get(indexImageFile))) {
             instances.remove(indexImageFile);
         }
     }
@@ -55,9 +125,12 @@ public class BwaMemIndexCache {
      */
     public static synchronized void closeInstance(final BwaMemIndex instance) {
         Utils.nonNull(instance, "the input index cannot be null");
-        if (instances.values().contains(instance)) {
-            instance.close();
-            instances.values().remove(instance);
+        final Iterator<CachedIndex> it = instances.values().iterator();
+        while (it.hasNext()) {
+            final CachedIndex cachedIndex = it.next();
+            if (cachedIndex.index == instance && close(cachedIndex)) {
+                it.remove();
+            }
         }
     }
 
@@ -65,13 +138,27 @@ public class BwaMemIndexCache {
      * Closes all instances in the VM.
      */
     public static synchronized void closeInstances() {
-        final Iterator<BwaMemIndex> it = instances.values().iterator();
+        final Iterator<CachedIndex> it = instances.values().iterator();
         while (it.hasNext()) {
-            it.next().close();
-            it.remove();
+            if (close(it.next())) {
+                it.remove();
+            }
         }
     }
 
+    /**
+     * Closes the index, or defers closing it until its last release if it is in use.
+     * @return true if the index was closed.
+     */
+    private static boolean close( final CachedIndex cachedIndex ) {
+        if (cachedIndex.refCount > 0) {
+            cachedIndex.closeRequested = true;
+            return false;
+        }
+        cachedIndex.index.close();
+        return true;
+    }
+
     /**
      * Closes all instances in all the VMs involved in the spark context provided.
      * @param ctx the spark context.
@@ -83,4 +170,89 @@ public class BwaMemIndexCache {
         for ( int idx = 0; idx != nJobs; ++idx ) jobList.add(idx);
         ctx.parallelize(jobList, nJobs).foreach(idx -> closeInstances());
     }
+
+    /**
+     * Returns the path of a copy of the given local index image that is shared by all JVMs on this host, creating the
+     * copy if it doesn't exist yet.  Mapping the shared copy instead of a per-executor copy means the image occupies
+     * memory only once per host, and since the copy outlives the executor, so may its pages in the page cache.
+     * <p>
+     *     The directory has to be one that all the executors on a host can see:  under YARN, for example,
+     *     java.io.tmpdir is private to each container, so it won't do.  Copies are named by the image's file name, size
+     *     and checksum.  Copies are never deleted, since another JVM may be about to map any of them:  they stay
+     *     there for later jobs to reuse, and it's up to you to remove the ones (e.g. of older versions of an image)
+     *     that no job is using anymore.
+     * </p>
+     * <p>
+     *     If no directory is given, or the shared copy can't be created (e.g. for lack of disk space), the original
+     *     image is used instead.
+     * </p>
+     * @param localIndexImageFile an index image on local disk.
+     * @param sharedImageDir the host-local directory that holds the shared copies, or {@code null} to make no copy.
+     * @return the path of the shared copy, or {@code localIndexImageFile} if there isn't one.
+     */
+    public static String getHostSharedImage( final String localIndexImageFile, final String sharedImageDir ) {
+        Utils.nonNull(localIndexImageFile, "the index image file name provided cannot be null");
+        if (sharedImageDir == null) {
+            return localIndexImageFile;
+        }
+        final Path image = Paths.get(localIndexImageFile);
+        final Path sharedDir = Paths.get(sharedImageDir);
+        try {
+            // the name identifies the content, so different images with the same file name don't collide
+            final Path sharedImage = sharedDir.resolve(image.getFileName() + "." + fingerprint(image));
+            if (Files.exists(sharedImage)) {
+                return sharedImage.toString();
+            }
+            Files.createDirectories(sharedDir);
+            // copy to a temporary file in the same directory and rename it, so no JVM ever maps a partial image
+            final Path tempImage = Files.createTempFile(sharedDir, image.getFileName().toString(), ".tmp");
+            try {
+                Files.copy(image, tempImage, StandardCopyOption.REPLACE_EXISTING);
+                if (!Files.exists(sharedImage)) {
+                    Files.move(tempImage, sharedImage, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                Files.deleteIfExists(tempImage);
+            }
+            logger.info("Shared bwa index image " + localIndexImageFile + " as " + sharedImage);
+            return sharedImage.toString();
+        } catch ( final IOException | UnsupportedOperationException e ) {
+            logger.warn("Could not create a host-shared copy of bwa index image " + localIndexImageFile + ", using it in place: " + e.getMessage());
+            return localIndexImageFile;
+        }
+    }
+
+    /**
+     * Like {@link #acquireInstance}, but for the host-shared copy of a local image (see {@link #getHostSharedImage}).
+     * If the shared copy can't be opened (e.g. because someone removed or truncated it), the local image is used
+     * instead.
+     * @param localIndexImageFile an index image on local disk.
+     * @param sharedImageDir the host-local directory that holds the shared copies, or {@code null} to make no copy.
+     * @return never {@code null}.
+     */
+    public static BwaMemIndex acquireHostSharedInstance( final String localIndexImageFile, final String sharedImageDir ) {
+        final String sharedImage = getHostSharedImage(localIndexImageFile, sharedImageDir);
+        if (!sharedImage.equals(localIndexImageFile)) {
+            try {
+                return acquireInstance(sharedImage);
+            } catch ( final RuntimeException e ) {
+                logger.warn("Could not open host-shared bwa index image " + sharedImage + ", using " + localIndexImageFile + " instead: " + e.getMessage());
+            }
+        }
+        return acquireInstance(localIndexImageFile);
+    }
+
+    private static String fingerprint( final Path image ) throws IOException {
+        try ( final RandomAccessFile file = new RandomAccessFile(image.toFile(), "r") ) {
+            final long length = file.length();
+            final CRC32 crc = new CRC32();
+            final byte[] buffer = new byte[(int)Math.min(FINGERPRINT_BYTES, length)];
+            file.readFully(buffer);
+            crc.update(buffer);
+            file.seek(length - buffer.length);
+            file.readFully(buffer);
+            crc.update(buffer);
+            return length + "." + Long.toHexString(crc.getValue());
+        }
+    }
 }
@@ -16,6 +16,7 @@ import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -41,12 +42,17 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     private final GATKRead[][] readsBySampleIndex;
 
     /**
-     * Indexed per sample, allele and finally read (within sample).
+     * Likelihood values indexed by sample.
      * <p>
-     *     valuesBySampleIndex[s][a][r] == lnLk(R_r | A_a) where R_r comes from Sample s.
+     *     valuesBySampleIndex[s].get(a, r) == lnLk(R_r | A_a) where R_r comes from Sample s.
      * </p>
      */
-    private final double[][][] valuesBySampleIndex;
+    private final SampleLikelihoodValues[] valuesBySampleIndex;
+
+    /**
+     * Whether the likelihoods are stored in single precision.
+     */
+    private final boolean singlePrecision;
 
     /**
      * Sample list
@@ -91,6 +97,26 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      */
     private final LikelihoodMatrix<A>[] sampleMatrices;
 
+    /**
+     * Best allele of each read per sample, lazily computed by {@link #bestAlleles(int)} and discarded whenever the
+     * likelihoods, alleles or reads of the sample change.
+     *
+     * <p>Annotations and genotyping code typically ask for the best alleles of the same likelihoods many times over,
+     * so they are worth keeping.</p>
+     */
+    private final List<BestAllele>[] bestAllelesBySampleIndex;
+
+    /**
+     * Cached best alleles of all samples returned by {@link #bestAlleles()}; {@code null} when not computed or stale.
+     */
+    private List<BestAllele> allBestAlleles;
+
+    /**
+     * Values derived from the likelihoods by {@link #getDerivedValue}, keyed by the caller; {@code null} when there
+     * are none.  Discarded along with the best alleles.
+     */
+    private Map<Object, Object> derivedValues;
+
     /**
      * Constructs a new read-likelihood collection.
      *
@@ -107,23 +133,48 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * or {@code reads} is {@code null},
      *  or if they contain null values.
      */
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public ReadLikelihoods(final SampleList samples,
                            final AlleleList<A> alleles,
                            final Map<String, List<GATKRead>> reads) {
+        this(samples, alleles, reads, false);
+    }
+
+    /**
+     * Constructs a new read-likelihood collection that may store its likelihoods in single precision.
+     *
+     * <p>
+     *     Single precision halves the memory used by the likelihoods, and the cost of filtering and marginalizing
+     *     them, at the cost of rounding every likelihood to the nearest {@code float}.
+     * </p>
+     *
+     * @param samples all supported samples in the collection.
+     * @param alleles all supported alleles in the collection.
+     * @param reads reads stratified per sample.
+     * @param singlePrecision whether to store the likelihoods as {@code float}s rather than {@code double}s.
+     *
+     * @throws IllegalArgumentException if any of {@code allele}, {@code samples}
+     * or {@code reads} is {@code null},
+     *  or if they contain null values.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public ReadLikelihoods(final SampleList samples,
+                           final AlleleList<A> alleles,
+                           final Map<String, List<GATKRead>> reads,
+                           final boolean singlePrecision) {
         Utils.nonNull(alleles, "allele list cannot be null");
         Utils.nonNull(samples, "sample list cannot be null");
         Utils.nonNull(reads, "read map cannot be null");
 
         this.samples = samples;
         this.alleles = alleles;
+        this.singlePrecision = singlePrecision;
 
         final int sampleCount = samples.numberOfSamples();
         final int alleleCount = alleles.numberOfAlleles();
 
         readsBySampleIndex = new GATKRead[sampleCount][];
         readListBySampleIndex = (List<GATKRead>[])new List[sampleCount];
-        valuesBySampleIndex = new double[sampleCount][][];
+        valuesBySampleIndex = new SampleLikelihoodValues[sampleCount];
         referenceAlleleIndex = findReferenceAllele(alleles);
 
         readIndexBySampleIndex = new Object2IntMap[sampleCount];
@@ -131,6 +182,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         setupIndexes(reads, sampleCount, alleleCount);
 
         sampleMatrices = (LikelihoodMatrix<A>[]) new LikelihoodMatrix[sampleCount];
+        bestAllelesBySampleIndex = (List<BestAllele>[]) new List[sampleCount];
     }
 
 
@@ -140,9 +192,11 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                             final SampleList samples,
                             final GATKRead[][] readsBySampleIndex,
                             final Object2IntMap<GATKRead>[] readIndex,
-                            final double[][][] values) {
+                            final SampleLikelihoodValues[] values,
+                            final boolean singlePrecision) {
         this.samples = samples;
         this.alleles = alleles;
+        this.singlePrecision = singlePrecision;
         this.readsBySampleIndex = readsBySampleIndex;
         this.valuesBySampleIndex = values;
         this.readIndexBySampleIndex = readIndex;
@@ -151,6 +205,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         referenceAlleleIndex = findReferenceAllele(alleles);
         sampleMatrices = (LikelihoodMatrix<A>[]) new LikelihoodMatrix[sampleCount];
+        bestAllelesBySampleIndex = (List<BestAllele>[]) new List[sampleCount];
     }
 
     // Add all the indices to alleles, sample and reads in the look-up maps.
@@ -172,8 +227,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 : reads.toArray(new GATKRead[reads.size()]);
         final int sampleReadCount = readsBySampleIndex[sampleIndex].length;
 
-        final double[][] sampleValues = new double[alleleCount][sampleReadCount];
-        valuesBySampleIndex[sampleIndex] = sampleValues;
+        valuesBySampleIndex[sampleIndex] = SampleLikelihoodValues.create(alleleCount, sampleReadCount, singlePrecision);
     }
 
     /**
@@ -182,9 +236,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     public ReadLikelihoods<A> copy() {
 
         final int sampleCount = samples.numberOfSamples();
-        final int alleleCount = alleles.numberOfAlleles();
 
-        final double[][][] newLikelihoodValues = new double[sampleCount][alleleCount][];
+        final SampleLikelihoodValues[] newLikelihoodValues = new SampleLikelihoodValues[sampleCount];
 
         @SuppressWarnings({"unchecked", "rawtypes"})
         final Object2IntMap<GATKRead>[] newReadIndexBySampleIndex = new Object2IntMap[sampleCount];
@@ -192,9 +245,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         for (int s = 0; s < sampleCount; s++) {
             newReadsBySampleIndex[s] = readsBySampleIndex[s].clone();
-            for (int a = 0; a < alleleCount; a++) {
-                newLikelihoodValues[s][a] = valuesBySampleIndex[s][a].clone();
-            }
+            newLikelihoodValues[s] = valuesBySampleIndex[s].copy();
         }
 
         // Finally we create the new read-likelihood
@@ -203,7 +254,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 samples,
                 newReadsBySampleIndex,
                 newReadIndexBySampleIndex,
-                newLikelihoodValues);
+                newLikelihoodValues,
+                singlePrecision);
     }
 
 
@@ -334,6 +386,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     public void normalizeLikelihoods(final boolean bestToZero, final double maximumLikelihoodDifferenceCap) {
         Utils.validateArg(maximumLikelihoodDifferenceCap < 0.0 && !Double.isNaN(maximumLikelihoodDifferenceCap),
                 "the minimum reference likelihood fall must be negative");
+        invalidateBestAlleles();
 
         if (maximumLikelihoodDifferenceCap == Double.NEGATIVE_INFINITY && !bestToZero) {
             return;
@@ -347,7 +400,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         }
 
         for (int s = 0; s < valuesBySampleIndex.length; s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
+            final SampleLikelihoodValues sampleValues = valuesBySampleIndex[s];
             final int readCount = readsBySampleIndex[s].length;
             for (int r = 0; r < readCount; r++) {
                 normalizeLikelihoodsPerRead(bestToZero, maximumLikelihoodDifferenceCap, sampleValues, s, r);
@@ -357,14 +410,14 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
     // Does the normalizeLikelihoods job for each read.
     private void normalizeLikelihoodsPerRead(final boolean bestToZero, final double maximumBestAltLikelihoodDifference,
-                                             final double[][] sampleValues, final int sampleIndex, final int readIndex) {
+                                             final SampleLikelihoodValues sampleValues, final int sampleIndex, final int readIndex) {
 
         final BestAllele bestAlternativeAllele = searchBestAllele(sampleIndex,readIndex,false);
 
         final double worstLikelihoodCap = bestAlternativeAllele.likelihood + maximumBestAltLikelihoodDifference;
 
         final double referenceLikelihood = referenceAlleleIndex == MISSING_REF ? Double.NEGATIVE_INFINITY :
-                sampleValues[referenceAlleleIndex][readIndex];
+                sampleValues.get(referenceAlleleIndex, readIndex);
 
         final double bestAbsoluteLikelihood = Math.max(bestAlternativeAllele.likelihood, referenceLikelihood);
 
@@ -372,22 +425,23 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         if (bestToZero) {
             if (bestAbsoluteLikelihood == Double.NEGATIVE_INFINITY) {
                 for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] = 0;
+                    sampleValues.set(a, readIndex, 0);
                 }
             } else if (worstLikelihoodCap != Double.NEGATIVE_INFINITY) {
                 for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] = (sampleValues[a][readIndex] < worstLikelihoodCap ? worstLikelihoodCap : sampleValues[a][readIndex]) - bestAbsoluteLikelihood;
+                    final double likelihood = sampleValues.get(a, readIndex);
+                    sampleValues.set(a, readIndex, (likelihood < worstLikelihoodCap ? worstLikelihoodCap : likelihood) - bestAbsoluteLikelihood);
                 }
             } else {
                 for (int a = 0; a < alleleCount; a++) {
-                    sampleValues[a][readIndex] -= bestAbsoluteLikelihood;
+                    sampleValues.set(a, readIndex, sampleValues.get(a, readIndex) - bestAbsoluteLikelihood);
                 }
             }
         } else {
             // Guarantee to be the case by enclosing code.
             for (int a = 0; a < alleleCount; a++) {
-                if (sampleValues[a][readIndex] < worstLikelihoodCap) {
-                    sampleValues[a][readIndex] = worstLikelihoodCap;
+                if (sampleValues.get(a, readIndex) < worstLikelihoodCap) {
+                    sampleValues.set(a, readIndex, worstLikelihoodCap);
                 }
             }
         }
@@ -442,16 +496,16 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             return new BestAllele(sampleIndex, readIndex, -1, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
         }
 
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
+        final SampleLikelihoodValues sampleValues = valuesBySampleIndex[sampleIndex];
         int bestAlleleIndex = canBeReference || referenceAlleleIndex != 0 ? 0 : 1;
 
-        double bestLikelihood = sampleValues[bestAlleleIndex][readIndex];
+        double bestLikelihood = sampleValues.get(bestAlleleIndex, readIndex);
         double secondBestLikelihood = Double.NEGATIVE_INFINITY;
         for (int a = bestAlleleIndex + 1; a < alleleCount; a++) {
             if (!canBeReference && referenceAlleleIndex == a) {
                 continue;
             }
-            final double candidateLikelihood = sampleValues[a][readIndex];
+            final double candidateLikelihood = sampleValues.get(a, readIndex);
             if (candidateLikelihood > bestLikelihood) {
                 bestAlleleIndex = a;
                 secondBestLikelihood = bestLikelihood;
@@ -464,6 +518,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     }
 
     public void changeReads(final Map<GATKRead, GATKRead> readRealignments) {
+        invalidateBestAlleles();
         final int sampleCount = samples.numberOfSamples();
         for (int s = 0; s < sampleCount; s++) {
             final GATKRead[] sampleReads = readsBySampleIndex[s];
@@ -513,6 +568,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int newAlleleCount = alleles.numberOfAlleles() + allelesToAdd.size();
 
         alleleList = null;
+        invalidateBestAlleles();
         int referenceIndex = this.referenceAlleleIndex;
 
         @SuppressWarnings("unchecked")
@@ -531,15 +587,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         //copy old allele likelihoods and set new allele likelihoods to the default value
         for (int s = 0; s < samples.numberOfSamples(); s++) {
-            final int sampleReadCount = readsBySampleIndex[s].length;
-            final double[][] newValuesBySampleIndex = Arrays.copyOf(valuesBySampleIndex[s], newAlleleCount);
-            for (int a = oldAlleleCount; a < newAlleleCount; a++) {
-                newValuesBySampleIndex[a] = new double[sampleReadCount];
-                if (defaultLikelihood != 0.0) {
-                    Arrays.fill(newValuesBySampleIndex[a], defaultLikelihood);
-                }
-            }
-            valuesBySampleIndex[s] = newValuesBySampleIndex;
+            valuesBySampleIndex[s].addAlleles(newAlleleCount, defaultLikelihood);
         }
         return true;
     }
@@ -570,7 +618,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int[] oldToNewAlleleIndexMap = oldToNewAlleleIndexMap(newToOldAlleleMap, oldAlleleCount, newAlleles);
 
         // We calculate the marginal likelihoods.
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, null);
+        final SampleLikelihoodValues[] newLikelihoodValues = marginalLikelihoods(newAlleleCount, oldToNewAlleleIndexMap, null);
 
         final int sampleCount = samples.numberOfSamples();
 
@@ -586,7 +634,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 new IndexedAlleleList(newAlleles),
                 samples,
                 newReadsBySampleIndex,
-                newReadIndexBySampleIndex, newLikelihoodValues);
+                newReadIndexBySampleIndex, newLikelihoodValues, singlePrecision);
     }
 
 
@@ -624,7 +672,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final int[][] readsToKeep = overlappingReadIndicesBySampleIndex(overlap);
         // We calculate the marginal likelihoods.
 
-        final double[][][] newLikelihoodValues = marginalLikelihoods(oldAlleleCount, newAlleleCount, oldToNewAlleleIndexMap, readsToKeep);
+        final SampleLikelihoodValues[] newLikelihoodValues = marginalLikelihoods(newAlleleCount, oldToNewAlleleIndexMap, readsToKeep);
 
         final int sampleCount = samples.numberOfSamples();
 
@@ -650,7 +698,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         // Finally we create the new read-likelihood
         return new ReadLikelihoods<>(new IndexedAlleleList<>(newAlleles), samples,
                 newReadsBySampleIndex,
-                newReadIndexBySampleIndex, newLikelihoodValues);
+                newReadIndexBySampleIndex, newLikelihoodValues, singlePrecision);
     }
 
     private int[][] overlappingReadIndicesBySampleIndex(final Locatable overlap) {
@@ -699,35 +747,15 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     }
 
     // Calculate the marginal likelihoods considering the old -> new allele index mapping.
-    private double[][][] marginalLikelihoods(final int oldAlleleCount, final int newAlleleCount, final int[] oldToNewAlleleIndexMap, final int[][] readsToKeep) {
+    private SampleLikelihoodValues[] marginalLikelihoods(final int newAlleleCount, final int[] oldToNewAlleleIndexMap, final int[][] readsToKeep) {
 
         final int sampleCount = samples.numberOfSamples();
-        final double[][][] result = new double[sampleCount][][];
+        final SampleLikelihoodValues[] result = new SampleLikelihoodValues[sampleCount];
 
         for (int s = 0; s < sampleCount; s++) {
             final int sampleReadCount = readsBySampleIndex[s].length;
-            final double[][] oldSampleValues = valuesBySampleIndex[s];
-            final int[] sampleReadToKeep = readsToKeep == null || readsToKeep[s].length == sampleReadCount ? null : readsToKeep[s];
-            final int newSampleReadCount = sampleReadToKeep == null ? sampleReadCount : sampleReadToKeep.length;
-            final double[][] newSampleValues = result[s] = new double[newAlleleCount][newSampleReadCount];
-            // We initiate all likelihoods to -Inf.
-            for (int a = 0; a < newAlleleCount; a++) {
-                Arrays.fill(newSampleValues[a], Double.NEGATIVE_INFINITY);
-            }
-            // For each old allele and read we update the new table keeping the maximum likelihood.
-            for (int r = 0; r < newSampleReadCount; r++) {
-                for (int a = 0; a < oldAlleleCount; a++) {
-                    final int oldReadIndex = newSampleReadCount == sampleReadCount ? r : sampleReadToKeep[r];
-                    final int newAlleleIndex = oldToNewAlleleIndexMap[a];
-                    if (newAlleleIndex == -1) {
-                        continue;
-                    }
-                    final double likelihood = oldSampleValues[a][oldReadIndex];
-                    if (likelihood > newSampleValues[newAlleleIndex][r]) {
-                        newSampleValues[newAlleleIndex][r] = likelihood;
-                    }
-                }
-            }
+            final int[] sampleReadsToKeep = readsToKeep == null || readsToKeep[s].length == sampleReadCount ? null : readsToKeep[s];
+            result[s] = valuesBySampleIndex[s].marginalize(newAlleleCount, oldToNewAlleleIndexMap, sampleReadsToKeep);
         }
         return result;
     }
@@ -790,9 +818,9 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final double log10MaxLikelihoodForTrueAllele = maxErrorsForRead * log10QualPerBase;
 
         final int alleleCount = alleles.numberOfAlleles();
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
+        final SampleLikelihoodValues sampleValues = valuesBySampleIndex[sampleIndex];
         for (int a = 0; a < alleleCount; a++) {
-            if (sampleValues[a][readIndex] >= log10MaxLikelihoodForTrueAllele) {
+            if (sampleValues.get(a, readIndex) >= log10MaxLikelihoodForTrueAllele) {
                 return false;
             }
         }
@@ -828,22 +856,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             final int newSampleReadCount = sampleReadCount + newSampleReads.size();
 
             appendReads(newSampleReads, sampleIndex, sampleReadCount, newSampleReadCount);
-            extendsLikelihoodArrays(initialLikelihood, sampleIndex, sampleReadCount, newSampleReadCount);
-        }
-    }
-
-    // Extends the likelihood arrays-matrices.
-    private void extendsLikelihoodArrays(final double initialLikelihood, final int sampleIndex, final int sampleReadCount, final int newSampleReadCount) {
-        final double[][] sampleValues = valuesBySampleIndex[sampleIndex];
-        final int alleleCount = alleles.numberOfAlleles();
-        for (int a = 0; a < alleleCount; a++) {
-            sampleValues[a] = Arrays.copyOf(sampleValues[a], newSampleReadCount);
-        }
-        if (initialLikelihood != 0.0) // the default array new value.
-        {
-            for (int a = 0; a < alleleCount; a++) {
-                Arrays.fill(sampleValues[a], sampleReadCount, newSampleReadCount, initialLikelihood);
-            }
+            valuesBySampleIndex[sampleIndex].addReads(newSampleReadCount, initialLikelihood);
         }
     }
 
@@ -863,6 +876,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             }
             sampleReads[nextReadIndex++] = newRead;
         }
+        readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
+        invalidateBestAlleles(sampleIndex);
     }
 
     /**
@@ -916,19 +931,20 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         if ( nonRefAlleleIndex < 0) {
             return;
         }
+        invalidateBestAlleles();
         final int alleleCount = alleles.numberOfAlleles();
         final int nonSymbolicAlleleCount = alleleCount - 1;
         // likelihood buffer reused across reads:
         final double[] qualifiedAlleleLikelihoods = new double[nonSymbolicAlleleCount];
         final Median medianCalculator = new Median();
         for (int s = 0; s < samples.numberOfSamples(); s++) {
-            final double[][] sampleValues = valuesBySampleIndex[s];
-            final int readCount = sampleValues[0].length;
+            final SampleLikelihoodValues sampleValues = valuesBySampleIndex[s];
+            final int readCount = sampleValues.readCount();
             for (int r = 0; r < readCount; r++) {
                 final BestAllele bestAllele = searchBestAllele(s, r, true);
                 int numberOfQualifiedAlleleLikelihoods = 0;
                 for (int i = 0; i < alleleCount; i++) {
-                    final double alleleLikelihood = sampleValues[i][r];
+                    final double alleleLikelihood = sampleValues.get(i, r);
                     if (i != nonRefAlleleIndex && alleleLikelihood < bestAllele.likelihood
                             && !Double.isNaN(alleleLikelihood) && allelesToConsider.indexOfAllele(alleles.getAllele(i)) != -1) {
                         qualifiedAlleleLikelihoods[numberOfQualifiedAlleleLikelihoods++] = alleleLikelihood;
@@ -939,8 +955,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
                 // so the read is not informative at all given the existing alleles. Unless there is only one (or zero) concrete
                 // alleles with give the same (the best) likelihood to the NON-REF. When there is only one (or zero) concrete
                 // alleles we set the NON-REF likelihood to NaN.
-                sampleValues[nonRefAlleleIndex][r] = !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
-                        : nonSymbolicAlleleCount <= 1 ? Double.NaN : bestAllele.likelihood;
+                sampleValues.set(nonRefAlleleIndex, r, !Double.isNaN(nonRefLikelihood) ? nonRefLikelihood
+                        : nonSymbolicAlleleCount <= 1 ? Double.NaN : bestAllele.likelihood);
             }
         }
     }
@@ -987,7 +1003,11 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      * @return never {@code null}, one element per read in the read-likelihoods collection.
      */
     public Collection<BestAllele> bestAlleles() {
-        return IntStream.range(0, numberOfSamples()).boxed().flatMap(n -> bestAlleles(n).stream()).collect(Collectors.toList());
+        if (allBestAlleles == null) {
+            allBestAlleles = Collections.unmodifiableList(IntStream.range(0, numberOfSamples()).boxed()
+                    .flatMap(n -> bestAlleles(n).stream()).collect(Collectors.toList()));
+        }
+        return allBestAlleles;
     }
 
     /**
@@ -1007,11 +1027,15 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
      *
      * @throws IllegalStateException if there is no alleles.
      *
-     * @return never {@code null}, one element per read in the read-likelihoods collection.
+     * @return never {@code null}, one element per read in the read-likelihoods collection, in read index order.
      */
-    private Collection<BestAllele> bestAlleles(final int sampleIndex) {
+    private List<BestAllele> bestAlleles(final int sampleIndex) {
         Utils.validIndex(sampleIndex, numberOfSamples());
 
+        final List<BestAllele> extantResult = bestAllelesBySampleIndex[sampleIndex];
+        if (extantResult != null) {
+            return extantResult;
+        }
         final GATKRead[] sampleReads = readsBySampleIndex[sampleIndex];
         final int readCount = sampleReads.length;
         final List<BestAllele> result = new ArrayList<>(readCount);
@@ -1019,7 +1043,51 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             result.add(searchBestAllele(sampleIndex, r, true));
         }
 
-        return result;
+        return bestAllelesBySampleIndex[sampleIndex] = Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns a value computed from these likelihoods, computing it only if it's not been asked for with the same key
+     * since the likelihoods, alleles or reads last changed.
+     *
+     * <p>This lets the annotations of a site share intermediate results (such as strand counts or per-allele read
+     * statistics) that they would otherwise each compute from the same best alleles.  Keys must implement equals and
+     * hashCode, and must capture everything besides these likelihoods that the value depends on.</p>
+     *
+     * @param key identifies the value.
+     * @param computation computes the value if it's not cached.
+     * @param <T> the type of the value.
+     * @return whatever {@code computation} returned for this key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getDerivedValue(final Object key, final Supplier<T> computation) {
+        Utils.nonNull(key, "the key cannot be null");
+        Utils.nonNull(computation, "the computation cannot be null");
+        if (derivedValues == null) {
+            derivedValues = new HashMap<>();
+        }
+        T value = (T)derivedValues.get(key);
+        if (value == null) {
+            value = computation.get();
+            derivedValues.put(key, value);
+        }
+        return value;
+    }
+
+    // Discards the cached best alleles of all samples.
+    private void invalidateBestAlleles() {
+        Arrays.fill(bestAllelesBySampleIndex, null);
+        allBestAlleles = null;
+        derivedValues = null;
+    }
+
+    // Discards the cached best alleles of a sample.
+    private void invalidateBestAlleles(final int sampleIndex) {
+        if (bestAllelesBySampleIndex[sampleIndex] != null) {
+            bestAllelesBySampleIndex[sampleIndex] = null;
+            allBestAlleles = null;
+        }
+        derivedValues = null;
     }
 
 
@@ -1060,11 +1128,7 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
     }
 
     private void readsByBestAlleleMap(final int sampleIndex, final Map<A,List<GATKRead>> result) {
-        final GATKRead[] reads = readsBySampleIndex[sampleIndex];
-        final int readCount = reads.length;
-
-        for (int r = 0; r < readCount; r++) {
-            final BestAllele bestAllele = searchBestAllele(sampleIndex,r,true);
+        for (final BestAllele bestAllele : bestAlleles(sampleIndex)) {
             if (!bestAllele.isInformative()) {
                 continue;
             }
@@ -1197,10 +1261,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         final GATKRead[] sampleReads = readsBySampleIndex[sampleIndex];
         final int sampleReadCount = sampleReads.length;
 
-        final Object2IntMap<GATKRead> indexByRead = readIndexBySampleIndex[sampleIndex];
-        if (indexByRead != null) {
-            removeIndices.stream().forEach(n -> indexByRead.remove(sampleReads[n]));
-        }
+        // the indices of the reads after the first removed one change, so the read index is lazily rebuilt.
+        readIndexBySampleIndex[sampleIndex] = null;
         final boolean[] removeIndex = new boolean[sampleReadCount];
         final int firstDeleted = removeIndices.get(0);
         removeIndices.stream().forEach(n -> removeIndex[n] = true);
@@ -1214,16 +1276,11 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         System.arraycopy(oldSampleReads, 0, newSampleReads, 0, firstDeleted);
         Utils.skimArray(oldSampleReads,firstDeleted, newSampleReads, firstDeleted, removeIndex, firstDeleted);
 
-        // Then we skim out the likelihoods of the removed reads.
-        final double[][] oldSampleValues = valuesBySampleIndex[sampleIndex];
-        final double[][] newSampleValues = new double[alleleCount][newSampleReadCount];
-        for (int a = 0; a < alleleCount; a++) {
-            System.arraycopy(oldSampleValues[a], 0, newSampleValues[a], 0, firstDeleted);
-            Utils.skimArray(oldSampleValues[a], firstDeleted, newSampleValues[a], firstDeleted, removeIndex, firstDeleted);
-        }
-        valuesBySampleIndex[sampleIndex] = newSampleValues;
+        // Then we skim out the likelihoods of the removed reads in place.
+        valuesBySampleIndex[sampleIndex].removeReads(removeIndex, firstDeleted, newSampleReadCount);
         readsBySampleIndex[sampleIndex] = newSampleReads;
         readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
+        invalidateBestAlleles(sampleIndex);
     }
 
 
@@ -1272,16 +1329,11 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
             indexByRead.put(newSampleReads[r], r);
         }
 
-        // Then we skim out the likelihoods of the removed reads.
-        final double[][] oldSampleValues = valuesBySampleIndex[sampleIndex];
-        final double[][] newSampleValues = new double[alleleCount][newSampleReadCount];
-        for (int a = 0; a < alleleCount; a++) {
-            System.arraycopy(oldSampleValues[a],0,newSampleValues[a],0,firstDeleted);
-            Utils.skimArray(oldSampleValues[a], firstDeleted, newSampleValues[a], firstDeleted, removeIndex, firstDeleted);
-        }
-        valuesBySampleIndex[sampleIndex] = newSampleValues;
+        // Then we skim out the likelihoods of the removed reads in place.
+        valuesBySampleIndex[sampleIndex].removeReads(removeIndex, firstDeleted, newSampleReadCount);
         readsBySampleIndex[sampleIndex] = newSampleReads;
         readListBySampleIndex[sampleIndex] = null; // reset the unmodifiable list.
+        invalidateBestAlleles(sampleIndex);
     }
 
 
@@ -1320,16 +1372,19 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
 
         @Override
         public void set(final int alleleIndex, final int readIndex, final double value) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            Utils.validIndex(readIndex, valuesBySampleIndex[sampleIndex][alleleIndex].length);
-            valuesBySampleIndex[sampleIndex][alleleIndex][readIndex] = value;
+            final SampleLikelihoodValues sampleValues = valuesBySampleIndex[sampleIndex];
+            Utils.validIndex(alleleIndex, sampleValues.alleleCount());
+            Utils.validIndex(readIndex, sampleValues.readCount());
+            sampleValues.set(alleleIndex, readIndex, value);
+            invalidateBestAlleles(sampleIndex);
         }
 
         @Override
         public double get(final int alleleIndex, final int readIndex) {
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            Utils.validIndex(readIndex, valuesBySampleIndex[sampleIndex][alleleIndex].length);
-            return valuesBySampleIndex[sampleIndex][alleleIndex][readIndex];
+            final SampleLikelihoodValues sampleValues = valuesBySampleIndex[sampleIndex];
+            Utils.validIndex(alleleIndex, sampleValues.alleleCount());
+            Utils.validIndex(readIndex, sampleValues.readCount());
+            return sampleValues.get(alleleIndex, readIndex);
         }
 
         @Override
@@ -1369,8 +1424,8 @@ public final class ReadLikelihoods<A extends Allele> implements SampleList, Alle
         @Override
         public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
             Utils.nonNull(dest);
-            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].length);
-            System.arraycopy(valuesBySampleIndex[sampleIndex][alleleIndex], 0, dest, offset, numberOfReads());
+            Utils.validIndex(alleleIndex, valuesBySampleIndex[sampleIndex].alleleCount());
+            valuesBySampleIndex[sampleIndex].copyAlleleLikelihoods(alleleIndex, dest, offset);
         }
     }
 }
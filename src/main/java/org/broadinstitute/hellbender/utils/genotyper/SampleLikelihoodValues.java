@@ -0,0 +1,319 @@
+package org.broadinstitute.hellbender.utils.genotyper;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+
+/**
+ * Contiguous backing store for the read vs allele likelihoods of a single sample in {@link ReadLikelihoods}.
+ *
+ * <p>
+ *     Values are stored read-major in a single primitive array: the likelihoods of read {@code r} are found at
+ *     {@code r * alleleCapacity} through {@code r * alleleCapacity + alleleCount - 1}. Each read's likelihoods are
+ *     thus contiguous in memory, which is what most per-read operations (best allele search, normalization,
+ *     marginalization) want, and removing reads just moves whole rows down within the same array.
+ * </p>
+ *
+ * <p>
+ *     Both the allele and the read dimensions have spare capacity so that adding the non-ref allele or a few reads
+ *     does not reallocate the array every time.
+ * </p>
+ *
+ * <p>
+ *     Values can be kept in double precision (the default) or single precision, which halves the memory footprint
+ *     of high-depth regions with many haplotypes at the cost of rounding every likelihood to the nearest float.
+ * </p>
+ */
+abstract class SampleLikelihoodValues {
+
+    /**
+     * Extra allele slots reserved per read so that the non-ref allele can be added in place.
+     */
+    private static final int ALLELE_CAPACITY_SLACK = 1;
+
+    protected int alleleCount;
+    protected int alleleCapacity;
+    protected int readCount;
+    protected int readCapacity;
+
+    private SampleLikelihoodValues(final int alleleCount, final int alleleCapacity, final int readCount, final int readCapacity) {
+        this.alleleCount = alleleCount;
+        this.alleleCapacity = alleleCapacity;
+        this.readCount = readCount;
+        this.readCapacity = readCapacity;
+    }
+
+    /**
+     * Creates a new store with all likelihoods set to 0.
+     *
+     * @param alleleCount number of alleles.
+     * @param readCount number of reads.
+     * @param singlePrecision whether to store the likelihoods as floats rather than doubles.
+     * @return never {@code null}.
+     */
+    static SampleLikelihoodValues create(final int alleleCount, final int readCount, final boolean singlePrecision) {
+        Utils.validateArg(alleleCount >= 0, "the allele count cannot be negative");
+        Utils.validateArg(readCount >= 0, "the read count cannot be negative");
+        final int alleleCapacity = alleleCount + ALLELE_CAPACITY_SLACK;
+        return singlePrecision ? new SinglePrecision(alleleCount, alleleCapacity, readCount, readCount)
+                : new DoublePrecision(alleleCount, alleleCapacity, readCount, readCount);
+    }
+
+    final int alleleCount() {
+        return alleleCount;
+    }
+
+    final int readCount() {
+        return readCount;
+    }
+
+    abstract boolean isSinglePrecision();
+
+    abstract double get(final int alleleIndex, final int readIndex);
+
+    abstract void set(final int alleleIndex, final int readIndex, final double value);
+
+    /**
+     * @return an independent copy of this store with the same precision and no spare read capacity.
+     */
+    abstract SampleLikelihoodValues copy();
+
+    /**
+     * Copies the likelihoods of an allele for all the reads, in read index order, into an array.
+     */
+    abstract void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset);
+
+    /**
+     * Adds alleles after the existing ones.
+     *
+     * @param newAlleleCount the new total number of alleles.
+     * @param initialLikelihood the likelihood of every read given each of the new alleles.
+     */
+    final void addAlleles(final int newAlleleCount, final double initialLikelihood) {
+        Utils.validateArg(newAlleleCount >= alleleCount, "the allele count cannot decrease");
+        if (newAlleleCount > alleleCapacity) {
+            relayout(newAlleleCount + ALLELE_CAPACITY_SLACK, readCapacity);
+        }
+        final int oldAlleleCount = alleleCount;
+        alleleCount = newAlleleCount;
+        for (int r = 0; r < readCount; r++) {
+            fill(r * alleleCapacity + oldAlleleCount, r * alleleCapacity + newAlleleCount, initialLikelihood);
+        }
+    }
+
+    /**
+     * Adds reads after the existing ones.
+     *
+     * @param newReadCount the new total number of reads.
+     * @param initialLikelihood the likelihood of each of the new reads given every allele.
+     */
+    final void addReads(final int newReadCount, final double initialLikelihood) {
+        Utils.validateArg(newReadCount >= readCount, "the read count cannot decrease");
+        if (newReadCount > readCapacity) {
+            relayout(alleleCapacity, Math.max(newReadCount, readCapacity + (readCapacity >> 1)));
+        }
+        final int oldReadCount = readCount;
+        readCount = newReadCount;
+        // the spare allele slots are never read so we can fill whole rows.
+        fill(oldReadCount * alleleCapacity, newReadCount * alleleCapacity, initialLikelihood);
+    }
+
+    /**
+     * Removes reads in place, shifting down the likelihoods of the remaining reads.
+     *
+     * @param remove indicates which reads to remove, indexed by read.
+     * @param firstRemoved the index of the first read to remove.
+     * @param newReadCount the number of reads left after the removal.
+     */
+    final void removeReads(final boolean[] remove, final int firstRemoved, final int newReadCount) {
+        int to = firstRemoved;
+        int r = firstRemoved;
+        while (r < readCount) {
+            if (remove[r]) {
+                r++;
+                continue;
+            }
+            // move the whole run of kept reads at once.
+            final int runStart = r;
+            while (r < readCount && !remove[r]) {
+                r++;
+            }
+            moveRows(runStart, to, r - runStart);
+            to += r - runStart;
+        }
+        Utils.validate(to == newReadCount, "the number of reads to remove does not match the removal mask");
+        readCount = newReadCount;
+    }
+
+    /**
+     * Calculates the marginal likelihoods of new alleles each corresponding to a set of the current alleles,
+     * taking the maximum likelihood amongst the corresponding current alleles for each read.
+     *
+     * @param newAlleleCount the number of new alleles.
+     * @param oldToNewAlleleIndexMap the new allele index of each current allele, -1 for none.
+     * @param readsToKeep the indices of the reads in the result, {@code null} for all.
+     * @return never {@code null}, a new store with the same precision.
+     */
+    final SampleLikelihoodValues marginalize(final int newAlleleCount, final int[] oldToNewAlleleIndexMap, final int[] readsToKeep) {
+        final int newReadCount = readsToKeep == null ? readCount : readsToKeep.length;
+        final SampleLikelihoodValues result = create(newAlleleCount, newReadCount, isSinglePrecision());
+        result.fill(0, newReadCount * result.alleleCapacity, Double.NEGATIVE_INFINITY);
+        for (int r = 0; r < newReadCount; r++) {
+            final int oldReadIndex = readsToKeep == null ? r : readsToKeep[r];
+            for (int a = 0; a < alleleCount; a++) {
+                final int newAlleleIndex = oldToNewAlleleIndexMap[a];
+                if (newAlleleIndex == -1) {
+                    continue;
+                }
+                final double likelihood = get(a, oldReadIndex);
+                if (likelihood > result.get(newAlleleIndex, r)) {
+                    result.set(newAlleleIndex, r, likelihood);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Changes the array layout, keeping all the current values.
+     */
+    protected abstract void relayout(final int newAlleleCapacity, final int newReadCapacity);
+
+    /**
+     * Fills a range of the backing array.
+     */
+    protected abstract void fill(final int from, final int to, final double value);
+
+    /**
+     * Moves the likelihoods of a run of consecutive reads.
+     */
+    protected abstract void moveRows(final int fromRead, final int toRead, final int rowCount);
+
+    private static final class DoublePrecision extends SampleLikelihoodValues {
+        private double[] values;
+
+        private DoublePrecision(final int alleleCount, final int alleleCapacity, final int readCount, final int readCapacity) {
+            super(alleleCount, alleleCapacity, readCount, readCapacity);
+            values = new double[alleleCapacity * readCapacity];
+        }
+
+        @Override
+        boolean isSinglePrecision() {
+            return false;
+        }
+
+        @Override
+        double get(final int alleleIndex, final int readIndex) {
+            return values[readIndex * alleleCapacity + alleleIndex];
+        }
+
+        @Override
+        void set(final int alleleIndex, final int readIndex, final double value) {
+            values[readIndex * alleleCapacity + alleleIndex] = value;
+        }
+
+        @Override
+        SampleLikelihoodValues copy() {
+            final DoublePrecision result = new DoublePrecision(alleleCount, alleleCapacity, readCount, 0);
+            result.values = Arrays.copyOf(values, alleleCapacity * readCount);
+            result.readCapacity = readCount;
+            return result;
+        }
+
+        @Override
+        void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+            for (int r = 0, i = alleleIndex; r < readCount; r++, i += alleleCapacity) {
+                dest[offset + r] = values[i];
+            }
+        }
+
+        @Override
+        protected void relayout(final int newAlleleCapacity, final int newReadCapacity) {
+            final double[] newValues = new double[newAlleleCapacity * newReadCapacity];
+            if (newAlleleCapacity == alleleCapacity) {
+                System.arraycopy(values, 0, newValues, 0, readCount * alleleCapacity);
+            } else {
+                for (int r = 0; r < readCount; r++) {
+                    System.arraycopy(values, r * alleleCapacity, newValues, r * newAlleleCapacity, alleleCount);
+                }
+            }
+            values = newValues;
+            alleleCapacity = newAlleleCapacity;
+            readCapacity = newReadCapacity;
+        }
+
+        @Override
+        protected void fill(final int from, final int to, final double value) {
+            Arrays.fill(values, from, to, value);
+        }
+
+        @Override
+        protected void moveRows(final int fromRead, final int toRead, final int rowCount) {
+            System.arraycopy(values, fromRead * alleleCapacity, values, toRead * alleleCapacity, rowCount * alleleCapacity);
+        }
+    }
+
+    private static final class SinglePrecision extends SampleLikelihoodValues {
+        private float[] values;
+
+        private SinglePrecision(final int alleleCount, final int alleleCapacity, final int readCount, final int readCapacity) {
+            super(alleleCount, alleleCapacity, readCount, readCapacity);
+            values = new float[alleleCapacity * readCapacity];
+        }
+
+        @Override
+        boolean isSinglePrecision() {
+            return true;
+        }
+
+        @Override
+        double get(final int alleleIndex, final int readIndex) {
+            return values[readIndex * alleleCapacity + alleleIndex];
+        }
+
+        @Override
+        void set(final int alleleIndex, final int readIndex, final double value) {
+            values[readIndex * alleleCapacity + alleleIndex] = (float) value;
+        }
+
+        @Override
+        SampleLikelihoodValues copy() {
+            final SinglePrecision result = new SinglePrecision(alleleCount, alleleCapacity, readCount, 0);
+            result.values = Arrays.copyOf(values, alleleCapacity * readCount);
+            result.readCapacity = readCount;
+            return result;
+        }
+
+        @Override
+        void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+            for (int r = 0, i = alleleIndex; r < readCount; r++, i += alleleCapacity) {
+                dest[offset + r] = values[i];
+            }
+        }
+
+        @Override
+        protected void relayout(final int newAlleleCapacity, final int newReadCapacity) {
+            final float[] newValues = new float[newAlleleCapacity * newReadCapacity];
+            if (newAlleleCapacity == alleleCapacity) {
+                System.arraycopy(values, 0, newValues, 0, readCount * alleleCapacity);
+            } else {
+                for (int r = 0; r < readCount; r++) {
+                    System.arraycopy(values, r * alleleCapacity, newValues, r * newAlleleCapacity, alleleCount);
+                }
+            }
+            values = newValues;
+            alleleCapacity = newAlleleCapacity;
+            readCapacity = newReadCapacity;
+        }
+
+        @Override
+        protected void fill(final int from, final int to, final double value) {
+            Arrays.fill(values, from, to, (float) value);
+        }
+
+        @Override
+        protected void moveRows(final int fromRead, final int toRead, final int rowCount) {
+            System.arraycopy(values, fromRead * alleleCapacity, values, toRead * alleleCapacity, rowCount * alleleCapacity);
+        }
+    }
+}
@@ -46,7 +46,13 @@ public interface SmithWatermanAligner extends Closeable {
         /**
          * use the pure java implementation of Smith-Waterman, works on all hardware
          */
-        JAVA(SmithWatermanJavaAligner::getInstance);
+        JAVA(SmithWatermanJavaAligner::getInstance),
+
+        /**
+         * use the pure java implementation of Smith-Waterman restricted to a band of diagonals around the expected
+         * alignment, widening the band as needed; gives the same results as {@link #JAVA} for nearly diagonal alignments
+         */
+        BANDED_JAVA(SmithWatermanBandedJavaAligner::getInstance);
 
         private final Supplier<SmithWatermanAligner> alignerSupplier;
 
@@ -0,0 +1,469 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanJavaAligner.State;
+import static org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanJavaAligner.makeElement;
+
+/**
+ * Pairwise discrete smith-waterman alignment implemented in pure java, restricted to a band of diagonals.
+ *
+ * <p>
+ *     Haplotype to reference and read to haplotype alignments are nearly diagonal, so most of the full matrix computed
+ *     by {@link SmithWatermanJavaAligner} can't be on the best path. This aligner only fills the cells within a band of
+ *     diagonals around where the alignment is expected: between the two corners of the matrix for overhang strategies
+ *     that anchor the start of the alignment, or around the diagonals of shared k-mers otherwise. The band is stored
+ *     compactly, row by row, so memory scales with the band rather than with the matrix.
+ * </p>
+ *
+ * <p>
+ *     The recurrences, tie breaking and backtracking are the same as those of {@link SmithWatermanJavaAligner}, so both
+ *     produce the same alignment as long as it lies within the band. The band width is adaptive: if the backtracked path
+ *     comes close to an edge of the band, the band is doubled and the alignment recomputed, and when the band would
+ *     cover most of the matrix the full aligner is used instead.
+ * </p>
+ *
+ * ************************************************************************
+ * ****                    IMPORTANT NOTE:                             ****
+ * ****  This class assumes that all bytes come from UPPERCASED chars! ****
+ * ************************************************************************
+ */
+public final class SmithWatermanBandedJavaAligner implements SmithWatermanAligner {
+    private static final SmithWatermanBandedJavaAligner ALIGNER = new SmithWatermanBandedJavaAligner();
+
+    /**
+     * Number of diagonals added on each side of the expected diagonals in the first attempt.
+     */
+    private static final int INITIAL_BAND_MARGIN = 16;
+
+    /**
+     * A path closer than this to an edge of the band may have been cut short by it.
+     */
+    private static final int BAND_EDGE_DISTANCE = 2;
+
+    /**
+     * Length of the k-mers used to locate the band when the start of the alignment is not anchored.
+     */
+    private static final int SEED_KMER_SIZE = 11;
+
+    /**
+     * Number of shared k-mers, two of them overlapping by all but one base, needed for a diagonal to be expected in
+     * the alignment; single k-mer matches are too often spurious.
+     */
+    private static final int MIN_SEED_VOTES = 2;
+
+    private static final int MATRIX_MIN_CUTOFF = (int) -1.0e8;   // never let matrix elements drop below this cutoff
+    private static final int LOW_INIT_VALUE = Integer.MIN_VALUE / 2;
+
+    /**
+     * return the stateless singleton instance of SmithWatermanBandedJavaAligner
+     */
+    public static SmithWatermanBandedJavaAligner getInstance() {
+        return ALIGNER;
+    }
+
+    private SmithWatermanBandedJavaAligner(){}
+
+    /**
+     * Aligns the alternate sequence to the reference sequence
+     *
+     * @param reference  ref sequence
+     * @param alternate  alt sequence
+     */
+    @Override
+    public SmithWatermanAlignment align(final byte[] reference, final byte[] alternate, final SWParameters parameters, final SWOverhangStrategy overhangStrategy) {
+        if ( reference == null || reference.length == 0 || alternate == null || alternate.length == 0 ) {
+            throw new IllegalArgumentException("Non-null, non-empty sequences are required for the Smith-Waterman calculation");
+        }
+        Utils.nonNull(parameters);
+        Utils.nonNull(overhangStrategy);
+
+        // avoid running Smith-Waterman if there is an exact match of alternate in reference, exactly like the full aligner
+        if (overhangStrategy == SWOverhangStrategy.SOFTCLIP || overhangStrategy == SWOverhangStrategy.IGNORE) {
+            final int matchIndex = Utils.lastIndexOf(reference, alternate);
+            if (matchIndex != -1) {
+                final List<CigarElement> lce = new ArrayList<>(1);
+                lce.add(makeElement(State.MATCH, alternate.length));
+                return new SmithWatermanJavaAligner.SWPairwiseAlignmentResult(AlignmentUtils.consolidateCigar(new Cigar(lce)), matchIndex);
+            }
+        }
+
+        final int[] expectedDiagonals = expectedDiagonals(reference, alternate, overhangStrategy);
+        if (expectedDiagonals != null) {
+            for (int margin = INITIAL_BAND_MARGIN; ; margin <<= 1) {
+                final int lowDiagonal = Math.max(expectedDiagonals[0] - margin, 1 - reference.length);
+                final int highDiagonal = Math.min(expectedDiagonals[1] + margin, alternate.length - 1);
+                if ( 2 * (highDiagonal - lowDiagonal + 1) > alternate.length ) {
+                    break; // the band is not much smaller than the full matrix
+                }
+                final SmithWatermanAlignment result = new BandedMatrix(reference, alternate, lowDiagonal, highDiagonal, parameters, overhangStrategy)
+                        .backtrack(overhangStrategy);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return SmithWatermanJavaAligner.getInstance().align(reference, alternate, parameters, overhangStrategy);
+    }
+
+    /**
+     * Finds the range of diagonals, as alternate index - reference index, that the alignment is expected to follow.
+     *
+     * @return the lowest and highest expected diagonal, or {@code null} if they can't be guessed.
+     */
+    private static int[] expectedDiagonals(final byte[] reference, final byte[] alternate, final SWOverhangStrategy overhangStrategy) {
+        final int[] seeded = seedDiagonals(reference, alternate);
+        if ( overhangStrategy == SWOverhangStrategy.INDEL || overhangStrategy == SWOverhangStrategy.LEADING_INDEL ) {
+            // the alignment starts at the top left corner and (mostly) ends at the bottom right one
+            final int endDiagonal = alternate.length - reference.length;
+            final int low = Math.min(0, endDiagonal);
+            final int high = Math.max(0, endDiagonal);
+            return seeded == null ? new int[] {low, high} : new int[] {Math.min(low, seeded[0]), Math.max(high, seeded[1])};
+        }
+        return seeded;
+    }
+
+    /**
+     * Votes for the diagonals on which alternate and reference k-mers match, and returns the range of those that got
+     * at least {@link #MIN_SEED_VOTES} votes.
+     */
+    private static int[] seedDiagonals(final byte[] reference, final byte[] alternate) {
+        if ( reference.length < SEED_KMER_SIZE || alternate.length < SEED_KMER_SIZE ) {
+            return null;
+        }
+        // reference k-mers with their positions, sorted by k-mer
+        final long[] referenceKmers = new long[reference.length - SEED_KMER_SIZE + 1];
+        int referenceKmerCount = 0;
+        for (int i = 0; i + SEED_KMER_SIZE <= reference.length; i++) {
+            final long kmer = encodeKmer(reference, i);
+            if (kmer != -1) {
+                referenceKmers[referenceKmerCount++] = (kmer << 32) | i;
+            }
+        }
+        Arrays.sort(referenceKmers, 0, referenceKmerCount);
+
+        // diagonal d = j - i is counted at votes[d + reference.length]
+        final int[] votes = new int[reference.length + alternate.length];
+        int low = Integer.MAX_VALUE;
+        int high = Integer.MIN_VALUE;
+        for (int j = 0; j + SEED_KMER_SIZE <= alternate.length; j++) {
+            final long kmer = encodeKmer(alternate, j);
+            if (kmer == -1) {
+                continue;
+            }
+            int index = Arrays.binarySearch(referenceKmers, 0, referenceKmerCount, kmer << 32);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            for (; index < referenceKmerCount && (referenceKmers[index] >>> 32) == kmer; index++) {
+                final int diagonal = j - (int) referenceKmers[index];
+                if (++votes[diagonal + reference.length] == MIN_SEED_VOTES) {
+                    low = Math.min(low, diagonal);
+                    high = Math.max(high, diagonal);
+                }
+            }
+        }
+        return low > high ? null : new int[] {low, high};
+    }
+
+    /**
+     * @return the 2-bit encoding of the k-mer starting at the given offset, or -1 if it has a base other than ACGT.
+     */
+    private static long encodeKmer(final byte[] bases, final int offset) {
+        long kmer = 0;
+        for (int k = offset; k < offset + SEED_KMER_SIZE; k++) {
+            final int code;
+            switch (bases[k]) {
+                case 'A': code = 0; break;
+                case 'C': code = 1; break;
+                case 'G': code = 2; break;
+                case 'T': code = 3; break;
+                default: return -1;
+            }
+            kmer = (kmer << 2) | code;
+        }
+        return kmer;
+    }
+
+    /**
+     * The cells of the Smith-Waterman matrix within a band of diagonals, with the back track of each cell.
+     *
+     * Cell (i, j), for reference index i and alternate index j, is in the band if {@code lowDiagonal <= j - i <= highDiagonal}.
+     * The first row and column are the boundary of the matrix, always known, and cells outside of the band are
+     * treated as unreachable.
+     */
+    private static final class BandedMatrix {
+        private final int refLength;
+        private final int altLength;
+        private final int lowDiagonal;
+        private final int highDiagonal;
+
+        private final int[] rowLo;
+        private final int[] rowHi;
+        private final int[] rowOffset;
+
+        // back track of the band, row after row; same encoding as in SmithWatermanJavaAligner
+        private final int[] btrack;
+
+        // the scores of the last column and the last row, which are all that is needed to pick where to start backtracking
+        private final int[] lastColumn;
+        private final int[] lastRow;
+
+        // whether the best alignment of a reference prefix drifted to an edge of the band, in which case the best
+        // alignment overall may well be outside of it
+        private boolean bestInRowNearEdge = false;
+
+        BandedMatrix(final byte[] reference, final byte[] alternate, final int lowDiagonal, final int highDiagonal,
+                     final SWParameters parameters, final SWOverhangStrategy overhangStrategy) {
+            this.refLength = reference.length;
+            this.altLength = alternate.length;
+            this.lowDiagonal = lowDiagonal;
+            this.highDiagonal = highDiagonal;
+
+            rowLo = new int[refLength + 1];
+            rowHi = new int[refLength + 1];
+            rowOffset = new int[refLength + 2];
+            for (int i = 1; i <= refLength; i++) {
+                rowLo[i] = Math.max(1, i + lowDiagonal);
+                rowHi[i] = Math.min(altLength, i + highDiagonal);
+                rowOffset[i + 1] = rowOffset[i] + Math.max(0, rowHi[i] - rowLo[i] + 1);
+            }
+            btrack = new int[rowOffset[refLength + 1]];
+            lastColumn = new int[refLength + 1];
+            Arrays.fill(lastColumn, LOW_INIT_VALUE);
+
+            final int w_open = parameters.getGapOpenPenalty();
+            final int w_extend = parameters.getGapExtendPenalty();
+            final int w_match = parameters.getMatchValue();
+            final int w_mismatch = parameters.getMismatchPenalty();
+
+            // we need to initialize the boundary with gap penalties if we want to keep track of indels at the edges of alignments
+            final boolean penalizeOverhangs = overhangStrategy == SWOverhangStrategy.INDEL || overhangStrategy == SWOverhangStrategy.LEADING_INDEL;
+
+            int[] curRow = new int[altLength + 1];
+            int[] prevRow = new int[altLength + 1];
+            if ( penalizeOverhangs ) {
+                int currentValue = w_open;
+                curRow[1] = currentValue;
+                for (int j = 2; j <= altLength; j++) {
+                    currentValue += w_extend;
+                    curRow[j] = currentValue;
+                }
+            }
+
+            final int[] best_gap_v = new int[altLength + 1];
+            Arrays.fill(best_gap_v, LOW_INIT_VALUE);
+            final int[] gap_size_v = new int[altLength + 1];
+            int firstColumnValue = 0;
+
+            for (int i = 1; i <= refLength; i++) {
+                final int[] swap = prevRow;
+                prevRow = curRow;
+                curRow = swap;
+
+                final int lo = rowLo[i];
+                final int hi = rowHi[i];
+                if ( penalizeOverhangs ) {
+                    firstColumnValue = i == 1 ? w_open : firstColumnValue + w_extend;
+                }
+                curRow[0] = firstColumnValue;
+                if (lo > 1 && lo <= altLength + 1) {
+                    curRow[lo - 1] = LOW_INIT_VALUE;
+                }
+
+                final byte a_base = reference[i - 1];
+                final int offset = rowOffset[i] - lo;
+                int best_gap_h = LOW_INIT_VALUE;
+                int gap_size_h = 0;
+                for (int j = lo; j <= hi; j++) {
+                    final byte b_base = alternate[j - 1];
+                    final int step_diag = prevRow[j - 1] + (a_base == b_base ? w_match : w_mismatch);
+
+                    // see SmithWatermanJavaAligner for how the best gaps ending in each cell are tracked
+                    int prev_gap = prevRow[j] + w_open;
+                    best_gap_v[j] += w_extend;
+                    if ( prev_gap > best_gap_v[j] ) {
+                        best_gap_v[j] = prev_gap;
+                        gap_size_v[j] = 1;
+                    } else {
+                        gap_size_v[j]++;
+                    }
+                    final int step_down = best_gap_v[j];
+                    final int kd = gap_size_v[j];
+
+                    prev_gap = curRow[j - 1] + w_open;
+                    best_gap_h += w_extend;
+                    if ( prev_gap > best_gap_h ) {
+                        best_gap_h = prev_gap;
+                        gap_size_h = 1;
+                    } else {
+                        gap_size_h++;
+                    }
+                    final int step_right = best_gap_h;
+                    final int ki = gap_size_h;
+
+                    //priority here will be step diagonal, step right, step down
+                    if ( step_diag >= step_down && step_diag >= step_right ) {
+                        curRow[j] = Math.max(MATRIX_MIN_CUTOFF, step_diag);
+                        btrack[offset + j] = 0;
+                    } else if ( step_right >= step_down ) {
+                        curRow[j] = Math.max(MATRIX_MIN_CUTOFF, step_right);
+                        btrack[offset + j] = -ki;
+                    } else {
+                        curRow[j] = Math.max(MATRIX_MIN_CUTOFF, step_down);
+                        btrack[offset + j] = kd;
+                    }
+                }
+
+                // the next row may step down from just past the end of this row's band
+                if (hi + 1 >= 1 && hi + 1 <= altLength) {
+                    curRow[hi + 1] = LOW_INIT_VALUE;
+                }
+                if (hi == altLength && lo <= hi) {
+                    lastColumn[i] = curRow[altLength];
+                }
+                if (!bestInRowNearEdge && lo <= hi) {
+                    int bestJ = lo;
+                    for (int j = lo + 1; j <= hi; j++) {
+                        if (curRow[j] > curRow[bestJ]) {
+                            bestJ = j;
+                        }
+                    }
+                    bestInRowNearEdge = nearBandEdge(i, bestJ);
+                }
+            }
+            lastRow = curRow;
+        }
+
+        private boolean inBand(final int i, final int j) {
+            return j >= rowLo[i] && j <= rowHi[i];
+        }
+
+        /**
+         * @return whether the alignment through this cell may have been different in the full matrix.
+         */
+        private boolean nearBandEdge(final int i, final int j) {
+            final int diagonal = j - i;
+            return (lowDiagonal > 1 - refLength && diagonal - lowDiagonal < BAND_EDGE_DISTANCE)
+                    || (highDiagonal < altLength - 1 && highDiagonal - diagonal < BAND_EDGE_DISTANCE);
+        }
+
+        /**
+         * Calculates the CIGAR for the alignment from the back track of the band, exactly like the full aligner does
+         * from the full back track matrix.
+         *
+         * @return the alignment, or {@code null} if it or the best alignment of any row comes close to an edge of the band.
+         */
+        SmithWatermanAlignment backtrack(final SWOverhangStrategy overhangStrategy) {
+            if ( bestInRowNearEdge ) {
+                return null;
+            }
+
+            // p holds the position we start backtracking from; we will be assembling a cigar in the backwards order
+            int p1 = 0, p2 = 0;
+
+            int maxscore = Integer.MIN_VALUE; // sw scores are allowed to be negative
+            int segment_length = 0; // length of the segment (continuous matches, insertions or deletions)
+
+            if ( overhangStrategy == SWOverhangStrategy.INDEL ) {
+                p1 = refLength;
+                p2 = altLength;
+            } else {
+                // look for the largest score on the rightmost column, then on the bottom-most row
+                p2 = altLength;
+                for (int i = 1; i <= refLength; i++) {
+                    if ( inBand(i, altLength) && lastColumn[i] >= maxscore ) {
+                        p1 = i;
+                        maxscore = lastColumn[i];
+                    }
+                }
+                if ( overhangStrategy != SWOverhangStrategy.LEADING_INDEL ) {
+                    for (int j = rowLo[refLength]; j <= rowHi[refLength]; j++) {
+                        final int curScore = lastRow[j];
+                        if ( curScore > maxscore ||
+                                (curScore == maxscore && Math.abs(refLength - j) < Math.abs(p1 - p2) ) ) {
+                            p1 = refLength;
+                            p2 = j;
+                            maxscore = curScore;
+                            segment_length = altLength - j; // end of sequence 2 is overhanging; we will just record it as 'M' segment
+                        }
+                    }
+                }
+                if ( maxscore == Integer.MIN_VALUE ) {
+                    return null; // neither the last row nor the last column crosses the band
+                }
+            }
+
+            final List<CigarElement> lce = new ArrayList<>(5);
+            if ( segment_length > 0 && overhangStrategy == SWOverhangStrategy.SOFTCLIP ) {
+                lce.add(makeElement(State.CLIP, segment_length));
+                segment_length = 0;
+            }
+
+            State state = State.MATCH;
+            do {
+                if ( !inBand(p1, p2) || nearBandEdge(p1, p2) ) {
+                    return null;
+                }
+                final int btr = btrack[rowOffset[p1] + p2 - rowLo[p1]];
+                final State new_state;
+                int step_length = 1;
+                if ( btr > 0 ) {
+                    new_state = State.DELETION;
+                    step_length = btr;
+                } else if ( btr < 0 ) {
+                    new_state = State.INSERTION;
+                    step_length = (-btr);
+                } else new_state = State.MATCH; // and step_length =1, already set above
+
+                // move to next best location in the sw matrix:
+                switch( new_state ) {
+                    case MATCH:  p1--; p2--; break; // move back along the diag in the sw matrix
+                    case INSERTION: p2 -= step_length; break; // move left
+                    case DELETION:  p1 -= step_length; break; // move up
+                }
+
+                // now let's see if the state actually changed:
+                if ( new_state == state ) segment_length+=step_length;
+                else {
+                    // state changed, lets emit previous segment, whatever it was (Insertion Deletion, or (Mis)Match).
+                    lce.add(makeElement(state, segment_length));
+                    segment_length = step_length;
+                    state = new_state;
+                }
+            } while ( p1 > 0 && p2 > 0 );
+
+            // post-process the last segment and the overhangs like SmithWatermanJavaAligner does
+            final int alignment_offset;
+            if ( overhangStrategy == SWOverhangStrategy.SOFTCLIP ) {
+                lce.add(makeElement(state, segment_length));
+                if ( p2 > 0 ) lce.add(makeElement(State.CLIP, p2));
+                alignment_offset = p1;
+            } else if ( overhangStrategy == SWOverhangStrategy.IGNORE ) {
+                lce.add(makeElement(state, segment_length + p2));
+                alignment_offset = p1 - p2;
+            } else {  // overhangStrategy == OverhangStrategy.INDEL || overhangStrategy == OverhangStrategy.LEADING_INDEL
+                lce.add(makeElement(state, segment_length));
+                if ( p1 > 0 ) {
+                    lce.add(makeElement(State.DELETION, p1));
+                } else if ( p2 > 0 ) {
+                    lce.add(makeElement(State.INSERTION, p2));
+                }
+                alignment_offset = 0;
+            }
+
+            Collections.reverse(lce);
+            return new SmithWatermanJavaAligner.SWPairwiseAlignmentResult(AlignmentUtils.consolidateCigar(new Cigar(lce)), alignment_offset);
+        }
+    }
+}
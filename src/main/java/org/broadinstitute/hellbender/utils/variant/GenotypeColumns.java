@@ -0,0 +1,634 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.variant.variantcontext.*;
+import htsjdk.variant.vcf.VCFConstants;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.*;
+
+/**
+ * A columnar, in-memory representation of the genotypes of all samples at a site.
+ *
+ * <p>
+ *     Instead of one {@link Genotype} object (with its own arrays and attribute map) per sample, the GT, AD, DP, GQ and
+ *     PL fields of all samples are held in a handful of primitive int arrays: alleles are stored as indices into the
+ *     site's allele list, and AD, PL and GT values of all samples are packed end-to-end with a per-sample offset table.
+ *     Other genotype attributes and filters are kept per sample, and only for the samples that have them.
+ * </p>
+ *
+ * <p>
+ *     Blocks are filled with a {@link Builder}, either from {@link Genotype}s ({@link #fromGenotypes}) or straight from
+ *     the genotype fields of a VCF record that have not been decoded yet ({@link #decode}), in which case no
+ *     {@link Genotype} is ever created.
+ * </p>
+ *
+ * <p>
+ *     {@link #toGenotypesContext()} adapts a block to the htsjdk {@link VariantContext} API without creating any
+ *     {@link Genotype}: the returned context decodes all genotypes on first access. As long as it hasn't been
+ *     decoded, {@link #of(GenotypesContext)} returns the block back, so that code can keep working on the columns.
+ *     Note that the genotypes must be added to a {@link VariantContextBuilder} with
+ *     {@link VariantContextBuilder#genotypesNoValidation}, since validating them decodes them.
+ * </p>
+ *
+ * <p>
+ *     Instances are immutable.
+ * </p>
+ */
+public final class GenotypeColumns {
+
+    /**
+     * The value of DP and GQ for samples that don't have them, and the allele index of a no-call.
+     */
+    public static final int MISSING = -1;
+
+    /**
+     * The genotype likelihoods field of VCF 4.0, which is converted to PLs when decoding.
+     */
+    private static final String GENOTYPE_LIKELIHOODS_KEY = "GL";
+
+    private static final LazyGenotypesContext.LazyParser PARSER = data -> ((GenotypeColumns) data).decodeGenotypes();
+
+    private final List<Allele> alleles;
+    private final List<String> sampleNames;
+    private final PackedColumn genotypeAlleles;
+    private final BitSet phased;
+    private final PackedColumn ad;
+    private final int[] dp;
+    private final int[] gq;
+    private final PackedColumn pl;
+    // no entry for samples without other attributes or filters
+    private final Map<Integer, Map<String, Object>> extendedAttributes;
+    private final Map<Integer, String> filters;
+
+    /**
+     * Variable-length int values for each sample, packed into a single array.
+     */
+    private static final class PackedColumn {
+        private final int[] offsets;
+        private final int[] values;
+
+        private PackedColumn(final int[] offsets, final int[] values) {
+            this.offsets = offsets;
+            this.values = values;
+        }
+
+        int length(final int sampleIndex) {
+            return offsets[sampleIndex + 1] - offsets[sampleIndex];
+        }
+
+        int get(final int sampleIndex, final int i) {
+            return values[offsets[sampleIndex] + i];
+        }
+
+        /**
+         * @return a copy of the values of the sample, or null if it has none
+         */
+        int[] toArray(final int sampleIndex) {
+            return length(sampleIndex) == 0 ? null : Arrays.copyOfRange(values, offsets[sampleIndex], offsets[sampleIndex + 1]);
+        }
+    }
+
+    /**
+     * Fills a {@link PackedColumn} one sample after another.
+     */
+    private static final class PackedColumnBuilder {
+        private final int[] offsets;
+        private int[] values;
+        private int size = 0;
+
+        PackedColumnBuilder(final int sampleCount, final int expectedValuesPerSample) {
+            offsets = new int[sampleCount + 1];
+            values = new int[Math.max(1, sampleCount * expectedValuesPerSample)];
+        }
+
+        /**
+         * Sets the values of the next sample; null means none.
+         */
+        void add(final int sampleIndex, final int[] sampleValues) {
+            if (sampleValues != null) {
+                if (size + sampleValues.length > values.length) {
+                    values = Arrays.copyOf(values, Math.max(size + sampleValues.length, 2 * values.length));
+                }
+                System.arraycopy(sampleValues, 0, values, size, sampleValues.length);
+                size += sampleValues.length;
+            }
+            offsets[sampleIndex + 1] = size;
+        }
+
+        PackedColumn build() {
+            return new PackedColumn(offsets, size == values.length ? values : Arrays.copyOf(values, size));
+        }
+    }
+
+    private GenotypeColumns(final Builder builder) {
+        alleles = builder.alleles;
+        sampleNames = Collections.unmodifiableList(builder.sampleNames);
+        genotypeAlleles = builder.genotypeAlleles.build();
+        phased = builder.phased;
+        ad = builder.ad.build();
+        dp = builder.dp;
+        gq = builder.gq;
+        pl = builder.pl.build();
+        extendedAttributes = builder.extendedAttributes;
+        filters = builder.filters;
+    }
+
+    /**
+     * Creates a block holding the given genotypes.
+     *
+     * @param alleles the alleles of the site, reference first; all called genotype alleles must be among them
+     * @param genotypes the genotypes, in the order they will be returned
+     * @throws IllegalArgumentException if a genotype has an allele that is not in {@code alleles}
+     */
+    public static GenotypeColumns fromGenotypes(final List<Allele> alleles, final GenotypesContext genotypes) {
+        Utils.nonNull(alleles, "alleles");
+        Utils.nonNull(genotypes, "genotypes");
+        final Map<Allele, Integer> alleleIndices = new HashMap<>(alleles.size() * 2);
+        for (int i = 0; i < alleles.size(); i++) {
+            alleleIndices.putIfAbsent(alleles.get(i), i);
+        }
+
+        final Builder builder = new Builder(alleles, genotypes.size());
+        for (final Genotype g : genotypes) {
+            final int[] gt = new int[g.getPloidy()];
+            for (int i = 0; i < gt.length; i++) {
+                final Allele allele = g.getAllele(i);
+                if (allele.isNoCall()) {
+                    gt[i] = MISSING;
+                } else {
+                    final Integer alleleIndex = alleleIndices.get(allele);
+                    Utils.validateArg(alleleIndex != null, () -> "allele " + allele + " of sample " + g.getSampleName() + " is not among the alleles " + alleles);
+                    gt[i] = alleleIndex;
+                }
+            }
+            builder.sample(g.getSampleName())
+                    .genotypeAlleles(gt, g.isPhased())
+                    .AD(g.getAD())
+                    .DP(g.hasDP() ? g.getDP() : MISSING)
+                    .GQ(g.hasGQ() ? g.getGQ() : MISSING)
+                    .PL(g.getPL())
+                    .filter(g.getFilters());
+            g.getExtendedAttributes().forEach(builder::attribute);
+        }
+        return builder.make();
+    }
+
+    /**
+     * Creates a block holding the genotypes of the given variant context, or returns the block backing them if they
+     * are still columnar.
+     */
+    public static GenotypeColumns fromVariantContext(final VariantContext vc) {
+        Utils.nonNull(vc, "vc");
+        final GenotypeColumns columns = of(vc.getGenotypes());
+        return columns != null ? columns : fromGenotypes(vc.getAlleles(), vc.getGenotypes());
+    }
+
+    /**
+     * Creates a block holding the genotypes of a variant context read from a VCF file.
+     *
+     * <p>
+     *     If the genotypes of {@code vc} have not been decoded yet, the block is filled straight from the text of the
+     *     FORMAT and sample columns of the record, giving the same values as htsjdk would, without creating any
+     *     {@link Genotype}. Otherwise this is the same as {@link #fromVariantContext}.
+     * </p>
+     *
+     * @param vc a variant context as decoded by a VCF codec
+     * @param sampleNames the genotype sample names of the VCF header, in the order of its columns
+     * @throws IllegalArgumentException if the genotype fields are malformed
+     */
+    public static GenotypeColumns decode(final VariantContext vc, final List<String> sampleNames) {
+        Utils.nonNull(vc, "vc");
+        Utils.nonNull(sampleNames, "sampleNames");
+        if (vc.getGenotypes() instanceof LazyGenotypesContext) {
+            final Object data = ((LazyGenotypesContext) vc.getGenotypes()).getUnparsedGenotypeData();
+            if (data instanceof String) {
+                return decodeVCFGenotypeFields((String) data, vc.getAlleles(), sampleNames);
+            }
+        }
+        return fromVariantContext(vc);
+    }
+
+    /**
+     * Fills a block from the FORMAT and sample columns of a VCF record, tab-separated.
+     */
+    private static GenotypeColumns decodeVCFGenotypeFields(final String fields, final List<Allele> alleles, final List<String> sampleNames) {
+        final List<String> columns = split(fields, '\t');
+        Utils.validateArg(columns.size() == sampleNames.size() + 1,
+                () -> "expected genotype fields for " + sampleNames.size() + " samples but found " + (columns.size() - 1));
+        final List<String> keys = split(columns.get(0), ':');
+
+        final Builder builder = new Builder(alleles, sampleNames.size());
+        for (int sample = 0; sample < sampleNames.size(); sample++) {
+            final String sampleName = sampleNames.get(sample);
+            final List<String> values = split(columns.get(sample + 1), ':');
+            Utils.validateArg(values.size() <= keys.size(), () -> "sample " + sampleName + " has more genotype fields than the FORMAT keys " + keys);
+            builder.sample(sampleName);
+            // trailing fields may be dropped
+            for (int i = 0; i < values.size(); i++) {
+                final String key = keys.get(i);
+                final String value = values.get(i);
+                if (key.equals(VCFConstants.GENOTYPE_KEY)) {
+                    builder.genotypeAlleles(parseGenotypeAlleles(value, alleles.size(), sampleName), value.indexOf(VCFConstants.PHASED) >= 0);
+                } else if (value.equals(VCFConstants.MISSING_VALUE_v4)) {
+                    continue;
+                } else if (key.equals(VCFConstants.GENOTYPE_FILTER_KEY)) {
+                    builder.filter(value.equals(VCFConstants.PASSES_FILTERS_v4) ? null : sortedFilters(value));
+                } else if (key.equals(VCFConstants.GENOTYPE_QUALITY_KEY)) {
+                    builder.GQ((int) Math.round(Double.parseDouble(value)));
+                } else if (key.equals(VCFConstants.DEPTH_KEY)) {
+                    builder.DP(Integer.parseInt(value));
+                } else if (key.equals(VCFConstants.GENOTYPE_ALLELE_DEPTHS)) {
+                    builder.AD(parseInts(value));
+                } else if (key.equals(VCFConstants.GENOTYPE_PL_KEY)) {
+                    builder.PL(parseInts(value));
+                } else if (key.equals(GENOTYPE_LIKELIHOODS_KEY)) {
+                    builder.PL(GenotypeLikelihoods.fromLog10Likelihoods(split(value, ',').stream().mapToDouble(Double::parseDouble).toArray()).getAsPLs());
+                } else {
+                    builder.attribute(key, value);
+                }
+            }
+        }
+        return builder.make();
+    }
+
+    private static int[] parseGenotypeAlleles(final String gt, final int alleleCount, final String sampleName) {
+        final List<String> alleleStrings = split(gt.replace(VCFConstants.PHASED, VCFConstants.UNPHASED), VCFConstants.UNPHASED.charAt(0));
+        final int[] result = new int[alleleStrings.size()];
+        for (int i = 0; i < result.length; i++) {
+            final String allele = alleleStrings.get(i);
+            if (allele.equals(VCFConstants.EMPTY_ALLELE)) {
+                result[i] = MISSING;
+            } else {
+                result[i] = Integer.parseInt(allele);
+                Utils.validateArg(result[i] >= 0 && result[i] < alleleCount, () -> "genotype " + gt + " of sample " + sampleName + " refers to a missing allele");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sorts a ';'-separated list of genotype filters, as the VCF codec does.
+     */
+    private static String sortedFilters(final String value) {
+        if (value.indexOf(';') < 0) {
+            return value;
+        }
+        final List<String> filters = split(value, ';');
+        Collections.sort(filters);
+        return String.join(";", filters);
+    }
+
+    private static int[] parseInts(final String value) {
+        final List<String> strings = split(value, ',');
+        final int[] result = new int[strings.size()];
+        for (int i = 0; i < result.length; i++) {
+            final String s = strings.get(i);
+            result[i] = s.equals(VCFConstants.MISSING_VALUE_v4) ? MISSING : Integer.parseInt(s);
+        }
+        return result;
+    }
+
+    private static List<String> split(final String s, final char separator) {
+        final List<String> result = new ArrayList<>();
+        int start = 0;
+        for (int end = s.indexOf(separator); end >= 0; end = s.indexOf(separator, start)) {
+            result.add(s.substring(start, end));
+            start = end + 1;
+        }
+        result.add(s.substring(start));
+        return result;
+    }
+
+    /**
+     * @return the block backing the given genotypes, if they were created by {@link #toGenotypesContext()} and have not
+     *         been decoded since; null otherwise.
+     */
+    public static GenotypeColumns of(final GenotypesContext genotypes) {
+        if (genotypes instanceof LazyGenotypesContext) {
+            final Object data = ((LazyGenotypesContext) genotypes).getUnparsedGenotypeData();
+            return data instanceof GenotypeColumns ? (GenotypeColumns) data : null;
+        }
+        return null;
+    }
+
+    /**
+     * @return a genotypes context backed by this block, that creates the {@link Genotype} objects only when they are
+     *         first accessed
+     */
+    public GenotypesContext toGenotypesContext() {
+        return new LazyGenotypesContext(PARSER, this, getSampleCount());
+    }
+
+    private LazyGenotypesContext.LazyData decodeGenotypes() {
+        final int sampleCount = getSampleCount();
+        final ArrayList<Genotype> genotypes = new ArrayList<>(sampleCount);
+        final Map<String, Integer> sampleNameToOffset = new HashMap<>(sampleCount * 2);
+        for (int i = 0; i < sampleCount; i++) {
+            genotypes.add(getGenotype(i));
+            sampleNameToOffset.put(sampleNames.get(i), i);
+        }
+        return new LazyGenotypesContext.LazyData(genotypes, new ArrayList<>(sampleNames), sampleNameToOffset);
+    }
+
+    /**
+     * Creates the {@link Genotype} of one sample.
+     */
+    public Genotype getGenotype(final int sampleIndex) {
+        final List<Allele> genotypeAlleles = new ArrayList<>(getPloidy(sampleIndex));
+        for (int i = 0; i < getPloidy(sampleIndex); i++) {
+            final int alleleIndex = getGenotypeAllele(sampleIndex, i);
+            genotypeAlleles.add(alleleIndex == MISSING ? Allele.NO_CALL : alleles.get(alleleIndex));
+        }
+        final GenotypeBuilder builder = new GenotypeBuilder(sampleNames.get(sampleIndex), genotypeAlleles).phased(isPhased(sampleIndex));
+        if (dp[sampleIndex] != MISSING) {
+            builder.DP(dp[sampleIndex]);
+        }
+        if (gq[sampleIndex] != MISSING) {
+            builder.GQ(gq[sampleIndex]);
+        }
+        builder.AD(ad.toArray(sampleIndex));
+        builder.PL(pl.toArray(sampleIndex));
+        final Map<String, Object> attributes = extendedAttributes.get(sampleIndex);
+        if (attributes != null) {
+            builder.attributes(attributes);
+        }
+        builder.filter(filters.get(sampleIndex));
+        return builder.make();
+    }
+
+    public List<Allele> getAlleles() {
+        return alleles;
+    }
+
+    public List<String> getSampleNames() {
+        return sampleNames;
+    }
+
+    public int getSampleCount() {
+        return sampleNames.size();
+    }
+
+    public int getPloidy(final int sampleIndex) {
+        return genotypeAlleles.length(sampleIndex);
+    }
+
+    /**
+     * Same as {@link VariantContext#getMaxPloidy}.
+     */
+    public int getMaxPloidy(final int defaultPloidy) {
+        int maxPloidy = 0;
+        for (int sample = 0; sample < getSampleCount(); sample++) {
+            maxPloidy = Math.max(maxPloidy, getPloidy(sample));
+        }
+        return maxPloidy == 0 ? defaultPloidy : maxPloidy;
+    }
+
+    /**
+     * @return the index in {@link #getAlleles()} of the i-th allele of the sample's genotype, or {@link #MISSING} for a no-call
+     */
+    public int getGenotypeAllele(final int sampleIndex, final int i) {
+        return genotypeAlleles.get(sampleIndex, i);
+    }
+
+    public boolean isPhased(final int sampleIndex) {
+        return phased.get(sampleIndex);
+    }
+
+    public boolean hasAD(final int sampleIndex) {
+        return ad.length(sampleIndex) > 0;
+    }
+
+    public int getAD(final int sampleIndex, final int alleleIndex) {
+        return ad.get(sampleIndex, alleleIndex);
+    }
+
+    /**
+     * @return the sample's DP, or {@link #MISSING}
+     */
+    public int getDP(final int sampleIndex) {
+        return dp[sampleIndex];
+    }
+
+    /**
+     * @return the sample's GQ, or {@link #MISSING}
+     */
+    public int getGQ(final int sampleIndex) {
+        return gq[sampleIndex];
+    }
+
+    public boolean hasPL(final int sampleIndex) {
+        return pl.length(sampleIndex) > 0;
+    }
+
+    public int getPL(final int sampleIndex, final int genotypeIndex) {
+        return pl.get(sampleIndex, genotypeIndex);
+    }
+
+    /**
+     * @return a copy of the sample's PLs, or null if it has none
+     */
+    public int[] getPLs(final int sampleIndex) {
+        return pl.toArray(sampleIndex);
+    }
+
+    /**
+     * @return the value of a genotype attribute other than GT, AD, DP, GQ, PL and FT, or null if the sample doesn't have it
+     */
+    public Object getExtendedAttribute(final int sampleIndex, final String key) {
+        final Map<String, Object> attributes = extendedAttributes.get(sampleIndex);
+        return attributes == null ? null : attributes.get(key);
+    }
+
+    /**
+     * @return the sample's filters, or null if it is not filtered
+     */
+    public String getFilter(final int sampleIndex) {
+        return filters.get(sampleIndex);
+    }
+
+    /**
+     * Counts the called alleles of all genotypes, like {@link VariantContext#getCalledChrCount(Allele)} does for each
+     * allele.
+     *
+     * @return the number of called chromosomes for each allele, in the order of {@link #getAlleles()}
+     */
+    public int[] getCalledChrCounts() {
+        final int[] counts = new int[alleles.size()];
+        for (int sample = 0; sample < getSampleCount(); sample++) {
+            for (int i = 0; i < getPloidy(sample); i++) {
+                final int alleleIndex = getGenotypeAllele(sample, i);
+                if (alleleIndex != MISSING) {
+                    counts[alleleIndex]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Fills a {@link GenotypeColumns} one sample after another.
+     *
+     * <p>
+     *     Each sample is started with {@link #sample}, and its fields are then set with the other methods; fields that
+     *     are not set are missing.
+     * </p>
+     */
+    public static final class Builder {
+        private final List<Allele> alleles;
+        private final int sampleCount;
+        private final List<String> sampleNames;
+        private final PackedColumnBuilder genotypeAlleles;
+        private final BitSet phased;
+        private final PackedColumnBuilder ad;
+        private final int[] dp;
+        private final int[] gq;
+        private final PackedColumnBuilder pl;
+        private final Map<Integer, Map<String, Object>> extendedAttributes = new HashMap<>();
+        private final Map<Integer, String> filters = new HashMap<>();
+
+        // fields of the current sample, added to their columns when the next one starts
+        private int currentSample = -1;
+        private int[] currentGenotypeAlleles;
+        private int[] currentAD;
+        private int[] currentPL;
+        private boolean made = false;
+
+        /**
+         * @param alleles the alleles of the site, reference first
+         * @param sampleCount the number of samples that will be added
+         */
+        public Builder(final List<Allele> alleles, final int sampleCount) {
+            Utils.nonNull(alleles, "alleles");
+            Utils.validateArg(sampleCount >= 0, "sampleCount must not be negative");
+            this.alleles = Collections.unmodifiableList(new ArrayList<>(alleles));
+            this.sampleCount = sampleCount;
+            sampleNames = new ArrayList<>(sampleCount);
+            genotypeAlleles = new PackedColumnBuilder(sampleCount, 2);
+            phased = new BitSet(sampleCount);
+            ad = new PackedColumnBuilder(sampleCount, alleles.size());
+            dp = new int[sampleCount];
+            gq = new int[sampleCount];
+            pl = new PackedColumnBuilder(sampleCount, GenotypeLikelihoods.numLikelihoods(alleles.size(), 2));
+        }
+
+        /**
+         * Starts the next sample.
+         *
+         * @throws IllegalStateException if all samples have been added already
+         */
+        public Builder sample(final String sampleName) {
+            Utils.nonNull(sampleName, "sampleName");
+            Utils.validate(currentSample + 1 < sampleCount, () -> "cannot add more than " + sampleCount + " samples");
+            finishSample();
+            currentSample++;
+            sampleNames.add(sampleName);
+            dp[currentSample] = MISSING;
+            gq[currentSample] = MISSING;
+            return this;
+        }
+
+        /**
+         * Starts the next sample as a copy of a sample of another block with the same alleles.
+         */
+        public Builder sample(final GenotypeColumns source, final int sampleIndex) {
+            Utils.validateArg(source.getAlleles().equals(alleles), "the source block must have the same alleles");
+            sample(source.sampleNames.get(sampleIndex));
+            genotypeAlleles(source.genotypeAlleles.toArray(sampleIndex), source.isPhased(sampleIndex));
+            AD(source.ad.toArray(sampleIndex));
+            DP(source.getDP(sampleIndex));
+            GQ(source.getGQ(sampleIndex));
+            PL(source.pl.toArray(sampleIndex));
+            filter(source.getFilter(sampleIndex));
+            final Map<String, Object> attributes = source.extendedAttributes.get(sampleIndex);
+            if (attributes != null) {
+                extendedAttributes.put(currentSample, new LinkedHashMap<>(attributes));
+            }
+            return this;
+        }
+
+        /**
+         * @param gt the indices in the alleles of the site of the genotype alleles, or {@link #MISSING} for no-calls;
+         *           null means no alleles
+         */
+        public Builder genotypeAlleles(final int[] gt, final boolean isPhased) {
+            checkCurrentSample();
+            currentGenotypeAlleles = gt;
+            phased.set(currentSample, isPhased);
+            return this;
+        }
+
+        public Builder AD(final int[] sampleAD) {
+            checkCurrentSample();
+            currentAD = sampleAD;
+            return this;
+        }
+
+        public Builder DP(final int sampleDP) {
+            checkCurrentSample();
+            dp[currentSample] = sampleDP;
+            return this;
+        }
+
+        public Builder GQ(final int sampleGQ) {
+            checkCurrentSample();
+            gq[currentSample] = sampleGQ;
+            return this;
+        }
+
+        public Builder PL(final int[] samplePL) {
+            checkCurrentSample();
+            currentPL = samplePL;
+            return this;
+        }
+
+        /**
+         * Sets a genotype attribute other than GT, AD, DP, GQ, PL and FT.
+         */
+        public Builder attribute(final String key, final Object value) {
+            checkCurrentSample();
+            extendedAttributes.computeIfAbsent(currentSample, k -> new LinkedHashMap<>()).put(key, value);
+            return this;
+        }
+
+        /**
+         * @param filter the filters of the sample, or null if it is not filtered
+         */
+        public Builder filter(final String filter) {
+            checkCurrentSample();
+            if (filter == null) {
+                filters.remove(currentSample);
+            } else {
+                filters.put(currentSample, filter);
+            }
+            return this;
+        }
+
+        private void checkCurrentSample() {
+            Utils.validate(currentSample >= 0 && !made, "no sample has been started");
+        }
+
+        private void finishSample() {
+            if (currentSample >= 0) {
+                genotypeAlleles.add(currentSample, currentGenotypeAlleles);
+                ad.add(currentSample, currentAD);
+                pl.add(currentSample, currentPL);
+                currentGenotypeAlleles = null;
+                currentAD = null;
+                currentPL = null;
+            }
+        }
+
+        /**
+         * Can only be called once.
+         *
+         * @throws IllegalStateException if fewer samples than announced have been added
+         */
+        public GenotypeColumns make() {
+            Utils.validate(!made, "the block has been made already");
+            Utils.validate(currentSample + 1 == sampleCount, () -> "expected " + sampleCount + " samples but got " + (currentSample + 1));
+            finishSample();
+            made = true;
+            return new GenotypeColumns(this);
+        }
+    }
+}
@@ -152,33 +152,68 @@ public final class GVCFWriter implements VariantContextWriter {
      * @return a VariantContext to be emitted, or null if non is appropriate
      */
     protected VariantContext addHomRefSite(final VariantContext vc, final Genotype g) {
-
-        if (nextAvailableStart != -1) {
-            // don't create blocks while the hom-ref site falls before nextAvailableStart (for deletions)
-            if (vc.getStart() <= nextAvailableStart && vc.getContig().equals(contigOfNextAvailableStart)) {
-                return null;
-            }
-            // otherwise, reset to non-relevant
-            nextAvailableStart = -1;
-            contigOfNextAvailableStart = null;
+        if (isCoveredByPreviousVariant(vc.getContig(), vc.getStart())) {
+            return null;
         }
 
         final VariantContext result;
-        if (genotypeCanBeMergedInCurrentBlock(g)) {
+        if (siteCanBeMergedInCurrentBlock(g.getGQ(), g.getPloidy(), g.hasPL() ? g.getPL().length : -1)) {
             currentBlock.add(vc.getStart(), g);
             result = null;
         } else {
             result = currentBlock != null ? currentBlock.toVariantContext(sampleName): null;
-            currentBlock = createNewBlock(vc, g);
+            currentBlock = createNewBlock(vc, g.getGQ());
+            currentBlock.add(vc.getStart(), g);
         }
         return result;
     }
 
-    private boolean genotypeCanBeMergedInCurrentBlock(final Genotype g) {
+    /**
+     * Add a site of a reference confidence block to this gVCF hom-ref state tracking, emitting any pending states if
+     * appropriate; same as {@link #addHomRefSite(VariantContext, Genotype)} but without the need of a variant context
+     * per site.
+     *
+     * @param block a non-null reference confidence block
+     * @param site the index of the site within the block, which must extend the current band (if any)
+     * @return a VariantContext to be emitted, or null if non is appropriate
+     */
+    private VariantContext addHomRefSite(final ReferenceConfidenceBlock block, final int site) {
+        final VariantContext result;
+        if (siteCanBeMergedInCurrentBlock(block.getSiteGQ(site), block.getPloidy(), block.getPloidy() + 1)) {
+            result = null;
+        } else {
+            result = currentBlock != null ? currentBlock.toVariantContext(sampleName): null;
+            currentBlock = createNewBlock(block.getSiteVariantContext(site), block.getSiteGQ(site));
+        }
+        block.addSiteTo(currentBlock, site);
+        return result;
+    }
+
+    /**
+     * Checks whether a hom-ref site falls within the last emitted variant (for deletions), in which case it must not
+     * be added to any block.
+     */
+    private boolean isCoveredByPreviousVariant(final String contig, final int start) {
+        if (nextAvailableStart != -1) {
+            // don't create blocks while the hom-ref site falls before nextAvailableStart (for deletions)
+            if (start <= nextAvailableStart && contig.equals(contigOfNextAvailableStart)) {
+                return true;
+            }
+            // otherwise, reset to non-relevant
+            nextAvailableStart = -1;
+            contigOfNextAvailableStart = null;
+        }
+        return false;
+    }
+
+    /**
+     * @param plCount the number of PLs of the site genotype, or -1 if it has none.
+     */
+    private boolean siteCanBeMergedInCurrentBlock(final int gq, final int ploidy, final int plCount) {
         return currentBlock != null
-                && currentBlock.withinBounds(Math.min(g.getGQ(), MAX_GENOTYPE_QUAL))
-                && currentBlock.getPloidy() == g.getPloidy()
-                && (currentBlock.getMinPLs() == null || !g.hasPL() || (currentBlock.getMinPLs().length == g.getPL().length));
+                && currentBlock.withinBounds(Math.min(gq, MAX_GENOTYPE_QUAL))
+                && currentBlock.getPloidy() == ploidy
+                && (currentBlock.getMinPLs() == null || plCount == -1 || (currentBlock.getMinPLs().length == plCount));
     }
 
     /**
@@ -193,25 +228,22 @@ public final class GVCFWriter implements VariantContextWriter {
 
 
     /**
-     * Helper function to create a new HomRefBlock from a variant context and current genotype
+     * Helper function to create a new HomRefBlock from a variant context and the GQ of its genotype
      *
      * @param vc the VariantContext at the site where want to start the band
-     * @param g  the genotype of the sample from vc that should be used to initialize the block
-     * @return a newly allocated and initialized block containing g already
+     * @param genotypeGQ the GQ of the genotype of the sample from vc that determines the band
+     * @return a newly allocated block, still empty
      */
-    private HomRefBlock createNewBlock(final VariantContext vc, final Genotype g) {
-        // figure out the GQ limits to use based on the GQ of g
-        final int gq = Math.min(g.getGQ(), MAX_GENOTYPE_QUAL);
+    private HomRefBlock createNewBlock(final VariantContext vc, final int genotypeGQ) {
+        // figure out the GQ limits to use based on the GQ of the genotype
+        final int gq = Math.min(genotypeGQ, MAX_GENOTYPE_QUAL);
         final Range<Integer> partition = gqPartitions.get(gq);
 
         if( partition == null) {
-            throw new GATKException("GQ " + g + " from " + vc + " didn't fit into any partition");
+            throw new GATKException("GQ " + genotypeGQ + " from " + vc + " didn't fit into any partition");
         }
 
-        // create the block, add g to it, and return it for use
-        final HomRefBlock block = new HomRefBlock(vc, partition.lowerEndpoint(), partition.upperEndpoint(), defaultPloidy);
-        block.add(vc.getStart(), g);
-        return block;
+        return new HomRefBlock(vc, partition.lowerEndpoint(), partition.upperEndpoint(), defaultPloidy);
     }
 
     /**
@@ -253,6 +285,52 @@ public final class GVCFWriter implements VariantContextWriter {
 
     }
 
+    /**
+     * Add a block of hom-ref sites from a reference confidence model to this writer for emission
+     *
+     * The result is the same as if each site had been added as a variant context of its own, but a block whose sites
+     * all fall in the same GQ band is merged into the current band (or starts a new one) as a whole.  Only the sites
+     * of a block that straddles bands, or whose first sites fall within the previous variant, are added one at a time.
+     *
+     * @param block a non-null reference confidence block
+     */
+    public void add(final ReferenceConfidenceBlock block) {
+        Utils.nonNull(block);
+
+        if (sampleName == null) {
+            sampleName = block.getSampleName();
+        }
+
+        int firstSite = 0;
+        while (firstSite < block.getSiteCount() && isCoveredByPreviousVariant(block.getContig(), block.getStart() + firstSite)) {
+            firstSite++;
+        }
+        if (firstSite == block.getSiteCount()) {
+            return;
+        }
+
+        if (currentBlock != null && !currentBlock.isContiguous(block.getContig(), block.getStart() + firstSite)) {
+            // we've made a non-contiguous step (across interval, onto another chr), so finalize
+            emitCurrentBlock();
+        }
+
+        final Range<Integer> partition = gqPartitions.get(block.getMinGQ());
+        if (firstSite == 0 && partition != null && partition.contains(block.getMaxGQ())) {
+            if (!siteCanBeMergedInCurrentBlock(block.getMinGQ(), block.getPloidy(), block.getPloidy() + 1)) {
+                emitCurrentBlock();
+                currentBlock = createNewBlock(block.getSiteVariantContext(0), block.getSiteGQ(0));
+            }
+            block.addTo(currentBlock);
+        } else {
+            for (int site = firstSite; site < block.getSiteCount(); site++) {
+                final VariantContext maybeCompletedBand = addHomRefSite(block, site);
+                if (maybeCompletedBand != null) {
+                    underlyingWriter.add(maybeCompletedBand);
+                }
+            }
+        }
+    }
+
     @Override
     public void setHeader(VCFHeader header) {
         underlyingWriter.setHeader(header);
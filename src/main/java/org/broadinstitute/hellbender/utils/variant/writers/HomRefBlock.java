@@ -14,6 +14,7 @@ import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -102,27 +103,82 @@ final class HomRefBlock implements Locatable {
     public void add(final int pos, final Genotype genotype) {
         Utils.nonNull(genotype, "genotype cannot be null");
         if ( ! genotype.hasPL() ) { throw new IllegalArgumentException("genotype must have PL field");}
+        final int[] pls = genotype.getPL();
+        add(pos, genotype.getPloidy(), genotype.getGQ(), genotype.getDP(), pls, 0, pls.length);
+    }
+
+    /**
+     * Add the information of a hom-ref site to this band, without the need of a {@link Genotype}.
+     *
+     * Treats GQ values > 99 as 99.
+     *
+     * @param pos Current genomic position. Must be 1 base after the previous position
+     * @param sitePloidy the ploidy of the site genotype
+     * @param gq the GQ of the site genotype
+     * @param dp the DP of the site genotype
+     * @param pls array containing the PLs of the site genotype
+     * @param plOffset the position of the first PL in {@code pls}
+     * @param plCount the number of PLs
+     */
+    void add(final int pos, final int sitePloidy, final int gq, final int dp, final int[] pls, final int plOffset, final int plCount) {
         if ( pos != end + 1 ) { throw new IllegalArgumentException("adding genotype at pos " + pos + " isn't contiguous with previous end " + end); }
-        if ( genotype.getPloidy() != ploidy) { throw new IllegalArgumentException("cannot add a genotype with a different ploidy: " + genotype.getPloidy() + " != " + ploidy); }
+        if ( sitePloidy != ploidy) { throw new IllegalArgumentException("cannot add a genotype with a different ploidy: " + sitePloidy + " != " + ploidy); }
         // Make sure the GQ is within the bounds of this band. Treat GQs > 99 as 99.
-        if ( !withinBounds(Math.min(genotype.getGQ(), VCFConstants.MAX_GENOTYPE_QUAL))) {
-            throw new IllegalArgumentException("cannot add a genotype with GQ=" + genotype.getGQ() + " because it's not within bounds ["
+        if ( !withinBounds(Math.min(gq, VCFConstants.MAX_GENOTYPE_QUAL))) {
+            throw new IllegalArgumentException("cannot add a genotype with GQ=" + gq + " because it's not within bounds ["
                     + this.getGQLowerBound() + ',' + this.getGQUpperBound() + ')');
         }
 
         if( minPLs == null ) {
-            minPLs = genotype.getPL();
+            minPLs = Arrays.copyOfRange(pls, plOffset, plOffset + plCount);
         } else { // otherwise take the min with the provided genotype's PLs
-            final int[] pls = genotype.getPL();
-            if (pls.length != minPLs.length) {
-                throw new GATKException("trying to merge different PL array sizes: " + pls.length + " != " + minPLs.length);
+            if (plCount != minPLs.length) {
+                throw new GATKException("trying to merge different PL array sizes: " + plCount + " != " + minPLs.length);
             }
-            for (int i = 0; i < pls.length; i++) {
-                minPLs[i] = Math.min(minPLs[i], pls[i]);
+            for (int i = 0; i < plCount; i++) {
+                minPLs[i] = Math.min(minPLs[i], pls[plOffset + i]);
             }
         }
         end = pos;
-        DPs.add(Math.max(genotype.getDP(), 0)); // DP must be >= 0
+        DPs.add(Math.max(dp, 0)); // DP must be >= 0
+    }
+
+    /**
+     * Add the information of a stretch of contiguous hom-ref sites to this band at once.
+     *
+     * Treats GQ values > 99 as 99.
+     *
+     * @param start position of the first site. Must be 1 base after the previous position
+     * @param stop position of the last site
+     * @param sitePloidy the ploidy of the sites' genotypes
+     * @param lowestGQ the lowest GQ of any of the sites
+     * @param highestGQ the highest GQ of any of the sites
+     * @param dps the DPs of the sites, one per site
+     * @param sitesMinPLs the element-wise minimum of the PLs of the sites
+     */
+    void add(final int start, final int stop, final int sitePloidy, final int lowestGQ, final int highestGQ, final int[] dps, final int[] sitesMinPLs) {
+        if ( start != end + 1 ) { throw new IllegalArgumentException("adding sites at pos " + start + " isn't contiguous with previous end " + end); }
+        if ( dps.length != stop - start + 1 ) { throw new IllegalArgumentException("expected " + (stop - start + 1) + " DPs but got " + dps.length); }
+        if ( sitePloidy != ploidy) { throw new IllegalArgumentException("cannot add genotypes with a different ploidy: " + sitePloidy + " != " + ploidy); }
+        if ( !withinBounds(Math.min(lowestGQ, VCFConstants.MAX_GENOTYPE_QUAL)) || !withinBounds(Math.min(highestGQ, VCFConstants.MAX_GENOTYPE_QUAL)) ) {
+            throw new IllegalArgumentException("cannot add genotypes with GQs " + lowestGQ + " to " + highestGQ + " because they're not within bounds ["
+                    + this.getGQLowerBound() + ',' + this.getGQUpperBound() + ')');
+        }
+
+        if( minPLs == null ) {
+            minPLs = sitesMinPLs.clone();
+        } else {
+            if (sitesMinPLs.length != minPLs.length) {
+                throw new GATKException("trying to merge different PL array sizes: " + sitesMinPLs.length + " != " + minPLs.length);
+            }
+            for (int i = 0; i < minPLs.length; i++) {
+                minPLs[i] = Math.min(minPLs[i], sitesMinPLs[i]);
+            }
+        }
+        end = stop;
+        for (final int dp : dps) {
+            DPs.add(Math.max(dp, 0)); // DP must be >= 0
+        }
     }
 
     /**
@@ -158,7 +214,14 @@ final class HomRefBlock implements Locatable {
     }
 
     public boolean isContiguous(final VariantContext vc) {
-        return (vc.getEnd() == getEnd() + 1) && startingVC.getContig().equals(vc.getContig());
+        return isContiguous(vc.getContig(), vc.getEnd());
+    }
+
+    /**
+     * @return whether a single-base site at the given position would extend this block
+     */
+    boolean isContiguous(final String contig, final int pos) {
+        return (pos == getEnd() + 1) && startingVC.getContig().equals(contig);
     }
 
     public VariantContext getStartingVC() {
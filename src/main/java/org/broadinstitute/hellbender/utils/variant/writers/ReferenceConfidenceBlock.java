@@ -0,0 +1,249 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import htsjdk.samtools.util.Locatable;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFConstants;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+
+import java.util.Arrays;
+
+/**
+ * A stretch of contiguous hom-ref sites from a reference confidence model, to be written by a {@link GVCFWriter}.
+ *
+ * <p>
+ *     Reference confidence models emit these instead of one {@link VariantContext} per site. A block keeps the
+ *     reference base, GQ, DP and PLs of each of its sites in compact arrays, along with the lowest and highest GQ and
+ *     the minimum PLs over all of them, so that {@link GVCFWriter#add(ReferenceConfidenceBlock)} can merge a block whose
+ *     sites fall in a single GQ band as a whole.
+ * </p>
+ */
+public final class ReferenceConfidenceBlock implements Locatable {
+
+    private final String source;
+    private final String contig;
+    private final int start;
+    private final String sampleName;
+    private final int ploidy;
+    private final byte[] refBases;
+    private final int[] gqs;
+    private final int[] dps;
+
+    /**
+     * PLs of all sites, one after another; each site has {@link #ploidy} + 1 PLs.
+     */
+    private final int[] pls;
+
+    private final int minGQ;
+    private final int maxGQ;
+    private final int[] minPLs;
+
+    private ReferenceConfidenceBlock(final Builder builder) {
+        source = builder.source;
+        contig = builder.contig;
+        start = builder.start;
+        sampleName = builder.sampleName;
+        ploidy = builder.ploidy;
+        refBases = Arrays.copyOf(builder.refBases, builder.size);
+        gqs = Arrays.copyOf(builder.gqs, builder.size);
+        dps = Arrays.copyOf(builder.dps, builder.size);
+        pls = Arrays.copyOf(builder.pls, builder.size * (ploidy + 1));
+        minGQ = builder.minGQ;
+        maxGQ = builder.maxGQ;
+        minPLs = builder.minPLs.clone();
+    }
+
+    @Override
+    public String getContig() {
+        return contig;
+    }
+
+    @Override
+    public int getStart() {
+        return start;
+    }
+
+    @Override
+    public int getEnd() {
+        return start + refBases.length - 1;
+    }
+
+    public String getSampleName() {
+        return sampleName;
+    }
+
+    public int getPloidy() {
+        return ploidy;
+    }
+
+    /**
+     * @return the number of sites in this block; the {@code i}th site is at {@link #getStart()} + {@code i}.
+     */
+    public int getSiteCount() {
+        return refBases.length;
+    }
+
+    public int getSiteGQ(final int site) {
+        return gqs[site];
+    }
+
+    public int getSiteDP(final int site) {
+        return dps[site];
+    }
+
+    /**
+     * @return a copy of the PLs of a site.
+     */
+    public int[] getSitePLs(final int site) {
+        return Arrays.copyOfRange(pls, site * (ploidy + 1), (site + 1) * (ploidy + 1));
+    }
+
+    /**
+     * @return the lowest GQ of any site, treating GQs > 99 as 99.
+     */
+    public int getMinGQ() {
+        return minGQ;
+    }
+
+    /**
+     * @return the highest GQ of any site, treating GQs > 99 as 99.
+     */
+    public int getMaxGQ() {
+        return maxGQ;
+    }
+
+    /**
+     * @return a copy of the element-wise minimum of the PLs of all sites.
+     */
+    public int[] getMinPLs() {
+        return minPLs.clone();
+    }
+
+    /**
+     * Returns a single site of this block as the hom-ref reference confidence variant context it would have been
+     * emitted as, albeit without annotations other than the genotype alleles.
+     */
+    VariantContext getSiteVariantContext(final int site) {
+        final Allele ref = Allele.create(refBases[site], true);
+        final int pos = start + site;
+        return new VariantContextBuilder(source, contig, pos, pos, Arrays.asList(ref, GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE))
+                .genotypes(new GenotypeBuilder(sampleName, GATKVariantContextUtils.homozygousAlleleList(ref, ploidy)).make())
+                .make();
+    }
+
+    /**
+     * Adds a site of this block to a {@link HomRefBlock}.
+     */
+    void addSiteTo(final HomRefBlock block, final int site) {
+        block.add(start + site, ploidy, gqs[site], dps[site], pls, site * (ploidy + 1), ploidy + 1);
+    }
+
+    /**
+     * Adds all the sites of this block to a {@link HomRefBlock} at once; they must all be within its GQ bounds.
+     */
+    void addTo(final HomRefBlock block) {
+        block.add(start, getEnd(), ploidy, minGQ, maxGQ, dps, minPLs);
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceConfidenceBlock{" + contig + ':' + start + '-' + getEnd() + ", GQ " + minGQ + '-' + maxGQ + '}';
+    }
+
+    /**
+     * Collects contiguous reference confidence sites into a {@link ReferenceConfidenceBlock}.
+     */
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 100;
+
+        private final String source;
+        private final String contig;
+        private final int start;
+        private final String sampleName;
+        private final int ploidy;
+
+        private int size = 0;
+        private byte[] refBases = new byte[INITIAL_CAPACITY];
+        private int[] gqs = new int[INITIAL_CAPACITY];
+        private int[] dps = new int[INITIAL_CAPACITY];
+        private int[] pls;
+
+        private int minGQ = Integer.MAX_VALUE;
+        private int maxGQ = Integer.MIN_VALUE;
+        private final int[] minPLs;
+
+        /**
+         * @param source the source of the sites, as that of their variant contexts.
+         * @param contig the contig of the block.
+         * @param start the position of the first site.
+         * @param sampleName the only sample.
+         * @param ploidy the ploidy of the sample.
+         */
+        public Builder(final String source, final String contig, final int start, final String sampleName, final int ploidy) {
+            Utils.validateArg(ploidy > 0, () -> "ploidy must be at least 1 but was " + ploidy);
+            this.source = Utils.nonNull(source);
+            this.contig = Utils.nonNull(contig);
+            this.start = start;
+            this.sampleName = Utils.nonNull(sampleName);
+            this.ploidy = ploidy;
+            pls = new int[INITIAL_CAPACITY * (ploidy + 1)];
+            minPLs = new int[ploidy + 1];
+            Arrays.fill(minPLs, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Adds the site following the last one added (or the first site of the block).
+         *
+         * @param refBase the reference base at the site.
+         * @param gq the GQ of the hom-ref genotype.
+         * @param dp the DP of the site.
+         * @param sitePLs the PLs of the hom-ref genotype, as many as the ploidy + 1.
+         * @return this builder.
+         */
+        public Builder add(final byte refBase, final int gq, final int dp, final int[] sitePLs) {
+            Utils.validateArg(sitePLs.length == ploidy + 1, () -> "expected " + (ploidy + 1) + " PLs but got " + sitePLs.length);
+            if (size == refBases.length) {
+                final int newCapacity = size << 1;
+                refBases = Arrays.copyOf(refBases, newCapacity);
+                gqs = Arrays.copyOf(gqs, newCapacity);
+                dps = Arrays.copyOf(dps, newCapacity);
+                pls = Arrays.copyOf(pls, newCapacity * (ploidy + 1));
+            }
+            refBases[size] = refBase;
+            gqs[size] = gq;
+            dps[size] = dp;
+            System.arraycopy(sitePLs, 0, pls, size * (ploidy + 1), ploidy + 1);
+            size++;
+
+            final int cappedGQ = Math.min(gq, VCFConstants.MAX_GENOTYPE_QUAL);
+            minGQ = Math.min(minGQ, cappedGQ);
+            maxGQ = Math.max(maxGQ, cappedGQ);
+            for (int i = 0; i <= ploidy; i++) {
+                minPLs[i] = Math.min(minPLs[i], sitePLs[i]);
+            }
+            return this;
+        }
+
+        /**
+         * @return the number of sites added so far.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return never {@code null}.
+         * @throws IllegalStateException if no site has been added.
+         */
+        public ReferenceConfidenceBlock make() {
+            if (size == 0) {
+                throw new IllegalStateException("a reference confidence block must contain at least one site");
+            }
+            return new ReferenceConfidenceBlock(this);
+        }
+    }
+}
@@ -13,6 +13,8 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public final class FeatureContextUnitTest extends BaseTest {
 
@@ -65,4 +67,43 @@ public final class FeatureContextUnitTest extends BaseTest {
                     " not a VCFHeader");
         }
     }
+
+    @Test
+    public void testSnapshot() {
+        final ArtificialFeatureContainingCommandLineProgram toolInstance = new ArtificialFeatureContainingCommandLineProgram();
+        try (final FeatureManager featureManager = new FeatureManager(toolInstance)) {
+            final FeatureContext featureContext = new FeatureContext(featureManager, new SimpleInterval("1", 190, 290));
+            final FeatureContext snapshot = featureContext.snapshot(Arrays.asList(toolInstance.featureArgument, null));
+
+            Assert.assertTrue(snapshot.hasBackingDataSource());
+            Assert.assertEquals(snapshot.getInterval(), featureContext.getInterval());
+            Assert.assertEquals(snapshot.getHeader(toolInstance.featureArgument), featureContext.getHeader(toolInstance.featureArgument));
+            Assert.assertEquals(starts(snapshot.getValues(toolInstance.featureArgument)), starts(featureContext.getValues(toolInstance.featureArgument)));
+            Assert.assertEquals(starts(snapshot.getValues(toolInstance.featureArgument, 200)), Arrays.asList(200));
+            final SimpleInterval query = new SimpleInterval("1", 200, 284);
+            Assert.assertEquals(starts(snapshot.getValues(toolInstance.featureArgument, query)), starts(featureContext.getValues(toolInstance.featureArgument, query)));
+            Assert.assertEquals(starts(snapshot.getValues(toolInstance.featureArgument, query)), Arrays.asList(199, 200, 203, 280, 284));
+        }
+    }
+
+    private static List<Integer> starts(final List<Feature> features) {
+        return features.stream().map(Feature::getStart).sorted().collect(Collectors.toList());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSnapshotQueryOutsideInterval() {
+        final ArtificialFeatureContainingCommandLineProgram toolInstance = new ArtificialFeatureContainingCommandLineProgram();
+        try (final FeatureManager featureManager = new FeatureManager(toolInstance)) {
+            final FeatureContext snapshot = new FeatureContext(featureManager, new SimpleInterval("1", 190, 290)).snapshot(Arrays.asList(toolInstance.featureArgument));
+            snapshot.getValues(toolInstance.featureArgument, new SimpleInterval("1", 280, 300));
+        }
+    }
+
+    @Test
+    public void testSnapshotOfEmptyFeatureContext() {
+        final ArtificialFeatureContainingCommandLineProgram toolInstance = new ArtificialFeatureContainingCommandLineProgram();
+        final FeatureContext snapshot = new FeatureContext(null, new SimpleInterval("1", 190, 290)).snapshot(Arrays.asList(toolInstance.featureArgument));
+        Assert.assertFalse(snapshot.hasBackingDataSource());
+        Assert.assertTrue(snapshot.getValues(toolInstance.featureArgument).isEmpty());
+    }
 }
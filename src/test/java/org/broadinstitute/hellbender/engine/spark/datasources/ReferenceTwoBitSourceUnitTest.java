@@ -1,10 +1,13 @@
 package org.broadinstitute.hellbender.engine.spark.datasources;
 
+import htsjdk.samtools.SAMSequenceDictionary;
+import org.apache.spark.SparkConf;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceFileSource;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceSource;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.broadinstitute.hellbender.utils.test.SparkTestUtils;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -14,6 +17,8 @@ import java.io.IOException;
 public class ReferenceTwoBitSourceUnitTest extends BaseTest {
     private static String fastaRefURL = publicTestDir + "large/human_g1k_v37.20.21.fasta";
     private static String twoBitRefURL = publicTestDir + "large/human_g1k_v37.20.21.2bit";
+    private static String smallFastaRefURL = publicTestDir + "human_g1k_v37.chr17_1Mb.fasta";
+    private static String smallTwoBitRefURL = publicTestDir + "human_g1k_v37.chr17_1Mb.2bit";
 
     @DataProvider(name = "goodIntervals")
     public Object[][] goodIntervals() throws IOException {
@@ -27,6 +32,51 @@ public class ReferenceTwoBitSourceUnitTest extends BaseTest {
         };
     }
 
+    @DataProvider(name = "smallReferenceIntervals")
+    public Object[][] smallReferenceIntervals() throws IOException {
+        ReferenceSource fastaRef = new ReferenceFileSource(smallFastaRefURL);
+        ReferenceSource twoBitRef = new ReferenceTwoBitSource(null, smallTwoBitRefURL);
+        // chr17 has an N-block at 296627-396626 in this reference
+        return new Object[][]{
+                {fastaRef, twoBitRef, "17:1-1"},
+                {fastaRef, twoBitRef, "17:2-9"},
+                {fastaRef, twoBitRef, "17:3-1000"},
+                {fastaRef, twoBitRef, "17:296,600-296,700"},
+                {fastaRef, twoBitRef, "17:300,000-300,010"},
+                {fastaRef, twoBitRef, "17:396,620-396,640"},
+                {fastaRef, twoBitRef, "17:296,000-397,000"},
+                {fastaRef, twoBitRef, "17:999,990-1,000,000"},
+                {fastaRef, twoBitRef, "17:1-1,000,000"},
+        };
+    }
+
+    @Test(dataProvider = "smallReferenceIntervals")
+    public void testBasesMatchFasta(ReferenceSource fastaRef, ReferenceSource twoBitRef, String intervalString) throws IOException {
+        SimpleInterval interval = new SimpleInterval(intervalString);
+        Assert.assertEquals(twoBitRef.getReferenceBases(null, interval), fastaRef.getReferenceBases(null, interval));
+    }
+
+    @Test
+    public void testSequenceDictionary() throws IOException {
+        final SAMSequenceDictionary dictionary = new ReferenceTwoBitSource(null, smallTwoBitRefURL).getReferenceSequenceDictionary(null);
+        Assert.assertEquals(dictionary.size(), 1);
+        Assert.assertEquals(dictionary.getSequence(0).getSequenceName(), "17");
+        Assert.assertEquals(dictionary.getSequence(0).getSequenceLength(), 1000000);
+    }
+
+    @Test
+    public void testFileIsMappedOncePerJVM() {
+        Assert.assertSame(MappedTwoBitFile.get(smallTwoBitRefURL), MappedTwoBitFile.get(smallTwoBitRefURL));
+    }
+
+    @Test
+    public void testSerializeRoundTrip() throws IOException {
+        final ReferenceTwoBitSource twoBitRef = new ReferenceTwoBitSource(null, smallTwoBitRefURL);
+        final ReferenceTwoBitSource roundTripped = SparkTestUtils.roundTripInKryo(twoBitRef, ReferenceTwoBitSource.class, new SparkConf());
+        final SimpleInterval interval = new SimpleInterval("17", 1000, 2000);
+        Assert.assertEquals(roundTripped.getReferenceBases(null, interval), twoBitRef.getReferenceBases(null, interval));
+    }
+
     @Test(dataProvider = "goodIntervals")
     public void testIntervalConversion(ReferenceSource fastaRef, ReferenceSource twoBitRef, String intervalString) throws IOException {
         SimpleInterval interval = new SimpleInterval(intervalString);
@@ -0,0 +1,86 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import htsjdk.samtools.util.IOUtil;
+import org.apache.commons.io.FileUtils;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
+import org.broadinstitute.hellbender.utils.read.ReadConstants;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.seqdoop.hadoop_bam.SplittingBAMIndexer;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+
+public class SparkSplittingBAMIndexerUnitTest extends BaseTest {
+
+    private static final String SPLITTING_INDEX_DIR = "src/test/resources/org/broadinstitute/hellbender/tools/spark/CreateHadoopBamSplittingIndex/";
+
+    @DataProvider(name = "bamsAndRangeSizes")
+    public Object[][] bamsAndRangeSizes() {
+        return new Object[][]{
+                {new File(SPLITTING_INDEX_DIR, "count_reads.bam"), 1000L},
+                {new File(SPLITTING_INDEX_DIR, "count_reads_sorted.bam"), 1000L},
+                {new File(NA12878_chr17_1k_BAM), 10_000L},
+                {new File(NA12878_chr17_1k_BAM), 50_000L},
+                {new File(NA12878_chr17_1k_BAM), SparkSplittingBAMIndexer.DEFAULT_RANGE_SIZE},
+        };
+    }
+
+    @Test(dataProvider = "bamsAndRangeSizes")
+    public void testMatchesSerialIndexAtGranularityOne(final File bam, final long rangeSize) throws IOException {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (final InputStream in = new FileInputStream(bam)) {
+            SplittingBAMIndexer.index(in, expected, bam.length(), 1);
+        }
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        SparkSplittingBAMIndexer.writeIndex(actual, SparkSplittingBAMIndexer.computeVirtualOffsets(ctx, bam.getAbsolutePath(), bam.length(), 1, rangeSize), bam.length());
+
+        Assert.assertEquals(actual.toByteArray(), expected.toByteArray());
+    }
+
+    @Test
+    public void testCreateIndexIfMissing() throws IOException {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final File dir = Files.createTempDirectory("splittingIndex").toFile();
+        dir.deleteOnExit();
+        final File bam = new File(dir, "count_reads_sorted.bam");
+        FileUtils.copyFile(new File(SPLITTING_INDEX_DIR, "count_reads_sorted.bam"), bam);
+        final File index = new File(dir, bam.getName() + SplittingBAMIndexer.OUTPUT_FILE_EXTENSION);
+        bam.deleteOnExit();
+        index.deleteOnExit();
+
+        Assert.assertTrue(SparkSplittingBAMIndexer.createIndexIfMissing(ctx, bam.getAbsolutePath(), SplittingBAMIndexer.DEFAULT_GRANULARITY, 1000L));
+        IOUtil.assertFilesEqual(index, new File(SPLITTING_INDEX_DIR, "count_reads_sorted.bam" + SplittingBAMIndexer.OUTPUT_FILE_EXTENSION));
+
+        // an existing index is left alone
+        final long lastModified = index.lastModified();
+        Assert.assertTrue(SparkSplittingBAMIndexer.createIndexIfMissing(ctx, bam.getAbsolutePath(), SplittingBAMIndexer.DEFAULT_GRANULARITY, 1000L));
+        Assert.assertEquals(index.lastModified(), lastModified);
+        Assert.assertEquals(dir.list((d, name) -> name.endsWith(".tmp")).length, 0, "temporary index file was not cleaned up");
+    }
+
+    @Test
+    public void testReadsSparkSourceCreatesIndex() throws IOException {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final File dir = Files.createTempDirectory("splittingIndex").toFile();
+        dir.deleteOnExit();
+        final File bam = new File(dir, "NA12878.chr17_69k_70k.dictFix.bam");
+        FileUtils.copyFile(new File(NA12878_chr17_1k_BAM), bam);
+        final File index = new File(dir, bam.getName() + SplittingBAMIndexer.OUTPUT_FILE_EXTENSION);
+        bam.deleteOnExit();
+        index.deleteOnExit();
+
+        final long expectedCount = new ReadsSparkSource(ctx).getParallelReads(bam.getAbsolutePath(), null).count();
+        Assert.assertFalse(index.exists());
+
+        final ReadsSparkSource indexingSource = new ReadsSparkSource(ctx, ReadConstants.DEFAULT_READ_VALIDATION_STRINGENCY, true);
+        Assert.assertEquals(indexingSource.getParallelReads(bam.getAbsolutePath(), null, 10_000).count(), expectedCount);
+        Assert.assertTrue(index.exists());
+    }
+}
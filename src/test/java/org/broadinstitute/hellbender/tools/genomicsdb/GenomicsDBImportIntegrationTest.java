@@ -13,6 +13,8 @@ import htsjdk.variant.vcf.VCFHeader;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
@@ -118,6 +120,85 @@ public final class GenomicsDBImportIntegrationTest extends CommandLineProgramTes
         checkJSONFilesAreWritten(workspace);
         checkGenomicsDBAgainstExpected(workspace, INTERVAL, COMBINED);
     }
+    @DataProvider
+    public Object[][] getPrefetchParameters(){
+        return new Object[][] {
+                // batch size, reader threads
+                {1, 1}, {1, 2}, {2, 2}, {0, 1}
+        };
+    }
+
+    @Test(dataProvider = "getPrefetchParameters")
+    public void testPrefetchNextBatch(final int batchSize, final int threads) throws IOException {
+        final String workspace = createTempDir("genomicsdb-prefetch-tests-").getAbsolutePath() + "/workspace";
+
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addArgument(GenomicsDBImport.WORKSPACE_ARG_NAME, workspace)
+                .addArgument("L", IntervalUtils.locatableToString(INTERVAL))
+                .addArgument(GenomicsDBImport.BATCHSIZE_ARG_NAME, String.valueOf(batchSize))
+                .addArgument(GenomicsDBImport.VCF_INITIALIZER_THREADS_LONG_NAME, String.valueOf(threads))
+                .addBooleanArgument(GenomicsDBImport.PREFETCH_NEXT_BATCH_LONG_NAME, true);
+        LOCAL_GVCFS.forEach(vcf -> args.addArgument("V", vcf));
+        runCommandLine(args);
+
+        checkJSONFilesAreWritten(workspace);
+        checkGenomicsDBAgainstExpected(workspace, INTERVAL, COMBINED);
+    }
+
+    @DataProvider
+    public Object[][] getMultipleIntervalParameters(){
+        return new Object[][] {
+                // intervals in parallel, batch size, prefetch
+                {1, 0, false}, {2, 0, false}, {2, 2, true}
+        };
+    }
+
+    @Test(dataProvider = "getMultipleIntervalParameters")
+    public void testMultipleIntervals(final int intervalsInParallel, final int batchSize, final boolean prefetch) throws IOException {
+        final String workspace = createTempDir("genomicsdb-multiple-intervals-tests-").getAbsolutePath() + "/workspace";
+        final List<SimpleInterval> intervals = Arrays.asList(
+                new SimpleInterval("chr20", 17960187, 17970000),
+                new SimpleInterval("chr20", 17970100, 17981445));
+
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addArgument(GenomicsDBImport.WORKSPACE_ARG_NAME, workspace)
+                .addArgument(GenomicsDBImport.BATCHSIZE_ARG_NAME, String.valueOf(batchSize))
+                .addArgument(GenomicsDBImport.MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL, String.valueOf(intervalsInParallel))
+                .addBooleanArgument(GenomicsDBImport.PREFETCH_NEXT_BATCH_LONG_NAME, prefetch);
+        intervals.forEach(interval -> args.addArgument("L", IntervalUtils.locatableToString(interval)));
+        LOCAL_GVCFS.forEach(vcf -> args.addArgument("V", vcf));
+        runCommandLine(args);
+
+        checkJSONFilesAreWritten(workspace);
+        Assert.assertFalse(new File(workspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME).exists());
+        Assert.assertEquals(GenomicsDBIntervalArraysReader.getIntervalArrayNames(new File(workspace)).size(), intervals.size());
+
+        try (final FeatureDataSource<VariantContext> genomicsDB = new FeatureDataSource<>(
+                new FeatureInput<>(FeatureDataSource.GENOMIC_DB_URI_SCHEME + workspace, "workspace", Collections.emptyMap()), 0, VariantContext.class, 0, 0,
+                IOUtils.getPath(b38_reference_20_21));
+             final FeatureDataSource<VariantContext> combined = new FeatureDataSource<>(new File(COMBINED))) {
+            for (final SimpleInterval interval : intervals) {
+                // records that start before the interval may be clipped differently, so compare only those within it
+                final List<VariantContext> actualVcs = getVariantsStartingIn(genomicsDB, interval);
+                final List<VariantContext> expectedVcs = getVariantsStartingIn(combined, interval);
+                Assert.assertFalse(expectedVcs.isEmpty());
+                BaseTest.assertCondition(actualVcs, expectedVcs, (a, e) -> {
+                    VariantContextTestUtils.assertVariantContextsAreEqualAlleleOrderIndependent(a, e, Collections.emptyList(), VCF_HEADER);
+                });
+            }
+        }
+    }
+
+    private static List<VariantContext> getVariantsStartingIn(final FeatureDataSource<VariantContext> source, final SimpleInterval interval) {
+        final List<VariantContext> variants = new ArrayList<>();
+        source.query(interval).forEachRemaining(vc -> {
+            if (vc.getStart() >= interval.getStart()) {
+                variants.add(vc);
+            }
+        });
+        return variants;
+    }
+
     /**
      *
      * @throws CommandLineException.OutOfRangeArgumentValue  Value must be >= 1024 bytes
@@ -0,0 +1,153 @@
+package org.broadinstitute.hellbender.tools.genomicsdb;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.tribble.CloseableTribbleIterator;
+import htsjdk.tribble.FeatureReader;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class GenomicsDBIntervalArraysReaderUnitTest extends BaseTest {
+
+    private static final SimpleInterval CHR2_INTERVAL = new SimpleInterval("chr2", 1, 100);
+    private static final SimpleInterval CHR1_SECOND_INTERVAL = new SimpleInterval("chr1", 200, 300);
+    private static final SimpleInterval CHR1_FIRST_INTERVAL = new SimpleInterval("chr1", 1, 100);
+
+    @DataProvider
+    public Object[][] getArrayNames() {
+        return new Object[][]{
+                {new SimpleInterval("chr20", 1, 100), "chr20$1$100"},
+                {new SimpleInterval("HLA-A*01:01", 5, 6), "HLA-A*01:01$5$6"},
+                {new SimpleInterval("odd$contig", 10, 10), "odd$contig$10$10"},
+        };
+    }
+
+    @Test(dataProvider = "getArrayNames")
+    public void testArrayNameRoundTrip(final SimpleInterval interval, final String arrayName) {
+        Assert.assertEquals(GenomicsDBIntervalArraysReader.getArrayName(interval), arrayName);
+        Assert.assertEquals(GenomicsDBIntervalArraysReader.getIntervalFromArrayName(arrayName), interval);
+    }
+
+    @DataProvider
+    public Object[][] getNonIntervalArrayNames() {
+        return new Object[][]{
+                {GenomicsDBConstants.DEFAULT_ARRAY_NAME}, {"chr1$1"}, {"$1$2"}, {"chr1$a$2"}, {"chr1$10$1"}, {"chr1$0$1"}
+        };
+    }
+
+    @Test(dataProvider = "getNonIntervalArrayNames")
+    public void testNonIntervalArrayNames(final String arrayName) {
+        Assert.assertNull(GenomicsDBIntervalArraysReader.getIntervalFromArrayName(arrayName));
+    }
+
+    @Test
+    public void testGetIntervalArrayNames() {
+        final File workspace = createTempDir("workspace");
+        Assert.assertTrue(new File(workspace, GenomicsDBIntervalArraysReader.getArrayName(CHR1_FIRST_INTERVAL)).mkdir());
+        Assert.assertTrue(new File(workspace, GenomicsDBIntervalArraysReader.getArrayName(CHR2_INTERVAL)).mkdir());
+        Assert.assertTrue(new File(workspace, GenomicsDBConstants.DEFAULT_ARRAY_NAME).mkdir());
+        Assert.assertEquals(GenomicsDBIntervalArraysReader.getIntervalArrayNames(workspace),
+                Arrays.asList(GenomicsDBIntervalArraysReader.getArrayName(CHR1_FIRST_INTERVAL), GenomicsDBIntervalArraysReader.getArrayName(CHR2_INTERVAL)));
+    }
+
+    @DataProvider
+    public Object[][] getQueries() {
+        return new Object[][]{
+                {null, Arrays.asList(10, 50, 250, 1010)},
+                {new SimpleInterval("chr1", 1, 1000), Arrays.asList(10, 50, 250)},
+                {new SimpleInterval("chr1", 40, 260), Arrays.asList(50, 250)},
+                {new SimpleInterval("chr1", 120, 180), Collections.emptyList()},
+                {new SimpleInterval("chr2", 5, 50), Collections.singletonList(1010)},
+        };
+    }
+
+    @Test(dataProvider = "getQueries")
+    public void testQueriesVisitArraysInDictionaryOrder(final SimpleInterval query, final List<Integer> expectedStarts) throws IOException {
+        final Map<SimpleInterval, FeatureReader<VariantContext>> intervalToReader = new LinkedHashMap<>();
+        // deliberately out of order
+        intervalToReader.put(CHR2_INTERVAL, new InMemoryReader(new SimpleInterval("chr2", 10, 10)));
+        intervalToReader.put(CHR1_SECOND_INTERVAL, new InMemoryReader(new SimpleInterval("chr1", 250, 250)));
+        intervalToReader.put(CHR1_FIRST_INTERVAL, new InMemoryReader(new SimpleInterval("chr1", 10, 10), new SimpleInterval("chr1", 50, 50)));
+
+        try (final GenomicsDBIntervalArraysReader reader = new GenomicsDBIntervalArraysReader(intervalToReader);
+             final CloseableTribbleIterator<VariantContext> it = query == null ? reader.iterator() : reader.query(query.getContig(), query.getStart(), query.getEnd())) {
+            final List<Integer> starts = new ArrayList<>();
+            it.forEach(vc -> starts.add(vc.getContig().equals("chr2") ? 1000 + vc.getStart() : vc.getStart()));
+            Assert.assertEquals(starts, expectedStarts);
+        }
+    }
+
+    private static final class InMemoryReader implements FeatureReader<VariantContext> {
+        private final List<VariantContext> variants;
+        private final VCFHeader header = new VCFHeader();
+
+        private InMemoryReader(final SimpleInterval... locations) {
+            variants = Arrays.stream(locations)
+                    .map(l -> new VariantContextBuilder("test", l.getContig(), l.getStart(), l.getEnd(), Collections.singletonList(Allele.create("A", true))).make())
+                    .collect(Collectors.toList());
+            header.setSequenceDictionary(new SAMSequenceDictionary(Arrays.asList(new SAMSequenceRecord("chr1", 1000), new SAMSequenceRecord("chr2", 1000))));
+        }
+
+        @Override
+        public CloseableTribbleIterator<VariantContext> query(final String chr, final int start, final int end) {
+            final SimpleInterval query = new SimpleInterval(chr, start, end);
+            return new ListIterator(variants.stream().filter(query::overlaps).collect(Collectors.toList()));
+        }
+
+        @Override
+        public CloseableTribbleIterator<VariantContext> iterator() {
+            return new ListIterator(variants);
+        }
+
+        @Override
+        public void close() {}
+
+        @Override
+        public List<String> getSequenceNames() {
+            return Arrays.asList("chr1", "chr2");
+        }
+
+        @Override
+        public Object getHeader() {
+            return header;
+        }
+    }
+
+    private static final class ListIterator implements CloseableTribbleIterator<VariantContext> {
+        private final Iterator<VariantContext> it;
+
+        private ListIterator(final List<VariantContext> variants) {
+            it = variants.iterator();
+        }
+
+        @Override
+        public void close() {}
+
+        @Override
+        public Iterator<VariantContext> iterator() {
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public VariantContext next() {
+            return it.next();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package org.broadinstitute.hellbender.tools.spark.bwa;
 
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
@@ -8,6 +11,9 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 public final class BwaSparkIntegrationTest extends CommandLineProgramTest {
 
@@ -60,4 +66,73 @@ public final class BwaSparkIntegrationTest extends CommandLineProgramTest {
         SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), expectedSam);
     }
 
+    @Test
+    public void testSingleEndInSmallBatches() throws Exception {
+        final File expectedSam = getTestFile("seBwa.bam");
+
+        final File ref = getTestFile("ref.fa");
+        final File input = getTestFile("seR.bam");
+        final File output = createTempFile("bwa", ".bam");
+        Assert.assertTrue(output.delete());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addFileArgument(StandardArgumentDefinitions.REFERENCE_LONG_NAME, ref);
+        args.addFileArgument(StandardArgumentDefinitions.INPUT_LONG_NAME, input);
+        args.add(StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME + "=true"); // disable since input does not have a sequence dictionary
+        args.addArgument("shardedOutput", "true");
+        args.add("numReducers=1");
+        args.addOutput(output);
+        args.add("--" + BwaSpark.SINGLE_END_ALIGNMENT_FULL_NAME);
+        // single-end alignments don't depend on the batching, so many tiny batches must give the same result
+        args.addArgument(BwaSpark.BASES_PER_BATCH_FULL_NAME, "500");
+        args.addArgument(BwaSpark.BWA_THREADS_FULL_NAME, "2");
+        this.runCommandLine(args.getArgsArray());
+
+        SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), expectedSam);
+    }
+
+    @Test
+    public void testPairedEndInSmallBatches() throws Exception {
+        final File expectedSam = getTestFile("bwa.sam");
+
+        final File ref = getTestFile("ref.fa");
+        final File input = getTestFile("R.bam");
+        final File output = createTempFile("bwa", ".bam");
+        Assert.assertTrue(output.delete());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addFileArgument(StandardArgumentDefinitions.REFERENCE_LONG_NAME, ref);
+        args.addFileArgument(StandardArgumentDefinitions.INPUT_LONG_NAME, input);
+        args.add(StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME + "=true"); // disable since input does not have a sequence dictionary
+        args.addArgument("shardedOutput", "true");
+        args.add("numReducers=1");
+        args.addOutput(output);
+        args.addFileArgument( BwaSpark.BWA_MEM_INDEX_IMAGE_FULL_NAME, getTestFile("ref.fa.img"));
+        // the 4000 70-base reads go in 4 batches, and each batch reaches its base count on an odd read,
+        // so it has to take one more read to keep the pair together
+        args.addArgument(BwaSpark.BASES_PER_BATCH_FULL_NAME, "70070");
+        args.addArgument(BwaSpark.BWA_THREADS_FULL_NAME, "2");
+        this.runCommandLine(args.getArgsArray());
+
+        // insert-size statistics are estimated for each batch, so pairing details like the proper-pair flag might
+        // differ from a single-batch run, but both mates must still come out, with consistent mate information, and
+        // each read must align where it would have without the batching
+        final File actualSam = new File(output, "part-r-00000.bam");
+        SamAssertionUtils.assertSamValid(actualSam);
+        Assert.assertEquals(primaryAlignmentStarts(actualSam), primaryAlignmentStarts(expectedSam));
+    }
+
+    private static Map<String, String> primaryAlignmentStarts( final File sam ) throws IOException {
+        final Map<String, String> starts = new HashMap<>();
+        try ( final SamReader reader = SamReaderFactory.makeDefault().open(sam) ) {
+            for ( final SAMRecord record : reader ) {
+                if ( !record.isSecondaryOrSupplementary() ) {
+                    final String key = record.getReadName() + (record.getFirstOfPairFlag() ? "/1" : "/2");
+                    Assert.assertNull(starts.put(key, record.getReferenceName() + ":" + record.getAlignmentStart()),
+                            "duplicate primary alignment for " + key);
+                }
+            }
+        }
+        return starts;
+    }
 }
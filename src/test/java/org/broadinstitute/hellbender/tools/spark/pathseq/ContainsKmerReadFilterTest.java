@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
+import org.broadinstitute.hellbender.tools.spark.utils.BlockedLongBloomFilter;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongIterator;
@@ -22,6 +23,7 @@ public class ContainsKmerReadFilterTest extends BaseTest {
     private LongHopscotchSet kmerSet;
     private SVKmerShort kmerMask;
     private File kmerSetFile;
+    private File kmerBloomFilterFile;
 
     @BeforeMethod
     public void before() {
@@ -45,6 +47,14 @@ public class ContainsKmerReadFilterTest extends BaseTest {
             Assert.fail();
         }
         PSKmerUtils.writeKmerSet(kmerSetFile.getAbsolutePath(), new PSKmerSet(largeKmerSet, kSize, kmerMask));
+
+        final BlockedLongBloomFilter bloomFilter = new BlockedLongBloomFilter(kmerSet.size(), 1e-9);
+        itr = kmerSet.iterator();
+        while (itr.hasNext()) {
+            bloomFilter.add(itr.next());
+        }
+        kmerBloomFilterFile = createTempFile("kmerbloom", PSKmerUtils.BLOCKED_BLOOM_FILTER_EXTENSION);
+        PSKmerUtils.writeKmerBlockedBloomFilter(kmerBloomFilterFile.getAbsolutePath(), new PSKmerBlockedBloomFilter(bloomFilter, kSize, kmerMask, kmerSet.size()));
     }
 
     @DataProvider(name = "sequenceStrings")
@@ -76,4 +86,14 @@ public class ContainsKmerReadFilterTest extends BaseTest {
         ContainsKmerReadFilter.closeKmerLib();
     }
 
+    @Test(dataProvider = "sequenceStrings")
+    public void testTestBlockedBloomFilter(final String bases_in, final int kmerCountThreshold, final Boolean test_out) {
+        final ContainsKmerReadFilterSpark filter = new ContainsKmerReadFilterSpark(kmerBloomFilterFile.getAbsolutePath(), kmerCountThreshold);
+        final byte[] quals = new byte[bases_in.length()];
+        Arrays.fill(quals, (byte) 30);
+        GATKRead read_in = ArtificialReadUtils.createArtificialRead(bases_in.getBytes(), quals, "*");
+        Assert.assertEquals(filter.call(read_in), test_out);
+        ContainsKmerReadFilter.closeKmerLib();
+    }
+
 }
\ No newline at end of file
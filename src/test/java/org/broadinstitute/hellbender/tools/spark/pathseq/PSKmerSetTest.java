@@ -62,6 +62,21 @@ public class PSKmerSetTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testContainsAtLeast() {
+        final int kSize = 31;
+        final LargeLongHopscotchSet testSet = new LargeLongHopscotchSet(4);
+        testSet.addAll(new long[]{483L, 943L, 2L, 493L});
+        final PSKmerSet testKmerSet = new PSKmerSet(testSet, kSize, SVKmerShort.getMask(new byte[]{}, kSize));
+
+        final long[] kmers = new long[]{1L, 483L, 3L, 2L, 5L};
+        Assert.assertTrue(testKmerSet.containsAny(kmers, kmers.length));
+        Assert.assertFalse(testKmerSet.containsAny(kmers, 1));
+        Assert.assertTrue(testKmerSet.containsAtLeast(kmers, kmers.length, 2));
+        Assert.assertFalse(testKmerSet.containsAtLeast(kmers, 3, 2));
+        Assert.assertFalse(testKmerSet.containsAtLeast(kmers, kmers.length, 3));
+    }
+
     @Test
     public void testSerializeDeserialize() {
 
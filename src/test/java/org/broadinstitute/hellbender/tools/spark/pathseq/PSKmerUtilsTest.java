@@ -6,6 +6,7 @@ import org.apache.commons.io.FileUtils;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.engine.datasources.ReferenceFileSource;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.utils.BlockedLongBloomFilter;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 import org.broadinstitute.hellbender.tools.spark.utils.LongIterator;
@@ -167,6 +168,63 @@ public class PSKmerUtilsTest extends CommandLineProgramTest {
             final long val = rand.nextLong() >>> 2;
             Assert.assertEquals(bloomIn.contains(new SVKmerShort(val)), bfOut.contains(PSKmerCollection.canonicalizeAndMask(new SVKmerShort(val), kSize, mask)), "Bloom filter changed after writing/reading");
         }
+
+        final BlockedLongBloomFilter bbfOut = new BlockedLongBloomFilter(numElements, bloomFPP);
+        hssIter = hssMasked.iterator();
+        while (hssIter.hasNext()) {
+            bbfOut.add(hssIter.next());
+        }
+
+        final File bbfFile = createTempFile("set", ".bin");
+        final PSKmerBlockedBloomFilter blockedTruth = new PSKmerBlockedBloomFilter(bbfOut, kSize, mask, 1000);
+        PSKmerUtils.writeKmerBlockedBloomFilter(bbfFile.getPath(), blockedTruth);
+
+        final PSKmerCollection blockedIn = PSKmerUtils.readKmerFilter(bbfFile.getPath() + PSKmerUtils.BLOCKED_BLOOM_FILTER_EXTENSION);
+        Assert.assertEquals(blockedIn, blockedTruth, "Blocked Bloom filter changed after writing/reading");
+    }
+
+    @Test
+    public void testReadWriteMappedSets() {
+        final long numElements = 1024 * 1024L;
+        final int kSize = 31;
+        final SVKmerShort mask = SVKmerShort.getMask(new byte[]{3, 20, 25}, kSize);
+
+        final LargeLongHopscotchSet hssMasked = new LargeLongHopscotchSet(numElements);
+        final LongBloomFilter bfMasked = new LongBloomFilter(numElements, 0.5);
+        final Random rand = new Random(738489373L);
+        final long[] rawKmers = rand.longs(numElements).map(val -> val >>> 2).toArray();
+        for (final long rawKmer : rawKmers) {
+            final long val = PSKmerCollection.canonicalizeAndMask(new SVKmerShort(rawKmer), kSize, mask);
+            hssMasked.add(val);
+            bfMasked.add(val);
+        }
+
+        final File hssFile = createTempFile("set", ".bin");
+        final PSKmerSet truthSet = new PSKmerSet(hssMasked, kSize, mask);
+        PSKmerUtils.writeMappedKmerSet(hssFile.getPath(), truthSet);
+        final PSKmerCollection hssIn = PSKmerUtils.readKmerFilter(hssFile.getPath() + PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION);
+        Assert.assertEquals(hssIn.kmerSize(), kSize);
+        Assert.assertEquals(hssIn.getMask(), mask);
+        Assert.assertEquals(hssIn.getFalsePositiveProbability(), 0.);
+
+        final File bfFile = createTempFile("set", ".bin");
+        final PSKmerBloomFilter truthBloomFilter = new PSKmerBloomFilter(bfMasked, kSize, mask, numElements);
+        PSKmerUtils.writeMappedKmerBloomFilter(bfFile.getPath(), truthBloomFilter);
+        final PSKmerCollection bloomIn = PSKmerUtils.readKmerFilter(bfFile.getPath() + PSKmerUtils.MAPPED_BLOOM_FILTER_EXTENSION);
+        Assert.assertEquals(bloomIn.kmerSize(), kSize);
+        Assert.assertEquals(bloomIn.getMask(), mask);
+        Assert.assertEquals(bloomIn.getFalsePositiveProbability(), truthBloomFilter.getFalsePositiveProbability());
+
+        for (int i = 0; i < 100000; i++) {
+            final SVKmerShort kmer = new SVKmerShort(rand.nextLong() >>> 2);
+            Assert.assertEquals(hssIn.contains(kmer), truthSet.contains(kmer), "Hopscotch set changed after writing/mapping");
+            Assert.assertEquals(bloomIn.contains(kmer), truthBloomFilter.contains(kmer), "Bloom filter changed after writing/mapping");
+        }
+        for (final long rawKmer : rawKmers) {
+            final SVKmerShort kmer = new SVKmerShort(rawKmer);
+            Assert.assertTrue(hssIn.contains(kmer), "Hopscotch set changed after writing/mapping");
+            Assert.assertTrue(bloomIn.contains(kmer), "Bloom filter changed after writing/mapping");
+        }
     }
 
 }
\ No newline at end of file
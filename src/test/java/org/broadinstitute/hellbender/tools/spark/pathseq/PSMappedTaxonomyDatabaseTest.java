@@ -0,0 +1,155 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import scala.Tuple2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.*;
+
+public class PSMappedTaxonomyDatabaseTest extends BaseTest {
+
+    private PSTaxonomyDatabase taxonomyDatabase;
+
+    @BeforeMethod
+    public void before() {
+        final PSTree tree = new PSTree(1);
+        tree.addNode(2, "n2", 1, 0, PSTaxonomyConstants.KINGDOM_RANK_NAME);
+        tree.addNode(3, "n3", 2, 100, "species");
+        tree.addNode(4, "n4", 1, 0, PSTaxonomyConstants.SUPERKINGDOM_RANK_NAME);
+        tree.addNode(5, "n5", 2, 200, "species");
+        tree.addNode(6, "n6 \u00e9", 4, 300, "species");
+        tree.addNode(70, "n70", 4, 400, "species");
+        tree.addNode(9, "n9", 8, 500, "species"); //Node 8 has no name, rank, or parent
+
+        final Map<String, Integer> accessionToTaxId = new HashMap<>();
+        accessionToTaxId.put("acc_3", 3);
+        accessionToTaxId.put("acc_5a", 5);
+        accessionToTaxId.put("acc_5b", 5);
+        accessionToTaxId.put("acc_6", 6);
+        accessionToTaxId.put("acc_\u00e970", 70);
+        accessionToTaxId.put("acc_missing", 100);
+        taxonomyDatabase = new PSTaxonomyDatabase(tree, accessionToTaxId);
+    }
+
+    private PSMappedTaxonomyDatabase writeAndMap(final PSTaxonomyDatabase database) {
+        final File file = createTempFile("taxonomy", PSBuildReferenceTaxonomyUtils.MAPPED_TAXONOMY_DATABASE_EXTENSION);
+        final String path = PSBuildReferenceTaxonomyUtils.writeMappedTaxonomyDatabase(file.getAbsolutePath(), database);
+        Assert.assertEquals(path, file.getAbsolutePath());
+        return new PSMappedTaxonomyDatabase(path);
+    }
+
+    private void assertSameTaxonomy(final PSTaxonomy mapped, final PSTaxonomyDatabase expected) {
+        final PSTaxonomyTree mappedTree = mapped.getTree();
+        final PSTree tree = expected.tree;
+        Assert.assertEquals(mappedTree.getNodeIDs(), tree.getNodeIDs());
+        for (final int taxId : tree.getNodeIDs()) {
+            Assert.assertTrue(mappedTree.hasNode(taxId));
+            Assert.assertEquals(mappedTree.getNameOf(taxId), tree.getNameOf(taxId));
+            Assert.assertEquals(mappedTree.getRankOf(taxId), tree.getRankOf(taxId));
+            Assert.assertEquals(mappedTree.getLengthOf(taxId), tree.getLengthOf(taxId));
+            Assert.assertEquals(mappedTree.getPathOf(taxId), tree.getPathOf(taxId));
+        }
+        for (final List<Integer> nodes : Arrays.asList(Arrays.asList(3), Arrays.asList(3, 5), Arrays.asList(5, 3, 6),
+                Arrays.asList(6, 70), Arrays.asList(2, 3, 5))) {
+            Assert.assertEquals(mappedTree.getLCA(nodes), tree.getLCA(nodes));
+        }
+        Assert.assertFalse(mappedTree.hasNode(0));
+        Assert.assertFalse(mappedTree.hasNode(7));
+        Assert.assertFalse(mappedTree.hasNode(100));
+        for (final Map.Entry<String, Integer> entry : expected.accessionToTaxId.entrySet()) {
+            Assert.assertEquals(mapped.getTaxIdOfAccession(entry.getKey()), entry.getValue());
+        }
+        Assert.assertNull(mapped.getTaxIdOfAccession("acc"));
+        Assert.assertNull(mapped.getTaxIdOfAccession("acc_5"));
+        Assert.assertNull(mapped.getTaxIdOfAccession("acc_5c"));
+        Assert.assertNull(mapped.getTaxIdOfAccession(""));
+    }
+
+    @Test
+    public void testWriteAndMap() {
+        assertSameTaxonomy(writeAndMap(taxonomyDatabase), taxonomyDatabase);
+    }
+
+    @Test
+    public void testAppendExtension() {
+        final File file = createTempFile("taxonomy", ".db");
+        final String path = PSBuildReferenceTaxonomyUtils.writeMappedTaxonomyDatabase(file.getAbsolutePath(), taxonomyDatabase);
+        Assert.assertEquals(path, file.getAbsolutePath() + PSBuildReferenceTaxonomyUtils.MAPPED_TAXONOMY_DATABASE_EXTENSION);
+        new File(path).deleteOnExit();
+        final PSTaxonomy readTaxonomy = PSScorer.readTaxonomy(path);
+        Assert.assertTrue(readTaxonomy instanceof PSMappedTaxonomyDatabase);
+        assertSameTaxonomy(readTaxonomy, taxonomyDatabase);
+    }
+
+    @Test
+    public void testEmptyDatabase() {
+        final PSMappedTaxonomyDatabase mapped = writeAndMap(new PSTaxonomyDatabase(new PSTree(1), Collections.emptyMap()));
+        Assert.assertEquals(mapped.getNodeIDs(), Collections.singleton(1));
+        Assert.assertEquals(mapped.getPathOf(1), Collections.singletonList(1));
+        Assert.assertNull(mapped.getTaxIdOfAccession("acc_3"));
+    }
+
+    @Test
+    public void testSerializeDeserialize() {
+        final PSMappedTaxonomyDatabase mapped = writeAndMap(taxonomyDatabase);
+        final Kryo kryo = new Kryo();
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final Output output = new Output(bos);
+        kryo.writeObject(output, mapped);
+        output.close();
+        final Input input = new Input(new ByteArrayInputStream(bos.toByteArray()));
+        final PSMappedTaxonomyDatabase mappedTest = kryo.readObject(input, PSMappedTaxonomyDatabase.class);
+        Assert.assertEquals(mappedTest.getPath(), mapped.getPath());
+        assertSameTaxonomy(mappedTest, taxonomyDatabase);
+    }
+
+    @Test
+    public void testComputeTaxScores() {
+        final PSMappedTaxonomyDatabase mapped = writeAndMap(taxonomyDatabase);
+        final List<PSPathogenAlignmentHit> hits = new ArrayList<>();
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(3), 2));
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(3, 6), 2));
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(5, 70), 1));
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(4), 2));
+        final Map<Integer, PSPathogenTaxonScore> expected = scoreMap(PSScorer.computeTaxScores(hits.iterator(), taxonomyDatabase, true));
+        final Map<Integer, PSPathogenTaxonScore> actual = scoreMap(PSScorer.computeTaxScores(hits.iterator(), mapped, true));
+        Assert.assertEquals(actual.keySet(), expected.keySet());
+        for (final Integer taxId : expected.keySet()) {
+            Assert.assertEquals(actual.get(taxId).getSelfScore(), expected.get(taxId).getSelfScore());
+            Assert.assertEquals(actual.get(taxId).getDescendentScore(), expected.get(taxId).getDescendentScore());
+            Assert.assertEquals(actual.get(taxId).getTotalReads(), expected.get(taxId).getTotalReads());
+            Assert.assertEquals(actual.get(taxId).getUnambiguousReads(), expected.get(taxId).getUnambiguousReads());
+            Assert.assertEquals(actual.get(taxId).getReferenceLength(), expected.get(taxId).getReferenceLength());
+        }
+    }
+
+    private static Map<Integer, PSPathogenTaxonScore> scoreMap(final Iterator<Tuple2<Integer, PSPathogenTaxonScore>> iter) {
+        final Map<Integer, PSPathogenTaxonScore> map = new HashMap<>();
+        iter.forEachRemaining(pair -> map.put(pair._1, pair._2));
+        return map;
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testCycle() {
+        final PSTree tree = new PSTree(1);
+        tree.addNode(2, "n2", 3, 100, "species");
+        tree.addNode(3, "n3", 2, 100, "species");
+        writeAndMap(new PSTaxonomyDatabase(tree, Collections.emptyMap())).getPathOf(2);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testNotMappedDatabase() {
+        final File file = createTempFile("taxonomy", PSBuildReferenceTaxonomyUtils.MAPPED_TAXONOMY_DATABASE_EXTENSION);
+        PSBuildReferenceTaxonomyUtils.writeTaxonomyDatabase(file.getAbsolutePath(), taxonomyDatabase);
+        new PSMappedTaxonomyDatabase(file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,147 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import scala.Tuple2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class PSPartialTaxonScoresTest extends BaseTest {
+
+    private static final double SCORE_ABSOLUTE_ERROR_TOLERANCE = 1e-6;
+
+    private PSTaxonomyDatabase taxonomyDatabase;
+    private int[] taxonIndex;
+    private List<PSPathogenAlignmentHit> hits;
+
+    @BeforeMethod
+    public void before() {
+        final PSTree tree = new PSTree(1);
+        tree.addNode(2, "n2", 1, 0, PSTaxonomyConstants.KINGDOM_RANK_NAME);
+        tree.addNode(3, "n3", 2, 100, "species");
+        tree.addNode(4, "n4", 1, 0, PSTaxonomyConstants.SUPERKINGDOM_RANK_NAME);
+        tree.addNode(5, "n5", 2, 100, "species");
+        tree.addNode(6, "n6", 4, 100, "species");
+        tree.addNode(70, "n70", 4, 100, "species");
+        taxonomyDatabase = new PSTaxonomyDatabase(tree, null);
+        taxonIndex = PSPartialTaxonScores.getTaxonIndex(tree);
+
+        hits = new ArrayList<>();
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(3), 2));
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(3, 6), 2));
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(5), 2));
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(6), 1));
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(5, 70), 1));
+        hits.add(new PSPathogenAlignmentHit(Arrays.asList(4), 2)); //Invalid hit, ref length 0
+    }
+
+    @Test
+    public void testGetTaxonIndex() {
+        Assert.assertEquals(taxonIndex, new int[]{1, 2, 3, 4, 5, 6, 70});
+    }
+
+    @Test
+    public void testMerge() {
+        final PSPartialTaxonScores allScores = PSScorer.computePartialTaxScores(hits.iterator(), taxonomyDatabase, taxonIndex, true);
+        final PSPartialTaxonScores mergedScores = new PSPartialTaxonScores(taxonIndex.length);
+        for (int i = 0; i < hits.size(); i += 2) {
+            mergedScores.merge(PSScorer.computePartialTaxScores(hits.subList(i, i + 2).iterator(), taxonomyDatabase, taxonIndex, true));
+        }
+        assertScoresEqual(mergedScores.toTaxonScores(taxonIndex, taxonomyDatabase.tree),
+                allScores.toTaxonScores(taxonIndex, taxonomyDatabase.tree));
+
+        final Map<Integer, PSPathogenTaxonScore> expected = scoreMap(PSScorer.computeTaxScores(hits.iterator(), taxonomyDatabase, true));
+        assertScoresEqual(allScores.toTaxonScores(taxonIndex, taxonomyDatabase.tree), expected);
+        Assert.assertEquals(expected.get(4).getSelfScore(), 0.0);
+        Assert.assertEquals(expected.get(1).getTotalReads(), 8);
+        Assert.assertEquals(expected.get(70).getTotalReads(), 1);
+        Assert.assertEquals(expected.get(70).getUnambiguousReads(), 0);
+    }
+
+    @Test
+    public void testMergeEmpty() {
+        final PSPartialTaxonScores empty = new PSPartialTaxonScores(taxonIndex.length);
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertTrue(empty.toTaxonScores(taxonIndex, taxonomyDatabase.tree).isEmpty());
+
+        final PSPartialTaxonScores scores = PSScorer.computePartialTaxScores(hits.iterator(), taxonomyDatabase, taxonIndex, false);
+        final PSPartialTaxonScores scoresCopy = PSScorer.computePartialTaxScores(hits.iterator(), taxonomyDatabase, taxonIndex, false);
+        Assert.assertEquals(scores.merge(empty), scoresCopy);
+        Assert.assertEquals(new PSPartialTaxonScores(taxonIndex.length).merge(scores), scoresCopy);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMergeDifferentTaxonomies() {
+        new PSPartialTaxonScores(3).merge(new PSPartialTaxonScores(4));
+    }
+
+    @Test
+    public void testSerializeDeserialize() {
+        final PSPartialTaxonScores scores = PSScorer.computePartialTaxScores(hits.iterator(), taxonomyDatabase, taxonIndex, true);
+        final Kryo kryo = new Kryo();
+        for (final PSPartialTaxonScores testScores : Arrays.asList(scores, new PSPartialTaxonScores(taxonIndex.length))) {
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            final Output output = new Output(bos);
+            kryo.writeObject(output, testScores);
+            output.close();
+            final Input input = new Input(new ByteArrayInputStream(bos.toByteArray()));
+            Assert.assertEquals(kryo.readObject(input, PSPartialTaxonScores.class), testScores);
+        }
+    }
+
+    @Test
+    public void testReadWritePartialScores() {
+        final PSPartialTaxonScores scores = PSScorer.computePartialTaxScores(hits.iterator(), taxonomyDatabase, taxonIndex, false);
+        final File file = createTempFile("partialScores", ".bin");
+        PSScorer.writePartialScores(scores, taxonIndex, file.getAbsolutePath());
+        Assert.assertEquals(PSScorer.readPartialScores(file.getAbsolutePath(), taxonIndex), scores);
+
+        //Read into a database that has more taxa
+        final PSTree largerTree = taxonomyDatabase.tree;
+        largerTree.addNode(8, "n8", 4, 100, "species");
+        final int[] largerTaxonIndex = PSPartialTaxonScores.getTaxonIndex(largerTree);
+        final PSPartialTaxonScores largerScores = PSScorer.readPartialScores(file.getAbsolutePath(), largerTaxonIndex);
+        assertScoresEqual(largerScores.toTaxonScores(largerTaxonIndex, largerTree), scores.toTaxonScores(taxonIndex, largerTree));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testReadPartialScoresMissingTaxon() {
+        final PSPartialTaxonScores scores = PSScorer.computePartialTaxScores(hits.iterator(), taxonomyDatabase, taxonIndex, false);
+        final File file = createTempFile("partialScores", ".bin");
+        PSScorer.writePartialScores(scores, taxonIndex, file.getAbsolutePath());
+        PSScorer.readPartialScores(file.getAbsolutePath(), new int[]{1, 2, 3, 4, 5, 6});
+    }
+
+    private static Map<Integer, PSPathogenTaxonScore> scoreMap(final Iterator<Tuple2<Integer, PSPathogenTaxonScore>> iter) {
+        final Map<Integer, PSPathogenTaxonScore> map = new HashMap<>();
+        iter.forEachRemaining(pair -> map.put(pair._1, pair._2));
+        return map;
+    }
+
+    private static void assertScoresEqual(final Map<Integer, PSPathogenTaxonScore> actual, final Map<Integer, PSPathogenTaxonScore> expected) {
+        Assert.assertEquals(actual.keySet(), expected.keySet());
+        for (final Integer taxId : expected.keySet()) {
+            final PSPathogenTaxonScore a = actual.get(taxId);
+            final PSPathogenTaxonScore e = expected.get(taxId);
+            Assert.assertEquals(a.getSelfScore(), e.getSelfScore(), SCORE_ABSOLUTE_ERROR_TOLERANCE);
+            Assert.assertEquals(a.getDescendentScore(), e.getDescendentScore(), SCORE_ABSOLUTE_ERROR_TOLERANCE);
+            Assert.assertEquals(a.getTotalReads(), e.getTotalReads());
+            Assert.assertEquals(a.getUnambiguousReads(), e.getUnambiguousReads());
+            Assert.assertEquals(a.getReferenceLength(), e.getReferenceLength());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.broadinstitute.hellbender.tools.spark.sv.discovery;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class NameCollatedReadsGrouperUnitTest extends BaseTest {
+
+    @DataProvider(name = "groupSizes")
+    public Object[][] getGroupSizes() {
+        return new Object[][]{
+                { new int[]{1, 2, 3, 1, 1, 5, 2}, 3 },
+                { new int[]{1, 2, 3, 1, 1, 5, 2}, 15 }, // every partition holds a single record
+                { new int[]{1, 2, 3, 1, 1, 5, 2}, 20 }, // some partitions are empty
+                { new int[]{12, 1, 2}, 7 },             // one name spans several partitions
+                { new int[]{1}, 4 }
+        };
+    }
+
+    @Test(dataProvider = "groupSizes", groups = "sv")
+    public void testGroupByName( final int[] groupSizes, final int nPartitions ) {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        final List<List<String>> expectedGroups = new ArrayList<>();
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int groupIdx = 0; groupIdx != groupSizes.length; ++groupIdx ) {
+            final List<String> group = new ArrayList<>();
+            for ( int idx = 0; idx != groupSizes[groupIdx]; ++idx ) {
+                final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "contig" + groupIdx, 0, 1 + idx, 10);
+                reads.add(read);
+                group.add(read.getName() + ":" + read.getStart());
+            }
+            expectedGroups.add(group);
+        }
+
+        final List<List<String>> actualGroups =
+                NameCollatedReadsGrouper.groupByName(SparkContextFactory.getTestSparkContext().parallelize(reads, nPartitions))
+                        .map(group -> group.stream().map(read -> read.getName() + ":" + read.getStart()).collect(Collectors.toList()))
+                        .collect();
+        Assert.assertEquals(actualGroups, expectedGroups);
+    }
+
+    @Test(groups = "sv")
+    public void testIsNameCollated() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+        Assert.assertFalse(NameCollatedReadsGrouper.isNameCollated(header));
+        header.setSortOrder(SAMFileHeader.SortOrder.queryname);
+        Assert.assertTrue(NameCollatedReadsGrouper.isNameCollated(header));
+        header.setSortOrder(SAMFileHeader.SortOrder.unsorted);
+        header.setGroupOrder(SAMFileHeader.GroupOrder.query);
+        Assert.assertTrue(NameCollatedReadsGrouper.isNameCollated(header));
+    }
+}
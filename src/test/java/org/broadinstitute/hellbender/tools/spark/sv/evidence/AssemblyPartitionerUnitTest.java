@@ -0,0 +1,43 @@
+package org.broadinstitute.hellbender.tools.spark.sv.evidence;
+
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public final class AssemblyPartitionerUnitTest extends BaseTest {
+
+    @Test(groups = "sv")
+    public void testExpensiveIntervalsGetTheirOwnPartitions() {
+        final long[] costs = {1, 100, 2, 3, 90, 1, 4, 2, 1, 5};
+        final AssemblyPartitioner partitioner = new AssemblyPartitioner(costs, 3);
+        Assert.assertEquals(partitioner.numPartitions(), 3);
+
+        // the most expensive interval is alone in the first partition, the next one alone in the second
+        Assert.assertEquals(partitioner.getPartition(1), 0);
+        Assert.assertEquals(partitioner.getPartition(4), 1);
+        for ( final int intervalId : new int[]{0, 2, 3, 5, 6, 7, 8, 9} ) {
+            Assert.assertEquals(partitioner.getPartition(intervalId), 2);
+        }
+    }
+
+    @Test(groups = "sv")
+    public void testCheapIntervalsAreBalanced() {
+        final long[] costs = {8, 7, 6, 5, 4, 3, 2, 1};
+        final AssemblyPartitioner partitioner = new AssemblyPartitioner(costs, 2);
+        final long[] partitionCosts = new long[partitioner.numPartitions()];
+        for ( int intervalId = 0; intervalId != costs.length; ++intervalId ) {
+            partitionCosts[partitioner.getPartition(intervalId)] += costs[intervalId];
+        }
+        Assert.assertEquals(partitionCosts, new long[]{18, 18});
+    }
+
+    @Test(groups = "sv")
+    public void testNoMorePartitionsThanIntervals() {
+        final AssemblyPartitioner partitioner = new AssemblyPartitioner(new long[]{3, 1}, 100);
+        Assert.assertEquals(partitioner.numPartitions(), 2);
+        Assert.assertEquals(partitioner.getPartition(0), 0);
+        Assert.assertEquals(partitioner.getPartition(1), 1);
+        Assert.assertEquals(new AssemblyPartitioner(new long[0], 100).numPartitions(), 1);
+        Assert.assertEquals(partitioner, new AssemblyPartitioner(new long[]{3, 1}, 100));
+    }
+}
@@ -11,7 +11,9 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.*;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
 import org.broadinstitute.hellbender.tools.spark.utils.IntHistogram;
+import org.broadinstitute.hellbender.tools.spark.utils.LongIntUniqueMultiMap;
 import org.broadinstitute.hellbender.utils.IntHistogramTest;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.testng.Assert;
@@ -73,6 +75,59 @@ public final class FindBreakpointEvidenceSparkUnitTest extends BaseTest {
         Assert.assertEquals(actualQNames, expectedQNames);
     }
 
+    @Test(groups = "spark")
+    public void getIntervalsAndQNamesFromProjectedReadsTest() {
+        final JavaRDD<GATKRead> projectedReads =
+                reads.filter(filter::isMapped).map(FindBreakpointEvidenceSpark::projectForEvidenceScan);
+        final List<SVInterval> actualIntervals =
+                FindBreakpointEvidenceSpark.getIntervalsAndEvidenceTargetLinks(params,broadcastMetadata,broadcastExternalEvidence,header,projectedReads,filter)._1();
+        Assert.assertEquals(actualIntervals, expectedIntervalList);
+        final Set<String> actualQNames = new HashSet<>();
+        FindBreakpointEvidenceSpark.getQNames(params, ctx, broadcastMetadata, expectedIntervalList, projectedReads, filter)
+                .stream()
+                .map(QNameAndInterval::getKey)
+                .forEach(actualQNames::add);
+        Assert.assertEquals(actualQNames, expectedQNames);
+    }
+
+    @Test(groups = "sv")
+    public void projectForEvidenceScanTest() {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead("100M");
+        read.setAttribute("MC", "100M");
+        read.setAttribute("MQ", 60);
+        read.setAttribute("OQ", "IIIIIIIIII");
+        final GATKRead projection = FindBreakpointEvidenceSpark.projectForEvidenceScan(read);
+        Assert.assertEquals(projection.getName(), read.getName());
+        Assert.assertEquals(projection.getCigar(), read.getCigar());
+        Assert.assertEquals(projection.getAttributeAsString("MC"), "100M");
+        Assert.assertEquals(projection.getAttributeAsInteger("MQ"), Integer.valueOf(60));
+        Assert.assertFalse(projection.hasAttribute("OQ"));
+        Assert.assertEquals(projection.getLength(), 0);
+        Assert.assertEquals(projection.getBaseQualityCount(), 0);
+        Assert.assertEquals(read.getLength(), 100, "the original read must not be modified");
+        Assert.assertTrue(read.hasAttribute("OQ"), "the original read must not be modified");
+
+        final GATKRead clippedRead = ArtificialReadUtils.createArtificialRead("40S60M");
+        clippedRead.setAttribute("MC", "100M");
+        final GATKRead clippedProjection = FindBreakpointEvidenceSpark.projectForEvidenceScan(clippedRead);
+        Assert.assertEquals(clippedProjection.getBases(), clippedRead.getBases());
+        Assert.assertEquals(clippedProjection.getBaseQualities(), clippedRead.getBaseQualities());
+
+        final GATKRead readWithoutMateCigar = ArtificialReadUtils.createArtificialRead("100M");
+        Assert.assertEquals(FindBreakpointEvidenceSpark.projectForEvidenceScan(readWithoutMateCigar).getLength(), 100);
+    }
+
+    @Test(groups = "spark")
+    public void getQNameFingerprintsTest() {
+        final Set<Long> expectedFingerprints = expectedQNames.stream()
+                .map(QNameFingerprintAndInterval::fingerprint)
+                .collect(Collectors.toSet());
+        final Set<Long> actualFingerprints = new HashSet<>();
+        FindBreakpointEvidenceSpark.getQNameFingerprints(params, ctx, broadcastMetadata, expectedIntervalList, reads, filter)
+                .forEach(( fingerprint, intervalId ) -> actualFingerprints.add(fingerprint));
+        Assert.assertEquals(actualFingerprints, expectedFingerprints);
+    }
+
     @Test(groups = "spark")
     public void getKmerIntervalsTest() {
         final SVKmer kmer = new SVKmerLong(params.kSize);
@@ -83,8 +138,7 @@ public final class FindBreakpointEvidenceSparkUnitTest extends BaseTest {
         killSet.add(SVKmerizer.toKmer(seq2,kmer));
         Assert.assertEquals( killSet.size(), 2);
 
-        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameMultiMap =
-                new HopscotchUniqueMultiMap<>(expectedAssemblyQNames.size());
+        final LongIntUniqueMultiMap qNameMultiMap = new LongIntUniqueMultiMap(expectedAssemblyQNames.size());
 
         // an empty qname map should produce a "too few kmers" disposition for the interval
         final List<AlignedAssemblyOrExcuse> alignedAssemblyOrExcuseList =
@@ -94,8 +148,7 @@ public final class FindBreakpointEvidenceSparkUnitTest extends BaseTest {
         Assert.assertTrue(alignedAssemblyOrExcuseList.get(0).getErrorMessage().contains("too few"));
 
         expectedQNames.stream()
-                .map(qName -> new QNameAndInterval(qName, 0))
-                .forEach(qNameMultiMap::add);
+                .forEach(qName -> qNameMultiMap.add(QNameFingerprintAndInterval.fingerprint(qName), 0));
         final HopscotchUniqueMultiMap<SVKmer, Integer, KmerAndInterval> actualKmerAndIntervalSet =
                 new HopscotchUniqueMultiMap<>(
                         FindBreakpointEvidenceSpark.getKmerIntervals(params, ctx, qNameMultiMap, 1, new HopscotchSet<>(0),
@@ -126,12 +179,11 @@ public final class FindBreakpointEvidenceSparkUnitTest extends BaseTest {
 
     @Test(groups = "spark")
     public void generateFastqsTest() {
-        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameMultiMap =
-                new HopscotchUniqueMultiMap<>(expectedAssemblyQNames.size());
+        final LongIntUniqueMultiMap qNameMultiMap = new LongIntUniqueMultiMap(expectedAssemblyQNames.size());
         expectedAssemblyQNames.stream()
-                .map(qName -> new QNameAndInterval(qName, 0))
-                .forEach(qNameMultiMap::add);
-        FindBreakpointEvidenceSpark.handleAssemblies(ctx,qNameMultiMap,reads,filter,2,true,new LocalAssemblyComparator(fastqFile));
+                .forEach(qName -> qNameMultiMap.add(QNameFingerprintAndInterval.fingerprint(qName), 0));
+        FindBreakpointEvidenceSpark.handleAssemblies(ctx,qNameMultiMap,reads,filter,
+                FindBreakpointEvidenceSpark.estimateAssemblyCosts(qNameMultiMap,2),true,new LocalAssemblyComparator(fastqFile));
     }
 
     @Test(groups = "sv")
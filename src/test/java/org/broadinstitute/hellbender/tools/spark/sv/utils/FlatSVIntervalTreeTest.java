@@ -0,0 +1,151 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class FlatSVIntervalTreeTest extends BaseTest {
+    private static final SVInterval[] intervals = {
+            new SVInterval(0, 100, 200),
+            new SVInterval(0, 150, 250),
+            new SVInterval(0, 200, 300),
+            new SVInterval(0, 250, 350),
+            new SVInterval(0, 300, 400),
+            new SVInterval(0, 350, 450),
+            new SVInterval(0, 400, 500),
+            new SVInterval(0, 450, 550),
+            new SVInterval(0, 500, 600),
+            new SVInterval(0, 550, 650),
+            new SVInterval(0, 600, 700),
+            new SVInterval(0, 650, 750),
+            new SVInterval(0, 700, 800),
+            new SVInterval(0, 750, 850),
+            new SVInterval(0, 800, 900),
+            new SVInterval(0, 850, 950),
+            new SVInterval(0, 900, 1000),
+            new SVInterval(1, 0, 100)
+    };
+
+    private static FlatSVIntervalTree<Integer> initTree() {
+        final SVIntervalTree<Integer> tree = new SVIntervalTree<>();
+        for ( int idx = intervals.length - 1; idx >= 0; --idx ) {
+            tree.put(intervals[idx], idx);
+        }
+        return new FlatSVIntervalTree<>(tree);
+    }
+
+    @Test(groups = "sv")
+    public void orderTest() {
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+        Assert.assertEquals(testTree.size(), intervals.length);
+        int idx = 0;
+        for ( final SVIntervalTree.Entry<Integer> entry : testTree ) {
+            Assert.assertEquals(entry.getInterval(), intervals[idx]);
+            Assert.assertEquals(entry.getValue().intValue(), idx);
+            Assert.assertEquals(testTree.getInterval(idx), intervals[idx]);
+            idx += 1;
+        }
+        Assert.assertEquals(idx, intervals.length);
+        Assert.assertTrue(new FlatSVIntervalTree<>(new SVIntervalTree<Integer>()).isEmpty());
+    }
+
+    @Test(groups = "sv")
+    public void minOverlapperTest() {
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+        Assert.assertEquals(testTree.minOverlapper(intervals[0]).getInterval(), intervals[0]);
+        final int lastIdx = intervals.length - 1;
+        for ( int idx = 1; idx != lastIdx; ++idx ) {
+            Assert.assertEquals(testTree.minOverlapperIndex(intervals[idx]), idx - 1);
+        }
+        Assert.assertEquals(testTree.minOverlapper(intervals[lastIdx]).getInterval(), intervals[lastIdx]);
+        // try an interval that's less than anything in the set
+        Assert.assertNull(testTree.minOverlapper(new SVInterval(0, 0, 1)));
+        Assert.assertFalse(testTree.hasOverlapper(new SVInterval(0, 0, 1)));
+
+        // try an interval that's greater than anything in the set
+        Assert.assertNull(testTree.minOverlapper(new SVInterval(2, 0, 1)));
+
+        // try an interval on a contig that precedes everything in the set
+        Assert.assertNull(testTree.minOverlapper(new SVInterval(-1, 0, 2000)));
+
+        // try an empty interval
+        Assert.assertEquals(testTree.minOverlapper(new SVInterval(0, 201, 201)).getInterval(), intervals[1]);
+    }
+
+    @Test(groups = "sv")
+    public void overlappersTest() {
+        final FlatSVIntervalTree<Integer> testTree = initTree();
+        final Iterator<SVIntervalTree.Entry<Integer>> itr1 = testTree.overlappers(new SVInterval(0, 240, 260));
+        int idx = 1;
+        while ( itr1.hasNext() ) {
+            Assert.assertEquals(itr1.next().getInterval(), intervals[idx++]);
+        }
+        Assert.assertEquals(idx, 4);
+
+        // test overlappers in the presence of an element in the middle that isn't an overlapper
+        final List<SVInterval> sortedIntervals = new ArrayList<>();
+        sortedIntervals.add(new SVInterval(0, 100, 1000));
+        sortedIntervals.add(new SVInterval(0, 200, 1000));
+        sortedIntervals.add(new SVInterval(0, 300, 1000));
+        sortedIntervals.add(new SVInterval(0, 350, 450));
+        sortedIntervals.add(new SVInterval(0, 400, 1000));
+        sortedIntervals.add(new SVInterval(0, 500, 1000));
+        final FlatSVIntervalTree<SVInterval> tree = new FlatSVIntervalTree<>(sortedIntervals, sortedIntervals);
+        final Iterator<SVIntervalTree.Entry<SVInterval>> itr2 = tree.overlappers(new SVInterval(0, 500, 600));
+        int start = 100;
+        while ( itr2.hasNext() ) {
+            Assert.assertEquals(itr2.next().getInterval().getStart(), start);
+            start += 100;
+        }
+        Assert.assertEquals(start, 600);
+    }
+
+    @Test(groups = "sv")
+    public void randomOverlappersTest() {
+        // compare the flat tree's overlappers with those of a red-black tree, for trees big enough to need pruning
+        final Random random = new Random(47L);
+        for ( int trial = 0; trial != 50; ++trial ) {
+            final SVIntervalTree<Integer> tree = new SVIntervalTree<>();
+            final int nIntervals = random.nextInt(1000);
+            for ( int idx = 0; idx != nIntervals; ++idx ) {
+                final int start = random.nextInt(10000);
+                final int length = random.nextInt(10) == 0 ? random.nextInt(5000) : random.nextInt(100);
+                tree.put(new SVInterval(random.nextInt(3), start, start + length), idx);
+            }
+            final FlatSVIntervalTree<Integer> flatTree = new FlatSVIntervalTree<>(tree);
+            final FlatSVIntervalTree<Integer>.OverlapCursor cursor = flatTree.overlapCursor();
+            for ( int query = 0; query != 100; ++query ) {
+                final int start = random.nextInt(11000) - 500;
+                final SVInterval queryInterval = new SVInterval(random.nextInt(3), start, start + random.nextInt(300));
+                final Iterator<SVIntervalTree.Entry<Integer>> expectedItr = tree.overlappers(queryInterval);
+                cursor.reset(queryInterval);
+                int overlapperIdx;
+                while ( (overlapperIdx = cursor.nextIndex()) >= 0 ) {
+                    Assert.assertTrue(expectedItr.hasNext());
+                    final SVIntervalTree.Entry<Integer> expected = expectedItr.next();
+                    Assert.assertEquals(flatTree.getInterval(overlapperIdx), expected.getInterval());
+                    Assert.assertEquals(flatTree.getValue(overlapperIdx), expected.getValue());
+                }
+                Assert.assertFalse(expectedItr.hasNext());
+            }
+        }
+    }
+
+    @Test(groups = "sv", expectedExceptions = IllegalArgumentException.class)
+    public void unsortedTest() {
+        final List<SVInterval> unsortedIntervals = new ArrayList<>();
+        unsortedIntervals.add(intervals[1]);
+        unsortedIntervals.add(intervals[0]);
+        new FlatSVIntervalTree<>(unsortedIntervals, unsortedIntervals);
+    }
+
+    @Test(groups = "sv", expectedExceptions = UnsupportedOperationException.class)
+    public void immutableTest() {
+        initTree().get(0).setValue(-1);
+    }
+}
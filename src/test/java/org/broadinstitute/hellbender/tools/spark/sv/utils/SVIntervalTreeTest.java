@@ -4,7 +4,12 @@ import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class SVIntervalTreeTest extends BaseTest {
     private static SVInterval[] intervals = {
@@ -97,6 +102,46 @@ public class SVIntervalTreeTest extends BaseTest {
         Assert.assertFalse(tree.iterator().hasNext());
     }
 
+    @Test(groups = "sv")
+    public void bulkLoadTest() {
+        final List<SVInterval> sortedIntervals = Arrays.asList(intervals);
+        final List<Integer> values = IntStream.range(0, intervals.length).boxed().collect(Collectors.toList());
+        final SVIntervalTree<Integer> testTree = new SVIntervalTree<>(sortedIntervals, values);
+        Assert.assertEquals(testTree.size(), intervals.length);
+        int idx = 0;
+        for ( final SVIntervalTree.Entry<Integer> entry : testTree ) {
+            Assert.assertEquals(entry.getInterval(), intervals[idx]);
+            Assert.assertEquals(entry.getValue().intValue(), idx);
+            Assert.assertEquals(testTree.getIndex(intervals[idx]), idx);
+            idx += 1;
+        }
+        Assert.assertEquals(testTree.maxEnd(), new SVInterval(1, 0, 100));
+        Assert.assertEquals(testTree.minOverlapper(intervals[5]).getInterval(), intervals[4]);
+
+        // a bulk-loaded tree must keep working as it's modified
+        for ( int deletedIdx = 0; deletedIdx < intervals.length; deletedIdx += 2 ) {
+            testTree.remove(intervals[deletedIdx]);
+        }
+        for ( int nIntervals = 0; nIntervals != 100; ++nIntervals ) {
+            testTree.put(new SVInterval(2, nIntervals, nIntervals + 10), nIntervals);
+        }
+        Assert.assertEquals(testTree.size(), intervals.length / 2 + 100);
+        SVInterval prevInterval = null;
+        for ( final SVIntervalTree.Entry<Integer> entry : testTree ) {
+            if ( prevInterval != null ) {
+                Assert.assertTrue(prevInterval.compareTo(entry.getInterval()) < 0);
+            }
+            prevInterval = entry.getInterval();
+        }
+
+        Assert.assertEquals(new SVIntervalTree<Integer>(new ArrayList<>(), new ArrayList<>()).size(), 0);
+    }
+
+    @Test(groups = "sv", expectedExceptions = IllegalArgumentException.class)
+    public void bulkLoadUnsortedTest() {
+        new SVIntervalTree<>(Arrays.asList(intervals[1], intervals[0]), Arrays.asList(1, 0));
+    }
+
     @Test(groups = "sv")
     public void findByIndexTest() {
         final SVIntervalTree<Integer> testTree = initTree();
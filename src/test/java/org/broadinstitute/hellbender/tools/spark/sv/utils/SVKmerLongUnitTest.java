@@ -190,5 +190,28 @@ public class SVKmerLongUnitTest extends BaseTest {
                 "GGATCACAGGTCTATCACCCTATTAACCACTCACGGGAGCTCTCCATGCAT"
         ).map(str -> SVKmerizer.toKmer(str,kmer)).collect(Collectors.toList());
         Assert.assertEquals(kmers,expectedKmers);
+
+        // the primitive version must produce the same kmers, canonicalized
+        final long[] kmerBuffer = new long[2*seq.length];
+        final int nKmers = SVDUSTFilteredKmerizer.canonicalLongKmers(seq, KMER_SIZE, MAX_DUST_SCORE, kmerBuffer);
+        Assert.assertEquals(nKmers, expectedKmers.size());
+        for ( int idx = 0; idx != nKmers; ++idx ) {
+            Assert.assertEquals(new SVKmerLong(kmerBuffer[2*idx], kmerBuffer[2*idx+1]),
+                                expectedKmers.get(idx).canonical(KMER_SIZE));
+        }
+    }
+
+    @Test
+    public void testPrimitiveKmerization() {
+        final byte[] seq = "AAAAANTTTTTGCAGTNNACGTACGTCacgtgGGT".getBytes();
+        final int kSize = 5;
+        final List<SVKmer> expectedKmers =
+                SVKmerizer.canonicalStream(seq, kSize, new SVKmerLong()).collect(Collectors.toList());
+        final long[] kmerBuffer = new long[2*SVKmerizer.maxKmers(seq.length, kSize)];
+        final int nKmers = SVKmerizer.canonicalLongKmers(seq, kSize, kmerBuffer);
+        Assert.assertEquals(nKmers, expectedKmers.size());
+        for ( int idx = 0; idx != nKmers; ++idx ) {
+            Assert.assertEquals(new SVKmerLong(kmerBuffer[2*idx], kmerBuffer[2*idx+1]), expectedKmers.get(idx));
+        }
     }
 }
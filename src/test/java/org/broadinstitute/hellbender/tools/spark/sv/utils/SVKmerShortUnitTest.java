@@ -198,4 +198,24 @@ public class SVKmerShortUnitTest {
         Assert.assertEquals(kmerizer.next(), SVKmerizer.toKmer("TTTTT", new SVKmerShort(5)));
         Assert.assertTrue(!kmerizer.hasNext());
     }
+
+    @Test
+    public void testPrimitiveKmerization() {
+        final byte[] seq = "AAAAANTTTTTGCAGTNNACGTACGTCacgtgGGT".getBytes();
+        final int kSize = 5;
+        final SVKmerShort mask = SVKmerShort.getMask(new byte[]{2}, kSize);
+        for ( int kSpace = 1; kSpace != 4; ++kSpace ) {
+            final List<Long> expectedKmers = new ArrayList<>();
+            final SVKmerizer kmerizer = new SVKmerizer(seq, kSize, kSpace, new SVKmerShort(kSize));
+            while ( kmerizer.hasNext() ) {
+                expectedKmers.add(((SVKmerShort)kmerizer.next()).canonical(kSize).mask(mask).getLong());
+            }
+            final long[] kmerBuffer = new long[seq.length];
+            final int nKmers = SVKmerizer.canonicalShortKmers(seq, kSize, kSpace, mask.getLong(), kmerBuffer);
+            Assert.assertEquals(nKmers, expectedKmers.size());
+            for ( int idx = 0; idx != nKmers; ++idx ) {
+                Assert.assertEquals(kmerBuffer[idx], expectedKmers.get(idx).longValue());
+            }
+        }
+    }
 }
\ No newline at end of file
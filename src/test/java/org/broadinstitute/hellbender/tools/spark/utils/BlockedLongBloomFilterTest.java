@@ -0,0 +1,149 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.Random;
+
+public final class BlockedLongBloomFilterTest {
+
+    private static final long[] testVals = {0, 1, 2, 8, 16, 42, 97, 100, 2894765};
+    private static final long[] notAllTestVals = {0, 1, 2, 3, 7, 22, 61};
+    private static final long notInTestVals = 6;
+    private static final int RAND_SEED = 0xdeadf00;
+    private static final int HHASH_NVALS = 1000000;
+    private static final int FPR_NVALS = 100000;
+    private static final float FPP = 0.01F;
+
+    private static long randomLong(Random rng) {
+        return (((long) rng.nextInt()) | (((long) rng.nextInt()) << 31)) & ~Long.MIN_VALUE;
+    }
+
+    @Test
+    void addTest() {
+        final BlockedLongBloomFilter bloomFilter = new BlockedLongBloomFilter(testVals.length, FPP);
+        for (final long val : testVals) {
+            bloomFilter.add(val);
+        }
+        Assert.assertTrue(bloomFilter.containsAll(testVals));
+    }
+
+    @Test
+    void clearTest() {
+        final BlockedLongBloomFilter bloomFilter = new BlockedLongBloomFilter(testVals.length, FPP);
+        bloomFilter.addAll(testVals);
+        Assert.assertFalse(bloomFilter.isEmpty());
+        bloomFilter.clear();
+        Assert.assertFalse(bloomFilter.contains(1L));
+        Assert.assertTrue(bloomFilter.isEmpty());
+    }
+
+    @Test
+    void containsTest() {
+        final BlockedLongBloomFilter bloomFilter = new BlockedLongBloomFilter(testVals.length, FPP);
+        bloomFilter.addAll(testVals);
+        Assert.assertTrue(bloomFilter.containsAll(testVals));
+        Assert.assertFalse(bloomFilter.contains(notInTestVals));
+        Assert.assertFalse(bloomFilter.containsAll(notAllTestVals));
+    }
+
+    @DataProvider(name = "containsAtLeastData")
+    public Object[][] getContainsAtLeastData() {
+        return new Object[][]{
+                {new long[]{}, 0, 1, false},
+                {new long[]{3, 7, 22}, 3, 1, false},
+                {new long[]{3, 7, 42}, 3, 1, true},
+                {new long[]{3, 7, 42}, 2, 1, false},
+                {new long[]{3, 7, 42}, 3, 2, false},
+                {new long[]{8, 7, 42}, 3, 2, true},
+                {new long[]{8, 16, 42, 97}, 4, 4, true},
+                {new long[]{3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 2894765}, 19, 1, true},
+                {new long[]{3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 2894765}, 18, 1, false}
+        };
+    }
+
+    @Test(dataProvider = "containsAtLeastData")
+    void containsAtLeastTest(final long[] keys, final int numKeys, final int minCount, final boolean expected) {
+        final BlockedLongBloomFilter bloomFilter = new BlockedLongBloomFilter(testVals.length, 1e-6);
+        bloomFilter.addAll(testVals);
+        Assert.assertEquals(bloomFilter.containsAtLeast(keys, numKeys, minCount), expected);
+    }
+
+    @Test
+    void equalsAndHashcodeTest() {
+        final BlockedLongBloomFilter bloomFilter1 = new BlockedLongBloomFilter(testVals.length, FPP);
+        final BlockedLongBloomFilter bloomFilter2 = new BlockedLongBloomFilter(testVals.length, FPP);
+        final BlockedLongBloomFilter bloomFilter3 = new BlockedLongBloomFilter(testVals.length, FPP);
+        bloomFilter1.addAll(testVals);
+        bloomFilter2.addAll(testVals);
+        bloomFilter3.addAll(notAllTestVals);
+        Assert.assertEquals(bloomFilter1.hashCode(), bloomFilter2.hashCode());
+        Assert.assertEquals(bloomFilter1, bloomFilter2);
+        Assert.assertNotEquals(bloomFilter1.hashCode(), bloomFilter3.hashCode());
+        Assert.assertNotEquals(bloomFilter1, bloomFilter3);
+    }
+
+    @Test
+    void testRandomLongs() {
+        final Random rng = new Random(RAND_SEED);
+        final HashSet<Long> hashSet = new HashSet<>();
+        final BlockedLongBloomFilter bloomFilter = new BlockedLongBloomFilter(HHASH_NVALS, FPP);
+        for (int valNo = 0; valNo != HHASH_NVALS; ++valNo) {
+            final long randLong = randomLong(rng);
+            hashSet.add(randLong);
+            bloomFilter.add(randLong);
+        }
+        for (final Long val : hashSet) {
+            Assert.assertTrue(bloomFilter.contains(val), "testVal=" + val);
+        }
+        int num_false_pos = 0;
+        int num_total = 0;
+        for (int valNo = 0; valNo != FPR_NVALS; ++valNo) {
+            final long randLong = randomLong(rng);
+            if (!hashSet.contains(randLong)) {
+                num_total++;
+                if (bloomFilter.contains(randLong)) {
+                    num_false_pos++;
+                }
+            }
+        }
+        final double theoreticalFpp = bloomFilter.getTheoreticalFPP(HHASH_NVALS);
+        Assert.assertTrue(theoreticalFpp <= FPP);
+        Assert.assertTrue(num_false_pos >= num_total * theoreticalFpp * 0.8);
+        Assert.assertTrue(num_false_pos <= num_total * theoreticalFpp * 1.2);
+    }
+
+    @Test
+    void serializationTest() {
+        final Random rng = new Random(RAND_SEED);
+        final BlockedLongBloomFilter bloomFilter = new BlockedLongBloomFilter(HHASH_NVALS, FPP);
+        final HashSet<Long> hashSet = new HashSet<>(HHASH_NVALS);
+        for (int valNo = 0; valNo != HHASH_NVALS; ++valNo) {
+            final long randLong = randomLong(rng);
+            bloomFilter.add(randLong);
+            hashSet.add(randLong);
+        }
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final Output out = new Output(bos);
+        final Kryo kryo = new Kryo();
+        kryo.writeObject(out, bloomFilter);
+        out.flush();
+
+        final ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+        final Input in = new Input(bis);
+        final BlockedLongBloomFilter bloomFilter2 = kryo.readObject(in, BlockedLongBloomFilter.class);
+
+        Assert.assertEquals(bloomFilter, bloomFilter2);
+        for (Long val : hashSet) {
+            Assert.assertTrue(bloomFilter2.contains(val));
+        }
+    }
+}
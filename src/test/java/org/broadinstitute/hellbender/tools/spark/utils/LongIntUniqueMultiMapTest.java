@@ -0,0 +1,128 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+public final class LongIntUniqueMultiMapTest extends BaseTest {
+    private static final int RAND_SEED = 0xdeadf00;
+    private static final int N_KEYS = 20000;
+
+    private static List<Integer> valuesOf( final LongIntUniqueMultiMap multiMap, final long key ) {
+        final List<Integer> values = new ArrayList<>();
+        for ( int slot = multiMap.findFirst(key); slot != LongIntUniqueMultiMap.NO_SLOT; slot = multiMap.findNext(key, slot) ) {
+            values.add(multiMap.getValue(slot));
+        }
+        Collections.sort(values);
+        return values;
+    }
+
+    // a random multimap (which starts small, so that it has to resize a few times) and the same data as a HashMap
+    private static LongIntUniqueMultiMap randomMultiMap( final Map<Long, List<Integer>> expected ) {
+        final Random rng = new Random(RAND_SEED);
+        final LongIntUniqueMultiMap multiMap = new LongIntUniqueMultiMap(0);
+        for ( int keyNo = 0; keyNo != N_KEYS; ++keyNo ) {
+            final long key = rng.nextLong();
+            final List<Integer> values = new ArrayList<>();
+            final int nValues = 1 + rng.nextInt(3);
+            for ( int valNo = 0; valNo != nValues; ++valNo ) {
+                Assert.assertTrue(multiMap.add(key, valNo));
+                values.add(valNo);
+            }
+            expected.put(key, values);
+        }
+        return multiMap;
+    }
+
+    @Test
+    void addAndFindTest() {
+        final Map<Long, List<Integer>> expected = new HashMap<>();
+        final LongIntUniqueMultiMap multiMap = randomMultiMap(expected);
+        Assert.assertEquals(multiMap.size(), expected.values().stream().mapToInt(List::size).sum());
+        Assert.assertTrue(multiMap.size() <= LongIntUniqueMultiMap.LOAD_FACTOR * multiMap.capacity());
+        for ( final Map.Entry<Long, List<Integer>> entry : expected.entrySet() ) {
+            Assert.assertEquals(valuesOf(multiMap, entry.getKey()), entry.getValue());
+            Assert.assertTrue(multiMap.containsKey(entry.getKey()));
+            Assert.assertTrue(multiMap.contains(entry.getKey(), 0));
+            Assert.assertFalse(multiMap.contains(entry.getKey(), 3));
+        }
+        final Random rng = new Random(RAND_SEED + 1);
+        for ( int trialNo = 0; trialNo != N_KEYS; ++trialNo ) {
+            final long key = rng.nextLong();
+            if ( !expected.containsKey(key) ) {
+                Assert.assertFalse(multiMap.containsKey(key));
+                Assert.assertEquals(multiMap.findFirst(key), LongIntUniqueMultiMap.NO_SLOT);
+            }
+        }
+    }
+
+    @Test
+    void uniquenessTest() {
+        final LongIntUniqueMultiMap multiMap = new LongIntUniqueMultiMap(10);
+        Assert.assertTrue(multiMap.isEmpty());
+        Assert.assertTrue(multiMap.add(-1L, 7));
+        Assert.assertFalse(multiMap.add(-1L, 7));
+        Assert.assertTrue(multiMap.add(-1L, 8));
+        Assert.assertTrue(multiMap.add(0L, 7));
+        Assert.assertEquals(multiMap.size(), 3);
+        Assert.assertEquals(valuesOf(multiMap, -1L), Arrays.asList(7, 8));
+        Assert.assertEquals(valuesOf(multiMap, 0L), Collections.singletonList(7));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    void negativeValueTest() {
+        new LongIntUniqueMultiMap(10).add(1L, -1);
+    }
+
+    @Test
+    void forEachTest() {
+        final Map<Long, List<Integer>> expected = new HashMap<>();
+        final LongIntUniqueMultiMap multiMap = randomMultiMap(expected);
+        final Map<Long, List<Integer>> actual = new HashMap<>();
+        multiMap.forEach(( key, value ) -> actual.computeIfAbsent(key, k -> new ArrayList<>()).add(value));
+        actual.values().forEach(Collections::sort);
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test
+    void removeIfTest() {
+        final Map<Long, List<Integer>> expected = new HashMap<>();
+        final LongIntUniqueMultiMap multiMap = randomMultiMap(expected);
+        Assert.assertTrue(multiMap.removeIf(( key, value ) -> value == 0 || key < 0));
+        Assert.assertFalse(multiMap.removeIf(( key, value ) -> value == 0));
+        int expectedSize = 0;
+        for ( final Map.Entry<Long, List<Integer>> entry : expected.entrySet() ) {
+            final long key = entry.getKey();
+            final List<Integer> values = key < 0 ? Collections.emptyList() : entry.getValue().subList(1, entry.getValue().size());
+            Assert.assertEquals(valuesOf(multiMap, key), values);
+            expectedSize += values.size();
+        }
+        Assert.assertEquals(multiMap.size(), expectedSize);
+    }
+
+    @Test
+    void serializationTest() {
+        final Map<Long, List<Integer>> expected = new HashMap<>();
+        final LongIntUniqueMultiMap multiMap = randomMultiMap(expected);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final Output out = new Output(bos);
+        final Kryo kryo = new Kryo();
+        kryo.writeObject(out, multiMap);
+        out.flush();
+
+        final Input in = new Input(new ByteArrayInputStream(bos.toByteArray()));
+        final LongIntUniqueMultiMap multiMap2 = kryo.readObject(in, LongIntUniqueMultiMap.class);
+        Assert.assertEquals(multiMap2.size(), multiMap.size());
+        for ( final Map.Entry<Long, List<Integer>> entry : expected.entrySet() ) {
+            Assert.assertEquals(valuesOf(multiMap2, entry.getKey()), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public final class MappedLongBloomFilterTest extends BaseTest {
+
+    private static final int RAND_SEED = 0xdeadf00;
+    private static final int NVALS = 100000;
+    private static final double FPP = 0.01;
+
+    @Test
+    void mapBloomFilterTest() throws IOException {
+        final Random rng = new Random(RAND_SEED);
+        final long[] vals = rng.longs(NVALS).map(val -> val >>> 1).toArray();
+        final LongBloomFilter bloomFilter = new LongBloomFilter(NVALS, FPP);
+        bloomFilter.addAll(vals);
+
+        final File file = createTempFile("filter", ".bfim");
+        final long headerSize = 8;
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            output.writeLong(0);
+            bloomFilter.writeMappable(output);
+        }
+
+        final MappedLongBloomFilter mappedFilter;
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            mappedFilter = new MappedLongBloomFilter(channel, headerSize);
+        }
+        Assert.assertEquals(mappedFilter.mappedLength(), file.length() - headerSize);
+        Assert.assertEquals(mappedFilter.getTheoreticalFPP(NVALS), bloomFilter.getTheoreticalFPP(NVALS));
+        Assert.assertTrue(mappedFilter.containsAll(vals));
+
+        // false positives must be the same ones as those of the original filter
+        for (int i = 0; i != NVALS; ++i) {
+            final long val = rng.nextLong() >>> 1;
+            Assert.assertEquals(mappedFilter.contains(val), bloomFilter.contains(val));
+        }
+    }
+}
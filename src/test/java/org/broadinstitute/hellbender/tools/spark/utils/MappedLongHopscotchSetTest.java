@@ -0,0 +1,75 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+public final class MappedLongHopscotchSetTest extends BaseTest {
+
+    private static final long[] testVals = {0, 1, 2, 8, 16, 42, 97, 100, 2894765};
+    private static final int RAND_SEED = 0xdeadf00;
+    private static final int HHASH_NVALS = 100000;
+
+    private static long randomLong(Random rng) {
+        return (((long) rng.nextInt()) | (((long) rng.nextInt()) << 31)) & Long.MAX_VALUE;
+    }
+
+    @Test
+    void mapLargeSetTest() throws IOException {
+        final Random rng = new Random(RAND_SEED);
+        final LargeLongHopscotchSet hopscotchSet = new LargeLongHopscotchSet(HHASH_NVALS);
+        for (int valCount = 0; valCount != HHASH_NVALS; ++valCount) {
+            hopscotchSet.add(randomLong(rng));
+        }
+        hopscotchSet.remove(hopscotchSet.iterator().next());
+
+        final File file = createTempFile("set", ".hssm");
+        final long headerSize = 24;
+        try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            output.write(new byte[(int) headerSize]);
+            hopscotchSet.writeMappable(output);
+        }
+
+        final MappedLongHopscotchSet mappedSet;
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            mappedSet = new MappedLongHopscotchSet(channel, headerSize);
+        }
+        Assert.assertEquals(mappedSet.mappedLength(), file.length() - headerSize);
+        Assert.assertEquals(mappedSet.size(), hopscotchSet.size());
+
+        final LongIterator itr = hopscotchSet.iterator();
+        while (itr.hasNext()) {
+            Assert.assertTrue(mappedSet.contains(itr.next()));
+        }
+        for (int valCount = 0; valCount != HHASH_NVALS; ++valCount) {
+            final long val = randomLong(rng);
+            Assert.assertEquals(mappedSet.contains(val), hopscotchSet.contains(val));
+        }
+    }
+
+    @Test
+    void mapSmallSetTest() throws IOException {
+        final LongHopscotchSet hopscotchSet = new LongHopscotchSet(testVals);
+        final File file = createTempFile("set", ".hssm");
+        try (final DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            hopscotchSet.writeMappable(output);
+        }
+
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final MappedLongHopscotchSet mappedSet = new MappedLongHopscotchSet(channel, 0);
+            Assert.assertEquals(mappedSet.size(), testVals.length);
+            Assert.assertTrue(mappedSet.containsAll(testVals));
+            Assert.assertFalse(mappedSet.contains(6));
+            Assert.assertFalse(mappedSet.contains(-1));
+        }
+    }
+}
@@ -70,6 +70,7 @@ public class GenotypeGVCFsIntegrationTest extends CommandLineProgramTest {
                 {getTestFile("leadingDeletion.g.vcf"), getTestFile("leadingDeletionRestrictToStartExpected.vcf"), Arrays.asList("-L", "20:69512-69513", "--"+GenotypeGVCFs.ONLY_OUTPUT_CALLS_STARTING_IN_INTERVALS_FULL_NAME), b37_reference_20_21},
                 {getTestFile("leadingDeletion.g.vcf"), getTestFile("leadingDeletionExpected.vcf"), Arrays.asList("-L", "20:69512-69513"), b37_reference_20_21},
                 {getTestFile(BASE_PAIR_GVCF), getTestFile( BASE_PAIR_EXPECTED), NO_EXTRA_ARGS, b37_reference_20_21}, //base pair level gvcf
+                {getTestFile(BASE_PAIR_GVCF), getTestFile( BASE_PAIR_EXPECTED), Arrays.asList("--" + GenotypeGVCFs.GENOTYPING_THREADS_FULL_NAME, "3", "--" + GenotypeGVCFs.GENOTYPING_BATCH_SIZE_FULL_NAME, "1"), b37_reference_20_21}, //multi-threaded genotyping, one site per batch
                 {getTestFile("testUpdatePGT.gvcf"), getTestFile( "testUpdatePGT.gatk3.7_30_ga4f720357.output.vcf"), NO_EXTRA_ARGS, b37_reference_20_21},   //testUpdatePGT
                 {getTestFile("gvcfExample1.vcf"), getTestFile( "gvcfExample1.gatk3.7_30_ga4f720357.expected.vcf"), NO_EXTRA_ARGS, b37_reference_20_21}, //single sample vcf
                 {getTestFile("gvcfExample1.vcf"), getTestFile( "gvcfExample1.gatk3.7_30_ga4f720357.expected.vcf"), Arrays.asList("-L", "20"), b37_reference_20_21}, //single sample vcf with -L
@@ -83,6 +84,7 @@ public class GenotypeGVCFsIntegrationTest extends CommandLineProgramTest {
                 {getTestFile("spanningDel.depr.delOnly.g.vcf"), getTestFile( "spanningDel.depr.delOnly.gatk3.7_30_ga4f720357.expected.vcf" ), NO_EXTRA_ARGS, b37_reference_20_21},
                 {getTestFile("ad-bug-input.vcf"), getTestFile( "ad-bug-gatk3.7_30_ga4f720357-output.vcf"), NO_EXTRA_ARGS, b37_reference_20_21}, //Bad AD Propagation Haploid Bug
                 {CEUTRIO_20_21_GATK3_4_G_VCF, getTestFile(CEUTRIO_20_21_EXPECTED_VCF), Arrays.asList("--dbsnp", largeFileTestDir + "dbsnp_138.b37.20.21.vcf"), b37_reference_20_21},
+                {CEUTRIO_20_21_GATK3_4_G_VCF, getTestFile(CEUTRIO_20_21_EXPECTED_VCF), Arrays.asList("--dbsnp", largeFileTestDir + "dbsnp_138.b37.20.21.vcf", "--" + GenotypeGVCFs.GENOTYPING_THREADS_FULL_NAME, "4", "--" + GenotypeGVCFs.GENOTYPING_BATCH_SIZE_FULL_NAME, "7"), b37_reference_20_21}, //multi-threaded genotyping
                 {getTestFile("CEUTrio.20.21.missingIndel.g.vcf"), getTestFile( "CEUTrio.20.21.missingIndel.gatk3.7_30_ga4f720357.expected.vcf"), Arrays.asList("--dbsnp", "src/test/resources/large/dbsnp_138.b37.20.21.vcf"), b37_reference_20_21},
                 {new File(largeFileTestDir + "gvcfs/gatk3.7_30_ga4f720357.24_sample.21.g.vcf"), new File( largeFileTestDir + "gvcfs/gatk3.7_30_ga4f720357.24_sample.21.expected.vcf"), NO_EXTRA_ARGS, b38_reference_20_21},
                 {getTestFile("chr21.bad.pl.g.vcf"), getTestFile( "chr21.bad.pl.gatk3.7_30_ga4f720357.expected.vcf"), Arrays.asList("-L", "chr21:28341770-28341790"), b38_reference_20_21},
@@ -229,6 +231,34 @@ public class GenotypeGVCFsIntegrationTest extends CommandLineProgramTest {
         return VCs;
     }
 
+    @Test
+    public void testMultithreadedOutputMatchesSingleThreadedWithDbsnp() throws IOException {
+        final List<String> singleThreaded = runGenotypeGVCFsWithDbsnp(Collections.emptyList());
+        final List<String> multiThreaded = runGenotypeGVCFsWithDbsnp(Arrays.asList(
+                "--" + GenotypeGVCFs.GENOTYPING_THREADS_FULL_NAME, "4", "--" + GenotypeGVCFs.GENOTYPING_BATCH_SIZE_FULL_NAME, "7"));
+        Assert.assertTrue(singleThreaded.stream().anyMatch(line -> line.split("\t")[7].matches("(.*;)?DB(;.*)?")),
+                "expected some records to be flagged as in dbSNP");
+        Assert.assertEquals(multiThreaded, singleThreaded);
+    }
+
+    /**
+     * Genotypes the CEU trio on chromosome 20 with dbSNP and returns the records of the output, without the header
+     */
+    private List<String> runGenotypeGVCFsWithDbsnp(final List<String> extraArgs) throws IOException {
+        final File output = createTempFile("genotypegvcf", ".vcf");
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addReference(new File(b37_reference_20_21))
+                .addArgument("V", CEUTRIO_20_21_GATK3_4_G_VCF.getAbsolutePath())
+                .addArgument("L", "20")
+                .addArgument("dbsnp", largeFileTestDir + "dbsnp_138.b37.20.21.vcf")
+                .addOutput(output);
+        extraArgs.forEach(args::add);
+
+        Utils.resetRandomGenerator();
+        runCommandLine(args);
+        return Files.readAllLines(output.toPath()).stream().filter(line -> !line.startsWith("#")).collect(Collectors.toList());
+    }
+
     @Test
     public void testIndexIsCreated(){
         final File output = createTempFile("test", ".vcf");
@@ -1,5 +1,8 @@
 package org.broadinstitute.hellbender.tools.walkers.genotyper;
 
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoodsUnitTester;
 import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
@@ -9,6 +12,9 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class GenotypeLikelihoodCalculatorsUnitTest extends BaseTest {
 
@@ -99,4 +105,59 @@ public final class GenotypeLikelihoodCalculatorsUnitTest extends BaseTest {
         Assert.assertEquals(3, GenotypeLikelihoodCalculators.computeMaxAcceptableAlleleCount(20, 1024));
         Assert.assertEquals(2, GenotypeLikelihoodCalculators.computeMaxAcceptableAlleleCount(100, 1024));
     }
+
+    @Test
+    public void testInstancesAreSharedUntilEvicted() {
+        final GenotypeLikelihoodCalculators calculators = new GenotypeLikelihoodCalculators();
+        final GenotypeLikelihoodCalculator first = calculators.getInstance(20, 3);
+        Assert.assertSame(calculators.getInstance(20, 3), first);
+
+        for (int alleleCount = 1; alleleCount <= GenotypeLikelihoodCalculators.MAXIMUM_CACHED_CALCULATORS; alleleCount++) {
+            calculators.getInstance(2, alleleCount);
+        }
+        final GenotypeLikelihoodCalculator second = calculators.getInstance(20, 3);
+        Assert.assertNotSame(second, first, "the least recently used calculator should have been evicted");
+        Assert.assertEquals(second.genotypeCount(), first.genotypeCount());
+    }
+
+    @Test
+    public void testConcurrentLikelihoodCalculation() throws Exception {
+        final int[] ploidies = {1, 2, 4, 20};
+        final int alleleCount = 3;
+        final ReadLikelihoods<Allele> readLikelihoods = ReadLikelihoodsUnitTester.readLikelihoods(alleleCount, new int[]{10, 100, 1000, 5});
+
+        // single threaded results with calculators of their own.
+        final double[][][] expected = new double[ploidies.length][readLikelihoods.numberOfSamples()][];
+        for (int p = 0; p < ploidies.length; p++) {
+            for (int s = 0; s < readLikelihoods.numberOfSamples(); s++) {
+                expected[p][s] = new GenotypeLikelihoodCalculators().getInstance(ploidies[p], alleleCount)
+                        .genotypeLikelihoods(readLikelihoods.sampleMatrix(s)).getAsVector();
+            }
+        }
+
+        final GenotypeLikelihoodCalculators calculators = new GenotypeLikelihoodCalculators();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int task = 0; task < 40; task++) {
+                final int p = task % ploidies.length;
+                results.add(executor.submit(() -> {
+                    final GenotypeLikelihoodCalculator calculator = calculators.getInstance(ploidies[p], alleleCount);
+                    for (int repeat = 0; repeat < 10; repeat++) {
+                        for (int s = 0; s < readLikelihoods.numberOfSamples(); s++) {
+                            final double[] actual = calculator.genotypeLikelihoods(readLikelihoods.sampleMatrix(s)).getAsVector();
+                            Assert.assertEquals(actual, expected[p][s]);
+                            Assert.assertEquals(calculator.genotypeAlleleCountsAt(actual.length - 1).ploidy(), ploidies[p]);
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
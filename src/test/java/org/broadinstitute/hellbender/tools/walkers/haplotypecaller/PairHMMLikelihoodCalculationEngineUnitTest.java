@@ -7,6 +7,7 @@ import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
@@ -204,4 +205,55 @@ public final class PairHMMLikelihoodCalculationEngineUnitTest extends BaseTest {
         lce.close();
         new File(PairHMMLikelihoodCalculationEngine.LIKELIHOODS_FILENAME).delete();
     }
+
+    @Test
+    public void testComputeLikelihoodsOnSeveralSampleThreads() {
+        final int n = 20;
+        final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+        final byte[] bases = Strings.repeat("ACGT", n / 4 + 1).getBytes();
+        final Haplotype refHaplotype = new Haplotype(bases, true);
+        final byte[] altBases = bases.clone();
+        altBases[n / 2] = 'T';
+        final Haplotype altHaplotype = new Haplotype(altBases, false);
+
+        final List<String> sampleNames = Arrays.asList("tumor", "normal", "sample3");
+        final Map<String, List<GATKRead>> perSampleReadList = new HashMap<>();
+        for (int s = 0; s < sampleNames.size(); s++) {
+            final List<GATKRead> reads = new ArrayList<>();
+            for (int r = 0; r <= s; r++) {
+                final GATKRead read = ArtificialReadUtils.createArtificialRead(r % 2 == 0 ? bases : altBases, Utils.dupBytes((byte) 30, bases.length), bases.length + "M");
+                read.setMappingQuality(60);
+                reads.add(read);
+            }
+            perSampleReadList.put(sampleNames.get(s), reads);
+        }
+        refHaplotype.setGenomeLocation(perSampleReadList.get("tumor").get(0));
+        altHaplotype.setGenomeLocation(perSampleReadList.get("tumor").get(0));
+        assemblyResultSet.add(refHaplotype);
+        assemblyResultSet.add(altHaplotype);
+        final SampleList samples = new IndexedSampleList(sampleNames);
+
+        final List<ReadLikelihoods<Haplotype>> results = new ArrayList<>();
+        for (final int sampleThreads : new int[] {1, 2, 4}) {
+            final ReadLikelihoodCalculationEngine lce = new PairHMMLikelihoodCalculationEngine((byte) SAMUtils.MAX_PHRED_SCORE, new PairHMMNativeArguments(),
+                    PairHMM.Implementation.LOGLESS_CACHING, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                    PairHMM.BASE_QUALITY_SCORE_THRESHOLD, false, sampleThreads);
+            results.add(lce.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList));
+            lce.close();
+        }
+
+        final ReadLikelihoods<Haplotype> expected = results.get(0);
+        for (final ReadLikelihoods<Haplotype> actual : results.subList(1, results.size())) {
+            for (int s = 0; s < samples.numberOfSamples(); s++) {
+                final LikelihoodMatrix<Haplotype> expectedMatrix = expected.sampleMatrix(s);
+                final LikelihoodMatrix<Haplotype> actualMatrix = actual.sampleMatrix(s);
+                Assert.assertEquals(actualMatrix.reads(), expectedMatrix.reads());
+                for (int a = 0; a < expectedMatrix.numberOfAlleles(); a++) {
+                    for (int r = 0; r < expectedMatrix.numberOfReads(); r++) {
+                        Assert.assertEquals(actualMatrix.get(a, r), expectedMatrix.get(a, r));
+                    }
+                }
+            }
+        }
+    }
 }
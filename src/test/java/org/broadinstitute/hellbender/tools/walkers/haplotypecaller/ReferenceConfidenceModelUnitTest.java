@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 import com.google.common.base.Strings;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMReadGroupRecord;
+import htsjdk.samtools.util.Locatable;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeLikelihoods;
 import htsjdk.variant.variantcontext.GenotypeType;
@@ -29,6 +30,7 @@ import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.HomoSapiensConstants;
+import org.broadinstitute.hellbender.utils.variant.writers.ReferenceConfidenceBlock;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
@@ -324,6 +326,123 @@ public final class ReferenceConfidenceModelUnitTest extends BaseTest {
         }
     }
 
+    @Test
+    public void testRefConfidenceBlocks() {
+        final List<Integer> gqBands = Arrays.asList(1, 3, 5, 10, 20);
+        final ReferenceConfidenceModel blockModel = new ReferenceConfidenceModel(samples, header, 10, gqBands);
+        final PloidyModel ploidyModel = new HomogeneousPloidyModel(samples,2);
+        final String ref = "ACGTAACCGGTT";
+        final int start = new RefConfData(ref, 0).getStart();
+
+        final VariantContext snp = GATKVariantContextUtils.makeFromAlleles("test", "1", start + 6, Arrays.asList("C", "T"));
+        final VariantContext del = GATKVariantContextUtils.makeFromAlleles("test", "1", start + 4, Arrays.asList("AAC", "A"));
+        for ( final List<VariantContext> calls : Arrays.asList(Collections.<VariantContext>emptyList(), Collections.singletonList(snp), Collections.singletonList(del)) ) {
+            for ( int nReads = 0; nReads < 3; nReads++ ) {
+                final RefConfData data = new RefConfData(ref, 10);
+                for ( int i = 0; i < nReads; i++ ) {
+                    data.getActiveRegion().add(data.makeRead(0, data.getRefLength()));
+                }
+                // a partial read, so that the sites have different depths and fall in different GQ bands
+                data.getActiveRegion().add(data.makeRead(3, 5));
+                final List<Haplotype> haplotypes = Arrays.asList(data.getRefHap());
+                final ReadLikelihoods<Haplotype> likelihoods = createDummyStratifiedReadMap(data.getRefHap(), samples, data.getActiveRegion());
+
+                final List<VariantContext> sites = model.calculateRefConfidence(data.getRefHap(), haplotypes, data.getPaddedRefLoc(), data.getActiveRegion(), likelihoods, ploidyModel, calls);
+                final List<Locatable> blocks = new ArrayList<>();
+                blockModel.calculateRefConfidence(data.getRefHap(), haplotypes, data.getPaddedRefLoc(), data.getActiveRegion(), likelihoods, ploidyModel, calls, blocks::add, blocks::add);
+
+                // the blocks must hold the very sites of the per-site model, with the calls in between
+                final List<String> actual = new ArrayList<>();
+                ReferenceConfidenceBlock previousBlock = null;
+                for ( final Locatable blockOrCall : blocks ) {
+                    if ( !(blockOrCall instanceof ReferenceConfidenceBlock) ) {
+                        Assert.assertTrue(calls.contains(blockOrCall), "unexpected variant context " + blockOrCall);
+                        actual.add(blockOrCall.getStart() + " call");
+                        previousBlock = null;
+                        continue;
+                    }
+                    final ReferenceConfidenceBlock block = (ReferenceConfidenceBlock)blockOrCall;
+                    Assert.assertEquals(block.getSampleName(), sample);
+                    Assert.assertEquals(block.getPloidy(), 2);
+                    Assert.assertEquals(block.getEnd(), block.getStart() + block.getSiteCount() - 1);
+                    final int band = gqBand(gqBands, block.getSiteGQ(0));
+                    for ( int site = 0; site < block.getSiteCount(); site++ ) {
+                        Assert.assertEquals(gqBand(gqBands, block.getSiteGQ(site)), band);
+                    }
+                    actual.addAll(describeSites(block));
+                    // contiguous blocks are only split where the GQ band changes
+                    if ( previousBlock != null ) {
+                        Assert.assertEquals(block.getStart(), previousBlock.getEnd() + 1);
+                        Assert.assertNotEquals(band, gqBand(gqBands, previousBlock.getSiteGQ(0)));
+                    }
+                    previousBlock = block;
+                }
+                Assert.assertEquals(actual, describeSites(sites, calls));
+                Assert.assertTrue(blocks.size() < sites.size());
+            }
+        }
+    }
+
+    @Test
+    public void testRefConfidenceBlocksMatchPileups() {
+        final ReferenceConfidenceModel blockModel = new ReferenceConfidenceModel(samples, header, 10, Arrays.asList(20, 40, 60));
+        final PloidyModel ploidyModel = new HomogeneousPloidyModel(samples,2);
+        final RefConfData data = new RefConfData("ACGTAACCGGTTACGTTGCA", 10);
+        final int start = data.getStart();
+
+        // reads with mismatches, low base qualities, clips and indels, some of them sticking out of the region
+        final List<GATKRead> reads = Arrays.asList(
+                makeRead("r1", start - 3, "AAAACG", "6M"),
+                makeRead("r2", start, "ACGTTACCGG", "10M"),
+                makeRead("r3", start + 2, "TTGTAACCAAGGTT", "2S6M2I4M"),
+                makeRead("r4", start + 3, "TAACCTACGTT", "5M3D6M"),
+                makeRead("r5", start + 5, "ACCGGTTAGG", "8M2S"),
+                makeRead("r6", start + 12, "ACGTTGCA", "8M"),
+                makeRead("r7", start + 15, "TTGCCAAA", "3M1I4M"));
+        reads.get(1).setBaseQualities(new byte[]{30, 30, 5, 30, 30, 6, 7, 30, 30, 30});
+        reads.forEach(data.getActiveRegion()::add);
+
+        final List<Haplotype> haplotypes = Arrays.asList(data.getRefHap());
+        final ReadLikelihoods<Haplotype> likelihoods = createDummyStratifiedReadMap(data.getRefHap(), samples, data.getActiveRegion());
+        final List<VariantContext> sites = model.calculateRefConfidence(data.getRefHap(), haplotypes, data.getPaddedRefLoc(), data.getActiveRegion(), likelihoods, ploidyModel, Collections.emptyList());
+        final List<String> actual = new ArrayList<>();
+        blockModel.calculateRefConfidence(data.getRefHap(), haplotypes, data.getPaddedRefLoc(), data.getActiveRegion(), likelihoods, ploidyModel, Collections.emptyList(),
+                vc -> Assert.fail("unexpected variant context " + vc), block -> actual.addAll(describeSites(block)));
+        Assert.assertEquals(actual, describeSites(sites, Collections.emptyList()));
+    }
+
+    private GATKRead makeRead(final String name, final int start, final String bases, final String cigar) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(header, name, 0, start, bases.getBytes(), Utils.dupBytes((byte)30, bases.length()), cigar);
+        read.setReadGroup(rg.getId());
+        return read;
+    }
+
+    private static List<String> describeSites(final List<VariantContext> sites, final List<VariantContext> calls) {
+        final List<String> result = new ArrayList<>();
+        for ( final VariantContext vc : sites ) {
+            if ( calls.contains(vc) ) {
+                result.add(vc.getStart() + " call");
+            } else {
+                final Genotype g = vc.getGenotype(0);
+                result.add(vc.getStart() + " GQ " + g.getGQ() + " DP " + g.getDP() + " PL " + Arrays.toString(g.getPL()));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> describeSites(final ReferenceConfidenceBlock block) {
+        final List<String> result = new ArrayList<>();
+        for ( int site = 0; site < block.getSiteCount(); site++ ) {
+            result.add(block.getStart() + site + " GQ " + block.getSiteGQ(site) + " DP " + block.getSiteDP(site) + " PL " + Arrays.toString(block.getSitePLs(site)));
+        }
+        return result;
+    }
+
+    private static int gqBand(final List<Integer> gqBands, final int gq) {
+        final int cappedGQ = Math.min(gq, 99);
+        return (int)gqBands.stream().filter(lowerBound -> lowerBound <= cappedGQ).count();
+    }
+
     /**
      * Create a context that maps each read to the reference haplotype with log10 L of 0
      * @param refHaplotype a non-null reference haplotype
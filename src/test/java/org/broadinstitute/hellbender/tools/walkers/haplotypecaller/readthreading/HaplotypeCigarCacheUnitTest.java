@@ -0,0 +1,85 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.Cigar;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.broadinstitute.hellbender.utils.read.CigarUtils;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
+import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAlignment;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public final class HaplotypeCigarCacheUnitTest extends BaseTest {
+
+    private static final byte[] REF = "ACGTTGCAAGCTAGCTAGGATCCATGACGTAGCTAGCATCGAT".getBytes();
+    private static final byte[] SNP = "ACGTTGCAAGCTAGCTAGGATGCATGACGTAGCTAGCATCGAT".getBytes();
+    private static final byte[] DELETION = "ACGTTGCAAGCTAGCTAGGAATGACGTAGCTAGCATCGAT".getBytes();
+
+    private static final class CountingAligner implements SmithWatermanAligner {
+        private final SmithWatermanAligner aligner = SmithWatermanAligner.getAligner(Implementation.JAVA);
+        private int alignments = 0;
+
+        @Override
+        public SmithWatermanAlignment align(final byte[] ref, final byte[] alt, final SWParameters parameters, final SWOverhangStrategy overhangStrategy) {
+            alignments++;
+            return aligner.align(ref, alt, parameters, overhangStrategy);
+        }
+    }
+
+    @Test
+    public void testCachedCigarsMatchAlignments() {
+        final CountingAligner aligner = new CountingAligner();
+        final HaplotypeCigarCache cache = new HaplotypeCigarCache(10);
+
+        for (final byte[] haplotype : new byte[][] {SNP, DELETION}) {
+            final Cigar expected = CigarUtils.calculateCigar(REF, haplotype, aligner);
+            Assert.assertEquals(cache.getCigar("1", REF, haplotype, aligner), expected);
+            Assert.assertEquals(cache.getCigar("1", REF.clone(), haplotype.clone(), aligner), expected);
+        }
+        Assert.assertEquals(aligner.alignments, 4);
+        Assert.assertEquals(cache.getHits(), 2);
+        Assert.assertEquals(cache.getMisses(), 2);
+    }
+
+    @Test
+    public void testReturnedCigarsAreIndependent() {
+        final HaplotypeCigarCache cache = new HaplotypeCigarCache(10);
+        final CountingAligner aligner = new CountingAligner();
+        final Cigar first = cache.getCigar("1", REF, SNP, aligner);
+        final Cigar expected = new Cigar(first.getCigarElements());
+        first.add(first.getCigarElement(0));
+        Assert.assertEquals(cache.getCigar("1", REF, SNP, aligner), expected);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        final CountingAligner aligner = new CountingAligner();
+        final HaplotypeCigarCache cache = new HaplotypeCigarCache(1);
+        cache.getCigar("1", REF, SNP, aligner);
+        cache.getCigar("1", REF, DELETION, aligner);
+        cache.getCigar("1", REF, SNP, aligner);
+        Assert.assertEquals(cache.getHits(), 0);
+        Assert.assertEquals(aligner.alignments, 3);
+    }
+
+    @Test
+    public void testCacheIsClearedOnNewContig() {
+        final CountingAligner aligner = new CountingAligner();
+        final HaplotypeCigarCache cache = new HaplotypeCigarCache(10);
+        cache.getCigar("1", REF, SNP, aligner);
+        cache.getCigar("2", REF, SNP, aligner);
+        cache.getCigar("1", REF, SNP, aligner);
+        Assert.assertEquals(cache.getHits(), 0);
+        Assert.assertEquals(aligner.alignments, 3);
+    }
+
+    @Test
+    public void testDisabledCache() {
+        final CountingAligner aligner = new CountingAligner();
+        final HaplotypeCigarCache cache = new HaplotypeCigarCache(0);
+        cache.getCigar("1", REF, SNP, aligner);
+        cache.getCigar("1", REF, SNP, aligner);
+        Assert.assertEquals(aligner.alignments, 2);
+    }
+}
@@ -18,6 +18,9 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -209,6 +212,58 @@ public class Mutect2IntegrationTest extends CommandLineProgramTest {
         Assert.assertTrue(numVariantsPassingFilters < 2);
     }
 
+    // calling regions on several threads must give exactly the calls of a single-threaded run, in the same order
+    @Test
+    public void testRegionThreadsTumorOnly() throws Exception {
+        final List<String> args = Arrays.asList(
+                "-I", NA12878_20_21_WGS_bam,
+                "-tumor", "NA12878",
+                "-R", b37_reference_20_21,
+                "-L", "20:10000000-10010000",
+                "-germline_resource", GNOMAD.getAbsolutePath());
+
+        final List<String> singleThreaded = runMutect2Records(args);
+        final List<String> multiThreaded = runMutect2Records(withArgs(args, "--" + Mutect2.REGION_THREADS_FULL_NAME, "4"));
+
+        // make sure the test doesn't pass trivially
+        Assert.assertTrue(singleThreaded.size() > 15);
+        Assert.assertEquals(multiThreaded, singleThreaded);
+    }
+
+    @Test
+    public void testRegionThreadsTumorNormal() throws Exception {
+        final List<String> args = Arrays.asList(
+                "-I", new File(DREAM_BAMS_DIR, "tumor_1.bam").getAbsolutePath(),
+                "-tumor", "synthetic.challenge.set1.tumor",
+                "-I", new File(DREAM_BAMS_DIR, "normal_1.bam").getAbsolutePath(),
+                "-normal", "synthetic.challenge.set1.normal",
+                "-R", b37_reference_20_21,
+                "-L", "20:10000000-10100000");
+
+        final List<String> singleThreaded = runMutect2Records(args);
+        final List<String> multiThreaded = runMutect2Records(withArgs(args,
+                "--" + Mutect2.REGION_THREADS_FULL_NAME, "3", "--sample_likelihood_threads", "2"));
+
+        Assert.assertFalse(singleThreaded.isEmpty());
+        Assert.assertEquals(multiThreaded, singleThreaded);
+    }
+
+    private static List<String> withArgs(final List<String> args, final String... extraArgs) {
+        final List<String> result = new ArrayList<>(args);
+        result.addAll(Arrays.asList(extraArgs));
+        return result;
+    }
+
+    /**
+     * Runs Mutect2 and returns the records of its output, without the header (which holds the command line)
+     */
+    private List<String> runMutect2Records(final List<String> args) throws IOException {
+        final File outputVcf = createTempFile("output", ".vcf");
+        Utils.resetRandomGenerator();
+        runCommandLine(withArgs(args, "-O", outputVcf.getAbsolutePath()));
+        return Files.readAllLines(outputVcf.toPath()).stream().filter(line -> !line.startsWith("#")).collect(Collectors.toList());
+    }
+
     // test that ReadFilterLibrary.NON_ZERO_REFERENCE_LENGTH_ALIGNMENT removes reads that consume zero reference bases
     // e.g. read name HAVCYADXX150109:1:2102:20528:2129 with cigar 23S53I
     @Test
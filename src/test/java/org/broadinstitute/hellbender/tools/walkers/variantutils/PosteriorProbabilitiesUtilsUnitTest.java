@@ -1,16 +1,26 @@
 package org.broadinstitute.hellbender.tools.walkers.variantutils;
 
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.tribble.readers.PositionalBufferedStream;
 import htsjdk.variant.variantcontext.*;
+import htsjdk.variant.vcf.VCFCodec;
 import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.walkers.genotyper.GenotypeAssignmentMethod;
 import org.broadinstitute.hellbender.utils.MathUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.test.BaseTest;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.GenotypeColumns;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -470,4 +480,94 @@ public final class PosteriorProbabilitiesUtilsUnitTest extends BaseTest {
         Assert.assertTrue(arraysApproxEqual(expected_four,post4,1e-5),errMsgArray(expected_four,post4));
         Assert.assertTrue(arraysApproxEqual(expected_five,post5,1e-5),errMsgArray(expected_five,post5));
     }
+
+    @Test
+    public void testGenotypeCallsMatchGenotypeBuilder() {
+        final List<Allele> alleles = Arrays.asList(Aref, C, T);
+        final VariantContext vc = makeVC("1", alleles,
+                new GenotypeBuilder("s1", Arrays.asList(Aref, T)).AD(new int[]{5, 0, 4}).DP(9).GQ(10).PL(new int[]{30, 10, 60, 0, 15, 90}).make(),
+                new GenotypeBuilder("s2", Arrays.asList(C, T)).phased(true).PL(new int[]{80, 40, 12, 20, 0, 10}).make(),
+                new GenotypeBuilder("s3", Arrays.asList(Allele.NO_CALL, Allele.NO_CALL)).GQ(3).PL(new int[]{0, 0, 0, 0, 0, 0}).make(),
+                new GenotypeBuilder("s4", Arrays.asList(Aref, C)).GQ(20).make(),
+                new GenotypeBuilder("s5", Arrays.asList(Aref, Aref)).PL(new int[]{0, 5, 8, 15, 20, 40}).filter("lowGQ").attribute("XX", "foo").make(),
+                new GenotypeBuilder("s6", Arrays.asList(Aref, Aref)).PL(new int[]{0, 5, 8, 15, 20, 40})
+                        .attribute(GATKVCFConstants.PHRED_SCALED_POSTERIORS_KEY, "40,0,30,50,60,70").make());
+        final VariantContext result = PosteriorProbabilitiesUtils.calculatePosteriorProbs(vc, new ArrayList<>(), 0, 0.001, true, false, false);
+
+        // with fewer than 10 samples and no resources the priors are flat
+        final List<Genotype> expected = new ArrayList<>();
+        for ( final Genotype g : vc.getGenotypes() ) {
+            final Object pp = g.getExtendedAttribute(GATKVCFConstants.PHRED_SCALED_POSTERIORS_KEY);
+            final double[] likelihoods = pp != null ? Arrays.stream(((String) pp).split(",")).mapToDouble(x -> Double.parseDouble(x) / -10.0).toArray()
+                    : g.hasLikelihoods() ? g.getLikelihoods().getAsVector() : null;
+            final GenotypeBuilder builder = new GenotypeBuilder(g);
+            if ( likelihoods != null ) {
+                final double[] posteriors = PosteriorProbabilitiesUtils.calculatePosteriorProbs(likelihoods, new double[]{1, 1, 1}, 2, true);
+                GATKVariantContextUtils.makeGenotypeCall(2, builder, GenotypeAssignmentMethod.USE_PLS_TO_ASSIGN, posteriors, alleles);
+                builder.attribute(GATKVCFConstants.PHRED_SCALED_POSTERIORS_KEY,
+                        Utils.listFromPrimitives(GenotypeLikelihoods.fromLog10Likelihoods(posteriors).getAsPLs()));
+            }
+            expected.add(builder.make());
+        }
+        final VariantContextBuilder expectedBuilder = new VariantContextBuilder(vc).genotypes(expected);
+        VariantContextUtils.calculateChromosomeCounts(expectedBuilder, true);
+        final VariantContext expectedVC = expectedBuilder.make();
+
+        for ( final String key : Arrays.asList(VCFConstants.ALLELE_COUNT_KEY, VCFConstants.ALLELE_FREQUENCY_KEY, VCFConstants.ALLELE_NUMBER_KEY) ) {
+            Assert.assertEquals(result.getAttribute(key), expectedVC.getAttribute(key), key);
+        }
+        Assert.assertNotNull(GenotypeColumns.of(result.getGenotypes()), "the result should be columnar");
+        for ( int i = 0; i < expected.size(); i++ ) {
+            final Genotype actual = result.getGenotype(i);
+            Assert.assertEquals(actual.getAlleles(), expected.get(i).getAlleles());
+            Assert.assertEquals(actual.isPhased(), expected.get(i).isPhased());
+            Assert.assertEquals(actual.getGQ(), expected.get(i).getGQ());
+            Assert.assertEquals(actual.getDP(), expected.get(i).getDP());
+            Assert.assertEquals(actual.getAD(), expected.get(i).getAD());
+            Assert.assertEquals(actual.getPL(), expected.get(i).getPL());
+            Assert.assertEquals(actual.getFilters(), expected.get(i).getFilters());
+            Assert.assertEquals(actual.getExtendedAttributes(), expected.get(i).getExtendedAttributes());
+        }
+    }
+
+    @Test
+    public void testPosteriorsFromUndecodedVCFRecord() {
+        final String header = String.join("\n",
+                "##fileformat=VCFv4.2",
+                "##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">",
+                "##FORMAT=<ID=GQ,Number=1,Type=Integer,Description=\"Genotype quality\">",
+                "##FORMAT=<ID=PL,Number=G,Type=Integer,Description=\"Phred-scaled likelihoods\">",
+                "##INFO=<ID=MLEAC,Number=A,Type=Integer,Description=\"MLE allele count\">",
+                "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\ts1\ts2\ts3\ts4\ts5\ts6\ts7\ts8\ts9",
+                "1\t10\t.\tA\tT\t.\t.\t.\tGT:GQ:PL\t0/1:10:20,0,10\t1/1:40:60,40,0\t0/0:30:0,30,90\t0|1:10:20,0,10\t1/1:40:60,40,0\t"
+                        + "./.\t0/1:10:20,0,10\t1/1\t0/0:30:0,30,90",
+                "");
+        final List<VariantContext> resources = Collections.singletonList(new VariantContextBuilder(makeVC("2", Arrays.asList(Aref, T)))
+                .attribute(VCFConstants.ALLELE_COUNT_KEY, 50).attribute(VCFConstants.ALLELE_NUMBER_KEY, 200).make());
+
+        final List<VariantContext> results = new ArrayList<>();
+        for ( final boolean columnar : new boolean[]{true, false} ) {
+            final VCFCodec codec = new VCFCodec();
+            final LineIterator lines = codec.makeSourceFromStream(new PositionalBufferedStream(new ByteArrayInputStream(header.getBytes())));
+            final List<String> sampleNames = ((VCFHeader) codec.readActualHeader(lines)).getGenotypeSamples();
+            final VariantContext vc = codec.decode(lines.next());
+            final VariantContextBuilder builder = new VariantContextBuilder(vc);
+            if ( columnar ) {
+                final GenotypeColumns genotypes = GenotypeColumns.decode(vc, sampleNames);
+                builder.genotypesNoValidation(genotypes.toGenotypesContext());
+                PosteriorProbabilitiesUtils.addChromosomeCounts(builder, genotypes, false);
+            } else {
+                builder.genotypes(GenotypesContext.copy(vc.getGenotypes()));
+                VariantContextUtils.calculateChromosomeCounts(builder, false);
+            }
+            final VariantContext withCounts = builder.make();
+            final VariantContext result = PosteriorProbabilitiesUtils.calculatePosteriorProbs(withCounts, resources, 0, 0.001, true, false, false);
+            if ( columnar ) {
+                Assert.assertTrue(vc.getGenotypes().isLazyWithData(), "the VCF genotypes should not have been decoded");
+                Assert.assertNotNull(GenotypeColumns.of(result.getGenotypes()), "the result should be columnar");
+            }
+            results.add(result);
+        }
+        Assert.assertEquals(results.get(0).toStringDecodeGenotypes(), results.get(1).toStringDecodeGenotypes());
+    }
 }
@@ -0,0 +1,94 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import htsjdk.samtools.util.IOUtil;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+public class BwaMemIndexCacheUnitTest extends BaseTest {
+
+    private static final String IMAGE = "src/test/resources/org/broadinstitute/hellbender/tools/spark/bwa/BwaSpark/ref.fa.img";
+
+    @Test
+    public void testCloseIsDeferredUntilRelease() {
+        final BwaMemIndex index = BwaMemIndexCache.acquireInstance(IMAGE);
+        Assert.assertSame(BwaMemIndexCache.acquireInstance(IMAGE), index);
+        final List<String> contigNames = index.getReferenceContigNames();
+
+        BwaMemIndexCache.closeInstances();
+        BwaMemIndexCache.releaseInstance(index);
+        // still in use, so still open and still cached
+        Assert.assertEquals(index.getReferenceContigNames(), contigNames);
+        Assert.assertSame(BwaMemIndexCache.getInstance(IMAGE), index);
+
+        BwaMemIndexCache.releaseInstance(index);
+        final BwaMemIndex reopened = BwaMemIndexCache.getInstance(IMAGE);
+        Assert.assertNotSame(reopened, index);
+        Assert.assertEquals(reopened.getReferenceContigNames(), contigNames);
+        BwaMemIndexCache.closeInstance(reopened);
+    }
+
+    @Test
+    public void testUnbalancedRelease() {
+        final BwaMemIndex index = BwaMemIndexCache.acquireInstance(IMAGE);
+        BwaMemIndexCache.releaseInstance(index);
+        Assert.assertThrows(IllegalStateException.class, () -> BwaMemIndexCache.releaseInstance(index));
+        BwaMemIndexCache.closeInstance(index);
+    }
+
+    @Test
+    public void testHostSharedImage() throws IOException {
+        final File sharedDir = new File(createTempDir("sharedImages"), "images");
+        final File image = new File(IMAGE);
+
+        final String sharedImage = BwaMemIndexCache.getHostSharedImage(image.getAbsolutePath(), sharedDir.getAbsolutePath());
+        Assert.assertEquals(new File(sharedImage).getParentFile(), sharedDir);
+        IOUtil.assertFilesEqual(new File(sharedImage), image);
+
+        // a second copy of the same image (e.g. in another executor's work directory) maps to the same shared file
+        final File otherCopy = new File(createTempDir("otherExecutor"), image.getName());
+        Files.copy(image.toPath(), otherCopy.toPath());
+        final long lastModified = new File(sharedImage).lastModified();
+        Assert.assertEquals(BwaMemIndexCache.getHostSharedImage(otherCopy.getAbsolutePath(), sharedDir.getAbsolutePath()), sharedImage);
+        Assert.assertEquals(new File(sharedImage).lastModified(), lastModified);
+
+        // an unrelated file in the directory is left alone
+        final File unrelatedFile = new File(sharedDir, image.getName() + ".old");
+        Files.write(unrelatedFile.toPath(), new byte[]{4, 5, 6});
+
+        // a different image with the same name doesn't, and the other copy is left for whoever may be using it
+        final File differentImage = new File(createTempDir("differentImage"), image.getName());
+        Files.write(differentImage.toPath(), new byte[]{1, 2, 3});
+        final String sharedDifferentImage = BwaMemIndexCache.getHostSharedImage(differentImage.getAbsolutePath(), sharedDir.getAbsolutePath());
+        Assert.assertNotEquals(sharedDifferentImage, sharedImage);
+        IOUtil.assertFilesEqual(new File(sharedDifferentImage), differentImage);
+        IOUtil.assertFilesEqual(new File(sharedImage), image);
+        Assert.assertTrue(unrelatedFile.exists());
+        Assert.assertEquals(sharedDir.list().length, 3);
+    }
+
+    @Test
+    public void testHostSharedInstanceFallsBackToLocalImage() throws IOException {
+        final File sharedDir = new File(createTempDir("sharedImages"), "images");
+        final String image = new File(IMAGE).getAbsolutePath();
+        // clobber the shared copy, as if someone had cleaned up the directory badly
+        final String sharedImage = BwaMemIndexCache.getHostSharedImage(image, sharedDir.getAbsolutePath());
+        Files.write(new File(sharedImage).toPath(), new byte[0]);
+
+        final BwaMemIndex index = BwaMemIndexCache.acquireHostSharedInstance(image, sharedDir.getAbsolutePath());
+        Assert.assertSame(BwaMemIndexCache.getInstance(image), index);
+        BwaMemIndexCache.releaseInstance(index);
+        BwaMemIndexCache.closeInstance(index);
+    }
+
+    @Test
+    public void testNoHostSharedImageDir() {
+        final File image = new File(IMAGE);
+        Assert.assertEquals(BwaMemIndexCache.getHostSharedImage(image.getAbsolutePath(), null), image.getAbsolutePath());
+    }
+}
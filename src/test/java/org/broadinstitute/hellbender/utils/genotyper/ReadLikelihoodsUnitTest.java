@@ -99,6 +99,56 @@ public final class ReadLikelihoodsUnitTest {
         }
     }
 
+    @Test(dataProvider = "dataSets")
+    public void testBestAllelesAreReusedUntilLikelihoodsChange(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
+        if (alleles.length < 2) {
+            throw new SkipException("needs at least two alleles");
+        }
+        final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        fillWithRandomLikelihoods(samples,alleles,original);
+        for (int s = 0; s < samples.length; s++) {
+            if (original.sampleReadCount(s) == 0) {
+                continue;
+            }
+            final Collection<ReadLikelihoods<Allele>.BestAllele> all = original.bestAlleles();
+            final Collection<ReadLikelihoods<Allele>.BestAllele> sampleBestAlleles = original.bestAlleles(samples[s]);
+            Assert.assertSame(original.bestAlleles(samples[s]), sampleBestAlleles);
+            Assert.assertSame(original.bestAlleles(), all);
+
+            // make the last allele the best for the first read.
+            final LikelihoodMatrix<Allele> sampleMatrix = original.sampleMatrix(s);
+            sampleMatrix.set(alleles.length - 1, 0, 1.0);
+            final ReadLikelihoods<Allele>.BestAllele newBestAllele = original.bestAlleles(samples[s]).iterator().next();
+            Assert.assertNotSame(original.bestAlleles(), all);
+            Assert.assertSame(newBestAllele.allele, alleles[alleles.length - 1]);
+            Assert.assertEquals(newBestAllele.likelihood, 1.0);
+        }
+    }
+
+    @Test(dataProvider = "dataSets")
+    public void testDerivedValuesAreReusedUntilLikelihoodsChange(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
+        final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        fillWithRandomLikelihoods(samples,alleles,original);
+        final int[] computations = new int[1];
+        final Object value = original.getDerivedValue("key", () -> { computations[0]++; return new Object(); });
+        Assert.assertSame(original.getDerivedValue("key", () -> { computations[0]++; return new Object(); }), value);
+        Assert.assertEquals(computations[0], 1);
+        Assert.assertNotSame(original.getDerivedValue("otherKey", Object::new), value);
+
+        for (int s = 0; s < samples.length; s++) {
+            if (original.sampleReadCount(s) == 0 || alleles.length == 0) {
+                continue;
+            }
+            original.getDerivedValue("key", () -> value);
+            original.sampleMatrix(s).set(0, 0, 1.0);
+            Assert.assertNotSame(original.getDerivedValue("key", Object::new), value);
+        }
+
+        original.getDerivedValue("key", () -> value);
+        original.normalizeLikelihoods(true, -1.0);
+        Assert.assertNotSame(original.getDerivedValue("key", Object::new), value);
+    }
+
     @Test(dataProvider = "dataSets")
     public void testBestAlleleMap(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
         final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
@@ -193,6 +243,75 @@ public final class ReadLikelihoodsUnitTest {
         testLikelihoodMatrixQueries(samples,result,newLikelihoods);
     }
 
+    @Test(dataProvider = "dataSets")
+    public void testAddReadsAfterFiltering(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
+        final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
+        final SimpleInterval evenReadOverlap = new SimpleInterval(SAM_HEADER.getSequenceDictionary().getSequences().get(0).getSequenceName(), EVEN_READ_START, EVEN_READ_START);
+        fillWithRandomLikelihoods(samples,alleles,original);
+        final ReadLikelihoods<Allele> result = original.copy();
+        result.filterToOnlyOverlappingUnclippedReads(evenReadOverlap);
+
+        // we add back the odd reads, which go after the even ones.
+        final Map<String,List<GATKRead>> oddReads = new LinkedHashMap<>();
+        for (int s = 0; s < samples.length; s++) {
+            final List<GATKRead> sampleReads = original.sampleReads(s);
+            final List<GATKRead> sampleOddReads = new ArrayList<>();
+            for (int r = 1; r < sampleReads.size(); r += 2) {
+                sampleOddReads.add(sampleReads.get(r));
+            }
+            oddReads.put(samples[s], sampleOddReads);
+        }
+        result.addReads(oddReads, -10.0);
+
+        final double[][][] newLikelihoods = new double[samples.length][alleles.length][];
+        for (int s = 0; s < samples.length; s++) {
+            final int sampleReadCount = original.sampleReadCount(s);
+            final int evenReadCount = (sampleReadCount + 1) / 2;
+            Assert.assertEquals(result.sampleReadCount(s), sampleReadCount);
+            final LikelihoodMatrix<Allele> sampleMatrix = original.sampleMatrix(s);
+            for (int r = 0; r < sampleReadCount; r++) {
+                final int originalReadIndex = r < evenReadCount ? r << 1 : ((r - evenReadCount) << 1) + 1;
+                Assert.assertSame(result.sampleReads(s).get(r), sampleMatrix.getRead(originalReadIndex));
+                Assert.assertEquals(result.sampleMatrix(s).indexOfRead(sampleMatrix.getRead(originalReadIndex)), r);
+            }
+            for (int a = 0; a < alleles.length; a++) {
+                newLikelihoods[s][a] = new double[sampleReadCount];
+                for (int r = 0; r < sampleReadCount; r++) {
+                    newLikelihoods[s][a][r] = r < evenReadCount ? sampleMatrix.get(a, r << 1) : -10.0;
+                }
+            }
+        }
+        testLikelihoodMatrixQueries(samples,result,newLikelihoods);
+    }
+
+    @Test(dataProvider = "dataSets")
+    public void testSinglePrecision(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads) {
+        final ReadLikelihoods<Allele> result = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads, true);
+        final double[][][] likelihoods = fillWithRandomLikelihoods(samples, alleles, result);
+        for (int s = 0; s < samples.length; s++) {
+            final LikelihoodMatrix<Allele> sampleMatrix = result.sampleMatrix(s);
+            final double[] buffer = new double[sampleMatrix.numberOfReads()];
+            for (int a = 0; a < alleles.length; a++) {
+                sampleMatrix.copyAlleleLikelihoods(a, buffer, 0);
+                for (int r = 0; r < buffer.length; r++) {
+                    Assert.assertEquals(sampleMatrix.get(a, r), (double) (float) likelihoods[s][a][r]);
+                    Assert.assertEquals(buffer[r], sampleMatrix.get(a, r));
+                }
+            }
+        }
+        testLikelihoodMatrixQueries(samples, result.copy(), likelihoods);
+
+        result.addNonReferenceAllele(GATKVCFConstants.NON_REF_SYMBOLIC_ALLELE);
+        Assert.assertEquals(result.numberOfAlleles(), alleles.length + 1);
+        for (int s = 0; s < samples.length; s++) {
+            for (int a = 0; a < alleles.length; a++) {
+                for (int r = 0; r < likelihoods[s][a].length; r++) {
+                    Assert.assertEquals(result.sampleMatrix(s).get(a, r), likelihoods[s][a][r], EPSILON);
+                }
+            }
+        }
+    }
+
     @Test(dataProvider = "marginalizationDataSets")
     public void testMarginalizationWithOverlap(final String[] samples, final Allele[] alleles, final Map<String,List<GATKRead>> reads, final Map<Allele,List<Allele>> newToOldAlleleMapping) {
         final ReadLikelihoods<Allele> original = new ReadLikelihoods<>(new IndexedSampleList(samples), new IndexedAlleleList<>(alleles), reads);
@@ -0,0 +1,74 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class SmithWatermanBandedJavaAlignerUnitTest extends SmithWatermanAlignerAbstractUnitTest {
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    @Override
+    protected SmithWatermanBandedJavaAligner getAligner() {
+        return SmithWatermanBandedJavaAligner.getInstance();
+    }
+
+    @DataProvider(name = "RandomNearlyDiagonalAlignments")
+    public Object[][] makeRandomNearlyDiagonalAlignments() {
+        final Random random = new Random(13);
+        final List<Object[]> tests = new ArrayList<>();
+        for (final SWOverhangStrategy strategy : SWOverhangStrategy.values()) {
+            for (final SWParameters parameters : new SWParameters[] {SmithWatermanAligner.ORIGINAL_DEFAULT, SmithWatermanAligner.STANDARD_NGS}) {
+                for (int i = 0; i < 50; i++) {
+                    final byte[] ref = randomBases(random, 100 + random.nextInt(400));
+                    tests.add(new Object[] {ref, mutate(random, ref), parameters, strategy});
+                }
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "RandomNearlyDiagonalAlignments")
+    public void testSameAlignmentAsFullMatrix(final byte[] ref, final byte[] alt, final SWParameters parameters, final SWOverhangStrategy strategy) {
+        final SmithWatermanAlignment expected = SmithWatermanJavaAligner.getInstance().align(ref, alt, parameters, strategy);
+        final SmithWatermanAlignment actual = getAligner().align(ref, alt, parameters, strategy);
+        Assert.assertEquals(actual.getCigar(), expected.getCigar());
+        Assert.assertEquals(actual.getAlignmentOffset(), expected.getAlignmentOffset());
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bases[i] = BASES[random.nextInt(BASES.length)];
+        }
+        return bases;
+    }
+
+    /**
+     * Trims the ends of a sequence and adds a few SNPs and short indels, as in a haplotype or a read.
+     */
+    private static byte[] mutate(final Random random, final byte[] ref) {
+        final int start = random.nextInt(ref.length / 10);
+        final int end = ref.length - random.nextInt(ref.length / 10);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            final int event = random.nextInt(100);
+            if (event == 0) {
+                i = Math.min(i + random.nextInt(5), end - 1); // deletion
+            } else if (event == 1) {
+                builder.append(new String(randomBases(random, 1 + random.nextInt(5)))); // insertion
+            } else if (event < 4) {
+                builder.append((char) BASES[random.nextInt(BASES.length)]); // SNP
+                continue;
+            }
+            builder.append((char) ref[i]);
+        }
+        return builder.toString().getBytes();
+    }
+}
@@ -0,0 +1,191 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.tribble.readers.PositionalBufferedStream;
+import htsjdk.variant.variantcontext.*;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.utils.test.BaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class GenotypeColumnsUnitTest extends BaseTest {
+    private static final Allele Aref = Allele.create("A", true);
+    private static final Allele C = Allele.create("C");
+    private static final Allele T = Allele.create("T");
+
+    private static final String VCF_HEADER = String.join("\n",
+            "##fileformat=VCFv4.2",
+            "##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">",
+            "##FORMAT=<ID=AD,Number=R,Type=Integer,Description=\"Allelic depths\">",
+            "##FORMAT=<ID=DP,Number=1,Type=Integer,Description=\"Depth\">",
+            "##FORMAT=<ID=GQ,Number=1,Type=Integer,Description=\"Genotype quality\">",
+            "##FORMAT=<ID=PL,Number=G,Type=Integer,Description=\"Phred-scaled likelihoods\">",
+            "##FORMAT=<ID=GL,Number=G,Type=Float,Description=\"Log10 likelihoods\">",
+            "##FORMAT=<ID=FT,Number=1,Type=String,Description=\"Genotype filters\">",
+            "##FORMAT=<ID=XX,Number=1,Type=String,Description=\"Other\">",
+            "#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\ts1\ts2\ts3\ts4\ts5\ts6",
+            "");
+
+    private static List<Genotype> biallelicGenotypes() {
+        return Arrays.asList(
+                new GenotypeBuilder("s1", Arrays.asList(Aref, Aref)).DP(10).GQ(30).AD(new int[]{10, 0}).PL(new int[]{0, 30, 300}).make(),
+                new GenotypeBuilder("s2", Arrays.asList(Aref, T)).phased(true).DP(12).AD(new int[]{6, 6}).PL(new int[]{90, 0, 90}).make(),
+                new GenotypeBuilder("s3", Arrays.asList(T, T)).GQ(5).PL(new int[]{50, 5, 0}).attribute("XX", "foo").filter("lowGQ").make(),
+                GenotypeBuilder.createMissing("s4", 2),
+                new GenotypeBuilder("s5", Collections.singletonList(T)).PL(new int[]{40, 0}).make(),
+                new GenotypeBuilder("s6", Arrays.asList(Aref, Allele.NO_CALL)).PL(new int[]{0, 10, 100}).make());
+    }
+
+    private static List<Genotype> multiallelicGenotypes() {
+        return Arrays.asList(
+                new GenotypeBuilder("s1", Arrays.asList(Aref, C)).PL(new int[]{20, 0, 40, 30, 50, 60}).make(),
+                new GenotypeBuilder("s2", Arrays.asList(C, T)).PL(new int[]{90, 40, 60, 30, 0, 50}).make(),
+                new GenotypeBuilder("s3", Arrays.asList(Aref, Aref)).PL(new int[]{0, 10, 20, 30, 40, 50}).make(),
+                new GenotypeBuilder("s4", Arrays.asList(T, Aref)).PL(new int[]{10, 30, 60, 0, 40, 20}).make(),
+                new GenotypeBuilder("s5", Arrays.asList(T, T)).PL(new int[]{60, 50, 40, 30, 20, 0}).make(),
+                new GenotypeBuilder("s6", Arrays.asList(C, C)).make());
+    }
+
+    @DataProvider
+    public Object[][] getSites() {
+        return new Object[][]{
+                {Arrays.asList(Aref, T), biallelicGenotypes()},
+                {Arrays.asList(Aref, C, T), multiallelicGenotypes()},
+                {Arrays.asList(Aref, C, T), Collections.emptyList()},
+        };
+    }
+
+    private static void assertSameGenotype(final Genotype actual, final Genotype expected) {
+        Assert.assertEquals(actual.getSampleName(), expected.getSampleName());
+        Assert.assertEquals(actual.getAlleles(), expected.getAlleles());
+        Assert.assertEquals(actual.isPhased(), expected.isPhased());
+        Assert.assertEquals(actual.getDP(), expected.getDP());
+        Assert.assertEquals(actual.getGQ(), expected.getGQ());
+        Assert.assertEquals(actual.getAD(), expected.getAD());
+        Assert.assertEquals(actual.getPL(), expected.getPL());
+        Assert.assertEquals(actual.getExtendedAttributes(), expected.getExtendedAttributes());
+        Assert.assertEquals(actual.getFilters(), expected.getFilters());
+    }
+
+    @Test(dataProvider = "getSites")
+    public void testRoundTrip(final List<Allele> alleles, final List<Genotype> genotypes) {
+        final GenotypeColumns columns = GenotypeColumns.fromGenotypes(alleles, GenotypesContext.create(new ArrayList<>(genotypes)));
+        Assert.assertEquals(columns.getSampleCount(), genotypes.size());
+        for (int i = 0; i < genotypes.size(); i++) {
+            assertSameGenotype(columns.getGenotype(i), genotypes.get(i));
+        }
+
+        final GenotypesContext lazy = columns.toGenotypesContext();
+        Assert.assertSame(GenotypeColumns.of(lazy), columns);
+        Assert.assertEquals(lazy.size(), genotypes.size());
+        Assert.assertSame(GenotypeColumns.of(lazy), columns, "size() should not decode the genotypes");
+        Assert.assertEquals(lazy.getSampleNamesOrderedByName().size(), genotypes.size());
+        Assert.assertNull(GenotypeColumns.of(lazy));
+        for (final Genotype expected : genotypes) {
+            Assert.assertEquals(lazy.get(expected.getSampleName()).getAlleles(), expected.getAlleles());
+        }
+    }
+
+    @Test(dataProvider = "getSites")
+    public void testCalledChrCounts(final List<Allele> alleles, final List<Genotype> genotypes) {
+        final VariantContext vc = new VariantContextBuilder("test", "1", 100, 100, alleles).genotypes(genotypes).make();
+        final int[] counts = GenotypeColumns.fromVariantContext(vc).getCalledChrCounts();
+        Assert.assertEquals(counts.length, alleles.size());
+        for (int i = 0; i < alleles.size(); i++) {
+            Assert.assertEquals(counts[i], vc.getCalledChrCount(alleles.get(i)));
+        }
+        Assert.assertEquals(GenotypeColumns.fromVariantContext(vc).getMaxPloidy(3), vc.getMaxPloidy(3));
+    }
+
+    @Test
+    public void testStaysColumnarInVariantContext() {
+        final List<Allele> alleles = Arrays.asList(Aref, T);
+        final GenotypeColumns columns = GenotypeColumns.fromGenotypes(alleles, GenotypesContext.create(new ArrayList<>(biallelicGenotypes())));
+        final VariantContext vc = new VariantContextBuilder("test", "1", 100, 100, alleles)
+                .genotypesNoValidation(columns.toGenotypesContext()).make();
+        Assert.assertSame(GenotypeColumns.fromVariantContext(vc), columns);
+        Assert.assertSame(GenotypeColumns.fromVariantContext(new VariantContextBuilder(vc).attribute("AC", 3).make()), columns);
+        Assert.assertEquals(vc.getGenotype("s2").getAD(), new int[]{6, 6});
+        Assert.assertNull(GenotypeColumns.of(vc.getGenotypes()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownAllele() {
+        GenotypeColumns.fromGenotypes(Arrays.asList(Aref, T), GenotypesContext.create(new GenotypeBuilder("s1", Arrays.asList(Aref, C)).make()));
+    }
+
+    @Test
+    public void testBuilder() {
+        final GenotypeColumns source = GenotypeColumns.fromGenotypes(Arrays.asList(Aref, T), GenotypesContext.create(new ArrayList<>(biallelicGenotypes())));
+        final GenotypeColumns.Builder builder = new GenotypeColumns.Builder(Arrays.asList(Aref, T), 2);
+        builder.sample(source, 2).genotypeAlleles(new int[]{0, 1}, true).GQ(GenotypeColumns.MISSING).attribute("YY", 1);
+        builder.sample("new").DP(3);
+        final GenotypeColumns columns = builder.make();
+
+        assertSameGenotype(columns.getGenotype(0), new GenotypeBuilder(biallelicGenotypes().get(2)).alleles(Arrays.asList(Aref, T))
+                .phased(true).noGQ().attribute("YY", 1).make());
+        assertSameGenotype(columns.getGenotype(1), new GenotypeBuilder("new", Collections.emptyList()).DP(3).make());
+        Assert.assertEquals(columns.getSampleNames(), Arrays.asList("s3", "new"));
+        Assert.assertEquals(columns.getFilter(0), "lowGQ");
+        Assert.assertEquals(columns.getExtendedAttribute(0, "XX"), "foo");
+        Assert.assertNull(columns.getExtendedAttribute(1, "XX"));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testBuilderWithTooFewSamples() {
+        new GenotypeColumns.Builder(Arrays.asList(Aref, T), 2).sample("s1").make();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testBuilderWithTooManySamples() {
+        new GenotypeColumns.Builder(Arrays.asList(Aref, T), 1).sample("s1").sample("s2");
+    }
+
+    private static VariantContext decodeVCFRecord(final String record, final List<String> sampleNames) {
+        final VCFCodec codec = new VCFCodec();
+        final LineIterator lines = codec.makeSourceFromStream(new PositionalBufferedStream(new ByteArrayInputStream((VCF_HEADER + record).getBytes())));
+        sampleNames.addAll(((VCFHeader) codec.readActualHeader(lines)).getGenotypeSamples());
+        return codec.decode(lines.next());
+    }
+
+    @DataProvider
+    public Object[][] getVCFRecords() {
+        return new Object[][]{
+                {"1\t100\t.\tA\tT\t.\t.\t.\tGT:AD:DP:GQ:PL\t0/0:10,0:10:30:0,30,300\t0|1:6,6:12:.:90,0,90\t1/1:.:.:5:50,5,0\t./.\t1\t0/."},
+                {"1\t100\t.\tA\tC,T\t.\t.\t.\tGT:GQ:FT:XX:PL\t0/1:3.6:PASS:a:20,0,40,30,50,60\t.:.:q2;q1\t1|2:.:.:b\t2/0:.:lowGQ\t.:99:.:.:.\t2/2"},
+                {"1\t100\t.\tA\tC\t.\t.\t.\tGT:GL\t0/1:-2.1,-0.1,-3\t.\t./.:.\t1/1:-5,-1,0\t0/0\t./1"},
+        };
+    }
+
+    @Test(dataProvider = "getVCFRecords")
+    public void testDecodeMatchesVCFCodec(final String record) {
+        final List<String> sampleNames = new ArrayList<>();
+        final VariantContext vc = decodeVCFRecord(record, sampleNames);
+        final GenotypeColumns columns = GenotypeColumns.decode(vc, sampleNames);
+        Assert.assertTrue(vc.getGenotypes().isLazyWithData(), "decoding into columns should not decode the genotypes");
+        Assert.assertEquals(columns.getSampleNames(), sampleNames);
+        Assert.assertEquals(columns.getAlleles(), vc.getAlleles());
+        for (int i = 0; i < sampleNames.size(); i++) {
+            assertSameGenotype(columns.getGenotype(i), vc.getGenotype(i));
+        }
+        // once decoded, the genotypes are read from the Genotype objects
+        final GenotypeColumns fromGenotypes = GenotypeColumns.decode(vc, sampleNames);
+        for (int i = 0; i < sampleNames.size(); i++) {
+            assertSameGenotype(fromGenotypes.getGenotype(i), vc.getGenotype(i));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDecodeUnknownAllele() {
+        final List<String> sampleNames = new ArrayList<>();
+        GenotypeColumns.decode(decodeVCFRecord("1\t100\t.\tA\tT\t.\t.\t.\tGT\t0/0\t0/2\t0/0\t0/0\t0/0\t0/0", sampleNames), sampleNames);
+    }
+}
@@ -589,4 +589,91 @@ public class GVCFWriterUnitTest extends BaseTest {
 
     }
 
+    @DataProvider
+    public Object[][] getReferenceConfidenceBlockSizes() {
+        return new Object[][]{{new int[]{1}}, {new int[]{3, 1, 4}}, {new int[]{100}}};
+    }
+
+    @Test(dataProvider = "getReferenceConfidenceBlockSizes")
+    public void testReferenceConfidenceBlocksAreEquivalentToSites(final int[] blockSizes) {
+        // hom-ref sites (GQ, DP) around a deletion that covers the first sites after it, then a contig change.
+        final List<VariantContext> sites = new ArrayList<>();
+        final int[] gqs = {0, 5, 5, 15, 15, 15, 30, 30, 2, 2, 25, 99, 120, 45, 45, 3};
+        for (int i = 0; i < gqs.length; i++) {
+            sites.add(makeHomRefSite(CHR1, i + 1, gqs[i], i % 7));
+        }
+        sites.add(8, makeDeletion(8, 4));
+        for (int pos = 1; pos <= 5; pos++) {
+            sites.add(makeHomRefSite(CHR2, pos, 20 * pos, 40 - pos));
+        }
+
+        final MockWriter expectedWriter = new MockWriter();
+        try (final GVCFWriter writer = new GVCFWriter(expectedWriter, standardPartition, HomoSapiensConstants.DEFAULT_PLOIDY)) {
+            sites.forEach(writer::add);
+        }
+
+        final MockWriter actualWriter = new MockWriter();
+        try (final GVCFWriter writer = new GVCFWriter(actualWriter, standardPartition, HomoSapiensConstants.DEFAULT_PLOIDY)) {
+            ReferenceConfidenceBlock.Builder block = null;
+            String blockContig = null;
+            int blockNumber = 0;
+            for (final VariantContext site : sites) {
+                final boolean homRefSite = site.getGenotype(0).isHomRef();
+                if (block != null && (!homRefSite || !site.getContig().equals(blockContig)
+                        || block.size() == blockSizes[blockNumber % blockSizes.length])) {
+                    writer.add(block.make());
+                    block = null;
+                    blockNumber++;
+                }
+                if (!homRefSite) {
+                    writer.add(site);
+                    continue;
+                }
+                if (block == null) {
+                    block = new ReferenceConfidenceBlock.Builder("test", site.getContig(), site.getStart(), SAMPLE_NAME, HomoSapiensConstants.DEFAULT_PLOIDY);
+                    blockContig = site.getContig();
+                }
+                final Genotype g = site.getGenotype(0);
+                block.add(site.getReference().getBases()[0], g.getGQ(), g.getDP(), g.getPL());
+            }
+            writer.add(block.make());
+        }
+
+        Assert.assertEquals(actualWriter.emitted.size(), expectedWriter.emitted.size());
+        for (int i = 0; i < expectedWriter.emitted.size(); i++) {
+            Assert.assertEquals(actualWriter.emitted.get(i).toStringDecodeGenotypes(), expectedWriter.emitted.get(i).toStringDecodeGenotypes());
+        }
+    }
+
+    @Test
+    public void testReferenceConfidenceBlockIsMergedAsAWhole() {
+        final ReferenceConfidenceBlock block = new ReferenceConfidenceBlock.Builder("test", CHR1, 10, SAMPLE_NAME, HomoSapiensConstants.DEFAULT_PLOIDY)
+                .add((byte) 'G', 30, 10, new int[]{0, 30, 300})
+                .add((byte) 'T', 35, 20, new int[]{0, 45, 200})
+                .add((byte) 'A', 25, 15, new int[]{0, 25, 400})
+                .make();
+        Assert.assertEquals(block.getSiteCount(), 3);
+        Assert.assertEquals(block.getEnd(), 12);
+        Assert.assertEquals(block.getMinGQ(), 25);
+        Assert.assertEquals(block.getMaxGQ(), 35);
+        Assert.assertEquals(block.getMinPLs(), new int[]{0, 25, 200});
+        Assert.assertEquals(block.getSitePLs(1), new int[]{0, 45, 200});
+
+        final MockWriter mockWriter = new MockWriter();
+        try (final GVCFWriter writer = new GVCFWriter(mockWriter, Arrays.asList(20, 40), HomoSapiensConstants.DEFAULT_PLOIDY)) {
+            writer.add(block);
+        }
+        Assert.assertEquals(mockWriter.emitted.size(), 1);
+        final VariantContext vc = mockWriter.emitted.get(0);
+        assertGoodVC(vc, CHR1, 10, 12, false);
+        Assert.assertEquals(vc.getGenotype(0).getPL(), new int[]{0, 25, 200});
+        Assert.assertEquals(vc.getGenotype(0).getDP(), 15);
+        Assert.assertEquals(vc.getGenotype(0).getExtendedAttribute(GATKVCFConstants.MIN_DP_FORMAT_KEY), 10);
+    }
+
+    private static VariantContext makeHomRefSite(final String contig, final int start, final int gq, final int dp) {
+        final VariantContextBuilder vcb = new VariantContextBuilder("test", contig, start, start, ALLELES);
+        final GenotypeBuilder gb = new GenotypeBuilder(SAMPLE_NAME, Arrays.asList(REF, REF)).GQ(gq).DP(dp).PL(new int[]{0, gq, 20 + gq});
+        return vcb.genotypes(gb.make()).id(VCFConstants.EMPTY_ID_FIELD).make();
+    }
 }